@@ -17,10 +17,15 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-security")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-validation")
+    // readiness/liveness probe (/actuator/health/readiness) + prometheus 노출
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("com.github.ulisesbocchio:jasypt-spring-boot-starter:3.0.5")
     implementation("io.micrometer:micrometer-tracing-bridge-brave")
     implementation("io.zipkin.reporter2:zipkin-reporter-brave")
     implementation("io.micrometer:micrometer-registry-prometheus")
+    // 내부 소비자용 바이너리 응답 (Accept: application/cbor, application/x-jackson-smile)
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile")
     // 로컬 실행(H2)용
     runtimeOnly("com.h2database:h2")
     // 개발 편의
@@ -33,3 +38,62 @@ dependencies {
 }
 
 tasks.withType<Test> { useJUnitPlatform() }
+
+// ---------------------------------------------------------------------------
+// 빠른 기동(fast-startup) 빌드 옵션
+//   ./gradlew bootJar -Pfaststart      : Spring AOT 처리된 jar (실행 시 -Dspring.aot.enabled=true)
+//   ./gradlew cdsArchive -Pfaststart   : jar 추출 + 학습 실행으로 CDS 아카이브(build/cds/app.jsa) 생성
+//   ./gradlew startupBenchmark -Pfaststart : 로컬 업스트림 대역으로 첫 성공 요청까지 시간 비교 (기본 vs AOT+CDS+lazy)
+//                                            결과 행은 build/reports/startup-benchmark.md, 기록 위치는 docs/startup-benchmark.md
+// 실행: java -XX:SharedArchiveFile=build/cds/app.jsa -Dspring.aot.enabled=true \
+//         -jar build/cds/app/bp-statistics-0.0.1-SNAPSHOT.jar --spring.profiles.active=faststart
+// ---------------------------------------------------------------------------
+val fastStart = providers.gradleProperty("faststart").isPresent
+if (fastStart) {
+    apply(plugin = "org.springframework.boot.aot")
+}
+
+val cdsDir = layout.buildDirectory.dir("cds")
+val bootJarFile = tasks.named<org.springframework.boot.gradle.tasks.bundling.BootJar>("bootJar").flatMap { it.archiveFile }
+val javaBin = providers.gradleProperty("cdsJava").orElse(System.getProperty("java.home") + "/bin/java")
+
+val cdsExtract by tasks.registering(Exec::class) {
+    group = "faststart"
+    description = "bootJar 를 CDS 친화적 구조(jar + lib/)로 추출"
+    dependsOn("bootJar")
+    doFirst {
+        delete(cdsDir.get().dir("app"))
+        commandLine(javaBin.get(), "-Djarmode=tools", "-jar", bootJarFile.get().asFile.absolutePath,
+            "extract", "--destination", cdsDir.get().dir("app").asFile.absolutePath)
+    }
+}
+
+val cdsArchive by tasks.registering(Exec::class) {
+    group = "faststart"
+    description = "학습 실행(컨텍스트 refresh 후 종료)으로 CDS 아카이브 생성"
+    dependsOn(cdsExtract)
+    doFirst {
+        val args = mutableListOf(javaBin.get(),
+            "-XX:ArchiveClassesAtExit=" + cdsDir.get().file("app.jsa").asFile.absolutePath,
+            "-Dspring.context.exit=onRefresh")
+        if (fastStart) args += "-Dspring.aot.enabled=true"
+        args += listOf("-jar", cdsDir.get().dir("app").file(bootJarFile.get().asFile.name).asFile.absolutePath,
+            "--spring.profiles.active=faststart",
+            "--app.journal.dir=" + cdsDir.get().dir("journal-training").asFile.absolutePath)
+        commandLine(args)
+    }
+}
+
+tasks.register<Exec>("startupBenchmark") {
+    group = "faststart"
+    description = "첫 성공 요청까지 시간(time-to-first-successful-request) 비교 벤치마크"
+    dependsOn(cdsArchive)
+    doFirst {
+        environment("JAVA_BIN", javaBin.get())
+        environment("APP_JAR", bootJarFile.get().asFile.absolutePath)
+        environment("CDS_DIR", cdsDir.get().asFile.absolutePath)
+        environment("AOT", if (fastStart) "true" else "false")
+        environment("REPORT_FILE", layout.buildDirectory.file("reports/startup-benchmark.md").get().asFile.absolutePath)
+        commandLine("bash", "scripts/startup-benchmark.sh")
+    }
+}
@@ -0,0 +1,67 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * 기동 벤치마크용 BrightPattern statsapi 대역 (JDK 내장 HttpServer, 의존성 없음)
+ * 실행: java scripts/UpstreamStandIn.java [port] [rows]
+ * - POST /configapi/v2/oauth/token   -> access_token / expires_in (external.oauth.base-url 을 대역으로 지정)
+ * - POST /statsapi/auth              -> session_id / expires_in
+ * - POST /statsapi/subscription      -> subscriptionId
+ * - GET  /statsapi/subscription/data -> agent_grids 1개, rows 건
+ */
+public class UpstreamStandIn {
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 18089;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        byte[] data = dataPayload(rows);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 128);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.createContext("/configapi/v2/oauth/token", ex -> reply(ex,
+                "{\"access_token\":\"standin-token\",\"token_type\":\"Bearer\",\"expires_in\":3600}"
+                        .getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/statsapi/auth", ex -> reply(ex, "{\"session_id\":\"standin-session\",\"expires_in\":3600}"
+                .getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/statsapi/subscription", ex -> {
+            if (ex.getRequestURI().getPath().endsWith("/data")) {
+                reply(ex, data);
+            } else {
+                reply(ex, "{\"subscriptionId\":\"standin-1\",\"status\":\"active\"}".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.start();
+        System.out.println("upstream stand-in listening on " + port + " rows=" + rows);
+    }
+
+    private static void reply(HttpExchange ex, byte[] body) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            in.readAllBytes();
+        }
+        ex.getResponseHeaders().set("Content-Type", "application/json");
+        ex.sendResponseHeaders(200, body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] dataPayload(int rows) {
+        String[] states = {"Ready", "Not Ready", "Busy", "After Call Work"};
+        StringBuilder sb = new StringBuilder("{\"1\":{\"agent_grids\":[{\"id\":\"1\",\"rows\":[");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"1\":\"agent").append(i)
+              .append("\",\"2\":\"").append(states[i % states.length])
+              .append("\",\"3\":\"team").append(i % 5)
+              .append("\",\"4\":\"00:0").append(i % 10).append(":").append(10 + i % 50)
+              .append("\",\"5\":").append(i % 17).append('}');
+        }
+        return sb.append("]}]}}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
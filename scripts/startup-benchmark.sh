@@ -0,0 +1,111 @@
+#!/usr/bin/env bash
+# 기동 벤치마크: 프로세스 시작 -> 첫 성공 요청(GET /api/brightpattern/subscriptions/data) 까지 시간(ms)
+# 로컬 업스트림 대역(UpstreamStandIn)을 사용하므로 외부 네트워크 없이 실행됩니다.
+#   baseline : java -jar app.jar
+#   faststart: CDS 아카이브 + (AOT 빌드 시) spring.aot.enabled + faststart(lazy-init) 프로필
+# 보통 ./gradlew startupBenchmark -Pfaststart 로 실행 (JAVA_BIN / APP_JAR / CDS_DIR / AOT 를 Gradle 이 지정)
+set -euo pipefail
+
+JAVA_BIN=${JAVA_BIN:-java}
+APP_JAR=${APP_JAR:-build/libs/bp-statistics-0.0.1-SNAPSHOT.jar}
+CDS_DIR=${CDS_DIR:-build/cds}
+AOT=${AOT:-false}
+RUNS=${RUNS:-5}
+APP_PORT=${APP_PORT:-18080}
+STANDIN_PORT=${STANDIN_PORT:-18089}
+WORK_DIR=${WORK_DIR:-build/bench}
+REPORT_FILE=${REPORT_FILE:-build/reports/startup-benchmark.md}   # 실행마다 결과 표 1행 추가
+START_TIMEOUT_SECONDS=${START_TIMEOUT_SECONDS:-120}   # 1회 기동 대기 상한 (초과 시 실패 처리)
+
+# 상태 / 저널 / spill 은 모두 WORK_DIR 아래에서만 읽고 씀 (저장소의 data/ 를 건드리지 않음)
+mkdir -p "$WORK_DIR"
+"$JAVA_BIN" scripts/UpstreamStandIn.java "$STANDIN_PORT" 200 > "$WORK_DIR/standin.log" 2>&1 &
+STANDIN_PID=$!
+trap 'kill $STANDIN_PID 2>/dev/null || true' EXIT
+# 변경 전: until curl ...; do sleep 0.1; done - 대역이 뜨지 않으면 무한 대기
+for ((i = 0; ; i++)); do
+  curl -fs -o /dev/null -X POST "http://127.0.0.1:$STANDIN_PORT/statsapi/auth" && break
+  if (( i >= 300 )); then
+    echo "업스트림 대역 기동 실패 - $WORK_DIR/standin.log 확인" >&2
+    exit 1
+  fi
+  sleep 0.1
+done
+
+UPSTREAM="http://127.0.0.1:$STANDIN_PORT/statsapi"
+# 변경 전: OAuth / 상태 파일 / spill 경로가 기본값(외부 호스트, data/...) 그대로 -> 외부 네트워크 의존 + 이전 상태 재사용
+APP_ARGS=(--server.port="$APP_PORT"
+          --external.oauth.base-url="http://127.0.0.1:$STANDIN_PORT"
+          --brightpattern.auth.url="$UPSTREAM/auth"
+          --brightpattern.subscription.base-url="$UPSTREAM/subscription"
+          --app.journal.dir="$WORK_DIR/journal"
+          --app.warmup.subscription-state-file="$WORK_DIR/state/active-subscriptions.json"
+          --app.warm-state.file="$WORK_DIR/state/warm-state.enc"
+          --app.audit.spill-dir="$WORK_DIR/audit-spill"
+          --app.http.wiretap=false
+          --logging.level.root=WARN)
+
+# 첫 성공 응답까지 ms 출력 (START_TIMEOUT_SECONDS 초과 시 프로세스 종료 후 실패)
+measure() {
+  local start end pid deadline
+  # 매 실행마다 상태 디렉터리를 비워 warm restart 가 아닌 콜드 기동을 측정
+  rm -rf "$WORK_DIR/state" "$WORK_DIR/journal" "$WORK_DIR/audit-spill"
+  start=$(date +%s%N)
+  deadline=$(( start + START_TIMEOUT_SECONDS * 1000000000 ))
+  "$@" "${APP_ARGS[@]}" > "$WORK_DIR/app.log" 2>&1 &
+  pid=$!
+  until curl -fs -m 2 -o /dev/null "http://127.0.0.1:$APP_PORT/api/brightpattern/subscriptions/data"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "애플리케이션 종료됨 - $WORK_DIR/app.log 확인" >&2
+      exit 1
+    fi
+    if (( $(date +%s%N) > deadline )); then
+      kill "$pid" 2>/dev/null || true
+      wait "$pid" 2>/dev/null || true
+      echo "${START_TIMEOUT_SECONDS}s 내 첫 성공 응답 없음 - $WORK_DIR/app.log 확인" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+  end=$(date +%s%N)
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo $(( (end - start) / 1000000 ))
+}
+
+median() { sort -n | awk '{a[NR]=$1} END {print (NR % 2) ? a[(NR+1)/2] : int((a[NR/2] + a[NR/2+1]) / 2)}'; }
+
+run_mode() {
+  local name=$1; shift
+  local results=()
+  for ((i = 1; i <= RUNS; i++)); do
+    results+=("$(measure "$@")")
+  done
+  local med
+  med=$(printf '%s\n' "${results[@]}" | median)
+  printf '%-10s runs=%s median=%sms samples=[%s]\n' "$name" "$RUNS" "$med" "${results[*]}" >&2
+  echo "$med"
+}
+
+FAST_CMD=("$JAVA_BIN")
+if [[ -f "$CDS_DIR/app.jsa" ]]; then FAST_CMD+=("-XX:SharedArchiveFile=$CDS_DIR/app.jsa"); fi
+if [[ "$AOT" == "true" ]]; then FAST_CMD+=("-Dspring.aot.enabled=true"); fi
+FAST_JAR="$CDS_DIR/app/$(basename "$APP_JAR")"
+[[ -f "$FAST_JAR" ]] || FAST_JAR="$APP_JAR"
+FAST_CMD+=(-jar "$FAST_JAR" --spring.profiles.active=faststart)
+
+BASE=$(run_mode baseline "$JAVA_BIN" -jar "$APP_JAR")
+FAST=$(run_mode faststart "${FAST_CMD[@]}")
+CDS=$([[ -f $CDS_DIR/app.jsa ]] && echo on || echo off)
+IMPROVEMENT=n/a
+if (( BASE > 0 )); then IMPROVEMENT="$(( (BASE - FAST) * 100 / BASE ))%"; fi
+echo "time-to-first-successful-request: baseline=${BASE}ms faststart=${FAST}ms (cds=$CDS, aot=$AOT)"
+echo "improvement: $IMPROVEMENT"
+
+# docs/startup-benchmark.md 결과 표에 그대로 옮길 수 있는 한 줄 (측정 환경 포함)
+mkdir -p "$(dirname "$REPORT_FILE")"
+JAVA_VERSION=$("$JAVA_BIN" -version 2>&1 | head -1 || true)
+printf '| %s | %s | %s | %s | %s | %s | %sms | %sms | %s |\n' \
+  "$(date -u +%Y-%m-%d)" "$(git rev-parse --short HEAD 2>/dev/null || echo -)" "$JAVA_VERSION" "$(nproc 2>/dev/null || echo -)" \
+  "$RUNS" "cds=$CDS aot=$AOT" "$BASE" "$FAST" "$IMPROVEMENT" | tee -a "$REPORT_FILE"
+echo "결과 기록: $REPORT_FILE" >&2
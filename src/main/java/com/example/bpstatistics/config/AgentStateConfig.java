@@ -0,0 +1,46 @@
+package com.example.bpstatistics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 상담원 상태 체류시간 추적 설정 (일 단위 누적, zone 기준 자정에 초기화)
+ */
+@Configuration
+@EnableConfigurationProperties(AgentStateConfig.AgentStateProps.class)
+public class AgentStateConfig {
+
+    @ConfigurationProperties(prefix = "app.agent-state")
+    public static class AgentStateProps {
+        private boolean enabled = true;
+        private String stateStat = "agent_state";          // 상태 컬럼 statName (또는 column id)
+        private String timeInStateStat = "time_in_state";  // 있으면 상태 시작 시각 보정에 사용
+        private String zone = "Asia/Seoul";                // 일 경계 기준
+        private int maxAgents = 50_000;                    // 초과분은 추적하지 않음 (메모리 상한)
+        private int maxStates = 64;                        // 초과 상태명은 "(other)" 로 합산
+        // adherence = 생산 상태 시간 / 로그인 시간 (스케줄 연동 전 근사치)
+        private List<String> productiveStates = new ArrayList<>(List.of("Ready", "Busy", "After Call Work"));
+        // 로그인 시간에서 제외할 상태
+        private List<String> offlineStates = new ArrayList<>(List.of("Logged Out", "Logged off"));
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getStateStat() { return stateStat; }
+        public void setStateStat(String stateStat) { this.stateStat = stateStat; }
+        public String getTimeInStateStat() { return timeInStateStat; }
+        public void setTimeInStateStat(String timeInStateStat) { this.timeInStateStat = timeInStateStat; }
+        public String getZone() { return zone; }
+        public void setZone(String zone) { this.zone = zone; }
+        public int getMaxAgents() { return maxAgents; }
+        public void setMaxAgents(int maxAgents) { this.maxAgents = maxAgents; }
+        public int getMaxStates() { return maxStates; }
+        public void setMaxStates(int maxStates) { this.maxStates = maxStates; }
+        public List<String> getProductiveStates() { return productiveStates; }
+        public void setProductiveStates(List<String> productiveStates) { this.productiveStates = productiveStates; }
+        public List<String> getOfflineStates() { return offlineStates; }
+        public void setOfflineStates(List<String> offlineStates) { this.offlineStates = offlineStates; }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.bpstatistics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 감사 로그 설정: 요청 스레드는 메모리 ring 에 넣기만 하고, 별도 스레드가 묶어서 bp_audit_event 에 적재
+ * DB 가 느리거나 실패하면 spill-dir 에 JSON lines 파일로 내려두고 회복 후 재적재합니다.
+ */
+@Configuration
+@EnableConfigurationProperties(AuditConfig.AuditProps.class)
+public class AuditConfig {
+
+    @ConfigurationProperties(prefix = "app.audit")
+    public static class AuditProps {
+        private boolean enabled = true;
+        private int ringCapacity = 65_536;          // 2의 거듭제곱으로 올림. 가득 차면 신규 이벤트 유실(집계)
+        private int batchSize = 500;                // DB 1회 적재 건수
+        private long flushIntervalMs = 200;         // ring -> 배치 전환 주기
+        private int maxPendingBatches = 8;          // DB 적재 대기 배치 수. 초과분은 바로 spill
+        private long slowWriteMs = 2_000;           // 배치 적재가 이보다 오래 걸리면 backoff 동안 spill 로 우회
+        private long retryBackoffMs = 10_000;       // DB 실패/지연 후 다시 DB 를 시도하기까지 대기
+        private String spillDir = "data/audit-spill";
+        private long maxSpillMb = 256;              // spill 파일 총량 상한. 초과분 배치 유실(집계)
+        private String actorHeader = "X-Audit-User"; // 행위자는 항상 원격 IP, 이 헤더 값은 claimed_actor 로 함께 기록 (검증 안 됨)
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getRingCapacity() { return ringCapacity; }
+        public void setRingCapacity(int ringCapacity) { this.ringCapacity = ringCapacity; }
+        public int getBatchSize() { return batchSize; }
+        public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+        public long getFlushIntervalMs() { return flushIntervalMs; }
+        public void setFlushIntervalMs(long flushIntervalMs) { this.flushIntervalMs = flushIntervalMs; }
+        public int getMaxPendingBatches() { return maxPendingBatches; }
+        public void setMaxPendingBatches(int maxPendingBatches) { this.maxPendingBatches = maxPendingBatches; }
+        public long getSlowWriteMs() { return slowWriteMs; }
+        public void setSlowWriteMs(long slowWriteMs) { this.slowWriteMs = slowWriteMs; }
+        public long getRetryBackoffMs() { return retryBackoffMs; }
+        public void setRetryBackoffMs(long retryBackoffMs) { this.retryBackoffMs = retryBackoffMs; }
+        public String getSpillDir() { return spillDir; }
+        public void setSpillDir(String spillDir) { this.spillDir = spillDir; }
+        public long getMaxSpillMb() { return maxSpillMb; }
+        public void setMaxSpillMb(long maxSpillMb) { this.maxSpillMb = maxSpillMb; }
+        public String getActorHeader() { return actorHeader; }
+        public void setActorHeader(String actorHeader) { this.actorHeader = actorHeader; }
+    }
+}
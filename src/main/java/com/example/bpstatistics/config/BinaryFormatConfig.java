@@ -0,0 +1,32 @@
+package com.example.bpstatistics.config;
+
+import com.example.bpstatistics.service.codec.BinaryFormats;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * CBOR / Smile 응답 메시지 컨버터
+ * Spring MVC 기본 컨버터는 classpath 감지 시 별도 ObjectMapper 를 새로 만들기 때문에,
+ * 애플리케이션 ObjectMapper 설정을 복사한 BinaryFormats 의 공유 매퍼로 교체합니다.
+ */
+@Configuration
+public class BinaryFormatConfig implements WebMvcConfigurer {
+    private final BinaryFormats binaryFormats;
+
+    public BinaryFormatConfig(BinaryFormats binaryFormats) {
+        this.binaryFormats = binaryFormats;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(c -> c instanceof MappingJackson2CborHttpMessageConverter
+                || c instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(binaryFormats.cborMapper()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(binaryFormats.smileMapper()));
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.bpstatistics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 다중 인스턴스(클러스터) 모드 설정: DB lease 기반 리더 선출
+ * 리더 1대만 업스트림 인증/폴링을 수행하고, 나머지는 공유 테이블(bp_shared_snapshot)에서 조회합니다.
+ */
+@Configuration
+@EnableConfigurationProperties(ClusterConfig.ClusterProps.class)
+public class ClusterConfig {
+
+    @ConfigurationProperties(prefix = "app.cluster")
+    public static class ClusterProps {
+        private boolean enabled = false;
+        private String nodeId = "";                 // 비어있으면 hostname-pid
+        private String leaseName = "bp-statistics"; // lease 단위 (테넌트별로 지정 권장)
+        private long leaseTtlMs = 10_000;           // 리더 장애 시 인계까지 최대 시간 (+ heartbeat)
+        private long heartbeatMs = 2_000;           // lease 갱신/획득 시도 주기
+        private long pollIntervalMs = 1_000;        // 리더 백그라운드 getData() 주기
+        private long demandWindowMs = 30_000;       // 마지막 조회 요청 후 이 시간 동안만 백그라운드 폴링
+        private long followerCacheMs = 500;         // 팔로워 공유 스냅샷 재조회 최소 간격
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getNodeId() { return nodeId; }
+        public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+        public String getLeaseName() { return leaseName; }
+        public void setLeaseName(String leaseName) { this.leaseName = leaseName; }
+        public long getLeaseTtlMs() { return leaseTtlMs; }
+        public void setLeaseTtlMs(long leaseTtlMs) { this.leaseTtlMs = leaseTtlMs; }
+        public long getHeartbeatMs() { return heartbeatMs; }
+        public void setHeartbeatMs(long heartbeatMs) { this.heartbeatMs = heartbeatMs; }
+        public long getPollIntervalMs() { return pollIntervalMs; }
+        public void setPollIntervalMs(long pollIntervalMs) { this.pollIntervalMs = pollIntervalMs; }
+        public long getDemandWindowMs() { return demandWindowMs; }
+        public void setDemandWindowMs(long demandWindowMs) { this.demandWindowMs = demandWindowMs; }
+        public long getFollowerCacheMs() { return followerCacheMs; }
+        public void setFollowerCacheMs(long followerCacheMs) { this.followerCacheMs = followerCacheMs; }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.bpstatistics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 인바운드 요청 deadline 설정
+ * 요청 헤더(ms) 또는 경로별 기본값으로 deadline 을 정하고, 재인증 / 재시도 / 업스트림 호출은 남은 예산만 사용합니다.
+ */
+@Configuration
+@EnableConfigurationProperties(DeadlineConfig.DeadlineProps.class)
+public class DeadlineConfig {
+
+    @ConfigurationProperties(prefix = "app.deadline")
+    public static class DeadlineProps {
+        private boolean enabled = true;
+        private String header = "X-Request-Timeout";   // 호출자 타임아웃(ms), 없으면 경로별 기본값
+        private long defaultTimeoutMs = 15_000;
+        private long maxTimeoutMs = 60_000;             // 헤더 값 상한
+        // 경로(Ant 패턴)별 기본 deadline, 먼저 일치한 항목 사용
+        private Map<String, Long> routes = new LinkedHashMap<>(Map.of(
+                "/api/brightpattern/subscriptions/data", 10_000L));
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getHeader() { return header; }
+        public void setHeader(String header) { this.header = header; }
+        public long getDefaultTimeoutMs() { return defaultTimeoutMs; }
+        public void setDefaultTimeoutMs(long defaultTimeoutMs) { this.defaultTimeoutMs = defaultTimeoutMs; }
+        public long getMaxTimeoutMs() { return maxTimeoutMs; }
+        public void setMaxTimeoutMs(long maxTimeoutMs) { this.maxTimeoutMs = maxTimeoutMs; }
+        public Map<String, Long> getRoutes() { return routes; }
+        public void setRoutes(Map<String, Long> routes) { this.routes = routes; }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.bpstatistics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 파생 지표 설정: grid 별 식 목록 (정의 순서대로 평가, 앞 지표를 뒤 지표에서 참조 가능)
+ */
+@Configuration
+@EnableConfigurationProperties(DerivedMetricConfig.DerivedMetricProps.class)
+public class DerivedMetricConfig {
+
+    @ConfigurationProperties(prefix = "app.derived-metrics")
+    public static class DerivedMetricProps {
+        private boolean enabled = true;
+        private String teamStat = "team_name";      // team 지표 그룹 컬럼 (statName 또는 column id)
+        private int maxPerGrid = 64;
+        private Map<String, List<MetricProps>> grids = new LinkedHashMap<>(); // gridId -> 지표 목록
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getTeamStat() { return teamStat; }
+        public void setTeamStat(String teamStat) { this.teamStat = teamStat; }
+        public int getMaxPerGrid() { return maxPerGrid; }
+        public void setMaxPerGrid(int maxPerGrid) { this.maxPerGrid = maxPerGrid; }
+        public Map<String, List<MetricProps>> getGrids() { return grids; }
+        public void setGrids(Map<String, List<MetricProps>> grids) { this.grids = grids; }
+    }
+
+    public static class MetricProps {
+        private String name;
+        private String expression;
+        private String scope = "row";               // row: 상담원 행별, team: 팀 합계에 대해 계산
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public String getExpression() { return expression; }
+        public void setExpression(String expression) { this.expression = expression; }
+        public String getScope() { return scope; }
+        public void setScope(String scope) { this.scope = scope; }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.bpstatistics.config;
+
+import com.example.bpstatistics.service.diag.StageLatency;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 단계별 지연 측정(bp.stage 관측) 설정
+ * 관측 1건 = Brave span 1개 + Timer(bp.stage, stage/call/error 태그) 기록. 분위수는 최근 windowSeconds 구간 기준입니다.
+ */
+@Configuration
+@EnableConfigurationProperties(DiagnosticsConfig.DiagnosticsProps.class)
+public class DiagnosticsConfig {
+
+    /** bp.stage Timer 에 클라이언트 측 분위수(p50/p99) + 회전 윈도우 적용 */
+    @Bean
+    public MeterFilter stageLatencyMeterFilter(DiagnosticsProps props) {
+        double[] percentiles = props.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray();
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!StageLatency.OBSERVATION.equals(id.getName())) return config;
+                return DistributionStatisticConfig.builder()
+                        .percentiles(percentiles)
+                        .expiry(Duration.ofSeconds(Math.max(1, props.getWindowSeconds())))
+                        .bufferLength(Math.max(1, props.getBufferLength()))
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+
+    @ConfigurationProperties(prefix = "app.diagnostics")
+    public static class DiagnosticsProps {
+        private boolean enabled = true;
+        private int windowSeconds = 300;        // 분위수 집계 구간 (bufferLength 개 버퍼가 순환)
+        private int bufferLength = 5;
+        private List<Double> percentiles = new ArrayList<>(List.of(0.5, 0.99));
+        // 응답 쓰기(직렬화+전송) 시간을 측정할 경로
+        private List<String> writeTimedPaths = new ArrayList<>(List.of("/api/brightpattern/subscriptions/data"));
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getWindowSeconds() { return windowSeconds; }
+        public void setWindowSeconds(int windowSeconds) { this.windowSeconds = windowSeconds; }
+        public int getBufferLength() { return bufferLength; }
+        public void setBufferLength(int bufferLength) { this.bufferLength = bufferLength; }
+        public List<Double> getPercentiles() { return percentiles; }
+        public void setPercentiles(List<Double> percentiles) { this.percentiles = percentiles; }
+        public List<String> getWriteTimedPaths() { return writeTimedPaths; }
+        public void setWriteTimedPaths(List<String> writeTimedPaths) { this.writeTimedPaths = writeTimedPaths; }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.bpstatistics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 스냅샷 이력 대량 내보내기 설정 (저널 커서 -> CSV / columnar NDJSON 스트리밍)
+ */
+@Configuration
+@EnableConfigurationProperties(ExportConfig.ExportProps.class)
+public class ExportConfig {
+
+    @ConfigurationProperties(prefix = "app.export")
+    public static class ExportProps {
+        private boolean enabled = true;
+        private int maxConcurrent = 2;            // 동시 내보내기 수 (초과 시 429, 디스크/CPU 보호)
+        private int bufferBytes = 64 * 1024;      // 출력 버퍼 / gzip 버퍼 크기
+        private int gzipLevel = 6;                // 1(빠름) ~ 9(작음)
+        private int flushEverySnapshots = 16;     // N 건마다 flush (청크 전송, 0 이하면 버퍼가 찰 때만)
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getMaxConcurrent() { return maxConcurrent; }
+        public void setMaxConcurrent(int maxConcurrent) { this.maxConcurrent = maxConcurrent; }
+        public int getBufferBytes() { return bufferBytes; }
+        public void setBufferBytes(int bufferBytes) { this.bufferBytes = bufferBytes; }
+        public int getGzipLevel() { return gzipLevel; }
+        public void setGzipLevel(int gzipLevel) { this.gzipLevel = gzipLevel; }
+        public int getFlushEverySnapshots() { return flushEverySnapshots; }
+        public void setFlushEverySnapshots(int flushEverySnapshots) { this.flushEverySnapshots = flushEverySnapshots; }
+    }
+}
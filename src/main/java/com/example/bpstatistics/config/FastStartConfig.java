@@ -0,0 +1,22 @@
+package com.example.bpstatistics.config;
+
+import com.example.bpstatistics.service.cluster.ClusterLeaseService;
+import com.example.bpstatistics.service.cluster.ClusterSnapshotService;
+import com.example.bpstatistics.service.journal.StatsJournal;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * faststart 프로필(spring.main.lazy-initialization=true)에서도 즉시 생성해야 하는 bean
+ * - ClusterLeaseService / ClusterSnapshotService: @PostConstruct 에서 heartbeat / 리더 폴링 시작
+ * - StatsJournal: 찢어진 꼬리 복구를 첫 요청이 아닌 기동 시점에 수행
+ */
+@Configuration
+public class FastStartConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerBackgroundBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(ClusterLeaseService.class, ClusterSnapshotService.class, StatsJournal.class);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.bpstatistics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 통계 이력 설정: 스냅샷을 시간 버킷(row = tenant, grid, bucket_start, agent) 단위로 요약해 bp_stat_history 에 적재
+ */
+@Configuration
+@EnableConfigurationProperties(HistoryConfig.HistoryProps.class)
+public class HistoryConfig {
+
+    @ConfigurationProperties(prefix = "app.history")
+    public static class HistoryProps {
+        private boolean enabled = true;
+        private String tenant = "default";          // 여러 테넌트가 같은 DB 를 쓸 때 구분값
+        private int bucketSeconds = 60;             // 적재 버킷 크기 (조회 시 배수로 재집계)
+        private String teamStat = "team_name";      // 팀 인덱스 컬럼으로 쓸 statName (또는 column id)
+        private int retentionDays = 35;
+        private int writeBatchSize = 500;
+        private int defaultPageSize = 1000;
+        private int maxPageSize = 5000;
+        private int fetchSize = 500;                // JDBC 커서 fetch 크기 (페이지 전체를 메모리에 올리지 않음)
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getTenant() { return tenant; }
+        public void setTenant(String tenant) { this.tenant = tenant; }
+        public int getBucketSeconds() { return bucketSeconds; }
+        public void setBucketSeconds(int bucketSeconds) { this.bucketSeconds = bucketSeconds; }
+        public String getTeamStat() { return teamStat; }
+        public void setTeamStat(String teamStat) { this.teamStat = teamStat; }
+        public int getRetentionDays() { return retentionDays; }
+        public void setRetentionDays(int retentionDays) { this.retentionDays = retentionDays; }
+        public int getWriteBatchSize() { return writeBatchSize; }
+        public void setWriteBatchSize(int writeBatchSize) { this.writeBatchSize = writeBatchSize; }
+        public int getDefaultPageSize() { return defaultPageSize; }
+        public void setDefaultPageSize(int defaultPageSize) { this.defaultPageSize = defaultPageSize; }
+        public int getMaxPageSize() { return maxPageSize; }
+        public void setMaxPageSize(int maxPageSize) { this.maxPageSize = maxPageSize; }
+        public int getFetchSize() { return fetchSize; }
+        public void setFetchSize(int fetchSize) { this.fetchSize = fetchSize; }
+    }
+}
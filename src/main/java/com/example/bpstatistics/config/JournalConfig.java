@@ -0,0 +1,54 @@
+package com.example.bpstatistics.config;
+
+import com.example.bpstatistics.service.journal.StatsJournal;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 스냅샷 저널(mmap append-only) 설정
+ */
+@Configuration
+@EnableConfigurationProperties(JournalConfig.JournalProps.class)
+public class JournalConfig {
+
+    @Bean(destroyMethod = "close")
+    public StatsJournal statsJournal(JournalProps props) {
+        return new StatsJournal(props);
+    }
+
+    @ConfigurationProperties(prefix = "app.journal")
+    public static class JournalProps {
+        private boolean enabled = false;
+        private String dir = "data/journal";
+        private int segmentBytes = 64 * 1024 * 1024; // 세그먼트 최대 크기 (단일 레코드 상한)
+        private int segmentMinutes = 10;             // 시간 기준 롤링 주기
+        private int retentionHours = 24;             // 0 이하면 기간 기준 삭제 안 함
+        private long retentionMaxBytes = 2L * 1024 * 1024 * 1024; // 0 이하면 용량 기준 삭제 안 함
+        private int indexIntervalBytes = 64 * 1024;  // 희소 시간 인덱스 간격
+        private long flushIntervalMs = 1000;         // mmap force 주기 (0 이하면 OS 에 위임)
+        private boolean verifyChecksumOnRead = true;
+        private int writeQueueCapacity = 32;         // journal-writer 대기 레코드 수. 가득 차면 새 레코드 drop (집계)
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getDir() { return dir; }
+        public void setDir(String dir) { this.dir = dir; }
+        public int getSegmentBytes() { return segmentBytes; }
+        public void setSegmentBytes(int segmentBytes) { this.segmentBytes = segmentBytes; }
+        public int getSegmentMinutes() { return segmentMinutes; }
+        public void setSegmentMinutes(int segmentMinutes) { this.segmentMinutes = segmentMinutes; }
+        public int getRetentionHours() { return retentionHours; }
+        public void setRetentionHours(int retentionHours) { this.retentionHours = retentionHours; }
+        public long getRetentionMaxBytes() { return retentionMaxBytes; }
+        public void setRetentionMaxBytes(long retentionMaxBytes) { this.retentionMaxBytes = retentionMaxBytes; }
+        public int getIndexIntervalBytes() { return indexIntervalBytes; }
+        public void setIndexIntervalBytes(int indexIntervalBytes) { this.indexIntervalBytes = indexIntervalBytes; }
+        public long getFlushIntervalMs() { return flushIntervalMs; }
+        public void setFlushIntervalMs(long flushIntervalMs) { this.flushIntervalMs = flushIntervalMs; }
+        public boolean isVerifyChecksumOnRead() { return verifyChecksumOnRead; }
+        public void setVerifyChecksumOnRead(boolean verifyChecksumOnRead) { this.verifyChecksumOnRead = verifyChecksumOnRead; }
+        public int getWriteQueueCapacity() { return writeQueueCapacity; }
+        public void setWriteQueueCapacity(int writeQueueCapacity) { this.writeQueueCapacity = writeQueueCapacity; }
+    }
+}
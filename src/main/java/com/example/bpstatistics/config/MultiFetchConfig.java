@@ -0,0 +1,32 @@
+package com.example.bpstatistics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 다중 구독 병렬 데이터 조회 설정 (비활성 시 기존 단일 data URL 조회)
+ */
+@Configuration
+@EnableConfigurationProperties(MultiFetchConfig.MultiFetchProps.class)
+public class MultiFetchConfig {
+
+    @ConfigurationProperties(prefix = "app.multi-fetch")
+    public static class MultiFetchProps {
+        private boolean enabled = false;
+        private int concurrency = 32;                   // 동시에 조회하는 구독 수 상한
+        private long perSubscriptionTimeoutMs = 5_000;  // 구독별 deadline (재시도 포함)
+        private long cycleTimeoutMs = 12_000;           // 조회 주기 전체 deadline (남은 구독은 실패 처리)
+        private long maxStaleMs = 60_000;               // 실패 구독의 직전 성공 grid 를 이 시간까지 유지
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getConcurrency() { return concurrency; }
+        public void setConcurrency(int concurrency) { this.concurrency = concurrency; }
+        public long getPerSubscriptionTimeoutMs() { return perSubscriptionTimeoutMs; }
+        public void setPerSubscriptionTimeoutMs(long perSubscriptionTimeoutMs) { this.perSubscriptionTimeoutMs = perSubscriptionTimeoutMs; }
+        public long getCycleTimeoutMs() { return cycleTimeoutMs; }
+        public void setCycleTimeoutMs(long cycleTimeoutMs) { this.cycleTimeoutMs = cycleTimeoutMs; }
+        public long getMaxStaleMs() { return maxStaleMs; }
+        public void setMaxStaleMs(long maxStaleMs) { this.maxStaleMs = maxStaleMs; }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.bpstatistics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 분위수 스케치 설정: metric(statName) x 차원(팀/서비스) x 시간 버킷별 QuantileSketch
+ */
+@Configuration
+@EnableConfigurationProperties(PercentileConfig.PercentileProps.class)
+public class PercentileConfig {
+
+    @ConfigurationProperties(prefix = "app.percentiles")
+    public static class PercentileProps {
+        private boolean enabled = true;
+        // 분포를 볼 statName (또는 column id), 행별 마지막 관측값 대비 새 값(> 0)으로 바뀐 경우만 관측값으로 추가
+        private List<String> metrics = new ArrayList<>(List.of("handle_time", "wait_time", "after_call_work_time"));
+        private String teamStat = "team_name";
+        private String serviceStat = "service_name";
+        private int bucketMinutes = 60;
+        private int retentionHours = 48;
+        private double relativeAccuracy = 0.01;     // 분위수 상대오차 1%
+        private int maxBins = 2048;                 // 스케치 1개 최대 구간 수 (= 최대 8KB)
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public List<String> getMetrics() { return metrics; }
+        public void setMetrics(List<String> metrics) { this.metrics = metrics; }
+        public String getTeamStat() { return teamStat; }
+        public void setTeamStat(String teamStat) { this.teamStat = teamStat; }
+        public String getServiceStat() { return serviceStat; }
+        public void setServiceStat(String serviceStat) { this.serviceStat = serviceStat; }
+        public int getBucketMinutes() { return bucketMinutes; }
+        public void setBucketMinutes(int bucketMinutes) { this.bucketMinutes = bucketMinutes; }
+        public int getRetentionHours() { return retentionHours; }
+        public void setRetentionHours(int retentionHours) { this.retentionHours = retentionHours; }
+        public double getRelativeAccuracy() { return relativeAccuracy; }
+        public void setRelativeAccuracy(double relativeAccuracy) { this.relativeAccuracy = relativeAccuracy; }
+        public int getMaxBins() { return maxBins; }
+        public void setMaxBins(int maxBins) { this.maxBins = maxBins; }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.bpstatistics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 인바운드(클라이언트별) 요청 한도 + 아웃바운드(업스트림 endpoint 별) 호출 예산 설정
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitConfig.RateLimitProps.class)
+public class RateLimitConfig {
+
+    /** 초당 허용량 + 순간 허용량(burst) */
+    public static class Limit {
+        private double ratePerSecond;
+        private int burst;
+        public Limit() { }
+        public Limit(double ratePerSecond, int burst) {
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+        }
+        public double getRatePerSecond() { return ratePerSecond; }
+        public void setRatePerSecond(double ratePerSecond) { this.ratePerSecond = ratePerSecond; }
+        public int getBurst() { return burst; }
+        public void setBurst(int burst) { this.burst = burst; }
+    }
+
+    @ConfigurationProperties(prefix = "app.ratelimit")
+    public static class RateLimitProps {
+        private final Inbound inbound = new Inbound();
+        private final Outbound outbound = new Outbound();
+        public Inbound getInbound() { return inbound; }
+        public Outbound getOutbound() { return outbound; }
+    }
+
+    public static class Inbound {
+        private boolean enabled = true;
+        private String clientHeader = "X-API-Key";  // api-keys 에 등록된 값일 때만 키 기준, 그 외(없음/미등록)는 원격 IP 기준
+        // 등록된 API key -> 클라이언트 이름 (버킷/로그에는 이름만 사용). 비어 있으면 모든 요청이 IP 기준
+        private Map<String, String> apiKeys = new LinkedHashMap<>();
+        private boolean trustForwardedFor = false;  // LB 뒤에서만 true
+        // 분류별 버킷 수 상한: 초과 시 유휴 버킷 정리, 그래도 가득 차면 새 클라이언트는 공용 overflow 버킷을 함께 사용
+        private int maxClients = 10_000;
+        // 요청 분류별 클라이언트 한도: auth(POST /auth), write(구독 생성/삭제), read(그 외 /api/brightpattern/**)
+        private Map<String, Limit> limits = new LinkedHashMap<>(Map.of(
+                "auth", new Limit(0.2, 3),
+                "write", new Limit(1, 5),
+                "read", new Limit(20, 40)));
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getClientHeader() { return clientHeader; }
+        public void setClientHeader(String clientHeader) { this.clientHeader = clientHeader; }
+        public Map<String, String> getApiKeys() { return apiKeys; }
+        public void setApiKeys(Map<String, String> apiKeys) { this.apiKeys = apiKeys; }
+        public boolean isTrustForwardedFor() { return trustForwardedFor; }
+        public void setTrustForwardedFor(boolean trustForwardedFor) { this.trustForwardedFor = trustForwardedFor; }
+        public int getMaxClients() { return maxClients; }
+        public void setMaxClients(int maxClients) { this.maxClients = maxClients; }
+        public Map<String, Limit> getLimits() { return limits; }
+        public void setLimits(Map<String, Limit> limits) { this.limits = limits; }
+    }
+
+    public static class Outbound {
+        private boolean enabled = true;
+        private long maxQueueMs = 2_000;            // 이 시간 이내면 대기(선착순), 초과 시 429
+        // 업스트림 endpoint 별 전체 호출 예산 (노드 단위)
+        private Map<String, Limit> limits = new LinkedHashMap<>(Map.of(
+                "oauth-token", new Limit(0.5, 2),
+                "auth", new Limit(0.5, 2),
+                "subscription-create", new Limit(1, 3),
+                "subscription-delete", new Limit(1, 3),
+                "subscription-get", new Limit(5, 10),
+                "subscription-data", new Limit(5, 10)));
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public long getMaxQueueMs() { return maxQueueMs; }
+        public void setMaxQueueMs(long maxQueueMs) { this.maxQueueMs = maxQueueMs; }
+        public Map<String, Limit> getLimits() { return limits; }
+        public void setLimits(Map<String, Limit> limits) { this.limits = limits; }
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.bpstatistics.config;
 
+import com.example.bpstatistics.service.diag.StageLatency;
+import com.example.bpstatistics.service.http.AdaptiveConcurrencyLimiter;
+import com.example.bpstatistics.service.tuning.RuntimeTuning;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
@@ -29,7 +32,9 @@ public class ReactiveHttpClientConfig {
     @ConditionalOnMissingBean
     public ConnectionProvider connectionProvider(HttpProps props){
         return ConnectionProvider.builder("bp-fixed")
-                .maxConnections(props.getMaxConnections())
+                // 변경 전: .maxConnections(props.getMaxConnections())
+                // 변경 후: 실행 중 maxConnections 상향 여유분까지 풀 크기 확보 (실제 동시 호출 수는 RuntimeTuning + AdaptiveConcurrencyLimiter)
+                .maxConnections(props.getPoolSize())
                 .pendingAcquireTimeout(Duration.ofMillis(props.getPendingAcquireTimeoutMs()))
                 .maxIdleTime(Duration.ofSeconds(props.getMaxIdleTimeSeconds()))
                 .evictInBackground(Duration.ofSeconds(props.getEvictInBackgroundSeconds()))
@@ -37,16 +42,24 @@ public class ReactiveHttpClientConfig {
                 .build();
     }
 
+    // 변경 전: public HttpClient httpClient(ConnectionProvider provider, HttpProps props)
+    // 변경 후: read/write timeout 은 연결 생성 시점의 RuntimeTuning 값 (responseTimeout 은 요청별 필터에서 덮어씀)
     @Bean
     @ConditionalOnMissingBean
-    public HttpClient httpClient(ConnectionProvider provider, HttpProps props){
+    public HttpClient httpClient(ConnectionProvider provider, HttpProps props, RuntimeTuning tuning){
         HttpClient base = HttpClient.create(provider)
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, props.getConnectTimeoutMs())
                 .responseTimeout(Duration.ofSeconds(props.getResponseTimeoutSeconds()))
-                .doOnConnected(conn -> conn.addHandlerLast(new ReadTimeoutHandler(props.getReadTimeoutSeconds()))
-                        .addHandlerLast(new WriteTimeoutHandler(props.getWriteTimeoutSeconds())))
+                .doOnConnected(conn -> {
+                    RuntimeTuning.Http http = tuning.settings().http();
+                    conn.addHandlerLast(new ReadTimeoutHandler(http.readTimeoutSeconds()))
+                            .addHandlerLast(new WriteTimeoutHandler(http.writeTimeoutSeconds()));
+                })
                 .compress(true)
                 .keepAlive(true)
+                // 단계별 지연: 연결 확보 후 요청 전송 / 응답 헤더 수신 시점 (StageLatency.Exchange 가 Context 에 있을 때만)
+                .doOnRequest((req, conn) -> StageLatency.onRequestSent(req.currentContextView()))
+                .doOnResponse((res, conn) -> StageLatency.onResponseHeaders(res.currentContextView()))
                 .observe((ConnectionObserver) (connection, newState) -> {
                     if(newState == ConnectionObserver.State.RELEASED){
                         // verbose: log.debug("Connection released: {}", connection);
@@ -58,10 +71,18 @@ public class ReactiveHttpClientConfig {
         return base;
     }
 
+    // 변경 전: public WebClient.Builder webClientBuilder(HttpClient httpClient)
+    // 변경 전: public WebClient.Builder webClientBuilder(HttpClient httpClient, StageLatency stageLatency)
+    // 변경 전: (HttpClient httpClient, StageLatency stageLatency, AdaptiveConcurrencyLimiter concurrencyLimiter)
+    // 필터 순서: 단계 측정(바깥) -> 적응형 동시성 허가 -> 요청별 responseTimeout(RuntimeTuning) -> 호출 (허가 대기는 pool.acquire 단계에 포함)
     @Bean
-    public WebClient.Builder webClientBuilder(HttpClient httpClient){
+    public WebClient.Builder webClientBuilder(HttpClient httpClient, StageLatency stageLatency,
+                                              AdaptiveConcurrencyLimiter concurrencyLimiter, RuntimeTuning tuning){
         return WebClient.builder()
                 .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(stageLatency.exchangeFilter())
+                .filter(concurrencyLimiter.exchangeFilter())
+                .filter(tuning.responseTimeoutFilter())
                 .exchangeStrategies(ExchangeStrategies.builder()
                         .codecs(cfg -> cfg.defaultCodecs().maxInMemorySize(2 * 1024 * 1024))
                         .build());
@@ -71,6 +92,7 @@ public class ReactiveHttpClientConfig {
     public static class HttpProps {
         private boolean wiretap = false;
         private int maxConnections = 50;
+        private int maxConnectionsCeiling = 0;   // 실행 중 maxConnections 변경 상한 (0 = maxConnections), 풀 크기
         private long pendingAcquireTimeoutMs = 5000;
         private int maxIdleTimeSeconds = 30; // 서버 idle timeout 보다 작게
         private int evictInBackgroundSeconds = 30;
@@ -78,10 +100,16 @@ public class ReactiveHttpClientConfig {
         private int responseTimeoutSeconds = 20;
         private int readTimeoutSeconds = 25; // responseTimeout 보다 크게
         private int writeTimeoutSeconds = 10;
+        // 적응형 동시성: maxConnections 는 풀 상한, 실제 동시 호출 수는 AdaptiveConcurrencyLimiter 가 조절
+        private final Adaptive adaptive = new Adaptive();
+        public Adaptive getAdaptive() { return adaptive; }
         public boolean isWiretap() { return wiretap; }
         public void setWiretap(boolean wiretap) { this.wiretap = wiretap; }
         public int getMaxConnections() { return maxConnections; }
         public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+        public int getMaxConnectionsCeiling() { return maxConnectionsCeiling; }
+        public void setMaxConnectionsCeiling(int maxConnectionsCeiling) { this.maxConnectionsCeiling = maxConnectionsCeiling; }
+        public int getPoolSize() { return Math.max(maxConnections, maxConnectionsCeiling); }
         public long getPendingAcquireTimeoutMs() { return pendingAcquireTimeoutMs; }
         public void setPendingAcquireTimeoutMs(long pendingAcquireTimeoutMs) { this.pendingAcquireTimeoutMs = pendingAcquireTimeoutMs; }
         public int getMaxIdleTimeSeconds() { return maxIdleTimeSeconds; }
@@ -97,4 +125,37 @@ public class ReactiveHttpClientConfig {
         public int getWriteTimeoutSeconds() { return writeTimeoutSeconds; }
         public void setWriteTimeoutSeconds(int writeTimeoutSeconds) { this.writeTimeoutSeconds = writeTimeoutSeconds; }
     }
+
+    /**
+     * 적응형 동시성 한도 (gradient 방식): [minLimit, maxConnections] 범위에서 조절
+     */
+    public static class Adaptive {
+        private boolean enabled = true;
+        private int minLimit = 4;
+        private int initialLimit = 16;
+        private long adjustIntervalMs = 1000;
+        private int minSamples = 5;             // 구간 표본이 이보다 적으면 유휴 축소만 판단
+        private double smoothing = 0.2;         // 새 한도 반영 비율
+        private double rttTolerance = 1.5;      // 단기 RTT 가 장기 RTT 의 이 배수까지는 감소하지 않음
+        private double backoffRatio = 0.9;      // 오류(시간 초과/5xx/429) 구간의 최대 한도 비율
+        private int maxPending = 500;           // 대기 상한 (초과 시 즉시 실패)
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getMinLimit() { return minLimit; }
+        public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+        public int getInitialLimit() { return initialLimit; }
+        public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+        public long getAdjustIntervalMs() { return adjustIntervalMs; }
+        public void setAdjustIntervalMs(long adjustIntervalMs) { this.adjustIntervalMs = adjustIntervalMs; }
+        public int getMinSamples() { return minSamples; }
+        public void setMinSamples(int minSamples) { this.minSamples = minSamples; }
+        public double getSmoothing() { return smoothing; }
+        public void setSmoothing(double smoothing) { this.smoothing = smoothing; }
+        public double getRttTolerance() { return rttTolerance; }
+        public void setRttTolerance(double rttTolerance) { this.rttTolerance = rttTolerance; }
+        public double getBackoffRatio() { return backoffRatio; }
+        public void setBackoffRatio(double backoffRatio) { this.backoffRatio = backoffRatio; }
+        public int getMaxPending() { return maxPending; }
+        public void setMaxPending(int maxPending) { this.maxPending = maxPending; }
+    }
 }
@@ -0,0 +1,60 @@
+package com.example.bpstatistics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 구독 자동 갱신 / 유실 시 재구독 감독 설정
+ */
+@Configuration
+@EnableConfigurationProperties(SubscriptionSupervisorConfig.SupervisorProps.class)
+public class SubscriptionSupervisorConfig {
+
+    @ConfigurationProperties(prefix = "app.subscription-supervisor")
+    public static class SupervisorProps {
+        private boolean enabled = true;
+        private long tickMs = 2_000;                    // 만기 작업 확인 주기
+        private int renewAheadSeconds = 120;            // 만료 이 시간 전에 갱신
+        private int renewJitterSeconds = 60;            // 갱신 시각 분산 (0~jitter 만큼 앞당김)
+        private int defaultTtlSeconds = 1_800;          // 응답에 expiresAt 이 없을 때 가정하는 수명
+        private int verifyIntervalSeconds = 300;        // 주기적 상태 확인 (GET) 간격 (+-20% 분산)
+        private int missingSnapshotThreshold = 5;       // grid 가 연속 N 회 스냅샷에서 빠지면 상태 확인
+        private int dataFailureThreshold = 3;           // getData() 연속 실패 N 회면 전체 상태 확인
+        private double actionsPerSecond = 2;            // 갱신/확인 업스트림 호출 속도 상한
+        private int actionBurst = 4;
+        private int maxBackoffSeconds = 300;
+        private long actionTimeoutMs = 30_000;
+        // GET 응답 status 가 이 값이면 유실로 판단 (대소문자 무시)
+        private List<String> lostStatuses = new ArrayList<>(List.of("expired", "deleted", "inactive", "closed", "error"));
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public long getTickMs() { return tickMs; }
+        public void setTickMs(long tickMs) { this.tickMs = tickMs; }
+        public int getRenewAheadSeconds() { return renewAheadSeconds; }
+        public void setRenewAheadSeconds(int renewAheadSeconds) { this.renewAheadSeconds = renewAheadSeconds; }
+        public int getRenewJitterSeconds() { return renewJitterSeconds; }
+        public void setRenewJitterSeconds(int renewJitterSeconds) { this.renewJitterSeconds = renewJitterSeconds; }
+        public int getDefaultTtlSeconds() { return defaultTtlSeconds; }
+        public void setDefaultTtlSeconds(int defaultTtlSeconds) { this.defaultTtlSeconds = defaultTtlSeconds; }
+        public int getVerifyIntervalSeconds() { return verifyIntervalSeconds; }
+        public void setVerifyIntervalSeconds(int verifyIntervalSeconds) { this.verifyIntervalSeconds = verifyIntervalSeconds; }
+        public int getMissingSnapshotThreshold() { return missingSnapshotThreshold; }
+        public void setMissingSnapshotThreshold(int missingSnapshotThreshold) { this.missingSnapshotThreshold = missingSnapshotThreshold; }
+        public int getDataFailureThreshold() { return dataFailureThreshold; }
+        public void setDataFailureThreshold(int dataFailureThreshold) { this.dataFailureThreshold = dataFailureThreshold; }
+        public double getActionsPerSecond() { return actionsPerSecond; }
+        public void setActionsPerSecond(double actionsPerSecond) { this.actionsPerSecond = actionsPerSecond; }
+        public int getActionBurst() { return actionBurst; }
+        public void setActionBurst(int actionBurst) { this.actionBurst = actionBurst; }
+        public int getMaxBackoffSeconds() { return maxBackoffSeconds; }
+        public void setMaxBackoffSeconds(int maxBackoffSeconds) { this.maxBackoffSeconds = maxBackoffSeconds; }
+        public long getActionTimeoutMs() { return actionTimeoutMs; }
+        public void setActionTimeoutMs(long actionTimeoutMs) { this.actionTimeoutMs = actionTimeoutMs; }
+        public List<String> getLostStatuses() { return lostStatuses; }
+        public void setLostStatuses(List<String> lostStatuses) { this.lostStatuses = lostStatuses; }
+    }
+}
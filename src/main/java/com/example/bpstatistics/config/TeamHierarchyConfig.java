@@ -0,0 +1,43 @@
+package com.example.bpstatistics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 팀 계층(사이트 > 상위 팀 > 팀) 모델과 계층별 집계 설정
+ * 계층은 JSON 파일에서 읽고 주기적으로 변경 여부(수정 시각)를 확인해 다시 읽습니다.
+ */
+@Configuration
+@EnableConfigurationProperties(TeamHierarchyConfig.TeamHierarchyProps.class)
+public class TeamHierarchyConfig {
+
+    @ConfigurationProperties(prefix = "app.team-hierarchy")
+    public static class TeamHierarchyProps {
+        private boolean enabled = true;
+        private String file = "config/team-hierarchy.json";  // [{ "id", "name", "parentId" }] 또는 { "teams": [...] }
+        private int refreshSeconds = 300;                      // 0 이하면 기동 시 1회만
+        private String teamStat = "team_name";                 // 행 -> 팀 매칭 컬럼 (팀 id 또는 이름 값)
+        private String stateStat = "agent_state";              // 노드별 상태 인원 집계 컬럼 (빈 값이면 미집계)
+        // 노드별 합계/평균을 유지할 statName (또는 column id)
+        private List<String> metrics = new ArrayList<>(List.of("handle_time", "wait_time", "after_call_work_time"));
+        private int rebuildEverySnapshots = 720;               // 증분 합계 오차 누적 방지용 전체 재계산 주기 (0 이하면 안 함)
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getFile() { return file; }
+        public void setFile(String file) { this.file = file; }
+        public int getRefreshSeconds() { return refreshSeconds; }
+        public void setRefreshSeconds(int refreshSeconds) { this.refreshSeconds = refreshSeconds; }
+        public String getTeamStat() { return teamStat; }
+        public void setTeamStat(String teamStat) { this.teamStat = teamStat; }
+        public String getStateStat() { return stateStat; }
+        public void setStateStat(String stateStat) { this.stateStat = stateStat; }
+        public List<String> getMetrics() { return metrics; }
+        public void setMetrics(List<String> metrics) { this.metrics = metrics; }
+        public int getRebuildEverySnapshots() { return rebuildEverySnapshots; }
+        public void setRebuildEverySnapshots(int rebuildEverySnapshots) { this.rebuildEverySnapshots = rebuildEverySnapshots; }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.bpstatistics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 실행 중 변경 가능한 HTTP/폴링 설정의 기동 시 기본값 + 관리 API 설정
+ * 변경은 /api/brightpattern/admin/tuning 으로 하며 재기동하면 이 기본값(버전 1)으로 돌아갑니다.
+ */
+@Configuration
+@EnableConfigurationProperties(TuningConfig.TuningProps.class)
+public class TuningConfig {
+
+    /** 업스트림 호출 종류(UpstreamGovernor endpoint 이름)별 timeout / 재시도 */
+    public static class Call {
+        private long timeoutMs;
+        private int maxRetries;
+        private long backoffMs;
+        public Call() { }
+        public Call(long timeoutMs, int maxRetries, long backoffMs) {
+            this.timeoutMs = timeoutMs;
+            this.maxRetries = maxRetries;
+            this.backoffMs = backoffMs;
+        }
+        public long getTimeoutMs() { return timeoutMs; }
+        public void setTimeoutMs(long timeoutMs) { this.timeoutMs = timeoutMs; }
+        public int getMaxRetries() { return maxRetries; }
+        public void setMaxRetries(int maxRetries) { this.maxRetries = maxRetries; }
+        public long getBackoffMs() { return backoffMs; }
+        public void setBackoffMs(long backoffMs) { this.backoffMs = backoffMs; }
+    }
+
+    @ConfigurationProperties(prefix = "app.tuning")
+    public static class TuningProps {
+        private String adminToken = "";     // X-Admin-Token 헤더 일치 시에만 변경 허용. 비어 있으면 변경 API 비활성 (조회만)
+        private int historySize = 20;       // 보관할 이전 버전 수 (rollback 대상)
+        // 기존 고정값: auth/create 30s(재시도 2), delete 15s(1), get 10s(1), data 15s(1)
+        private Map<String, Call> calls = new LinkedHashMap<>(Map.of(
+                "auth", new Call(30_000, 2, 300),
+                "subscription-create", new Call(30_000, 2, 400),
+                "subscription-delete", new Call(15_000, 1, 400),
+                "subscription-get", new Call(10_000, 1, 250),
+                "subscription-data", new Call(15_000, 1, 250)));
+        public String getAdminToken() { return adminToken; }
+        public void setAdminToken(String adminToken) { this.adminToken = adminToken; }
+        public int getHistorySize() { return historySize; }
+        public void setHistorySize(int historySize) { this.historySize = historySize; }
+        public Map<String, Call> getCalls() { return calls; }
+        public void setCalls(Map<String, Call> calls) { this.calls = calls; }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.bpstatistics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 재기동 warm restart 설정: 세션/토큰, 활성 구독, 마지막 스냅샷을 Jasypt 로 암호화해 로컬 파일에 주기 저장
+ * 기동 시 파일이 max-resume-age-seconds 이내면 유효한 세션/구독은 그대로 이어서 사용합니다.
+ */
+@Configuration
+@EnableConfigurationProperties(WarmStateConfig.WarmStateProps.class)
+public class WarmStateConfig {
+
+    @ConfigurationProperties(prefix = "app.warm-state")
+    public static class WarmStateProps {
+        private boolean enabled = true;
+        private String file = "data/state/warm-state.enc";
+        private int checkpointIntervalSeconds = 30;  // 변경이 있을 때만 기록
+        private int maxResumeAgeSeconds = 600;       // 이보다 오래된 파일은 스냅샷만 사용 (세션/구독은 새로 확보)
+        private boolean includeSnapshot = true;      // 마지막 getData() 원문 포함 여부 (파일 크기 대부분)
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getFile() { return file; }
+        public void setFile(String file) { this.file = file; }
+        public int getCheckpointIntervalSeconds() { return checkpointIntervalSeconds; }
+        public void setCheckpointIntervalSeconds(int checkpointIntervalSeconds) { this.checkpointIntervalSeconds = checkpointIntervalSeconds; }
+        public int getMaxResumeAgeSeconds() { return maxResumeAgeSeconds; }
+        public void setMaxResumeAgeSeconds(int maxResumeAgeSeconds) { this.maxResumeAgeSeconds = maxResumeAgeSeconds; }
+        public boolean isIncludeSnapshot() { return includeSnapshot; }
+        public void setIncludeSnapshot(boolean includeSnapshot) { this.includeSnapshot = includeSnapshot; }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.bpstatistics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 기동 warm-up 설정: readiness 전환 전에 토큰/세션 확보, 커넥션 선점, JIT 예열, 구독 복원
+ */
+@Configuration
+@EnableConfigurationProperties(WarmupConfig.WarmupProps.class)
+public class WarmupConfig {
+
+    @ConfigurationProperties(prefix = "app.warmup")
+    public static class WarmupProps {
+        private boolean enabled = true;
+        private int timeoutSeconds = 45;           // 전체 warm-up 예산 (초과 시 남은 단계 생략 후 readiness 전환)
+        private int connections = 8;               // bp-fixed 풀에 미리 열어둘 연결 수
+        private int parseIterations = 300;         // 파싱/검증 경로 반복 횟수
+        private boolean restoreSubscriptions = true;
+        private String subscriptionStateFile = "data/state/active-subscriptions.json";
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getTimeoutSeconds() { return timeoutSeconds; }
+        public void setTimeoutSeconds(int timeoutSeconds) { this.timeoutSeconds = timeoutSeconds; }
+        public int getConnections() { return connections; }
+        public void setConnections(int connections) { this.connections = connections; }
+        public int getParseIterations() { return parseIterations; }
+        public void setParseIterations(int parseIterations) { this.parseIterations = parseIterations; }
+        public boolean isRestoreSubscriptions() { return restoreSubscriptions; }
+        public void setRestoreSubscriptions(boolean restoreSubscriptions) { this.restoreSubscriptions = restoreSubscriptions; }
+        public String getSubscriptionStateFile() { return subscriptionStateFile; }
+        public void setSubscriptionStateFile(String subscriptionStateFile) { this.subscriptionStateFile = subscriptionStateFile; }
+    }
+}
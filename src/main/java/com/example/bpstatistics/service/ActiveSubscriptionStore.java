@@ -0,0 +1,112 @@
+package com.example.bpstatistics.service;
+
+import com.example.bpstatistics.config.WarmupConfig;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 현재 활성 구독(구독 id -> 업스트림 전송 바이트) 기록
+ * 재기동 warm-up 에서 같은 요청으로 구독을 복원하기 위해 파일에 보관합니다. (쓰기 실패는 로그 후 무시)
+ */
+@Component
+public class ActiveSubscriptionStore {
+    private static final Logger log = LoggerFactory.getLogger(ActiveSubscriptionStore.class);
+
+    /**
+     * body: 업스트림 전송 JSON 바이트 (파일에는 base64)
+     * expiresAt: 업스트림 응답의 만료값 원문 (없으면 null, 단위 해석은 SubscriptionSupervisor)
+     */
+    // 변경 전: public record Entry(String id, byte[] body, long createdAt) { }
+    public record Entry(String id, byte[] body, long createdAt, Long expiresAt) { }
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    public ActiveSubscriptionStore(WarmupConfig.WarmupProps props, ObjectMapper objectMapper) {
+        this.file = Paths.get(props.getSubscriptionStateFile()).toAbsolutePath();
+        this.objectMapper = objectMapper;
+        load();
+    }
+
+    // 변경 전: public synchronized void remember(String subscriptionId, byte[] body)
+    public synchronized void remember(String subscriptionId, byte[] body, Long expiresAt) {
+        if (subscriptionId == null || subscriptionId.isBlank() || body == null) return;
+        entries.put(subscriptionId, new Entry(subscriptionId, body, System.currentTimeMillis(), expiresAt));
+        persist();
+    }
+
+    public synchronized void forget(String subscriptionId) {
+        if (entries.remove(subscriptionId) != null) persist();
+    }
+
+    /**
+     * 구독 교체 (갱신/재생성): oldId 가 아직 기록에 있을 때만 oldId 제거 + newId 기록을 한 번에 수행
+     * @return oldId 가 이미 없으면(사용자 삭제 등) false, 기록은 변경하지 않음
+     */
+    public synchronized boolean replace(String oldId, String newId, byte[] body, Long expiresAt) {
+        if (!entries.containsKey(oldId)) return false;
+        entries.remove(oldId);
+        entries.put(newId, new Entry(newId, body, System.currentTimeMillis(), expiresAt));
+        persist();
+        return true;
+    }
+
+    /**
+     * warm restart 상태 파일의 구독 중 기록에 없는 것만 추가 (기록 파일 유실 대비), 추가 건수 반환
+     */
+    public synchronized int restore(List<Entry> restored) {
+        int added = 0;
+        for (Entry e : restored) {
+            if (e.id() == null || e.body() == null || entries.containsKey(e.id())) continue;
+            entries.put(e.id(), e);
+            added++;
+        }
+        if (added > 0) persist();
+        return added;
+    }
+
+    public synchronized boolean contains(String subscriptionId) {
+        return entries.containsKey(subscriptionId);
+    }
+
+    public synchronized List<Entry> list() {
+        return new ArrayList<>(entries.values());
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(file)) return;
+        try {
+            List<Entry> loaded = objectMapper.readValue(file.toFile(), new TypeReference<List<Entry>>() { });
+            for (Entry e : loaded) entries.put(e.id(), e);
+            log.info("활성 구독 기록 로드 {}건 file={}", entries.size(), file);
+        } catch (IOException e) {
+            log.warn("활성 구독 기록 로드 실패 file={} : {}", file, e.getMessage());
+        }
+    }
+
+    // 임시 파일 기록 후 원자적 교체 (기록 도중 종료되어도 이전 내용 유지)
+    private void persist() {
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), new ArrayList<>(entries.values()));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("활성 구독 기록 저장 실패 file={} : {}", file, e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.bpstatistics.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.example.bpstatistics.service.audit.AuditLog;
+import com.example.bpstatistics.service.deadline.Deadline;
+import com.example.bpstatistics.service.diag.StageLatency;
+import com.example.bpstatistics.service.ratelimit.UpstreamGovernor;
+import com.example.bpstatistics.service.tuning.RuntimeTuning;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,10 +18,8 @@ import reactor.netty.http.client.PrematureCloseException;
 import reactor.util.retry.Retry;
 
 import java.io.IOException;
-import java.time.Duration;
 import java.time.Instant;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -52,14 +54,27 @@ public class BrightPatternAuthService {
 
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
-    private final OAuthTokenService oAuthTokenService;
+    // 세션 ID / 만료 위치 학습형 추출기 (인증 폭주 시에도 트리 전체 재귀 탐색 회피)
+    private final SessionFieldExtractor sessionExtractor = new SessionFieldExtractor(OBJECT_MAPPER);
 
-    public BrightPatternAuthService(WebClient.Builder webClientBuilder, OAuthTokenService oAuthTokenService) {
+    private final OAuthTokenService oAuthTokenService;
+    private final UpstreamGovernor governor;
+    private final RuntimeTuning tuning;
+    private final AuditLog auditLog;
+
+    // 변경 전: public BrightPatternAuthService(WebClient.Builder webClientBuilder, OAuthTokenService oAuthTokenService)
+    // 변경 전: (..., OAuthTokenService oAuthTokenService, UpstreamGovernor governor)
+    // 변경 전: (..., UpstreamGovernor governor, RuntimeTuning tuning)
+    public BrightPatternAuthService(WebClient.Builder webClientBuilder, OAuthTokenService oAuthTokenService,
+                                    UpstreamGovernor governor, RuntimeTuning tuning, AuditLog auditLog) {
         // ReactiveHttpClientConfig 에서 설정한 builder 주입됨
         this.webClient = webClientBuilder
                 .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(2 * 1024 * 1024))
                 .build();
         this.oAuthTokenService = oAuthTokenService;
+        this.governor = governor;
+        this.tuning = tuning;
+        this.auditLog = auditLog;
     }
 
     /**
@@ -76,19 +91,29 @@ public class BrightPatternAuthService {
                 "password", password
         );
 
-        String bearer = oAuthTokenService.getValidToken();
-        return webClient.post()
-                .uri(authUrl)
-                .header(HttpHeaders.AUTHORIZATION, "Bearer " + bearer)
-                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                .header(HttpHeaders.COOKIE, buildCookieHeader())
-                .bodyValue(authRequest)
-                .retrieve()
-                .bodyToMono(String.class)
-                .timeout(Duration.ofSeconds(30))
-                .retryWhen(Retry.backoff(2, Duration.ofMillis(300))
-                        .filter(ex -> ex instanceof PrematureCloseException || ex instanceof IOException || ex instanceof TimeoutException)
-                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+        // 변경 전: String bearer = oAuthTokenService.getValidToken(); - 조립 시점에 timeout 없이 block (요청 deadline 밖)
+        // 변경 후: OAuth 토큰도 같은 체인 안에서 min(auth timeout, 남은 요청 deadline) 안에 획득
+        // 변경 전: return webClient.post()... (재시도 포함 업스트림 예산 미적용)
+        // 변경 후: 업스트림 예산 획득 후 호출, retryWhen 이 acquire 부터 재구독하므로 재시도도 예산에 포함
+        // 변경 후(deadline): timeout = min(30s, 남은 요청 deadline), 남은 예산이 백오프보다 짧으면 재시도 안 함
+        // 변경 후(tuning): timeout/재시도 횟수/백오프는 구독 시점의 RuntimeTuning auth 정책 (기본 30s, 2회, 300ms)
+        // 변경 후(audit): 세션 인증 결과(재인증 포함)를 감사 로그에 기록
+        return auditLog.around(Mono.deferContextual(ctx -> {
+            RuntimeTuning.CallPolicy policy = tuning.call(UpstreamGovernor.AUTH);
+            return Deadline.timeout(oAuthTokenService.validToken(), policy.timeout(), UpstreamGovernor.OAUTH_TOKEN)
+                    .flatMap(bearer -> governor.acquire(UpstreamGovernor.AUTH).then(Deadline.timeout(webClient.post()
+                        .uri(authUrl)
+                        .attribute(StageLatency.CALL_ATTRIBUTE, "auth")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + bearer)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.COOKIE, buildCookieHeader())
+                        .bodyValue(authRequest)
+                        .retrieve()
+                        .bodyToMono(String.class), policy.timeout(), UpstreamGovernor.AUTH)))
+                    .retryWhen(Deadline.retryWithin(Retry.backoff(policy.maxRetries(), policy.backoff())
+                            .filter(ex -> ex instanceof PrematureCloseException || ex instanceof IOException || ex instanceof TimeoutException)
+                            .onRetryExhaustedThrow((spec, signal) -> signal.failure()), ctx));
+        })
                 .map(resp -> {
                     if (!parseAndStoreSession(resp)) {
                         throw new IllegalStateException("세션 토큰을 응답에서 찾지 못했습니다.");
@@ -96,7 +121,8 @@ public class BrightPatternAuthService {
                     log.info("BrightPattern 인증 성공 (세션 저장)");
                     return resp;
                 })
-                .doOnError(error -> log.error("BrightPattern 인증 실패: {}", error.getMessage()));
+                .doOnError(error -> log.error("BrightPattern 인증 실패: {}", error.getMessage())),
+                AuditLog.SOURCE_UPSTREAM, "auth.session", AuditLog.SYSTEM_ACTOR, username, null);
     }
 
     /**
@@ -143,24 +169,41 @@ public class BrightPatternAuthService {
         return sessionToken.get();
     }
 
+    public Instant getSessionExpiry() {
+        return sessionExpiry.get();
+    }
+
+    /**
+     * 재기동 전 저장된 세션 복원 (만료 임박/만료면 무시하고 false)
+     */
+    public boolean restoreSession(String token, Instant expiry) {
+        if (token == null || expiry == null || !Instant.now().isBefore(expiry.minusSeconds(5))) return false;
+        sessionExpiry.set(expiry);
+        sessionToken.set(token);
+        log.info("저장된 세션 복원 exp={}", expiry);
+        return true;
+    }
+
     /**
      * 세션 정보 파싱 및 저장
+     * 변경 전: readTree 후 findSessionIdRecursive / findExpiryRecursive 로 트리를 2회 재귀 순회
+     * 변경 후: SessionFieldExtractor 가 학습된 JSON Pointer 경로를 스트리밍으로 확인 (미스 시 전체 스캔 폴백)
      */
     private boolean parseAndStoreSession(String rawJson) {
         try {
-            JsonNode root = OBJECT_MAPPER.readTree(rawJson);
-            String sid = findSessionIdRecursive(root);
-            if (sid == null || sid.isBlank()) {
+            SessionFieldExtractor.Extracted ex = sessionExtractor.extract(rawJson);
+            if (ex == null) {
                 log.warn("세션 토큰 키를 어디에서도 찾지 못했습니다.");
                 return false;
             }
+            String sid = ex.sessionId();
             sessionToken.set(sid);
-            long expiresSec = findExpiryRecursive(root);
+            long expiresSec = ex.expiresInSeconds();
             if (expiresSec <= 0) {
                 expiresSec = 600; // 기본 10분
             }
             sessionExpiry.set(Instant.now().plusSeconds(expiresSec));
-            log.debug("세션 파싱 완료 token={} exp={}", sid, sessionExpiry.get());
+            log.debug("세션 파싱 완료 token={} exp={} path={}", sid, sessionExpiry.get(), sessionExtractor.learnedSessionPointer());
             return true;
         } catch (Exception e) {
             log.error("세션 파싱 중 예외: {}", e.getMessage());
@@ -168,53 +211,8 @@ public class BrightPatternAuthService {
         }
     }
 
-    private static final Set<String> SESSION_KEYS = Set.of("session_id", "sessionId", "session_token", "sessionToken", "token", "id");
-    private static final Set<String> EXPIRE_KEYS = Set.of("expires_in", "expiresIn", "expiry", "ttl");
-
-    private String findSessionIdRecursive(JsonNode node) {
-        if (node == null) return null;
-        if (node.isObject()) {
-            for (String k : SESSION_KEYS) {
-                JsonNode v = node.get(k);
-                if (v != null && v.isTextual() && !v.asText().isBlank()) {
-                    return v.asText();
-                }
-            }
-            var it = node.fieldNames();
-            while (it.hasNext()) {
-                String name = it.next();
-                String r = findSessionIdRecursive(node.get(name));
-                if (r != null) return r;
-            }
-        } else if (node.isArray()) {
-            for (JsonNode child : node) {
-                String r = findSessionIdRecursive(child);
-                if (r != null) return r;
-            }
-        }
-        return null;
-    }
-
-    private long findExpiryRecursive(JsonNode node) {
-        if (node == null) return -1;
-        if (node.isObject()) {
-            for (String k : EXPIRE_KEYS) {
-                JsonNode v = node.get(k);
-                if (v != null && v.canConvertToLong()) return v.asLong();
-            }
-            var it = node.fieldNames();
-            while (it.hasNext()) {
-                long r = findExpiryRecursive(node.get(it.next()));
-                if (r > 0) return r;
-            }
-        } else if (node.isArray()) {
-            for (JsonNode child : node) {
-                long r = findExpiryRecursive(child);
-                if (r > 0) return r;
-            }
-        }
-        return -1;
-    }
+    // 변경 전: SESSION_KEYS / EXPIRE_KEYS (Set) 및 findSessionIdRecursive / findExpiryRecursive 재귀 탐색
+    // 변경 후: 키 우선순위 목록과 탐색 로직은 SessionFieldExtractor 로 이동
 
     /**
      * 쿠키 헤더 구성
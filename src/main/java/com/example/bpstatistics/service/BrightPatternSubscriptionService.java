@@ -1,12 +1,19 @@
 package com.example.bpstatistics.service;
 
-import com.example.bpstatistics.web.dto.BrightPatternSubscriptionRequest;
+import com.example.bpstatistics.service.audit.AuditLog;
+import com.example.bpstatistics.service.deadline.Deadline;
+import com.example.bpstatistics.service.diag.StageLatency;
+import com.example.bpstatistics.service.journal.StatsJournal;
+import com.example.bpstatistics.service.ratelimit.UpstreamGovernor;
+import com.example.bpstatistics.service.snapshot.GridDefinitionRegistry;
+import com.example.bpstatistics.service.snapshot.SnapshotPipeline;
+import com.example.bpstatistics.service.tuning.RuntimeTuning;
 import com.example.bpstatistics.web.dto.BrightPatternSubscriptionResponse;
+import com.example.bpstatistics.web.exception.DeadlineExceededException;
 import com.example.bpstatistics.web.exception.NotAuthenticatedException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.bpstatistics.web.exception.UpstreamStatusException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -16,13 +23,15 @@ import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
+import reactor.util.retry.RetryBackoffSpec;
 import reactor.netty.http.client.PrematureCloseException;
 
 import java.io.IOException;
 import java.time.Duration;
-import java.util.Map;
+import java.util.function.Function;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * BrightPattern 이벤트 구독 관련 서비스 (예시)
@@ -33,7 +42,22 @@ public class BrightPatternSubscriptionService {
 
     private final WebClient webClient;
     private final BrightPatternAuthService authService;
+    private final StatsJournal journal;
+    private final SnapshotPipeline pipeline;
+    private final GridDefinitionRegistry gridDefinitions;
+    private final ActiveSubscriptionStore activeSubscriptions;
+    private final UpstreamGovernor governor;
+    private final StageLatency stages;
+    private final RuntimeTuning tuning;
+    private final AuditLog auditLog;
     private final AtomicBoolean reauthInProgress = new AtomicBoolean(false);
+    // getData() 연속 실패 (SubscriptionSupervisor 가 구독 유실 판단에 사용)
+    private final AtomicInteger consecutiveDataFailures = new AtomicInteger();
+    private volatile long lastDataSuccessAt;
+    private volatile String lastDataError;
+
+    /** getData() 상태 */
+    public record DataHealth(int consecutiveFailures, long lastSuccessAt, String lastError) { }
 
     @Value("${brightpattern.auth.token}")
     private String bearerToken;
@@ -47,19 +71,40 @@ public class BrightPatternSubscriptionService {
     @Value("${brightpattern.subscription.data-url:}")
     private String subscriptionDataUrl; // 선택적 오버라이드
 
-    @Autowired(required = false)
-    private ObjectMapper objectMapper; // 선택 주입 (Spring 기본 ObjectMapper 사용)
+    @Value("${brightpattern.subscription.data-url-template:{base}/{id}/data}")
+    private String subscriptionDataUrlTemplate; // 구독별 data URL (MultiSubscriptionFetcher)
 
-    public BrightPatternSubscriptionService(WebClient.Builder builder, BrightPatternAuthService authService) {
+    // 변경 전: public BrightPatternSubscriptionService(WebClient.Builder builder, BrightPatternAuthService authService)
+    // 변경 전: (..., GridDefinitionRegistry gridDefinitions, ActiveSubscriptionStore activeSubscriptions)
+    // 변경 전: (..., ActiveSubscriptionStore activeSubscriptions, UpstreamGovernor governor)
+    // 변경 전: (..., UpstreamGovernor governor, StageLatency stages)
+    // 변경 전: (..., StageLatency stages, RuntimeTuning tuning)
+    public BrightPatternSubscriptionService(WebClient.Builder builder, BrightPatternAuthService authService,
+                                            StatsJournal journal, SnapshotPipeline pipeline,
+                                            GridDefinitionRegistry gridDefinitions, ActiveSubscriptionStore activeSubscriptions,
+                                            UpstreamGovernor governor, StageLatency stages, RuntimeTuning tuning,
+                                            AuditLog auditLog) {
         // ReactiveHttpClientConfig 에서 커스텀 ConnectionProvider / HttpClient 적용된 builder 주입
         this.webClient = builder.build();
         this.authService = authService;
+        this.journal = journal;
+        this.pipeline = pipeline;
+        this.gridDefinitions = gridDefinitions;
+        this.activeSubscriptions = activeSubscriptions;
+        this.governor = governor;
+        this.stages = stages;
+        this.tuning = tuning;
+        this.auditLog = auditLog;
     }
 
     private String buildCookie() { return cookieHeader == null || cookieHeader.isBlank() ? "" : cookieHeader; }
 
     private String resolveDataUrl() { return (subscriptionDataUrl != null && !subscriptionDataUrl.isBlank()) ? subscriptionDataUrl : subscriptionBaseUrl + "/data"; }
 
+    private String resolveDataUrl(String subscriptionId) {
+        return subscriptionDataUrlTemplate.replace("{base}", subscriptionBaseUrl).replace("{id}", subscriptionId);
+    }
+
     private String buildCookieWithSession() {
         String base = buildCookie();
         String st = authService.getSessionToken();
@@ -80,120 +125,115 @@ public class BrightPatternSubscriptionService {
         if (authService.isAuthenticated()) {
             return Mono.empty();
         }
-        return Mono.defer(() -> {
+        // 변경 전: return Mono.defer(() -> {
+        // 변경 후: 재인증(또는 다른 쓰레드의 재인증) 대기 구간을 reauth.wait 단계로 측정 (인증된 경우는 측정하지 않음)
+        return stages.observe(StageLatency.REAUTH_WAIT, StageLatency.NO_CALL, Mono.defer(() -> {
             if (authService.isAuthenticated()) return Mono.empty();
             if (reauthInProgress.compareAndSet(false, true)) {
                 log.info("세션 없음/만료 - 자동 재인증 시도");
+                // 변경 전: .then(Mono.fromRunnable(() -> reauthInProgress.set(false))) - deadline 으로 취소되면 플래그가 남음
+                // 변경 후: 완료/오류/취소 모두 doFinally 에서 해제
                 return authService.authenticate()
-                        .onErrorResume(e -> {
+                        .onErrorResume(e -> !(e instanceof DeadlineExceededException), e -> {
                             log.error("자동 재인증 실패: {}", e.getMessage());
                             return Mono.empty();
                         })
-                        .then(Mono.fromRunnable(() -> reauthInProgress.set(false)))
+                        .doFinally(s -> reauthInProgress.set(false))
                         .then(Mono.defer(() -> authService.isAuthenticated()
                                 ? Mono.empty()
                                 : Mono.error(new NotAuthenticatedException("자동 재인증 실패"))));
             } else {
                 // 다른 쓰레드가 재인증 중 -> 약간 대기 후 재확인
-                return Mono.delay(Duration.ofMillis(300))
+                // 변경 전: return Mono.delay(Duration.ofMillis(300))
+                // 변경 후: 남은 deadline 이 대기 시간보다 짧으면 기다리지 않고 실패
+                return Deadline.within(Mono.delay(Duration.ofMillis(300)), "재인증 대기")
                         .then(Mono.defer(() -> authService.isAuthenticated()
                                 ? Mono.empty()
                                 : Mono.error(new NotAuthenticatedException("자동 재인증 진행 중이었으나 실패"))));
             }
-        });
+        }));
     }
 
-    // PrematureClose / 네트워크 성격 오류만 재시도 (POST 는 2회, GET 은 1회)
-    private Retry retryForPost(int maxRetries) {
-        return Retry.backoff(maxRetries, Duration.ofMillis(400))
+    // PrematureClose / 네트워크 성격 오류만 재시도 (횟수/백오프는 RuntimeTuning 호출 종류별 정책)
+    // 변경 전: private Retry retryForPost(int maxRetries) / retryForGet - 요청 deadline 과 무관하게 재시도
+    // 변경 전: Retry.backoff(maxRetries, Duration.ofMillis(400)) / (maxRetries, Duration.ofMillis(250)) 고정
+    private static RetryBackoffSpec retryForPost(RuntimeTuning.CallPolicy policy) {
+        return Retry.backoff(policy.maxRetries(), policy.backoff())
                 .filter(ex -> ex instanceof PrematureCloseException || ex instanceof IOException || ex instanceof TimeoutException)
                 .onRetryExhaustedThrow((spec, signal) -> signal.failure());
     }
 
-    private Retry retryForGet(int maxRetries) {
-        return Retry.backoff(maxRetries, Duration.ofMillis(250))
+    private static RetryBackoffSpec retryForGet(RuntimeTuning.CallPolicy policy) {
+        return Retry.backoff(policy.maxRetries(), policy.backoff())
                 .filter(ex -> ex instanceof PrematureCloseException || ex instanceof TimeoutException)
                 .onRetryExhaustedThrow((spec, signal) -> signal.failure());
     }
 
-    // Raw 구조 간단 유효성 검사
-    private void validateRawStructure(Map<?,?> root) {
-        if (root == null || root.isEmpty()) throw new IllegalArgumentException("구독 JSON이 비어 있습니다.");
-        Object first = root.get("1");
-        if (!(first instanceof Map<?,?> firstObj)) throw new IllegalArgumentException("루트 키 '1' 객체가 필요합니다.");
-        Object grids = firstObj.get("agent_grids");
-        if (!(grids instanceof java.util.List<?> list) || list.isEmpty()) throw new IllegalArgumentException("'1.agent_grids' 배열이 비어있거나 없음");
-        int idx = 0;
-        for (Object o : list) {
-            idx++;
-            Map<?,?> gridMap = null;
-            if (o instanceof Map<?,?> gm) {
-                gridMap = gm;
-            } else if (o instanceof BrightPatternSubscriptionRequest.AgentGrid ag) {
-                // DTO 직접 입력된 경우 리플렉션으로 최소 필드 확인
-                if (ag.getId() == null || ag.getId().isBlank()) throw new IllegalArgumentException("agent_grids["+idx+"] id 누락");
-                if (ag.getColumns() == null || ag.getColumns().isEmpty()) throw new IllegalArgumentException("agent_grids["+idx+"] columns 누락");
-                continue; // OK
-            } else if (objectMapper != null) {
-                try {
-                    @SuppressWarnings("unchecked") Map<String,Object> converted = objectMapper.convertValue(o, Map.class);
-                    gridMap = converted;
-                } catch (IllegalArgumentException convEx) {
-                    throw new IllegalArgumentException("agent_grids["+idx+"] 변환 불가: " + convEx.getMessage());
-                }
-            }
-            if (gridMap == null) {
-                throw new IllegalArgumentException("agent_grids["+idx+"] 요소는 객체(Map/DTO)여야 합니다.");
-            }
-            Object id = gridMap.get("id");
-            if (id == null || id.toString().isBlank()) throw new IllegalArgumentException("agent_grids["+idx+"] id 누락");
-            Object columns = gridMap.get("columns");
-            if (!(columns instanceof java.util.List<?> cols) || cols.isEmpty()) throw new IllegalArgumentException("agent_grids["+idx+"] columns 배열 누락");
-        }
+    /**
+     * 업스트림 호출 1건: 예산 획득 -> 호출(timeout = min(호출 정책 timeout, timeoutCap, 남은 deadline)) -> 남은 deadline 안에서만 재시도
+     * 호출 정책은 구독 시점의 RuntimeTuning 값으로 고정되어 재시도까지 같은 설정을 사용합니다. 재시도는 acquire 부터 다시 구독합니다.
+     */
+    private <T> Mono<T> upstream(String endpoint, Mono<T> call, Duration timeoutCap,
+                                 Function<RuntimeTuning.CallPolicy, RetryBackoffSpec> retry) {
+        return Mono.deferContextual(ctx -> {
+            RuntimeTuning.CallPolicy policy = tuning.call(endpoint);
+            Duration timeout = timeoutCap != null && timeoutCap.compareTo(policy.timeout()) < 0 ? timeoutCap : policy.timeout();
+            return governor.acquire(endpoint)
+                    .then(Deadline.timeout(call, timeout, endpoint))
+                    .retryWhen(Deadline.retryWithin(retry.apply(policy), ctx));
+        });
     }
 
-    public Mono<BrightPatternSubscriptionResponse> createRaw(Object rawBody) {
+    /**
+     * SubscriptionBodyValidator 로 검증된 요청 바이트를 재직렬화 없이 그대로 전달
+     */
+    public Mono<BrightPatternSubscriptionResponse> createValidated(SubscriptionBodyValidator.Validated validated) {
         return ensureAuthenticatedReactive()
                 .then(Mono.defer(() -> {
-                    log.info("구독 생성(raw) 호출");
-                    if (rawBody instanceof Map<?,?> mapBody) {
-                        validateRawStructure((Map<?,?>) mapBody);
-                    }
-                    return webClient.post()
-                            .uri(subscriptionBaseUrl)
-                            .header(HttpHeaders.AUTHORIZATION, authHeaderToken())
-                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                            .header(HttpHeaders.COOKIE, buildCookieWithSession())
-                            .bodyValue(rawBody)
-                            .exchangeToMono(res -> {
-                                if (res.statusCode().is2xxSuccessful()) {
-                                    return res.bodyToMono(BrightPatternSubscriptionResponse.class);
-                                }
-                                return handleError(res, BrightPatternSubscriptionResponse.class);
-                            })
-                            .timeout(Duration.ofSeconds(30))
-                            .retryWhen(retryForPost(2))
-                            .doOnSuccess(r -> { if (r!=null) log.info("구독 생성 성공 id={}", r.getSubscriptionId()); })
-                            .doOnError(e -> log.error("구독 생성 실패", e));
+                    log.info("구독 생성(검증 바이트) 호출 shape={} grids={} bytes={}",
+                            validated.shape(), validated.gridCount(), validated.upstreamBody().length);
+                    // 변경 전: return postSubscription(validated.upstreamBody())
+                    return auditLog.around(postSubscription(validated.upstreamBody()), AuditLog.SOURCE_UPSTREAM,
+                                    "subscription.create", AuditLog.SYSTEM_ACTOR, null,
+                                    BrightPatternSubscriptionResponse::getSubscriptionId)
+                            .doOnSuccess(r -> {
+                                if (r == null) return;
+                                gridDefinitions.register(validated.gridColumns());
+                                // 재기동 warm-up 복원 / SubscriptionSupervisor 갱신용
+                                // 변경 전: activeSubscriptions.remember(r.getSubscriptionId(), validated.upstreamBody());
+                                activeSubscriptions.remember(r.getSubscriptionId(), validated.upstreamBody(), r.getExpiresAt());
+                            });
                 }));
     }
 
-    // 기존 create 메서드는 BrightPatternSubscriptionRequest 를 그대로 body로 넣는데
-    // 실제 API는 숫자 키("1") 루트에 agent_grids 배열을 감싸는 구조이므로 wrapping 처리
-    public Mono<BrightPatternSubscriptionResponse> create(BrightPatternSubscriptionRequest req) {
-        return ensureAuthenticatedReactive()
-                .then(Mono.defer(() -> {
-                    log.info("구독 생성 요청(agent_grids) size={}", req.getAgent_grids()==null?0:req.getAgent_grids().size());
-                    var wrapper = java.util.Map.of("1", java.util.Map.of("agent_grids", req.getAgent_grids()));
-                    return createRaw(wrapper);
-                }));
+    // 변경 전: createRaw 내부에 WebClient POST 체인 직접 구성
+    // 변경 후: createValidated 에서 사용 (byte[] 본문은 ByteArrayEncoder 로 그대로 전송)
+    // 변경 후(요청 한도): 업스트림 예산 획득 후 호출, 재시도도 acquire 부터 재구독되어 예산에 포함
+    private Mono<BrightPatternSubscriptionResponse> postSubscription(Object body) {
+        // 변경 전: return governor.acquire(UpstreamGovernor.SUBSCRIPTION_CREATE).then(webClient.post() ... .timeout(30s)).retryWhen(retryForPost(2))
+        // 변경 후: timeout/재시도는 RuntimeTuning 의 subscription-create 정책 (기본 30s, 2회)
+        return upstream(UpstreamGovernor.SUBSCRIPTION_CREATE, webClient.post()
+                .uri(subscriptionBaseUrl)
+                .header(HttpHeaders.AUTHORIZATION, authHeaderToken())
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.COOKIE, buildCookieWithSession())
+                .bodyValue(body)
+                .exchangeToMono(res -> {
+                    if (res.statusCode().is2xxSuccessful()) {
+                        return res.bodyToMono(BrightPatternSubscriptionResponse.class);
+                    }
+                    return handleError(res, BrightPatternSubscriptionResponse.class);
+                }), null, BrightPatternSubscriptionService::retryForPost)
+                .doOnSuccess(r -> { if (r!=null) log.info("구독 생성 성공 id={}", r.getSubscriptionId()); })
+                .doOnError(e -> log.error("구독 생성 실패", e));
     }
 
     public Mono<Void> delete(String subscriptionId) {
         return ensureAuthenticatedReactive()
                 .then(Mono.defer(() -> {
                     log.info("구독 삭제 요청 id={}", subscriptionId);
-                    return webClient.delete()
+                    // 변경 전: return webClient.delete()...
+                    return auditLog.around(upstream(UpstreamGovernor.SUBSCRIPTION_DELETE, webClient.delete()
                             .uri(subscriptionBaseUrl + "/" + subscriptionId)
                             .header(HttpHeaders.AUTHORIZATION, authHeaderToken())
                             .header(HttpHeaders.COOKIE, buildCookieWithSession())
@@ -202,10 +242,12 @@ public class BrightPatternSubscriptionService {
                                     return Mono.empty();
                                 }
                                 return handleError(res, Void.class);
+                            }), null, BrightPatternSubscriptionService::retryForPost),
+                                    AuditLog.SOURCE_UPSTREAM, "subscription.delete", AuditLog.SYSTEM_ACTOR, subscriptionId, null)
+                            .doOnSuccess(v -> {
+                                log.info("구독 삭제 성공 id={}", subscriptionId);
+                                activeSubscriptions.forget(subscriptionId);
                             })
-                            .timeout(Duration.ofSeconds(15))
-                            .retryWhen(retryForPost(1))
-                            .doOnSuccess(v -> log.info("구독 삭제 성공 id={}", subscriptionId))
                             .doOnError(e -> log.error("구독 삭제 실패 id=" + subscriptionId, e));
                 }));
     }
@@ -214,7 +256,8 @@ public class BrightPatternSubscriptionService {
         return ensureAuthenticatedReactive()
                 .then(Mono.defer(() -> {
                     log.debug("구독 조회 id={}", subscriptionId);
-                    return webClient.get()
+                    // 변경 전: return webClient.get()...
+                    return upstream(UpstreamGovernor.SUBSCRIPTION_GET, webClient.get()
                             .uri(subscriptionBaseUrl + "/" + subscriptionId)
                             .header(HttpHeaders.AUTHORIZATION, authHeaderToken())
                             .header(HttpHeaders.COOKIE, buildCookieWithSession())
@@ -223,34 +266,84 @@ public class BrightPatternSubscriptionService {
                                     return res.bodyToMono(BrightPatternSubscriptionResponse.class);
                                 }
                                 return handleError(res, BrightPatternSubscriptionResponse.class);
-                            })
-                            .timeout(Duration.ofSeconds(10))
-                            .retryWhen(retryForGet(1))
+                            }), null, BrightPatternSubscriptionService::retryForGet)
                             .doOnError(e -> log.error("구독 조회 실패 id=" + subscriptionId, e));
                 }));
     }
 
     public Mono<String> getData() {
-        return ensureAuthenticatedReactive()
+        // 변경 전: return ensureAuthenticatedReactive()
+        // 변경 후: 전체를 data.fetch 로 감싸 하위 단계(재인증/풀/첫 바이트/본문) span 의 부모로 사용
+        return stages.observe(StageLatency.DATA_FETCH, "data", ensureAuthenticatedReactive()
                 .then(Mono.defer(() -> {
                     log.debug("구독 데이터 조회");
-                    return webClient.get()
+                    // 변경 전: return webClient.get()...
+                    return upstream(UpstreamGovernor.SUBSCRIPTION_DATA, webClient.get()
                             .uri(resolveDataUrl())
+                            .attribute(StageLatency.CALL_ATTRIBUTE, "data")
                             .header(HttpHeaders.AUTHORIZATION, authHeaderToken())
                             .header(HttpHeaders.COOKIE, buildCookieWithSession())
                             .retrieve()
-                            .bodyToMono(String.class)
-                            .timeout(Duration.ofSeconds(15))
-                            .retryWhen(retryForGet(1))
-                            .doOnError(e -> log.error("구독 데이터 조회 실패", e));
-                }));
+                            .bodyToMono(String.class), null, BrightPatternSubscriptionService::retryForGet)
+                            // 변경 전: .doOnNext(journal::append)
+                            .doOnNext(this::onSnapshotFetched)
+                            // 변경 전: .doOnError(e -> log.error("구독 데이터 조회 실패", e));
+                            .doOnError(e -> {
+                                consecutiveDataFailures.incrementAndGet();
+                                lastDataError = e.getMessage();
+                                log.error("구독 데이터 조회 실패", e);
+                            });
+                })));
+    }
+
+    /**
+     * 구독 1건의 data 조회 (저널/파이프라인 투입 없음, 병합은 호출 측)
+     */
+    public Mono<String> getDataFor(String subscriptionId, Duration timeout) {
+        return ensureAuthenticatedReactive()
+                .then(Mono.defer(() -> upstream(UpstreamGovernor.SUBSCRIPTION_DATA, webClient.get()
+                        .uri(resolveDataUrl(subscriptionId))
+                        .attribute(StageLatency.CALL_ATTRIBUTE, "data")
+                        .header(HttpHeaders.AUTHORIZATION, authHeaderToken())
+                        .header(HttpHeaders.COOKIE, buildCookieWithSession())
+                        .exchangeToMono(res -> res.statusCode().is2xxSuccessful()
+                                ? res.bodyToMono(String.class)
+                                : handleError(res, String.class)), timeout, BrightPatternSubscriptionService::retryForGet)));
+    }
+
+    /** 병합된 스냅샷 원문을 단일 조회 결과와 같은 경로(저널 + 파이프라인)로 투입 */
+    public void publishSnapshot(String raw) {
+        onSnapshotFetched(raw);
+    }
+
+    /** 병합 조회 전체 실패 (getData() 실패와 동일하게 집계) */
+    public void recordDataFailure(String error) {
+        consecutiveDataFailures.incrementAndGet();
+        lastDataError = error;
+    }
+
+    // 원본 스냅샷 저널 기록 (비활성 시 no-op) + 스냅샷 파이프라인(파싱/diff/fan-out) 비동기 투입
+    private void onSnapshotFetched(String raw) {
+        long now = System.currentTimeMillis();
+        consecutiveDataFailures.set(0);
+        lastDataSuccessAt = now;
+        // 변경 전: journal.append(now, raw); - 이벤트 루프에서 mmap 쓰기 / force / 세그먼트 롤링 / 삭제
+        journal.submit(now, raw);
+        pipeline.submitLive(raw, now);
+    }
+
+    public DataHealth dataHealth() {
+        return new DataHealth(consecutiveDataFailures.get(), lastDataSuccessAt, lastDataError);
     }
 
     // 누락된 오류 처리 메서드 복구
     private <T> Mono<T> handleError(ClientResponse res, Class<T> bodyType) {
-        return res.bodyToMono(String.class).flatMap(msg -> {
+        // 변경 전: res.bodyToMono(String.class).flatMap(...) - 오류 응답 본문이 비어 있으면 오류 없이 빈 Mono 로 끝남
+        return res.bodyToMono(String.class).defaultIfEmpty("").flatMap(msg -> {
             log.error("BrightPattern API error status={} body={}", res.statusCode(), msg);
-            return Mono.error(new IllegalStateException("BrightPattern API error: " + res.statusCode()));
+            // 변경 전: return Mono.error(new IllegalStateException("BrightPattern API error: " + res.statusCode()));
+            // 변경 후: 호출 측이 메시지 대신 상태 코드로 판단하도록 UpstreamStatusException
+            return Mono.error(new UpstreamStatusException(res.statusCode().value(), "BrightPattern API error: " + res.statusCode()));
         });
     }
 }
@@ -1,5 +1,8 @@
 package com.example.bpstatistics.service;
 
+import com.example.bpstatistics.service.audit.AuditLog;
+import com.example.bpstatistics.service.diag.StageLatency;
+import com.example.bpstatistics.service.ratelimit.UpstreamGovernor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,6 +14,7 @@ import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -31,22 +35,40 @@ public class OAuthTokenService {
     private String scope;
 
     private final WebClient webClient;
+    private final UpstreamGovernor governor;
+    private final StageLatency stages;
+    private final AuditLog auditLog;
 
     private final AtomicReference<String> accessToken = new AtomicReference<>();
     private final AtomicReference<Instant> tokenExpiry = new AtomicReference<>();
 
-    public OAuthTokenService(WebClient.Builder builder) {
+    // 변경 전: public OAuthTokenService(WebClient.Builder builder)
+    // 변경 전: public OAuthTokenService(WebClient.Builder builder, UpstreamGovernor governor)
+    // 변경 전: public OAuthTokenService(WebClient.Builder builder, UpstreamGovernor governor, StageLatency stages)
+    public OAuthTokenService(WebClient.Builder builder, UpstreamGovernor governor, StageLatency stages, AuditLog auditLog) {
         this.webClient = builder.build();
+        this.governor = governor;
+        this.stages = stages;
+        this.auditLog = auditLog;
     }
 
-    public String getValidToken() {
-        var now = Instant.now();
-        var exp = tokenExpiry.get();
-        var token = accessToken.get();
-        if (token != null && exp != null && now.isBefore(exp.minusSeconds(10))) {
-            return token;
-        }
-        return fetchToken().block();
+    /**
+     * 유효한 토큰 (만료 10초 전까지 캐시, 아니면 발급). 호출 측에서 timeout / 요청 deadline 을 적용합니다.
+     */
+    public Mono<String> validToken() {
+        return Mono.defer(() -> {
+            var exp = tokenExpiry.get();
+            var token = accessToken.get();
+            if (token != null && exp != null && Instant.now().isBefore(exp.minusSeconds(10))) {
+                return Mono.just(token);
+            }
+            return auditLog.around(fetchToken(), AuditLog.SOURCE_UPSTREAM, "auth.oauth-token", AuditLog.SYSTEM_ACTOR, clientId, null);
+        });
+    }
+
+    // 변경 전: public String getValidToken() { ... return ...fetchToken()...block(); } - 대기 시간 상한 없음
+    public String getValidToken(Duration timeout) {
+        return validToken().block(timeout);
     }
 
     private Mono<String> fetchToken() {
@@ -58,12 +80,15 @@ public class OAuthTokenService {
         form.add("client_secret", clientSecret);
         form.add("scope", scope);
 
-        return webClient.post()
+        // 변경 전: return webClient.post()... (업스트림 예산 미적용)
+        // 변경 후: 토큰 발급 전체를 oauth.token 단계로 측정
+        return stages.observe(StageLatency.OAUTH_TOKEN, "oauth", governor.acquire(UpstreamGovernor.OAUTH_TOKEN).then(webClient.post()
                 .uri(tokenUrl)
+                .attribute(StageLatency.CALL_ATTRIBUTE, "oauth")
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED)
                 .body(BodyInserters.fromFormData(form))
                 .retrieve()
-                .bodyToMono(String.class)
+                .bodyToMono(String.class))
                 .map(raw -> {
                     // 단순 파싱 (정식 Jackson 사용)
                     try {
@@ -79,7 +104,23 @@ public class OAuthTokenService {
                         log.error("OAuth 토큰 파싱 실패: {}", e.getMessage());
                         throw new IllegalStateException("OAuth 토큰 파싱 실패", e);
                     }
-                });
+                }));
+    }
+
+    /** warm restart 저장용 현재 토큰/만료 (없으면 null) */
+    public String getAccessToken() { return accessToken.get(); }
+
+    public Instant getTokenExpiry() { return tokenExpiry.get(); }
+
+    /**
+     * 재기동 전 저장된 토큰 복원 (만료 임박/만료면 무시하고 false)
+     */
+    public boolean restoreToken(String token, Instant expiry) {
+        if (token == null || expiry == null || !Instant.now().isBefore(expiry.minusSeconds(10))) return false;
+        tokenExpiry.set(expiry);
+        accessToken.set(token);
+        log.info("저장된 OAuth 토큰 복원 exp={}", expiry);
+        return true;
     }
 
     public String getAccessTokenMasked() {
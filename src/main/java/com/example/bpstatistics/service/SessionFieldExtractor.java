@@ -0,0 +1,184 @@
+package com.example.bpstatistics.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 인증 응답에서 세션 ID / 만료(초) 추출기
+ * 최초 성공 시 값이 위치한 JSON Pointer 를 학습하고, 이후 응답은 JsonParser 스트리밍으로
+ * 해당 경로만 확인 후 즉시 중단합니다. 학습 경로에서 찾지 못하면 전체 트리 스캔으로 폴백 후 재학습합니다.
+ */
+public class SessionFieldExtractor {
+
+    // 우선순위 순서 (앞쪽이 우선). 범용 키 "id" 는 구체적인 키가 전혀 없을 때만 사용
+    // 변경 전: Set.of(...) 사용 -> 반복 순서가 비결정적이라 "id" 가 먼저 매칭될 수 있었음
+    static final List<String> SESSION_KEYS = List.of("session_id", "sessionId", "session_token", "sessionToken", "token", "id");
+    static final List<String> EXPIRE_KEYS = List.of("expires_in", "expiresIn", "expiry", "ttl");
+
+    /** 추출 결과. expiresInSeconds 는 찾지 못하면 -1 */
+    public record Extracted(String sessionId, long expiresInSeconds) {}
+
+    /** 학습된 경로 (expiry 는 응답에 없을 수 있으므로 null 허용) */
+    private record LearnedPaths(PathSegments session, PathSegments expiry) {}
+
+    private final ObjectMapper objectMapper;
+    private final AtomicReference<LearnedPaths> learned = new AtomicReference<>();
+
+    public SessionFieldExtractor(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 세션 ID / 만료 추출. 세션 ID 를 찾지 못하면 null
+     */
+    public Extracted extract(String rawJson) throws IOException {
+        LearnedPaths paths = learned.get();
+        if (paths != null) {
+            Extracted fast = extractStreaming(rawJson, paths);
+            if (fast != null) return fast;
+        }
+        return extractByFullScan(rawJson);
+    }
+
+    /** 현재 학습된 세션 경로 (진단용, 미학습 시 null) */
+    public String learnedSessionPointer() {
+        LearnedPaths p = learned.get();
+        return p == null ? null : p.session().pointer().toString();
+    }
+
+    /** 학습 경로 초기화 (응답 포맷 변경 등) */
+    public void reset() {
+        learned.set(null);
+    }
+
+    // 학습된 경로만 확인하는 스트리밍 파싱: 경로 밖의 하위 구조는 skipChildren 으로 건너뜀
+    private Extracted extractStreaming(String rawJson, LearnedPaths paths) throws IOException {
+        PathSegments sessionPath = paths.session();
+        PathSegments expiryPath = paths.expiry();
+        String sid = null;
+        long expires = -1;
+        boolean expiryDone = expiryPath == null;
+        try (JsonParser p = objectMapper.getFactory().createParser(rawJson)) {
+            JsonToken t;
+            while ((t = p.nextToken()) != null) {
+                if (t == JsonToken.FIELD_NAME || t.isStructEnd()) continue;
+                if (t.isStructStart()) {
+                    // 컨테이너 위치 = 부모 컨텍스트의 현재 이름/인덱스
+                    JsonStreamContext owner = p.getParsingContext().getParent();
+                    int len = owner.getNestingDepth();
+                    boolean wanted = (sid == null && sessionPath.startsWith(owner, len))
+                            || (!expiryDone && expiryPath.startsWith(owner, len));
+                    if (!wanted) p.skipChildren();
+                    continue;
+                }
+                JsonStreamContext ctx = p.getParsingContext();
+                int len = ctx.getNestingDepth();
+                if (sid == null && sessionPath.matches(ctx, len)) {
+                    if (t != JsonToken.VALUE_STRING) return null;
+                    String v = p.getText();
+                    if (v == null || v.isBlank()) return null;
+                    sid = v;
+                } else if (!expiryDone && expiryPath.matches(ctx, len)) {
+                    if (t == JsonToken.VALUE_NUMBER_INT) expires = p.getLongValue();
+                    else if (t == JsonToken.VALUE_NUMBER_FLOAT) expires = (long) p.getDoubleValue();
+                    expiryDone = true;
+                }
+                if (sid != null && expiryDone) break; // 두 값 모두 확보 -> 나머지 본문은 읽지 않음
+            }
+        }
+        return sid == null ? null : new Extracted(sid, expires);
+    }
+
+    // 폴백: 트리 전체를 1회 BFS 로 순회하며 키 우선순위 -> 얕은 깊이 순으로 최적 후보 선택 후 경로 학습
+    private Extracted extractByFullScan(String rawJson) throws IOException {
+        JsonNode root = objectMapper.readTree(rawJson);
+        if (root == null) return null;
+        String sid = null; JsonPointer sidPtr = null; int sidRank = Integer.MAX_VALUE;
+        long expires = -1; JsonPointer expPtr = null; int expRank = Integer.MAX_VALUE;
+
+        ArrayDeque<Map.Entry<JsonPointer, JsonNode>> queue = new ArrayDeque<>();
+        queue.add(Map.entry(JsonPointer.empty(), root));
+        while (!queue.isEmpty()) {
+            var e = queue.poll();
+            JsonPointer ptr = e.getKey();
+            JsonNode node = e.getValue();
+            if (node.isObject()) {
+                for (Map.Entry<String, JsonNode> f : node.properties()) {
+                    String name = f.getKey();
+                    JsonNode v = f.getValue();
+                    JsonPointer childPtr = ptr.appendProperty(name);
+                    int sRank = SESSION_KEYS.indexOf(name);
+                    if (sRank >= 0 && sRank < sidRank && v.isTextual() && !v.asText().isBlank()) {
+                        sid = v.asText(); sidPtr = childPtr; sidRank = sRank;
+                    }
+                    int eRank = EXPIRE_KEYS.indexOf(name);
+                    if (eRank >= 0 && eRank < expRank && v.canConvertToLong() && v.asLong() > 0) {
+                        expires = v.asLong(); expPtr = childPtr; expRank = eRank;
+                    }
+                    if (v.isContainerNode()) queue.add(Map.entry(childPtr, v));
+                }
+            } else if (node.isArray()) {
+                for (int i = 0; i < node.size(); i++) {
+                    JsonNode child = node.get(i);
+                    if (child.isContainerNode()) queue.add(Map.entry(ptr.appendIndex(i), child));
+                }
+            }
+        }
+        if (sid == null) return null;
+        learned.set(new LearnedPaths(PathSegments.of(sidPtr), expPtr == null ? null : PathSegments.of(expPtr)));
+        return new Extracted(sid, expires);
+    }
+
+    /**
+     * JSON Pointer 를 세그먼트 배열로 펼친 형태. 파서 컨텍스트를 leaf -> root 로 거슬러 올라가며 비교합니다.
+     */
+    private record PathSegments(JsonPointer pointer, String[] names, int[] indexes) {
+
+        static PathSegments of(JsonPointer ptr) {
+            int n = 0;
+            for (JsonPointer p = ptr; !p.matches(); p = p.tail()) n++;
+            String[] names = new String[n];
+            int[] idx = new int[n];
+            int i = 0;
+            for (JsonPointer p = ptr; !p.matches(); p = p.tail(), i++) {
+                names[i] = p.getMatchingProperty();
+                idx[i] = p.getMatchingIndex();
+            }
+            return new PathSegments(ptr, names, idx);
+        }
+
+        /** ctx 위치(길이 len)가 이 경로와 정확히 일치 */
+        boolean matches(JsonStreamContext ctx, int len) {
+            return len == names.length && sameUpTo(ctx, len);
+        }
+
+        /** ctx 위치(길이 len)가 이 경로의 접두어 (하위로 내려갈 가치가 있음) */
+        boolean startsWith(JsonStreamContext ctx, int len) {
+            return len < names.length && sameUpTo(ctx, len);
+        }
+
+        private boolean sameUpTo(JsonStreamContext ctx, int len) {
+            JsonStreamContext c = ctx;
+            for (int i = len - 1; i >= 0; i--, c = c.getParent()) {
+                if (c.inObject()) {
+                    if (!names[i].equals(c.getCurrentName())) return false;
+                } else if (c.inArray()) {
+                    if (indexes[i] != c.getCurrentIndex()) return false;
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.bpstatistics.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 구독 생성 요청 본문 단일 패스 스트리밍 검증기
+ * JsonNode / Map / DTO 변환 없이 요청 바이트를 한 번만 읽어 "1".agent_grids[].id/columns 스키마를 확인하고,
+ * 검증된 바이트를 그대로(또는 {'agent_grids':[...]} 형태는 배열 구간만 잘라 "1" 로 감싸서) 업스트림에 전달합니다.
+ */
+@Component
+public class SubscriptionBodyValidator {
+
+    private static final byte[] WRAP_PREFIX = "{\"1\":{\"agent_grids\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] WRAP_SUFFIX = "}}".getBytes(StandardCharsets.UTF_8);
+
+    public enum Shape { RAW, AGENT_GRIDS }
+
+    /**
+     * 검증 결과
+     * @param upstreamBody  업스트림으로 그대로 전송할 JSON 바이트 ("1" 루트 구조)
+     * @param gridIds       agent_grids[].id 목록 (요청 순서)
+     * @param gridColumns   grid id -> (column id -> statName), 같은 패스에서 함께 수집
+     */
+    public record Validated(Shape shape, byte[] upstreamBody, List<String> gridIds, Map<String, Map<String, String>> gridColumns) {
+        public int gridCount() { return gridIds.size(); }
+    }
+
+    /** 지원하지 않는 루트 형식 (컨트롤러에서 InvalidRequest 로 구분) */
+    public static class InvalidShapeException extends IllegalArgumentException {
+        public InvalidShapeException(String message) { super(message); }
+    }
+
+    private final JsonFactory jsonFactory;
+
+    public SubscriptionBodyValidator(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * 요청 바이트 검증. 실패 시 IllegalArgumentException (메시지는 기존 validateRawStructure 와 동일)
+     */
+    public Validated validate(byte[] body) {
+        if (body == null || body.length == 0) throw new IllegalArgumentException("구독 JSON이 비어 있습니다.");
+        try (JsonParser p = jsonFactory.createParser(body)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new InvalidShapeException("JSON 객체 본문이 필요합니다.");
+            }
+            Map<String, Map<String, String>> rawGrids = null;  // "1".agent_grids
+            Map<String, Map<String, String>> dtoGrids = null;  // 루트 agent_grids (DTO 형태)
+            long dtoStart = -1, dtoEnd = -1;
+            boolean rootEmpty = true;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                rootEmpty = false;
+                String name = p.currentName();
+                JsonToken v = p.nextToken();
+                if ("1".equals(name)) {
+                    if (v != JsonToken.START_OBJECT) throw new IllegalArgumentException("루트 키 '1' 객체가 필요합니다.");
+                    rawGrids = readRawRoot(p);
+                } else if ("agent_grids".equals(name)) {
+                    dtoStart = p.currentTokenLocation().getByteOffset();
+                    dtoGrids = readGrids(p, "'agent_grids'");
+                    dtoEnd = p.currentLocation().getByteOffset();
+                } else {
+                    p.skipChildren();
+                }
+            }
+            if (p.nextToken() != null) throw new IllegalArgumentException("JSON 본문 뒤에 추가 데이터가 있습니다.");
+            if (rootEmpty) throw new IllegalArgumentException("구독 JSON이 비어 있습니다.");
+
+            // 기존 컨트롤러 우선순위 유지: "1" 루트 -> agent_grids DTO 형태
+            if (rawGrids != null) {
+                return new Validated(Shape.RAW, body, List.copyOf(rawGrids.keySet()), rawGrids);
+            }
+            if (dtoGrids != null) {
+                return new Validated(Shape.AGENT_GRIDS, wrapGrids(body, (int) dtoStart, (int) dtoEnd), List.copyOf(dtoGrids.keySet()), dtoGrids);
+            }
+            throw new InvalidShapeException("지원하지 않는 요청 형식입니다. {'1':{...}} 또는 {'agent_grids':[...]} 형태만 허용됩니다.");
+        } catch (JsonProcessingException jpe) {
+            throw new IllegalArgumentException("구독 JSON 파싱 실패: " + jpe.getOriginalMessage());
+        } catch (IOException ioe) {
+            throw new IllegalArgumentException("구독 JSON 읽기 실패: " + ioe.getMessage());
+        }
+    }
+
+    // "1": { ... "agent_grids": [...] ... } 내부 (현재 토큰 START_OBJECT)
+    private Map<String, Map<String, String>> readRawRoot(JsonParser p) throws IOException {
+        Map<String, Map<String, String>> grids = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            if ("agent_grids".equals(name)) {
+                grids = readGrids(p, "'1.agent_grids'");
+            } else {
+                p.skipChildren();
+            }
+        }
+        if (grids == null) throw new IllegalArgumentException("'1.agent_grids' 배열이 비어있거나 없음");
+        return grids;
+    }
+
+    // agent_grids 배열 (현재 토큰은 값의 첫 토큰) -> grid id -> (column id -> statName)
+    private Map<String, Map<String, String>> readGrids(JsonParser p, String label) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException(label + " 배열이 비어있거나 없음");
+        }
+        Map<String, Map<String, String>> grids = new LinkedHashMap<>();
+        int idx = 0;
+        JsonToken t;
+        while ((t = p.nextToken()) != JsonToken.END_ARRAY) {
+            idx++;
+            if (t != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("agent_grids[" + idx + "] 요소는 객체(Map/DTO)여야 합니다.");
+            }
+            String id = null;
+            boolean hasColumns = false;
+            Map<String, String> columns = new LinkedHashMap<>();
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                JsonToken v = p.nextToken();
+                if ("id".equals(name)) {
+                    if (v.isScalarValue() && v != JsonToken.VALUE_NULL) {
+                        id = p.getText();
+                    } else {
+                        p.skipChildren(); // 객체/배열 id 는 누락으로 간주
+                    }
+                } else if ("columns".equals(name)) {
+                    if (v == JsonToken.START_ARRAY) {
+                        // 컬럼 정의: 존재 여부 확인 + {id, statName} 수집 (그 외 필드는 업스트림이 해석)
+                        JsonToken ct;
+                        while ((ct = p.nextToken()) != JsonToken.END_ARRAY) {
+                            hasColumns = true;
+                            if (ct == JsonToken.START_OBJECT) readColumn(p, columns);
+                            else p.skipChildren();
+                        }
+                    } else {
+                        p.skipChildren();
+                    }
+                } else {
+                    p.skipChildren();
+                }
+            }
+            if (id == null || id.isBlank()) throw new IllegalArgumentException("agent_grids[" + idx + "] id 누락");
+            if (!hasColumns) throw new IllegalArgumentException("agent_grids[" + idx + "] columns 배열 누락");
+            // 변경 전: grids.put(id, ...) - 같은 id 가 뒤에 오면 앞 grid 를 조용히 덮어씀 (gridCount / 컬럼 등록 누락)
+            if (grids.putIfAbsent(id, Collections.unmodifiableMap(columns)) != null) {
+                throw new IllegalArgumentException("agent_grids[" + idx + "] id 중복: " + id);
+            }
+        }
+        if (grids.isEmpty()) throw new IllegalArgumentException(label + " 배열이 비어있거나 없음");
+        return Collections.unmodifiableMap(grids);
+    }
+
+    // columns[] 요소 객체 (현재 토큰 START_OBJECT)
+    private void readColumn(JsonParser p, Map<String, String> columns) throws IOException {
+        String colId = null, statName = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken v = p.nextToken();
+            if (v.isScalarValue() && ("id".equals(name) || "statName".equals(name))) {
+                if ("id".equals(name)) colId = p.getText(); else statName = p.getText();
+            } else {
+                p.skipChildren();
+            }
+        }
+        if (colId != null && statName != null) columns.put(colId, statName);
+    }
+
+    // {'agent_grids':[...]} -> {"1":{"agent_grids":[...]}} : 배열 구간 바이트만 복사 (재직렬화 없음)
+    private static byte[] wrapGrids(byte[] body, int start, int end) {
+        int len = end - start;
+        byte[] out = new byte[WRAP_PREFIX.length + len + WRAP_SUFFIX.length];
+        System.arraycopy(WRAP_PREFIX, 0, out, 0, WRAP_PREFIX.length);
+        System.arraycopy(body, start, out, WRAP_PREFIX.length, len);
+        System.arraycopy(WRAP_SUFFIX, 0, out, WRAP_PREFIX.length + len, WRAP_SUFFIX.length);
+        return out;
+    }
+}
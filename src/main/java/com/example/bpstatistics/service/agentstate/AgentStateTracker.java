@@ -0,0 +1,279 @@
+package com.example.bpstatistics.service.agentstate;
+
+import com.example.bpstatistics.config.AgentStateConfig;
+import com.example.bpstatistics.service.snapshot.GridDefinitionRegistry;
+import com.example.bpstatistics.service.snapshot.GridDelta;
+import com.example.bpstatistics.service.snapshot.GridSnapshot;
+import com.example.bpstatistics.service.snapshot.SnapshotDelta;
+import com.example.bpstatistics.service.snapshot.SnapshotListener;
+import com.example.bpstatistics.service.snapshot.StatsSnapshot;
+import com.example.bpstatistics.web.dto.AgentStateView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 상담원별 상태 체류시간 / 전환 횟수 / adherence 추적 (SnapshotListener)
+ * - 상담원·상태를 int 로 intern 하고 상태는 병렬 배열(state/since/transitions), 누적시간은 상태별 long[agent] 에 보관
+ *   (상담원당 객체 없음, 1만명 x 상태 8종 ≈ 수백 KB)
+ * - 매 스냅샷에서 GridDelta 의 변경/삭제 행만 반영, 조회 시 "누적 + (now - since)" 로 계산하므로 이력 재계산 없음
+ * - time_in_state 컬럼이 있으면 상태 시작 시각을 (capturedAt - time_in_state) 로 보정해 폴링 간격 오차를 줄입니다.
+ * - zone 기준 자정에 누적을 0 으로, 진행 중 상태의 since 를 자정으로 초기화합니다.
+ */
+@Service
+public class AgentStateTracker implements SnapshotListener {
+    private static final Logger log = LoggerFactory.getLogger(AgentStateTracker.class);
+    private static final int UNSEEN = -2;   // intern 직후 (이전 상태 없음)
+    private static final int OFFLINE = -1;  // 그리드에서 빠짐
+    private static final String OTHER_STATE = "(other)";
+
+    private final AgentStateConfig.AgentStateProps props;
+    private final GridDefinitionRegistry gridDefinitions;
+    private final ZoneId zone;
+
+    // 이하 상태는 this 모니터로 보호 (파이프라인 스레드 갱신 / 조회 스레드 읽기)
+    private final Map<String, Integer> agentIds = new HashMap<>();
+    private String[] agentKeys = new String[0];
+    private int[] state = new int[0];
+    private long[] since = new long[0];
+    private int[] transitions = new int[0];
+    private int agentCount;
+
+    private final Map<String, Integer> stateIds = new HashMap<>();
+    private final List<String> stateNames = new ArrayList<>();
+    private long[][] cumulative = new long[0][];     // [state][agent] ms
+    private boolean[] productive = new boolean[0];
+    private boolean[] offline = new boolean[0];
+
+    private long dayStart = Long.MIN_VALUE;
+    private long dayEnd = Long.MIN_VALUE;
+    private long lastCapturedAt;
+    private StatsSnapshot.Origin lastOrigin = StatsSnapshot.Origin.LIVE;
+    private long droppedAgents;
+    private long observedChanges;
+
+    public AgentStateTracker(AgentStateConfig.AgentStateProps props, GridDefinitionRegistry gridDefinitions) {
+        this.props = props;
+        this.gridDefinitions = gridDefinitions;
+        this.zone = ZoneId.of(props.getZone());
+    }
+
+    @Override
+    public synchronized void onSnapshot(StatsSnapshot snapshot, SnapshotDelta delta) {
+        if (!props.isEnabled()) return;
+        long at = snapshot.capturedAtMillis();
+        if (at >= dayEnd) rollDay(at);
+        lastCapturedAt = at;
+        lastOrigin = snapshot.origin();
+
+        for (GridSnapshot g : snapshot.grids().values()) {
+            int stateCol = g.columnIndex(gridDefinitions.resolveColumnId(g.gridId(), props.getStateStat()));
+            if (stateCol < 0) continue;
+            int tisCol = g.columnIndex(gridDefinitions.resolveColumnId(g.gridId(), props.getTimeInStateStat()));
+            double[] tis = tisCol < 0 ? null : g.numericColumn(tisCol);
+            GridDelta d = delta == null ? null : delta.grid(g.gridId());
+            if (d == null || d.fullRefresh()) {
+                for (int r = 0; r < g.rowCount(); r++) observeRow(g, r, stateCol, tis, at);
+            } else {
+                for (int r : d.changedRows()) observeRow(g, r, stateCol, tis, at);
+            }
+            if (d != null) {
+                for (String key : d.removedKeys()) {
+                    Integer id = agentIds.get(key);
+                    if (id != null) transition(id, OFFLINE, at, at);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onReset() {
+        agentIds.clear();
+        agentKeys = new String[0];
+        state = new int[0];
+        since = new long[0];
+        transitions = new int[0];
+        agentCount = 0;
+        stateIds.clear();
+        stateNames.clear();
+        cumulative = new long[0][];
+        productive = new boolean[0];
+        offline = new boolean[0];
+        dayStart = dayEnd = Long.MIN_VALUE;
+    }
+
+    private void observeRow(GridSnapshot g, int r, int stateCol, double[] tis, long at) {
+        int id = agentId(g.rowKey(r));
+        if (id < 0) return;
+        int s = stateId(g.cell(r, stateCol));
+        if (s == state[id]) return;
+        long start = at;
+        if (tis != null && !Double.isNaN(tis[r]) && tis[r] >= 0) {
+            start = at - (long) (tis[r] * 1000);
+        }
+        transition(id, s, at, start);
+    }
+
+    /**
+     * 상태 전환: 이전 상태 구간을 [since, start) 로 마감. start 는 (이전 since, 일 시작, now) 범위로 제한
+     */
+    private void transition(int id, int s, long at, long start) {
+        int prev = state[id];
+        if (prev == s) return;
+        long lo = Math.max(dayStart, prev == UNSEEN ? Long.MIN_VALUE : since[id]);
+        start = Math.min(at, Math.max(lo, start));
+        if (prev >= 0) {
+            cumulative[prev][id] += start - since[id];
+        }
+        if (prev != UNSEEN) transitions[id]++;
+        state[id] = s;
+        since[id] = start;
+        observedChanges++;
+    }
+
+    private int agentId(String key) {
+        Integer id = agentIds.get(key);
+        if (id != null) return id;
+        if (agentCount >= props.getMaxAgents()) {
+            droppedAgents++;
+            return -1;
+        }
+        int n = agentCount++;
+        if (n >= agentKeys.length) grow(Math.max(64, agentKeys.length * 2));
+        agentKeys[n] = key;
+        state[n] = UNSEEN;
+        agentIds.put(key, n);
+        return n;
+    }
+
+    private void grow(int capacity) {
+        agentKeys = Arrays.copyOf(agentKeys, capacity);
+        state = Arrays.copyOf(state, capacity);
+        since = Arrays.copyOf(since, capacity);
+        transitions = Arrays.copyOf(transitions, capacity);
+        for (int s = 0; s < cumulative.length; s++) cumulative[s] = Arrays.copyOf(cumulative[s], capacity);
+    }
+
+    private int stateId(String name) {
+        if (name == null || name.isEmpty()) return OFFLINE;
+        Integer id = stateIds.get(name);
+        if (id != null) return id;
+        if (stateNames.size() >= Math.max(2, props.getMaxStates()) - 1) {
+            // 마지막 슬롯은 (other) 로 고정
+            name = OTHER_STATE;
+            id = stateIds.get(name);
+            if (id != null) return id;
+        }
+        int s = stateNames.size();
+        stateNames.add(name);
+        stateIds.put(name, s);
+        cumulative = Arrays.copyOf(cumulative, s + 1);
+        cumulative[s] = new long[agentKeys.length];
+        productive = Arrays.copyOf(productive, s + 1);
+        productive[s] = props.getProductiveStates().contains(name);
+        offline = Arrays.copyOf(offline, s + 1);
+        offline[s] = props.getOfflineStates().contains(name);
+        return s;
+    }
+
+    // 자정: 누적/전환 0, 진행 중 상태는 자정부터 다시 측정
+    private void rollDay(long at) {
+        LocalDate day = Instant.ofEpochMilli(at).atZone(zone).toLocalDate();
+        long start = day.atStartOfDay(zone).toInstant().toEpochMilli();
+        boolean first = dayStart == Long.MIN_VALUE;
+        dayStart = start;
+        dayEnd = day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        if (first) return;
+        for (long[] c : cumulative) Arrays.fill(c, 0, agentCount, 0);
+        Arrays.fill(transitions, 0, agentCount, 0);
+        for (int i = 0; i < agentCount; i++) {
+            if (state[i] >= 0 && since[i] < start) since[i] = start;
+        }
+        log.info("상담원 상태 누적 일 초기화 day={} agents={}", day, agentCount);
+    }
+
+    // 리플레이 중이면 마지막 스냅샷 시각, 실시간이면 현재 시각 기준
+    private long clock() {
+        return lastOrigin == StatsSnapshot.Origin.LIVE ? Math.max(lastCapturedAt, System.currentTimeMillis()) : lastCapturedAt;
+    }
+
+    public synchronized AgentStateView agent(String key) {
+        Integer id = agentIds.get(key);
+        return id == null ? null : view(id, clock());
+    }
+
+    /**
+     * @param stateFilter 현재 상태 필터 (null 이면 전체)
+     */
+    public synchronized List<AgentStateView> agents(String stateFilter, int offset, int limit) {
+        long now = clock();
+        Integer filter = stateFilter == null ? null : stateIds.get(stateFilter);
+        List<AgentStateView> out = new ArrayList<>(Math.min(limit, agentCount));
+        if (stateFilter != null && filter == null) return out;
+        int skipped = 0;
+        for (int i = 0; i < agentCount && out.size() < limit; i++) {
+            if (filter != null && state[i] != filter) continue;
+            if (skipped++ < offset) continue;
+            out.add(view(i, now));
+        }
+        return out;
+    }
+
+    private AgentStateView view(int id, long now) {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        long loggedIn = 0, productiveMs = 0;
+        int cur = state[id];
+        for (int s = 0; s < stateNames.size(); s++) {
+            long ms = cumulative[s][id] + (cur == s ? Math.max(0, now - since[id]) : 0);
+            if (ms == 0) continue;
+            durations.put(stateNames.get(s), ms / 1000);
+            if (!offline[s]) loggedIn += ms;
+            if (productive[s]) productiveMs += ms;
+        }
+        boolean present = cur >= 0;
+        return new AgentStateView(agentKeys[id],
+                present ? stateNames.get(cur) : null,
+                present ? Instant.ofEpochMilli(since[id]) : null,
+                present ? Math.max(0, now - since[id]) / 1000 : 0,
+                transitions[id], durations, loggedIn / 1000, productiveMs / 1000,
+                loggedIn == 0 ? null : (double) productiveMs / loggedIn);
+    }
+
+    /** 상태별 현재 인원 / 당일 누적 합계(초) */
+    public synchronized Map<String, Object> summary() {
+        long now = clock();
+        int[] counts = new int[stateNames.size()];
+        long[] totals = new long[stateNames.size()];
+        int offlineNow = 0;
+        for (int i = 0; i < agentCount; i++) {
+            int cur = state[i];
+            if (cur >= 0) counts[cur]++; else offlineNow++;
+            for (int s = 0; s < totals.length; s++) {
+                totals[s] += cumulative[s][i] + (cur == s ? Math.max(0, now - since[i]) : 0);
+            }
+        }
+        Map<String, Object> states = new LinkedHashMap<>();
+        for (int s = 0; s < counts.length; s++) {
+            states.put(stateNames.get(s), Map.of("agents", counts[s], "totalSeconds", totals[s] / 1000));
+        }
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("day", dayStart == Long.MIN_VALUE ? null : Instant.ofEpochMilli(dayStart));
+        m.put("asOf", now > 0 ? Instant.ofEpochMilli(now) : null);
+        m.put("agents", agentCount);
+        m.put("offline", offlineNow);
+        m.put("droppedAgents", droppedAgents);
+        m.put("observedChanges", observedChanges);
+        m.put("states", states);
+        return m;
+    }
+}
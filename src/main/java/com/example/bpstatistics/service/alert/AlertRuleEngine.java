@@ -0,0 +1,379 @@
+package com.example.bpstatistics.service.alert;
+
+import com.example.bpstatistics.service.snapshot.GridDefinitionRegistry;
+import com.example.bpstatistics.service.snapshot.GridDelta;
+import com.example.bpstatistics.service.snapshot.GridSnapshot;
+import com.example.bpstatistics.service.snapshot.SnapshotDelta;
+import com.example.bpstatistics.service.snapshot.SnapshotListener;
+import com.example.bpstatistics.service.snapshot.StatsSnapshot;
+import com.example.bpstatistics.web.dto.AlertEvent;
+import com.example.bpstatistics.web.dto.AlertRuleDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 스냅샷 단위 증분 알림 규칙 엔진 (SnapshotListener)
+ * - 규칙/grid 별로 "조건을 만족하는 행"의 그룹 집계(count/sum/min/max)를 유지하고,
+ *   매 스냅샷에서는 GridDelta 의 변경/삭제 행만 반영합니다 (최초/컬럼 변경/규칙 등록 직후만 전체 계산).
+ * - 판정: 집계값 op threshold 가 forSeconds 동안 지속되면 FIRED, clearThreshold(없으면 threshold) 기준으로
+ *   clearForSeconds 동안 해제 상태가 지속되면 RESOLVED (히스테리시스). 시각은 스냅샷 capturedAt 기준이라 리플레이도 동일하게 판정됩니다.
+ * - 이벤트는 Flux(SSE) 로 발행하고, 활성 알림 / 최근 이벤트를 조회용으로 보관합니다.
+ */
+@Service
+public class AlertRuleEngine implements SnapshotListener {
+    private static final Logger log = LoggerFactory.getLogger(AlertRuleEngine.class);
+    private static final String ALL_GROUP = "*";
+    private static final String EMPTY_GROUP = "(none)";
+    private static final int RECENT_EVENTS = 500;
+
+    private final GridDefinitionRegistry gridDefinitions;
+    private final Map<String, RuleEntry> rules = new ConcurrentHashMap<>();
+    private final Map<String, AlertEvent> active = new ConcurrentHashMap<>();
+    private final ArrayDeque<AlertEvent> recent = new ArrayDeque<>();
+    private final Sinks.Many<AlertEvent> sink = Sinks.many().multicast().directBestEffort();
+
+    private final AtomicLong fired = new AtomicLong();
+    private final AtomicLong resolved = new AtomicLong();
+    private volatile long lastRowsEvaluated;
+    private volatile long lastEvalMicros;
+    private volatile long totalRowsEvaluated;
+
+    public AlertRuleEngine(GridDefinitionRegistry gridDefinitions) {
+        this.gridDefinitions = gridDefinitions;
+    }
+
+    /**
+     * 규칙 등록/교체 (같은 id 면 교체, 기존 상태와 활성 알림은 폐기). 정의 오류 시 IllegalArgumentException
+     */
+    public AlertRuleDefinition put(AlertRuleDefinition definition) {
+        if (definition.getId() == null || definition.getId().isBlank()) {
+            definition.setId(UUID.randomUUID().toString());
+        }
+        CompiledRule rule = CompiledRule.compile(definition, definition.getId());
+        RuleEntry previous = rules.put(rule.id, new RuleEntry(rule));
+        if (previous != null) {
+            previous.removed = true;
+            active.keySet().removeIf(k -> k.startsWith(rule.id + '\u0000'));
+        }
+        log.info("알림 규칙 {} id={} name={}", previous == null ? "등록" : "교체", rule.id, rule.name);
+        return definition;
+    }
+
+    public boolean remove(String ruleId) {
+        RuleEntry e = rules.remove(ruleId);
+        if (e == null) return false;
+        e.removed = true;
+        active.keySet().removeIf(k -> k.startsWith(ruleId + '\u0000'));
+        log.info("알림 규칙 삭제 id={}", ruleId);
+        return true;
+    }
+
+    public List<AlertRuleDefinition> rules() {
+        return rules.values().stream().map(e -> e.rule.definition).toList();
+    }
+
+    public List<AlertEvent> activeAlerts() {
+        return List.copyOf(active.values());
+    }
+
+    public List<AlertEvent> recentEvents(int limit) {
+        synchronized (recent) {
+            List<AlertEvent> out = new ArrayList<>(Math.min(limit, recent.size()));
+            Iterator<AlertEvent> it = recent.descendingIterator();
+            while (it.hasNext() && out.size() < limit) out.add(it.next());
+            return out;
+        }
+    }
+
+    /** 알림 이벤트 스트림 (구독 시점 이후 이벤트만, 느린 구독자는 누락 허용) */
+    public Flux<AlertEvent> events() {
+        return sink.asFlux();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("rules", rules.size());
+        m.put("active", active.size());
+        m.put("fired", fired.get());
+        m.put("resolved", resolved.get());
+        m.put("subscribers", sink.currentSubscriberCount());
+        m.put("lastRowsEvaluated", lastRowsEvaluated);
+        m.put("lastEvalMicros", lastEvalMicros);
+        m.put("totalRowsEvaluated", totalRowsEvaluated);
+        return m;
+    }
+
+    @Override
+    public void onSnapshot(StatsSnapshot snapshot, SnapshotDelta delta) {
+        if (rules.isEmpty()) return;
+        long t0 = System.nanoTime();
+        long now = snapshot.capturedAtMillis();
+        long rows = 0;
+        for (RuleEntry e : rules.values()) {
+            CompiledRule rule = e.rule;
+            for (GridSnapshot g : snapshot.grids().values()) {
+                if (!rule.appliesTo(g.gridId())) continue;
+                RuleGridState st = e.grids.computeIfAbsent(g.gridId(), k -> new RuleGridState());
+                rows += st.apply(e, g, delta.grid(g.gridId()), now);
+            }
+            for (String removedGrid : delta.removedGrids()) {
+                RuleGridState st = e.grids.remove(removedGrid);
+                if (st != null) st.dropAll(e, removedGrid, now);
+            }
+        }
+        lastRowsEvaluated = rows;
+        totalRowsEvaluated += rows;
+        lastEvalMicros = (System.nanoTime() - t0) / 1000;
+    }
+
+    @Override
+    public void onReset() {
+        for (RuleEntry e : rules.values()) e.grids.clear();
+        active.clear();
+    }
+
+    private void emit(RuleEntry e, AlertEvent ev) {
+        if (e.removed) return;
+        String key = e.rule.id + '\u0000' + ev.gridId() + '\u0000' + ev.groupKey();
+        if (AlertEvent.FIRED.equals(ev.type())) {
+            active.put(key, ev);
+            fired.incrementAndGet();
+            log.warn("알림 발생 rule={} grid={} group={} value={} threshold={}", e.rule.name, ev.gridId(), ev.groupKey(), ev.value(), ev.threshold());
+        } else {
+            active.remove(key);
+            resolved.incrementAndGet();
+            log.info("알림 해제 rule={} grid={} group={} value={}", e.rule.name, ev.gridId(), ev.groupKey(), ev.value());
+        }
+        synchronized (recent) {
+            if (recent.size() >= RECENT_EVENTS) recent.pollFirst();
+            recent.addLast(ev);
+        }
+        sink.tryEmitNext(ev);
+    }
+
+    private static final class RuleEntry {
+        final CompiledRule rule;
+        final Map<String, RuleGridState> grids = new HashMap<>(); // 파이프라인 스레드 전용
+        volatile boolean removed;
+
+        RuleEntry(CompiledRule rule) { this.rule = rule; }
+    }
+
+    /** 조건을 만족하는 행의 기여분 (그룹, 집계 대상 값) */
+    private record Contribution(String group, double value) { }
+
+    private static final class GroupState {
+        int count;
+        double sum;
+        TreeMap<Double, Integer> values; // MIN/MAX 전용 (삭제 시 차순위 값 필요)
+        long pendingSince = -1;
+        long clearSince = -1;
+        long firedAt;
+        boolean firing;
+
+        void add(double v, boolean ordered) {
+            count++;
+            sum += v;
+            if (ordered) {
+                if (values == null) values = new TreeMap<>();
+                values.merge(v, 1, Integer::sum);
+            }
+        }
+
+        void retract(double v, boolean ordered) {
+            count--;
+            sum -= v;
+            if (ordered && values != null) values.computeIfPresent(v, (k, c) -> c == 1 ? null : c - 1);
+        }
+
+        void clearAggregate() {
+            count = 0;
+            sum = 0;
+            if (values != null) values.clear();
+        }
+
+        double value(CompiledRule.Aggregate agg) {
+            return switch (agg) {
+                case COUNT -> count;
+                case SUM -> sum;
+                case AVG -> count == 0 ? Double.NaN : sum / count;
+                case MIN -> values == null || values.isEmpty() ? Double.NaN : values.firstKey();
+                case MAX -> values == null || values.isEmpty() ? Double.NaN : values.lastKey();
+            };
+        }
+    }
+
+    /** 규칙 1개 x grid 1개의 증분 상태 (파이프라인 스레드 전용) */
+    private final class RuleGridState {
+        CompiledRule.Binding binding;
+        boolean warned;
+        final Map<String, Contribution> rows = new HashMap<>();   // 조건 만족 행만 보관
+        final Map<String, GroupState> groups = new HashMap<>();
+        final Set<String> watch = new HashSet<>();                // 대기/발생 중 그룹 (시간 경과만으로 판정이 바뀔 수 있음)
+        final Set<String> touched = new HashSet<>();
+
+        int apply(RuleEntry e, GridSnapshot g, GridDelta d, long now) {
+            CompiledRule rule = e.rule;
+            boolean full = binding == null || d == null || d.fullRefresh() || binding.registryVersion() != gridDefinitions.version();
+            if (full) {
+                binding = rule.bind(g, gridDefinitions);
+                if (!binding.bound()) {
+                    if (!warned) {
+                        warned = true;
+                        log.warn("알림 규칙 컬럼 미존재 - grid 미적용 rule={} grid={} column={}", rule.name, g.gridId(), binding.missing());
+                    }
+                    dropAll(e, g.gridId(), now);
+                    return 0;
+                }
+                warned = false;
+            }
+            ensurePinnedGroup(rule);
+            int evaluated;
+            if (full) {
+                rows.clear();
+                for (Map.Entry<String, GroupState> ge : groups.entrySet()) {
+                    ge.getValue().clearAggregate();
+                    touched.add(ge.getKey());
+                }
+                int n = g.rowCount();
+                for (int r = 0; r < n; r++) update(rule, g, r);
+                evaluated = n;
+            } else {
+                for (String key : d.removedKeys()) retract(rule, key);
+                int[] changed = d.changedRows();
+                for (int r : changed) update(rule, g, r);
+                evaluated = changed.length;
+            }
+            evaluate(e, g.gridId(), now);
+            return evaluated;
+        }
+
+        // grid 소멸 / 컬럼 미존재: 판정 불가 -> 발생 중 알림은 해제 처리 후 상태 폐기
+        void dropAll(RuleEntry e, String gridId, long now) {
+            CompiledRule rule = e.rule;
+            for (Map.Entry<String, GroupState> ge : groups.entrySet()) {
+                GroupState gs = ge.getValue();
+                if (gs.firing) {
+                    emit(e, new AlertEvent(AlertEvent.RESOLVED, rule.id, rule.name, rule.severity, gridId, ge.getKey(),
+                            Double.NaN, rule.threshold, now, gs.firedAt));
+                }
+            }
+            rows.clear();
+            groups.clear();
+            watch.clear();
+            touched.clear();
+        }
+
+        // groupBy 미지정 / groupValue 고정 규칙은 행이 0개여도 그룹을 유지해야 "N명 미만" 류 규칙이 판정됨
+        private void ensurePinnedGroup(CompiledRule rule) {
+            String pinned = rule.groupBy == null ? ALL_GROUP : rule.groupValue;
+            if (pinned != null && groups.putIfAbsent(pinned, new GroupState()) == null) touched.add(pinned);
+        }
+
+        private void update(CompiledRule rule, GridSnapshot g, int row) {
+            String key = g.rowKey(row);
+            Contribution next = null;
+            String group = groupOf(rule, g, row);
+            if (group != null && binding.predicate().test(g, row)) {
+                double v = rule.aggregate == CompiledRule.Aggregate.COUNT ? 1 : g.numeric(row, binding.metricCol());
+                if (!Double.isNaN(v)) next = new Contribution(group, v);
+            }
+            Contribution prev = next == null ? rows.remove(key) : rows.put(key, next);
+            if (prev != null && prev.equals(next)) return;
+            boolean ordered = isOrdered(rule);
+            if (prev != null) {
+                GroupState gs = groups.get(prev.group());
+                if (gs != null) gs.retract(prev.value(), ordered);
+                touched.add(prev.group());
+            }
+            if (next != null) {
+                groups.computeIfAbsent(next.group(), k -> new GroupState()).add(next.value(), ordered);
+                touched.add(next.group());
+            }
+        }
+
+        private void retract(CompiledRule rule, String key) {
+            Contribution prev = rows.remove(key);
+            if (prev == null) return;
+            GroupState gs = groups.get(prev.group());
+            if (gs != null) gs.retract(prev.value(), isOrdered(rule));
+            touched.add(prev.group());
+        }
+
+        // 그룹 키 (groupValue 지정 시 다른 그룹은 null = 제외)
+        private String groupOf(CompiledRule rule, GridSnapshot g, int row) {
+            if (binding.groupCol() < 0) return ALL_GROUP;
+            String v = g.cell(row, binding.groupCol());
+            String group = v == null || v.isBlank() ? EMPTY_GROUP : v;
+            return rule.groupValue == null || rule.groupValue.equals(group) ? group : null;
+        }
+
+        private void evaluate(RuleEntry e, String gridId, long now) {
+            CompiledRule rule = e.rule;
+            touched.addAll(watch);
+            for (String group : touched) {
+                GroupState gs = groups.get(group);
+                if (gs == null) {
+                    watch.remove(group);
+                    continue;
+                }
+                double v = gs.value(rule.aggregate);
+                boolean breach = rule.cmp.test(v, rule.threshold);
+                if (!gs.firing) {
+                    if (breach) {
+                        if (gs.pendingSince < 0) gs.pendingSince = now;
+                        if (now - gs.pendingSince >= rule.forMillis) {
+                            gs.firing = true;
+                            gs.firedAt = now;
+                            gs.clearSince = -1;
+                            emit(e, new AlertEvent(AlertEvent.FIRED, rule.id, rule.name, rule.severity, gridId, group, v, rule.threshold, now, gs.pendingSince));
+                        }
+                    } else {
+                        gs.pendingSince = -1;
+                    }
+                } else {
+                    boolean holds = rule.clearThreshold == null ? breach : rule.cmp.test(v, rule.clearThreshold);
+                    if (!holds) {
+                        if (gs.clearSince < 0) gs.clearSince = now;
+                        if (now - gs.clearSince >= rule.clearForMillis) {
+                            gs.firing = false;
+                            gs.pendingSince = -1;
+                            emit(e, new AlertEvent(AlertEvent.RESOLVED, rule.id, rule.name, rule.severity, gridId, group, v, rule.threshold, now, gs.firedAt));
+                        }
+                    } else {
+                        gs.clearSince = -1;
+                    }
+                }
+                boolean pinned = rule.groupBy == null ? ALL_GROUP.equals(group) : group.equals(rule.groupValue);
+                if (gs.firing || gs.pendingSince >= 0 || gs.clearSince >= 0) {
+                    watch.add(group);
+                } else {
+                    watch.remove(group);
+                    if (gs.count == 0 && !pinned) groups.remove(group);
+                }
+            }
+            touched.clear();
+        }
+
+        private boolean isOrdered(CompiledRule rule) {
+            return rule.aggregate == CompiledRule.Aggregate.MIN || rule.aggregate == CompiledRule.Aggregate.MAX;
+        }
+    }
+}
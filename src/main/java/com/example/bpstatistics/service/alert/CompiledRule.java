@@ -0,0 +1,209 @@
+package com.example.bpstatistics.service.alert;
+
+import com.example.bpstatistics.service.snapshot.GridDefinitionRegistry;
+import com.example.bpstatistics.service.snapshot.GridSnapshot;
+import com.example.bpstatistics.web.dto.AlertRuleDefinition;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * AlertRuleDefinition 을 검증/사전 변환한 실행 형태
+ * 조건 값(숫자/시간 문자열/IN 목록)은 등록 시 1회만 해석하고, grid 별 바인딩에서 컬럼 참조를 인덱스로 고정합니다.
+ */
+final class CompiledRule {
+
+    enum Aggregate { COUNT, SUM, AVG, MIN, MAX }
+
+    enum Cmp {
+        GT, GE, LT, LE, EQ, NE;
+
+        boolean test(double a, double b) {
+            if (Double.isNaN(a) || Double.isNaN(b)) return false;
+            return switch (this) {
+                case GT -> a > b;
+                case GE -> a >= b;
+                case LT -> a < b;
+                case LE -> a <= b;
+                case EQ -> a == b;
+                case NE -> a != b;
+            };
+        }
+
+        static Cmp parse(String op) {
+            if (op == null) throw new IllegalArgumentException("op 누락");
+            return switch (op.trim().toUpperCase(Locale.ROOT)) {
+                case "GT", ">" -> GT;
+                case "GE", ">=" -> GE;
+                case "LT", "<" -> LT;
+                case "LE", "<=" -> LE;
+                case "EQ", "=", "==" -> EQ;
+                case "NE", "!=", "<>" -> NE;
+                default -> throw new IllegalArgumentException("지원하지 않는 비교 연산자: " + op);
+            };
+        }
+    }
+
+    /** grid 행 판정 (바인딩된 컬럼 인덱스 사용) */
+    @FunctionalInterface
+    interface RowPredicate {
+        boolean test(GridSnapshot g, int row);
+    }
+
+    /** grid 별 바인딩 결과. predicate == null 이면 해당 grid 에 필요한 컬럼이 없어 규칙 미적용 */
+    record Binding(RowPredicate predicate, int groupCol, int metricCol, long registryVersion, String missing) {
+        boolean bound() { return predicate != null; }
+    }
+
+    private record Condition(String column, String op, String text, double number, Set<String> in) { }
+
+    final AlertRuleDefinition definition;
+    final String id;
+    final String name;
+    final String gridId;
+    final String groupBy;
+    final String groupValue;
+    final Aggregate aggregate;
+    final String metric;
+    final Cmp cmp;
+    final double threshold;
+    final Double clearThreshold;
+    final long forMillis;
+    final long clearForMillis;
+    final String severity;
+    private final List<Condition> conditions;
+
+    private CompiledRule(AlertRuleDefinition d, String id) {
+        this.definition = d;
+        this.id = id;
+        this.name = d.getName() == null || d.getName().isBlank() ? id : d.getName();
+        this.gridId = blankToNull(d.getGridId());
+        this.groupBy = blankToNull(d.getGroupBy());
+        this.groupValue = d.getGroupValue();
+        try {
+            this.aggregate = Aggregate.valueOf((d.getAggregate() == null ? "COUNT" : d.getAggregate()).trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("지원하지 않는 aggregate: " + d.getAggregate());
+        }
+        this.metric = blankToNull(d.getMetric());
+        if (aggregate != Aggregate.COUNT && metric == null) {
+            throw new IllegalArgumentException(aggregate + " 집계에는 metric 컬럼이 필요합니다.");
+        }
+        if (groupValue != null && groupBy == null) {
+            throw new IllegalArgumentException("groupValue 는 groupBy 와 함께 지정해야 합니다.");
+        }
+        this.cmp = Cmp.parse(d.getOp());
+        if (d.getThreshold() == null || d.getThreshold().isNaN()) throw new IllegalArgumentException("threshold 누락");
+        this.threshold = d.getThreshold();
+        this.clearThreshold = d.getClearThreshold();
+        if (d.getForSeconds() < 0 || d.getClearForSeconds() < 0) throw new IllegalArgumentException("지속 시간은 0 이상이어야 합니다.");
+        this.forMillis = d.getForSeconds() * 1000L;
+        this.clearForMillis = d.getClearForSeconds() * 1000L;
+        this.severity = d.getSeverity() == null ? "WARN" : d.getSeverity();
+
+        List<Condition> conds = new ArrayList<>();
+        if (d.getWhere() != null) {
+            for (AlertRuleDefinition.Condition c : d.getWhere()) {
+                if (c == null || blankToNull(c.getColumn()) == null) throw new IllegalArgumentException("where.column 누락");
+                conds.add(compileCondition(c));
+            }
+        }
+        this.conditions = List.copyOf(conds);
+    }
+
+    static CompiledRule compile(AlertRuleDefinition d, String id) {
+        return new CompiledRule(d, id);
+    }
+
+    private static Condition compileCondition(AlertRuleDefinition.Condition c) {
+        String op = c.getOp() == null ? "EQ" : c.getOp().trim().toUpperCase(Locale.ROOT);
+        String value = c.getValue();
+        switch (op) {
+            case "CONTAINS" -> {
+                if (value == null) throw new IllegalArgumentException("CONTAINS 조건 값 누락: " + c.getColumn());
+                return new Condition(c.getColumn(), op, value, Double.NaN, null);
+            }
+            case "IN" -> {
+                Set<String> set = new HashSet<>();
+                if (value != null) for (String s : value.split(",")) set.add(s.trim());
+                return new Condition(c.getColumn(), op, value, Double.NaN, set);
+            }
+            default -> {
+                Cmp cmp = Cmp.parse(op);
+                double num = GridSnapshot.parseNumeric(value == null ? null : value.trim());
+                if (cmp != Cmp.EQ && cmp != Cmp.NE && Double.isNaN(num)) {
+                    throw new IllegalArgumentException("숫자 비교 조건 값이 숫자가 아닙니다: " + c.getColumn() + " " + op + " " + value);
+                }
+                return new Condition(c.getColumn(), cmp.name(), value, num, null);
+            }
+        }
+    }
+
+    boolean appliesTo(String gid) {
+        return gridId == null || gridId.equals(gid);
+    }
+
+    /**
+     * 컬럼 참조(column id / statName)를 grid 인덱스로 고정하고 조건을 하나의 predicate 로 결합
+     */
+    Binding bind(GridSnapshot g, GridDefinitionRegistry registry) {
+        long version = registry.version();
+        int groupCol = -1;
+        if (groupBy != null) {
+            groupCol = g.columnIndex(registry.resolveColumnId(g.gridId(), groupBy));
+            if (groupCol < 0) return new Binding(null, -1, -1, version, groupBy);
+        }
+        int metricCol = -1;
+        if (metric != null) {
+            metricCol = g.columnIndex(registry.resolveColumnId(g.gridId(), metric));
+            if (metricCol < 0) return new Binding(null, -1, -1, version, metric);
+        }
+        RowPredicate predicate = (grid, row) -> true;
+        for (Condition c : conditions) {
+            int col = g.columnIndex(registry.resolveColumnId(g.gridId(), c.column()));
+            if (col < 0) return new Binding(null, -1, -1, version, c.column());
+            predicate = and(predicate, conditionPredicate(c, col));
+        }
+        return new Binding(predicate, groupCol, metricCol, version, null);
+    }
+
+    private static RowPredicate and(RowPredicate a, RowPredicate b) {
+        return (g, row) -> a.test(g, row) && b.test(g, row);
+    }
+
+    private static RowPredicate conditionPredicate(Condition c, int col) {
+        String text = c.text();
+        double num = c.number();
+        return switch (c.op()) {
+            case "CONTAINS" -> (g, row) -> {
+                String v = g.cell(row, col);
+                return v != null && v.contains(text);
+            };
+            case "IN" -> {
+                Set<String> in = c.in();
+                yield (g, row) -> in.contains(g.cell(row, col));
+            }
+            case "EQ" -> (g, row) -> equalsCell(g, row, col, text, num);
+            case "NE" -> (g, row) -> !equalsCell(g, row, col, text, num);
+            default -> {
+                Cmp cmp = Cmp.valueOf(c.op());
+                yield (g, row) -> cmp.test(g.numeric(row, col), num);
+            }
+        };
+    }
+
+    // 문자열 일치 또는 (둘 다 숫자/시간이면) 숫자 일치: "60" == "60.0" == "00:01:00"
+    private static boolean equalsCell(GridSnapshot g, int row, int col, String text, double num) {
+        String v = g.cell(row, col);
+        if (v == null) return text == null;
+        if (v.equals(text)) return true;
+        return !Double.isNaN(num) && g.numeric(row, col) == num;
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.bpstatistics.service.audit;
+
+/**
+ * 감사 이벤트 1건 (ring / spill 파일 / DB 공통)
+ * source: api(인바운드 요청) / upstream(BrightPattern 호출), outcome: ok / failed / cancelled
+ * actor: 원격 주소(또는 system), claimedActor: 클라이언트가 헤더로 보낸 사용자 (검증되지 않은 값, 없으면 null)
+ */
+public record AuditEvent(String id, long occurredAt, String source, String action, String actor, String claimedActor,
+                         String target, String outcome, String detail, long durationMs, String node) {
+}
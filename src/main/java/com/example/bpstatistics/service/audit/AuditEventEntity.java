@@ -0,0 +1,92 @@
+package com.example.bpstatistics.service.audit;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * bp_audit_event 행. id 는 노드에서 미리 만들어 두므로 isNew() = true 로 merge(조회) 없이 바로 insert (JDBC batch 가능)
+ */
+@Entity
+@Table(name = "bp_audit_event")
+public class AuditEventEntity implements Persistable<String> {
+
+    @Id
+    @Column(name = "event_id", length = 80)
+    private String id;
+
+    @Column(name = "occurred_at", nullable = false)
+    private long occurredAt;
+
+    @Column(name = "source", length = 16, nullable = false)
+    private String source;
+
+    @Column(name = "action", length = 64, nullable = false)
+    private String action;
+
+    @Column(name = "actor", length = 200)
+    private String actor;
+
+    @Column(name = "claimed_actor", length = 200)
+    private String claimedActor;
+
+    @Column(name = "target", length = 200)
+    private String target;
+
+    @Column(name = "outcome", length = 16, nullable = false)
+    private String outcome;
+
+    @Column(name = "detail", length = 1000)
+    private String detail;
+
+    @Column(name = "duration_ms", nullable = false)
+    private long durationMs;
+
+    @Column(name = "node", length = 200)
+    private String node;
+
+    @Transient
+    private boolean persisted;
+
+    protected AuditEventEntity() { }
+
+    public AuditEventEntity(AuditEvent e) {
+        this.id = e.id();
+        this.occurredAt = e.occurredAt();
+        this.source = e.source();
+        this.action = e.action();
+        this.actor = e.actor();
+        this.claimedActor = e.claimedActor();
+        this.target = e.target();
+        this.outcome = e.outcome();
+        this.detail = e.detail();
+        this.durationMs = e.durationMs();
+        this.node = e.node();
+    }
+
+    @Override
+    public String getId() { return id; }
+
+    @Override
+    public boolean isNew() { return !persisted; }
+
+    @PostPersist
+    @PostLoad
+    void markPersisted() { this.persisted = true; }
+
+    public long getOccurredAt() { return occurredAt; }
+    public String getSource() { return source; }
+    public String getAction() { return action; }
+    public String getActor() { return actor; }
+    public String getClaimedActor() { return claimedActor; }
+    public String getTarget() { return target; }
+    public String getOutcome() { return outcome; }
+    public String getDetail() { return detail; }
+    public long getDurationMs() { return durationMs; }
+    public String getNode() { return node; }
+}
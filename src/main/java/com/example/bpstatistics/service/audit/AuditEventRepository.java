@@ -0,0 +1,6 @@
+package com.example.bpstatistics.service.audit;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AuditEventRepository extends JpaRepository<AuditEventEntity, String> {
+}
@@ -0,0 +1,410 @@
+package com.example.bpstatistics.service.audit;
+
+import com.example.bpstatistics.config.AuditConfig;
+import com.example.bpstatistics.service.cluster.ClusterLeaseService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 감사 로그 (구독 생성/삭제, 인증 이벤트 등 API / 업스트림 작업)
+ * - 요청 스레드: AuditRing 에 CAS 1회로 넣고 바로 반환 (잠금/IO 없음)
+ * - audit-drain 스레드: flush-interval-ms 마다 ring 을 batch-size 단위 배치로 꺼내 적재 대기열에 전달
+ * - audit-writer 스레드: 배치를 JPA(bp_audit_event) 로 적재. 실패하거나 slow-write-ms 보다 느리면
+ *   retry-backoff-ms 동안 DB 를 쉬고 spill-dir 에 JSON lines 파일로 기록, 한가할 때 오래된 파일부터 재적재
+ *
+ * 유실 정책 (모두 stats() 에 집계, 요청 처리는 절대 막지 않음)
+ * 1) ring 가득 참 (적재 스레드가 ring-capacity 건 이상 밀림)  -> 새 이벤트 버림 (droppedRingFull)
+ * 2) spill 파일 총량이 max-spill-mb 초과                      -> 해당 배치 버림 (droppedSpillFull)
+ * 3) spill 파일 기록 실패 (디스크 오류)                        -> 해당 배치 버림 (droppedSpillError)
+ * 4) 프로세스 비정상 종료                                     -> ring / 대기열에 남은 분 유실 (정상 종료 시에는 spill 로 보존)
+ * spill 재적재 중 중단되면 같은 이벤트가 다시 적재될 수 있으나 event_id 중복은 건너뜁니다.
+ */
+@Service
+public class AuditLog {
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+    private static final String SPILL_PREFIX = "audit-";
+    private static final String SPILL_SUFFIX = ".jsonl";
+    private static final long WARN_INTERVAL_MS = 10_000;
+
+    public static final String SOURCE_API = "api";
+    public static final String SOURCE_UPSTREAM = "upstream";
+    public static final String SYSTEM_ACTOR = "system";
+
+    /**
+     * 행위자: address = 원격 주소(내부 작업은 system), claimed = actor-header 값 (클라이언트가 보낸 값 그대로, 검증되지 않음)
+     */
+    public record Actor(String address, String claimed) {
+        public static Actor of(String address) { return new Actor(address, null); }
+    }
+
+    private final AuditConfig.AuditProps props;
+    private final AuditEventRepository repository;
+    private final ObjectMapper objectMapper;
+    private final String node;
+    private final String idPrefix;
+    private final AuditRing<AuditEvent> ring;
+    private final BlockingQueue<List<AuditEvent>> pending;
+    private final Path spillDir;
+    private final AtomicLong idSequence = new AtomicLong();
+    private final ScheduledExecutorService drainer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "audit-drain");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "audit-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile boolean running = true;
+    private volatile long backoffUntil;
+    private final AtomicLong spillBytes = new AtomicLong();
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong writeFailures = new AtomicLong();
+    private final AtomicLong slowWrites = new AtomicLong();
+    private final AtomicLong droppedRingFull = new AtomicLong();
+    private final AtomicLong droppedSpillFull = new AtomicLong();
+    private final AtomicLong droppedSpillError = new AtomicLong();
+    private final AtomicLong lastWarnAt = new AtomicLong();
+    private volatile long lastWriteAt;
+    private volatile long lastWriteMillis;
+
+    public AuditLog(AuditConfig.AuditProps props, AuditEventRepository repository, ObjectMapper objectMapper,
+                    ClusterLeaseService lease) {
+        this.props = props;
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.node = lease.nodeId();
+        this.idPrefix = Long.toString(System.currentTimeMillis(), 36) + "-"
+                + Integer.toString(Math.floorMod(node.hashCode(), 1_679_616), 36) + "-";
+        this.ring = new AuditRing<>(props.getRingCapacity());
+        this.pending = new ArrayBlockingQueue<>(Math.max(1, props.getMaxPendingBatches()));
+        this.spillDir = Paths.get(props.getSpillDir()).toAbsolutePath();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!props.isEnabled()) return;
+        spillBytes.set(spillFiles().stream().mapToLong(AuditLog::sizeOf).sum());
+        if (spillBytes.get() > 0) log.info("감사 로그 미적재 spill 파일 {} bytes dir={} (DB 회복 시 재적재)", spillBytes.get(), spillDir);
+        long interval = Math.max(10, props.getFlushIntervalMs());
+        drainer.scheduleWithFixedDelay(this::drain, interval, interval, TimeUnit.MILLISECONDS);
+        writer.execute(this::writeLoop);
+    }
+
+    public boolean isEnabled() { return props.isEnabled(); }
+
+    /**
+     * 이벤트 1건 기록 (요청 스레드에서 호출, 대기 없음)
+     */
+    public void record(String source, String action, String actor, String target, String outcome,
+                       String detail, long durationMs) {
+        record(source, action, Actor.of(actor), target, outcome, detail, durationMs);
+    }
+
+    public void record(String source, String action, Actor actor, String target, String outcome,
+                       String detail, long durationMs) {
+        if (!props.isEnabled()) return;
+        AuditEvent e = new AuditEvent(idPrefix + Long.toString(idSequence.incrementAndGet(), 36),
+                System.currentTimeMillis(), source, action, truncate(actor.address(), 200), truncate(actor.claimed(), 200),
+                truncate(target, 200), outcome, truncate(detail, 1000), durationMs, node);
+        if (ring.offer(e)) {
+            recorded.incrementAndGet();
+        } else {
+            droppedRingFull.incrementAndGet();
+            warnRateLimited("감사 로그 ring 가득 참 - 이벤트 유실 action={} (누적 {})", action, droppedRingFull.get());
+        }
+    }
+
+    /**
+     * Mono 완료 시점에 결과(ok / failed / cancelled)와 소요시간을 기록
+     * @param resultTarget 성공 값에서 대상 식별자를 얻을 때 (예: 생성된 구독 id), null 이면 target 사용
+     */
+    public <T> Mono<T> around(Mono<T> mono, String source, String action, String actor, String target,
+                              Function<? super T, String> resultTarget) {
+        return around(mono, source, action, Actor.of(actor), target, resultTarget);
+    }
+
+    public <T> Mono<T> around(Mono<T> mono, String source, String action, Actor actor, String target,
+                              Function<? super T, String> resultTarget) {
+        if (!props.isEnabled()) return mono;
+        return Mono.defer(() -> {
+            long t0 = System.nanoTime();
+            Object[] value = new Object[1];
+            return mono
+                    .doOnNext(v -> value[0] = v)
+                    .doOnError(e -> record(source, action, actor, target, "failed", e.getMessage(), elapsedMs(t0)))
+                    .doFinally(type -> {
+                        if (type == SignalType.ON_ERROR) return;
+                        @SuppressWarnings("unchecked")
+                        T v = (T) value[0];
+                        String t = resultTarget != null && v != null ? resultTarget.apply(v) : target;
+                        record(source, action, actor, t, type == SignalType.CANCEL ? "cancelled" : "ok", null, elapsedMs(t0));
+                    });
+        });
+    }
+
+    /**
+     * 요청자: 항상 원격 주소를 기록하고, actor-header 값은 대체하지 않고 claimed 로 함께 보관
+     * (헤더는 클라이언트가 임의로 보낼 수 있으므로 식별 근거로 쓰지 않음)
+     */
+    public Actor actorOf(HttpServletRequest request) {
+        // 변경 전: return user != null && !user.isBlank() ? truncate(user.trim(), 200) : request.getRemoteAddr();
+        if (request == null) return Actor.of(SYSTEM_ACTOR);
+        String user = request.getHeader(props.getActorHeader());
+        return new Actor(request.getRemoteAddr(), user == null || user.isBlank() ? null : truncate(user.trim(), 200));
+    }
+
+    // ring -> 배치. 적재 대기열이 가득 차면(DB 지연) 기다리지 않고 spill
+    private void drain() {
+        try {
+            List<AuditEvent> batch;
+            while (!(batch = ring.drain(Math.max(1, props.getBatchSize()))).isEmpty()) {
+                if (!pending.offer(batch)) spill(batch);
+            }
+        } catch (RuntimeException e) {
+            log.warn("감사 로그 배치 전환 실패 : {}", e.getMessage());
+        }
+    }
+
+    private void writeLoop() {
+        while (running) {
+            try {
+                List<AuditEvent> batch = pending.poll(1, TimeUnit.SECONDS);
+                if (batch != null) {
+                    persistOrSpill(batch);
+                } else if (spillBytes.get() > 0 && System.currentTimeMillis() >= backoffUntil) {
+                    replayOldest();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("감사 로그 적재 루프 오류 : {}", e.getMessage());
+            }
+        }
+    }
+
+    private void persistOrSpill(List<AuditEvent> batch) {
+        if (System.currentTimeMillis() < backoffUntil) {
+            spill(batch);
+            return;
+        }
+        long t0 = System.nanoTime();
+        try {
+            persist(batch);
+            written.addAndGet(batch.size());
+            lastWriteAt = System.currentTimeMillis();
+            lastWriteMillis = elapsedMs(t0);
+            if (lastWriteMillis > props.getSlowWriteMs()) {
+                slowWrites.incrementAndGet();
+                backoffUntil = System.currentTimeMillis() + props.getRetryBackoffMs();
+                log.warn("감사 로그 DB 적재 지연 {}ms (batch={}) - {}ms 동안 spill 로 우회", lastWriteMillis, batch.size(), props.getRetryBackoffMs());
+            }
+        } catch (RuntimeException e) {
+            writeFailures.incrementAndGet();
+            backoffUntil = System.currentTimeMillis() + props.getRetryBackoffMs();
+            log.warn("감사 로그 DB 적재 실패 batch={} - spill 로 보존 : {}", batch.size(), e.getMessage());
+            spill(batch);
+        }
+    }
+
+    // saveAll = 트랜잭션 1개 + JDBC batch insert. 중복 id(재적재)가 섞이면 1건씩 적재하며 건너뜀
+    private void persist(List<AuditEvent> batch) {
+        List<AuditEventEntity> entities = new ArrayList<>(batch.size());
+        for (AuditEvent e : batch) entities.add(new AuditEventEntity(e));
+        try {
+            repository.saveAll(entities);
+        } catch (DataIntegrityViolationException dup) {
+            for (AuditEvent e : batch) {
+                try {
+                    repository.save(new AuditEventEntity(e));
+                } catch (DataIntegrityViolationException ignore) {
+                    // 이미 적재된 이벤트
+                }
+            }
+        }
+    }
+
+    // 배치 1개 = spill 파일 1개 (임시 파일 기록 후 이름 변경, 재적재는 완성된 파일만)
+    private synchronized void spill(List<AuditEvent> batch) {
+        long limit = props.getMaxSpillMb() * 1024 * 1024;
+        if (spillBytes.get() >= limit) {
+            droppedSpillFull.addAndGet(batch.size());
+            warnRateLimited("감사 로그 spill 상한 초과 - 배치 유실 events={} (누적 {})", batch.size(), droppedSpillFull.get());
+            return;
+        }
+        try {
+            Files.createDirectories(spillDir);
+            String name = SPILL_PREFIX + String.format("%015d", System.currentTimeMillis()) + "-" + batch.get(0).id();
+            Path tmp = spillDir.resolve(name + ".tmp");
+            try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (AuditEvent e : batch) {
+                    w.write(objectMapper.writeValueAsString(e));
+                    w.newLine();
+                }
+            }
+            Path file = spillDir.resolve(name + SPILL_SUFFIX);
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+            spillBytes.addAndGet(sizeOf(file));
+            spilled.addAndGet(batch.size());
+        } catch (IOException e) {
+            droppedSpillError.addAndGet(batch.size());
+            warnRateLimited("감사 로그 spill 기록 실패 - 배치 유실 events={} : {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private void replayOldest() {
+        List<Path> files = spillFiles();
+        if (files.isEmpty()) {
+            spillBytes.set(0);
+            return;
+        }
+        Path file = files.get(0);
+        long size = sizeOf(file);
+        List<AuditEvent> events = new ArrayList<>();
+        try (BufferedReader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                if (!line.isBlank()) events.add(objectMapper.readValue(line, AuditEvent.class));
+            }
+        } catch (IOException e) {
+            log.warn("감사 로그 spill 파일 읽기 실패 - 건너뜀 file={} : {}", file, e.getMessage());
+            quarantine(file, size);
+            return;
+        }
+        try {
+            for (int from = 0; from < events.size(); from += Math.max(1, props.getBatchSize())) {
+                persist(events.subList(from, Math.min(events.size(), from + Math.max(1, props.getBatchSize()))));
+            }
+            Files.deleteIfExists(file);
+            spillBytes.addAndGet(-size);
+            replayed.addAndGet(events.size());
+            written.addAndGet(events.size());
+        } catch (RuntimeException | IOException e) {
+            writeFailures.incrementAndGet();
+            backoffUntil = System.currentTimeMillis() + props.getRetryBackoffMs();
+            log.warn("감사 로그 spill 재적재 실패 file={} : {}", file, e.getMessage());
+        }
+    }
+
+    // 형식이 깨진 파일은 재시도하지 않도록 이름을 바꿔 보관 (상한 계산에서도 제외)
+    private void quarantine(Path file, long size) {
+        try {
+            Files.move(file, file.resolveSibling(file.getFileName() + ".bad"), StandardCopyOption.REPLACE_EXISTING);
+            spillBytes.addAndGet(-size);
+        } catch (IOException e) {
+            log.warn("감사 로그 spill 파일 격리 실패 file={} : {}", file, e.getMessage());
+        }
+    }
+
+    private List<Path> spillFiles() {
+        List<Path> out = new ArrayList<>();
+        if (!Files.isDirectory(spillDir)) return out;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(spillDir, SPILL_PREFIX + "*" + SPILL_SUFFIX)) {
+            for (Path p : ds) out.add(p);
+        } catch (IOException e) {
+            log.warn("감사 로그 spill 디렉터리 조회 실패 dir={} : {}", spillDir, e.getMessage());
+        }
+        out.sort(null); // 파일명 = 기록 시각 순
+        return out;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", props.isEnabled());
+        m.put("ringCapacity", ring.capacity());
+        m.put("ringSize", ring.size());
+        m.put("pendingBatches", pending.size());
+        m.put("recorded", recorded.get());
+        m.put("written", written.get());
+        m.put("spilled", spilled.get());
+        m.put("replayed", replayed.get());
+        m.put("spillBytes", spillBytes.get());
+        m.put("writeFailures", writeFailures.get());
+        m.put("slowWrites", slowWrites.get());
+        m.put("droppedRingFull", droppedRingFull.get());
+        m.put("droppedSpillFull", droppedSpillFull.get());
+        m.put("droppedSpillError", droppedSpillError.get());
+        m.put("dbBackoffUntil", backoffUntil > System.currentTimeMillis() ? Instant.ofEpochMilli(backoffUntil) : null);
+        m.put("lastWriteAt", lastWriteAt > 0 ? Instant.ofEpochMilli(lastWriteAt) : null);
+        m.put("lastWriteMillis", lastWriteMillis);
+        return m;
+    }
+
+    /**
+     * 정상 종료: 새 배치 전환 중단 -> 적재 스레드 종료 대기 -> ring / 대기열 잔량은 DB 대신 spill (종료 지연 방지)
+     */
+    @PreDestroy
+    public void shutdown() {
+        drainer.shutdown();
+        running = false;
+        writer.shutdown();
+        try {
+            drainer.awaitTermination(2, TimeUnit.SECONDS);
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) writer.shutdownNow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!props.isEnabled()) return;
+        List<AuditEvent> batch;
+        while ((batch = pending.poll()) != null) spill(batch);
+        while (!(batch = ring.drain(Math.max(1, props.getBatchSize()))).isEmpty()) spill(batch);
+    }
+
+    private void warnRateLimited(String format, Object... args) {
+        long now = System.currentTimeMillis();
+        long last = lastWarnAt.get();
+        if (now - last >= WARN_INTERVAL_MS && lastWarnAt.compareAndSet(last, now)) log.warn(format, args);
+    }
+
+    private static long elapsedMs(long t0) {
+        return (System.nanoTime() - t0) / 1_000_000;
+    }
+
+    private static long sizeOf(Path p) {
+        try {
+            return Files.size(p);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static String truncate(String s, int max) {
+        return s == null || s.length() <= max ? s : s.substring(0, max);
+    }
+}
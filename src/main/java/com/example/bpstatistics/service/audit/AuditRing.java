@@ -0,0 +1,57 @@
+package com.example.bpstatistics.service.audit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 고정 크기 다중 생산자 / 단일 소비자 ring (잠금 없음)
+ * - 생산자: 남은 칸이 있으면 CAS 로 순번을 확보한 뒤 해당 칸에 기록, 가득 차면 즉시 false (대기 없음)
+ * - 소비자(단일 스레드): 순번 순서대로 기록이 끝난 칸만 꺼내고 비움. 아직 기록 중인 칸을 만나면 거기서 멈춤
+ */
+final class AuditRing<T> {
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();   // 생산자가 확보한 다음 순번
+    private volatile long consumed;                        // 소비자가 비운 다음 순번 (소비자만 기록)
+
+    AuditRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    int capacity() { return mask + 1; }
+
+    /** 가득 차 있으면 false (호출 측이 유실로 집계) */
+    boolean offer(T item) {
+        long seq;
+        do {
+            seq = claimed.get();
+            if (seq - consumed > mask) return false;
+        } while (!claimed.compareAndSet(seq, seq + 1));
+        slots.set((int) (seq & mask), item);
+        return true;
+    }
+
+    /** 최대 max 건 꺼냄 (소비자 스레드 전용) */
+    List<T> drain(int max) {
+        List<T> out = new ArrayList<>(Math.min(max, size()));
+        long c = consumed;
+        while (out.size() < max) {
+            int i = (int) (c & mask);
+            T item = slots.get(i);
+            if (item == null) break;
+            slots.set(i, null);
+            out.add(item);
+            c++;
+        }
+        consumed = c;
+        return out;
+    }
+
+    int size() {
+        return (int) Math.max(0, Math.min(capacity(), claimed.get() - consumed));
+    }
+}
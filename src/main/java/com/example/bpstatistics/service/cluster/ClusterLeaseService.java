@@ -0,0 +1,201 @@
+package com.example.bpstatistics.service.cluster;
+
+import com.example.bpstatistics.config.ClusterConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DB lease 기반 리더 선출
+ * - heartbeatMs 마다: 리더면 lease 연장, 아니면 만료된 lease 획득 시도 (조건부 UPDATE 1문장)
+ * - 획득 시 fencing token 이 1 증가하며, 리더는 이 token 으로만 공유 테이블에 게시합니다.
+ * - DB 장애로 연장하지 못하면 lease 만료 전에(ttl - heartbeat) 스스로 리더 역할을 중단합니다.
+ * 클러스터 모드 비활성 시 항상 리더(단독 실행)로 동작합니다.
+ */
+@Service
+public class ClusterLeaseService {
+    private static final Logger log = LoggerFactory.getLogger(ClusterLeaseService.class);
+
+    private final ClusterConfig.ClusterProps props;
+    private final LeaseRepository leases;
+    private final String nodeId;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "cluster-lease");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile long token = -1;          // 보유 중 fencing token (-1 = 팔로워)
+    private volatile long validUntil;          // 로컬 기준 리더 역할 유효 시각
+    private volatile boolean rowReady;
+    private volatile String observedHolder;
+    private volatile long observedExpiresAt;
+    private volatile long observedToken;
+    private final CountDownLatch firstHeartbeat = new CountDownLatch(1); // 기동 후 첫 heartbeat 완료(성공/실패 무관)
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+
+    public ClusterLeaseService(ClusterConfig.ClusterProps props, LeaseRepository leases) {
+        this.props = props;
+        this.leases = leases;
+        this.nodeId = props.getNodeId() == null || props.getNodeId().isBlank() ? defaultNodeId() : props.getNodeId();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!props.isEnabled()) return;
+        log.info("클러스터 모드 활성 node={} lease={} ttl={}ms heartbeat={}ms", nodeId, props.getLeaseName(),
+                props.getLeaseTtlMs(), props.getHeartbeatMs());
+        scheduler.scheduleWithFixedDelay(this::heartbeat, 0, props.getHeartbeatMs(), TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() { return props.isEnabled(); }
+
+    public String nodeId() { return nodeId; }
+
+    public String leaseName() { return props.getLeaseName(); }
+
+    /** 현재 리더 여부 (클러스터 비활성 시 항상 true) */
+    public boolean isLeader() {
+        if (!props.isEnabled()) return true;
+        return token >= 0 && System.currentTimeMillis() < validUntil;
+    }
+
+    /**
+     * 첫 heartbeat(리더 획득 시도 또는 현재 보유자 확인)가 끝날 때까지 대기. 기동 직후 isLeader() 판단용
+     * @return 시간 내 완료(또는 클러스터 비활성)면 true
+     */
+    public boolean awaitFirstHeartbeat(Duration timeout) {
+        if (!props.isEnabled()) return true;
+        try {
+            return firstHeartbeat.await(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /** 보유 중인 fencing token (리더가 아니면 -1) */
+    public long fencingToken() {
+        return isLeader() ? token : -1;
+    }
+
+    /** 게시가 fencing 으로 거부됨 = 다른 노드가 더 높은 token 으로 리더가 됨 */
+    public void onFenced(long fencedToken) {
+        if (token == fencedToken) stepDown("공유 스냅샷 게시 거부(fencing)");
+    }
+
+    void heartbeat() {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + props.getLeaseTtlMs();
+        try {
+            if (!rowReady) ensureRow(now);
+            long held = token;
+            if (held >= 0) {
+                if (leases.renew(props.getLeaseName(), nodeId, held, expiresAt, now) == 1) {
+                    validUntil = now + props.getLeaseTtlMs() - props.getHeartbeatMs();
+                    observe(nodeId, expiresAt, held);
+                    return;
+                }
+                stepDown("lease 연장 실패");
+            }
+            if (leases.tryAcquire(props.getLeaseName(), nodeId, expiresAt, now) == 1) {
+                LeaseEntity l = leases.findById(props.getLeaseName()).orElseThrow();
+                if (nodeId.equals(l.getHolder())) {
+                    validUntil = now + props.getLeaseTtlMs() - props.getHeartbeatMs();
+                    token = l.getFencingToken();
+                    acquired.incrementAndGet();
+                    log.info("리더 lease 획득 node={} token={}", nodeId, token);
+                }
+                observe(l.getHolder(), l.getExpiresAt(), l.getFencingToken());
+            } else {
+                leases.findById(props.getLeaseName()).ifPresent(l -> observe(l.getHolder(), l.getExpiresAt(), l.getFencingToken()));
+            }
+        } catch (RuntimeException e) {
+            log.warn("lease heartbeat 실패 node={} : {}", nodeId, e.getMessage());
+            if (token >= 0 && System.currentTimeMillis() >= validUntil) stepDown("DB 연결 불가로 lease 유효시간 경과");
+        } finally {
+            firstHeartbeat.countDown();
+        }
+    }
+
+    private void ensureRow(long now) {
+        if (!leases.existsById(props.getLeaseName())) {
+            try {
+                leases.saveAndFlush(new LeaseEntity(props.getLeaseName(), now));
+            } catch (DataIntegrityViolationException race) {
+                // 다른 노드가 먼저 생성
+            }
+        }
+        rowReady = true;
+    }
+
+    private void observe(String holder, long expiresAt, long fencingToken) {
+        observedHolder = holder;
+        observedExpiresAt = expiresAt;
+        observedToken = fencingToken;
+    }
+
+    private void stepDown(String reason) {
+        long held = token;
+        if (held < 0) return;
+        token = -1;
+        validUntil = 0;
+        lost.incrementAndGet();
+        log.warn("리더 역할 중단 node={} token={} 사유={}", nodeId, held, reason);
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", props.isEnabled());
+        m.put("nodeId", nodeId);
+        m.put("leaseName", props.getLeaseName());
+        m.put("leader", isLeader());
+        m.put("fencingToken", fencingToken());
+        m.put("holder", observedHolder);
+        m.put("holderToken", observedToken);
+        m.put("leaseExpiresAt", observedExpiresAt > 0 ? Instant.ofEpochMilli(observedExpiresAt) : null);
+        m.put("acquired", acquired.get());
+        m.put("lost", lost.get());
+        return m;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        long held = token;
+        if (props.isEnabled() && held >= 0) {
+            token = -1;
+            try {
+                leases.release(props.getLeaseName(), nodeId, held, System.currentTimeMillis());
+                log.info("리더 lease 반납 node={} token={}", nodeId, held);
+            } catch (RuntimeException e) {
+                log.warn("lease 반납 실패 (만료 후 인계) : {}", e.getMessage());
+            }
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.bpstatistics.service.cluster;
+
+import com.example.bpstatistics.config.ClusterConfig;
+import com.example.bpstatistics.service.fetch.MultiSubscriptionFetcher;
+import com.example.bpstatistics.service.snapshot.SnapshotPipeline;
+import com.example.bpstatistics.service.tuning.RuntimeTuning;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 클러스터 모드 getData() 경로
+ * - 리더: 업스트림 조회 후 fencing token 으로 공유 테이블에 게시, 조회 수요가 있는 동안 백그라운드 폴링
+ * - 팔로워: 업스트림 호출 없이 공유 테이블의 최신 스냅샷 반환 (sequence 변경 시에만 payload 로드), 조회 수요 기록
+ * 클러스터 비활성 시 기존 getData() 를 그대로 호출합니다.
+ */
+@Service
+public class ClusterSnapshotService {
+    private static final Logger log = LoggerFactory.getLogger(ClusterSnapshotService.class);
+    private static final long DEMAND_TOUCH_INTERVAL_MS = 5_000;
+
+    private final ClusterConfig.ClusterProps props;
+    private final ClusterLeaseService lease;
+    private final SharedSnapshotRepository snapshots;
+    // 변경 전: private final BrightPatternSubscriptionService subscriptionService;
+    private final MultiSubscriptionFetcher dataFetcher;
+    private final SnapshotPipeline pipeline;
+    private final RuntimeTuning tuning;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "cluster-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile boolean rowReady;
+    private volatile long lastUpstreamFetch;
+    private volatile long localDemand;
+    private volatile long lastDemandTouch;
+    private volatile Cached cached;
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong fenced = new AtomicLong();
+    private final AtomicLong sharedReads = new AtomicLong();
+
+    private record Cached(long sequence, long capturedAt, String payload, long checkedAt) { }
+
+    public ClusterSnapshotService(ClusterConfig.ClusterProps props, ClusterLeaseService lease,
+                                  SharedSnapshotRepository snapshots, MultiSubscriptionFetcher dataFetcher,
+                                  SnapshotPipeline pipeline, RuntimeTuning tuning) {
+        this.props = props;
+        this.lease = lease;
+        this.snapshots = snapshots;
+        this.dataFetcher = dataFetcher;
+        this.pipeline = pipeline;
+        this.tuning = tuning;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!props.isEnabled()) return;
+        // 변경 전: executor.scheduleWithFixedDelay(this::leaderPoll, props.getPollIntervalMs(), props.getPollIntervalMs(), TimeUnit.MILLISECONDS);
+        // 변경 후: 매 회 RuntimeTuning 의 폴링 주기로 다음 실행 예약 (실행 중 변경 즉시 반영)
+        scheduleLeaderPoll();
+    }
+
+    private void scheduleLeaderPoll() {
+        if (executor.isShutdown()) return;
+        executor.schedule(() -> {
+            try {
+                leaderPoll();
+            } finally {
+                scheduleLeaderPoll();
+            }
+        }, tuning.settings().poll().clusterPollIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    public Mono<String> getData() {
+        // 변경 전: if (!lease.isEnabled()) return subscriptionService.getData();
+        // 변경 후: 다중 구독 병렬 조회 (비활성이면 내부에서 기존 getData())
+        if (!lease.isEnabled()) return dataFetcher.getData();
+        localDemand = System.currentTimeMillis();
+        if (lease.isLeader()) return fetchAndPublish();
+        return Mono.fromCallable(this::readShared).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<String> fetchAndPublish() {
+        long token = lease.fencingToken();
+        // 변경 전: return subscriptionService.getData()
+        return dataFetcher.getData()
+                .doOnNext(raw -> {
+                    long now = System.currentTimeMillis();
+                    lastUpstreamFetch = now;
+                    // JDBC 는 요청(Netty) 스레드 밖에서
+                    executor.execute(() -> publish(token, raw, now));
+                });
+    }
+
+    // 리더: 최근 조회 수요(로컬 또는 팔로워 기록)가 있고 요청 경로 조회가 뜸할 때만 업스트림 폴링
+    private void leaderPoll() {
+        if (!lease.isLeader()) return;
+        long now = System.currentTimeMillis();
+        // 변경 전: if (now - lastUpstreamFetch < props.getPollIntervalMs()) return;
+        if (now - lastUpstreamFetch < tuning.settings().poll().clusterPollIntervalMs()) return;
+        try {
+            long demand = localDemand;
+            Long shared = snapshots.findRequestedAt(lease.leaseName());
+            if (shared != null && shared > demand) demand = shared;
+            if (now - demand > props.getDemandWindowMs()) return;
+            fetchAndPublish().block(Duration.ofSeconds(30));
+        } catch (RuntimeException e) {
+            log.warn("리더 백그라운드 폴링 실패 : {}", e.getMessage());
+        }
+    }
+
+    private void publish(long token, String raw, long capturedAt) {
+        if (token < 0 || raw == null) return;
+        try {
+            ensureRow();
+            int n = snapshots.publish(lease.leaseName(), token, lease.nodeId(), capturedAt, raw, System.currentTimeMillis());
+            if (n == 1) {
+                published.incrementAndGet();
+            } else {
+                fenced.incrementAndGet();
+                lease.onFenced(token);
+            }
+        } catch (RuntimeException e) {
+            log.warn("공유 스냅샷 게시 실패 token={} : {}", token, e.getMessage());
+        }
+    }
+
+    // 팔로워 조회 (boundedElastic)
+    private String readShared() {
+        long now = System.currentTimeMillis();
+        touchDemand(now);
+        Cached c = cached;
+        if (c != null && now - c.checkedAt() < props.getFollowerCacheMs()) return c.payload();
+        Long seq = snapshots.findSequence(lease.leaseName());
+        if (c != null && seq != null && seq == c.sequence()) {
+            cached = new Cached(c.sequence(), c.capturedAt(), c.payload(), now);
+            return c.payload();
+        }
+        SharedSnapshotEntity e = snapshots.findById(lease.leaseName()).orElse(null);
+        if (e == null || e.getPayload() == null) {
+            throw new IllegalStateException("리더가 게시한 공유 스냅샷이 아직 없습니다.");
+        }
+        sharedReads.incrementAndGet();
+        cached = new Cached(e.getSequence(), e.getCapturedAt(), e.getPayload(), now);
+        // 팔로워도 로컬 파이프라인(알림 등)은 동일하게 갱신
+        pipeline.submitLive(e.getPayload(), e.getCapturedAt());
+        return e.getPayload();
+    }
+
+    private void touchDemand(long now) {
+        if (now - lastDemandTouch < DEMAND_TOUCH_INTERVAL_MS) return;
+        lastDemandTouch = now;
+        try {
+            ensureRow();
+            snapshots.touchDemand(lease.leaseName(), now);
+        } catch (RuntimeException e) {
+            log.debug("조회 수요 기록 실패 : {}", e.getMessage());
+        }
+    }
+
+    private void ensureRow() {
+        if (rowReady) return;
+        if (!snapshots.existsById(lease.leaseName())) {
+            try {
+                snapshots.saveAndFlush(new SharedSnapshotEntity(lease.leaseName(), System.currentTimeMillis()));
+            } catch (DataIntegrityViolationException race) {
+                // 다른 노드가 먼저 생성
+            }
+        }
+        rowReady = true;
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> m = new LinkedHashMap<>(lease.status());
+        m.put("published", published.get());
+        m.put("fenced", fenced.get());
+        m.put("sharedReads", sharedReads.get());
+        Cached c = cached;
+        if (c != null) {
+            m.put("sharedSequence", c.sequence());
+            m.put("sharedCapturedAt", Instant.ofEpochMilli(c.capturedAt()));
+        }
+        m.put("lastUpstreamFetch", lastUpstreamFetch > 0 ? Instant.ofEpochMilli(lastUpstreamFetch) : null);
+        return m;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
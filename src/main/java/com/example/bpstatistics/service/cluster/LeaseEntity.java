@@ -0,0 +1,45 @@
+package com.example.bpstatistics.service.cluster;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * 리더 lease 행 (lease 이름당 1행)
+ * fencingToken 은 리더가 바뀔 때마다 1 증가하며, 공유 테이블 쓰기 시 이전 리더의 늦은 쓰기를 거부하는 데 사용됩니다.
+ * 시각은 epoch ms (노드 간 시계 오차는 leaseTtlMs 보다 충분히 작아야 함)
+ */
+@Entity
+@Table(name = "bp_lease")
+public class LeaseEntity {
+
+    @Id
+    @Column(name = "lease_name", length = 100)
+    private String name;
+
+    @Column(name = "holder", length = 200)
+    private String holder;
+
+    @Column(name = "fencing_token", nullable = false)
+    private long fencingToken;
+
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private long updatedAt;
+
+    protected LeaseEntity() { }
+
+    public LeaseEntity(String name, long now) {
+        this.name = name;
+        this.updatedAt = now;
+    }
+
+    public String getName() { return name; }
+    public String getHolder() { return holder; }
+    public long getFencingToken() { return fencingToken; }
+    public long getExpiresAt() { return expiresAt; }
+    public long getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,37 @@
+package com.example.bpstatistics.service.cluster;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * lease 조건부 갱신 (UPDATE ... WHERE 1문장 = 원자적, 영향 행 수 1 이면 성공)
+ */
+public interface LeaseRepository extends JpaRepository<LeaseEntity, String> {
+
+    /** 만료된(또는 미보유) lease 획득 + fencing token 증가 */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update LeaseEntity l set l.holder = :node, l.fencingToken = l.fencingToken + 1, l.expiresAt = :expiresAt, l.updatedAt = :now "
+            + "where l.name = :name and (l.holder is null or l.expiresAt < :now)")
+    int tryAcquire(@Param("name") String name, @Param("node") String node,
+                   @Param("expiresAt") long expiresAt, @Param("now") long now);
+
+    /** 보유 중인 lease 연장 (holder + token 일치 시에만) */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update LeaseEntity l set l.expiresAt = :expiresAt, l.updatedAt = :now "
+            + "where l.name = :name and l.holder = :node and l.fencingToken = :token")
+    int renew(@Param("name") String name, @Param("node") String node, @Param("token") long token,
+              @Param("expiresAt") long expiresAt, @Param("now") long now);
+
+    /** 정상 종료 시 즉시 만료 -> 팔로워가 다음 heartbeat 에 인계 */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update LeaseEntity l set l.expiresAt = 0, l.updatedAt = :now "
+            + "where l.name = :name and l.holder = :node and l.fencingToken = :token")
+    int release(@Param("name") String name, @Param("node") String node, @Param("token") long token,
+                @Param("now") long now);
+}
@@ -0,0 +1,58 @@
+package com.example.bpstatistics.service.cluster;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+/**
+ * 리더가 게시한 최신 getData() 원문 (lease 이름당 1행)
+ * requestedAt: 팔로워/리더의 마지막 조회 요청 시각 -> 리더는 수요가 있을 때만 백그라운드 폴링
+ */
+@Entity
+@Table(name = "bp_shared_snapshot")
+public class SharedSnapshotEntity {
+
+    @Id
+    @Column(name = "lease_name", length = 100)
+    private String name;
+
+    @Column(name = "fencing_token", nullable = false)
+    private long fencingToken;
+
+    @Column(name = "sequence_no", nullable = false)
+    private long sequence;
+
+    @Column(name = "captured_at", nullable = false)
+    private long capturedAt;
+
+    @Lob
+    @Column(name = "payload")
+    private String payload;
+
+    @Column(name = "publisher", length = 200)
+    private String publisher;
+
+    @Column(name = "requested_at", nullable = false)
+    private long requestedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private long updatedAt;
+
+    protected SharedSnapshotEntity() { }
+
+    public SharedSnapshotEntity(String name, long now) {
+        this.name = name;
+        this.updatedAt = now;
+    }
+
+    public String getName() { return name; }
+    public long getFencingToken() { return fencingToken; }
+    public long getSequence() { return sequence; }
+    public long getCapturedAt() { return capturedAt; }
+    public String getPayload() { return payload; }
+    public String getPublisher() { return publisher; }
+    public long getRequestedAt() { return requestedAt; }
+    public long getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,33 @@
+package com.example.bpstatistics.service.cluster;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface SharedSnapshotRepository extends JpaRepository<SharedSnapshotEntity, String> {
+
+    /**
+     * fencing: 현재 행의 token 보다 작은 token(이전 리더)의 게시는 0행 갱신으로 거부
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update SharedSnapshotEntity s set s.fencingToken = :token, s.sequence = s.sequence + 1, s.capturedAt = :capturedAt, "
+            + "s.payload = :payload, s.publisher = :node, s.updatedAt = :now "
+            + "where s.name = :name and s.fencingToken <= :token")
+    int publish(@Param("name") String name, @Param("token") long token, @Param("node") String node,
+                @Param("capturedAt") long capturedAt, @Param("payload") String payload, @Param("now") long now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update SharedSnapshotEntity s set s.requestedAt = :now where s.name = :name and s.requestedAt < :now")
+    int touchDemand(@Param("name") String name, @Param("now") long now);
+
+    /** payload 를 읽지 않는 변경 감지용 조회 */
+    @Query("select s.sequence from SharedSnapshotEntity s where s.name = :name")
+    Long findSequence(@Param("name") String name);
+
+    @Query("select s.requestedAt from SharedSnapshotEntity s where s.name = :name")
+    Long findRequestedAt(@Param("name") String name);
+}
@@ -0,0 +1,117 @@
+package com.example.bpstatistics.service.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JSON / CBOR / Smile 공유 인코더 + 스냅샷 원문 바이너리 변환 캐시
+ * - CBOR/Smile ObjectMapper 는 애플리케이션 ObjectMapper 설정(모듈/날짜 형식 등)을 복사해 1회 생성, 메시지 컨버터와 스트리밍 응답이 공유
+ *   (ObjectMapper 빈으로 등록하면 Boot 기본 JSON ObjectMapper 자동 구성이 빠지므로 컴포넌트로 보관)
+ * - 스냅샷 원문(JSON 문자열) -> 바이너리는 트리 없이 스트리밍 복사, 형식별 마지막 원문 1건의 결과를 캐시 (같은 원문이면 재변환 없음)
+ */
+@Component
+public class BinaryFormats {
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType SMILE = MediaType.parseMediaType(SMILE_VALUE);
+    public static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+
+    private record Rendering(String source, byte[] bytes) { }
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
+    private final Map<MediaType, Rendering> lastRendering = new ConcurrentHashMap<>();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    public BinaryFormats(ObjectMapper objectMapper) {
+        this.jsonMapper = objectMapper;
+        this.cborMapper = objectMapper.copyWith(new CBORFactory());
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+    }
+
+    public ObjectMapper cborMapper() { return cborMapper; }
+    public ObjectMapper smileMapper() { return smileMapper; }
+
+    /**
+     * Accept 헤더에서 클라이언트 선호(품질값 순) 형식 선택. 바이너리를 명시하지 않으면 JSON
+     */
+    public MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) return MediaType.APPLICATION_JSON;
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (IllegalArgumentException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType m : accepted) {
+            if (m.isWildcardType() || m.isWildcardSubtype()) return MediaType.APPLICATION_JSON;
+            if (m.isCompatibleWith(CBOR)) return CBOR;
+            if (m.isCompatibleWith(SMILE)) return SMILE;
+            if (m.isCompatibleWith(MediaType.APPLICATION_JSON)) return MediaType.APPLICATION_JSON;
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    public boolean isBinary(MediaType type) {
+        return CBOR.equals(type) || SMILE.equals(type);
+    }
+
+    /** 스트리밍 응답용 generator factory */
+    public JsonFactory factoryFor(MediaType type) {
+        if (CBOR.equals(type)) return cborMapper.getFactory();
+        if (SMILE.equals(type)) return smileMapper.getFactory();
+        return jsonMapper.getFactory();
+    }
+
+    /**
+     * JSON 원문 -> CBOR/Smile (같은 원문의 직전 결과가 있으면 재사용)
+     */
+    public byte[] render(String json, MediaType type) {
+        Rendering r = lastRendering.get(type);
+        // String.hashCode 는 인스턴스에 캐시되므로 길이/해시로 먼저 거르고 내용 비교
+        if (r != null && (r.source() == json
+                || (r.source().length() == json.length() && r.source().hashCode() == json.hashCode() && r.source().equals(json)))) {
+            cacheHits.incrementAndGet();
+            return r.bytes();
+        }
+        cacheMisses.incrementAndGet();
+        byte[] bytes = transcode(json, factoryFor(type));
+        lastRendering.put(type, new Rendering(json, bytes));
+        return bytes;
+    }
+
+    private byte[] transcode(String json, JsonFactory target) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(256, json.length() / 2));
+        try (JsonParser p = jsonMapper.getFactory().createParser(json);
+             JsonGenerator g = target.createGenerator(out)) {
+            while (p.nextToken() != null) {
+                g.copyCurrentStructure(p);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("바이너리 변환 실패", e);
+        }
+        return out.toByteArray();
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of("cacheHits", cacheHits.get(), "cacheMisses", cacheMisses.get());
+    }
+}
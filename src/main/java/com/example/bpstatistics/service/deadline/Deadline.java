@@ -0,0 +1,88 @@
+package com.example.bpstatistics.service.deadline;
+
+import com.example.bpstatistics.web.exception.DeadlineExceededException;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+import reactor.util.retry.RetryBackoffSpec;
+
+import java.time.Duration;
+
+/**
+ * 요청 1건의 처리 마감 시각 (monotonic nanoTime 기준)
+ * Reactor Context(CONTEXT_KEY)로 전달되며, 각 단계는 고정 timeout 대신 남은 예산과의 최솟값만 사용합니다.
+ * Context 에 deadline 이 없으면(백그라운드 폴링 등) 기존 고정 timeout 그대로 동작합니다.
+ */
+public final class Deadline {
+    public static final Class<Deadline> CONTEXT_KEY = Deadline.class;
+
+    private final long expiresAtNanos;
+    private final long budgetMillis;
+
+    private Deadline(long expiresAtNanos, long budgetMillis) {
+        this.expiresAtNanos = expiresAtNanos;
+        this.budgetMillis = budgetMillis;
+    }
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos(), budget.toMillis());
+    }
+
+    public long budgetMillis() { return budgetMillis; }
+
+    public Duration remaining() {
+        long left = expiresAtNanos - System.nanoTime();
+        return left <= 0 ? Duration.ZERO : Duration.ofNanos(left);
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    public static Deadline from(ContextView ctx) {
+        return ctx.getOrDefault(CONTEXT_KEY, null);
+    }
+
+    private DeadlineExceededException exceeded(String where) {
+        return new DeadlineExceededException("요청 deadline 초과 (" + budgetMillis + "ms): " + where);
+    }
+
+    /**
+     * 전체 구간을 남은 예산 안에서만 실행 (초과 시 취소 후 DeadlineExceededException)
+     */
+    public static <T> Mono<T> within(Mono<T> mono, String where) {
+        return Mono.deferContextual(ctx -> {
+            Deadline d = from(ctx);
+            if (d == null) return mono;
+            if (d.isExpired()) return Mono.error(d.exceeded(where));
+            return mono.timeout(d.remaining(), Mono.error(() -> d.exceeded(where)));
+        });
+    }
+
+    /**
+     * 단계 timeout = min(stageTimeout, 남은 예산). 단계 자체 timeout 이면 TimeoutException(재시도 대상),
+     * 남은 예산이 먼저 끝나면 DeadlineExceededException(재시도 안 함). 구독(재시도)마다 다시 계산합니다.
+     */
+    public static <T> Mono<T> timeout(Mono<T> mono, Duration stageTimeout, String where) {
+        return Mono.deferContextual(ctx -> {
+            Deadline d = from(ctx);
+            if (d == null) return mono.timeout(stageTimeout);
+            Duration left = d.remaining();
+            if (left.isZero()) return Mono.error(d.exceeded(where));
+            if (left.compareTo(stageTimeout) >= 0) return mono.timeout(stageTimeout);
+            return mono.timeout(left, Mono.error(() -> d.exceeded(where)));
+        });
+    }
+
+    /**
+     * 남은 예산이 최소 백오프보다 작으면 재시도하지 않고, 백오프 상한도 남은 예산으로 제한
+     */
+    public static RetryBackoffSpec retryWithin(RetryBackoffSpec spec, ContextView ctx) {
+        Deadline d = from(ctx);
+        if (d == null) return spec;
+        Duration left = d.remaining();
+        Duration cap = left.compareTo(spec.maxBackoff) < 0 ? left : spec.maxBackoff;
+        return spec
+                .maxBackoff(cap.compareTo(spec.minBackoff) < 0 ? spec.minBackoff : cap)
+                .modifyErrorFilter(filter -> filter.and(ex -> d.remaining().compareTo(spec.minBackoff) > 0));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.bpstatistics.service.deadline;
+
+import com.example.bpstatistics.config.DeadlineConfig;
+import com.example.bpstatistics.web.exception.DeadlineExceededException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 인바운드 요청 deadline 결정 + 컨트롤러 Mono 에 연결
+ * - DeadlineFilter 가 요청 진입 시 resolve() 로 deadline 을 정해 요청 attribute 에 보관
+ * - 컨트롤러는 bind() 로 Reactor Context 에 넣고 전체를 남은 예산 안에서 실행
+ *   예산 소진 시 진행 중인 업스트림 호출을 취소하고 504.
+ * 클라이언트 연결 종료는 감지하지 않습니다 (서블릿 비동기 요청은 응답을 쓰기 전까지 연결 끊김을 알 수 없음).
+ * 끊긴 요청도 deadline 까지만 업스트림 자원을 쓰므로 deadline 이 상한입니다.
+ * cancelled 는 Spring MVC 가 구독을 취소한 경우(비동기 요청 timeout / 오류 종료)의 집계입니다.
+ */
+@Component
+public class InboundDeadline {
+    private static final Logger log = LoggerFactory.getLogger(InboundDeadline.class);
+    public static final String REQUEST_ATTRIBUTE = InboundDeadline.class.getName() + ".deadline";
+
+    private final DeadlineConfig.DeadlineProps props;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final AtomicLong fromHeader = new AtomicLong();
+    private final AtomicLong fromRoute = new AtomicLong();
+    private final AtomicLong exceeded = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    public InboundDeadline(DeadlineConfig.DeadlineProps props) {
+        this.props = props;
+    }
+
+    public boolean isEnabled() { return props.isEnabled(); }
+
+    /** 요청 헤더(ms, maxTimeoutMs 상한) -> 경로별 기본값 -> defaultTimeoutMs 순 */
+    public Deadline resolve(HttpServletRequest request) {
+        String header = request.getHeader(props.getHeader());
+        if (header != null && !header.isBlank()) {
+            try {
+                long ms = Long.parseLong(header.trim());
+                if (ms > 0) {
+                    fromHeader.incrementAndGet();
+                    return Deadline.after(Duration.ofMillis(Math.min(ms, props.getMaxTimeoutMs())));
+                }
+            } catch (NumberFormatException e) {
+                log.debug("deadline 헤더 형식 오류 {}={}", props.getHeader(), header);
+            }
+        }
+        fromRoute.incrementAndGet();
+        String path = request.getRequestURI();
+        for (Map.Entry<String, Long> route : props.getRoutes().entrySet()) {
+            if (matcher.match(route.getKey(), path)) return Deadline.after(Duration.ofMillis(route.getValue()));
+        }
+        return Deadline.after(Duration.ofMillis(props.getDefaultTimeoutMs()));
+    }
+
+    /**
+     * 현재 요청의 deadline 을 Context 에 넣고 남은 예산 안에서 실행 (요청 스레드의 컨트롤러에서 호출)
+     */
+    public <T> Mono<T> bind(Mono<T> mono) {
+        RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+        Object value = attrs == null ? null : attrs.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (!(value instanceof Deadline deadline)) return mono;
+        return Deadline.within(mono, "inbound")
+                .doOnError(DeadlineExceededException.class, e -> exceeded.incrementAndGet())
+                .doOnCancel(() -> {
+                    cancelled.incrementAndGet();
+                    // 변경 전: log.debug("클라이언트 연결 종료로 요청 처리 취소 ...") - 연결 종료 감지는 하지 않음
+                    log.debug("비동기 요청 종료로 처리 취소 (남은 예산 {}ms)", deadline.remaining().toMillis());
+                })
+                .contextWrite(ctx -> ctx.put(Deadline.CONTEXT_KEY, deadline));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", props.isEnabled());
+        m.put("fromHeader", fromHeader.get());
+        m.put("fromRoute", fromRoute.get());
+        m.put("exceeded", exceeded.get());
+        m.put("cancelled", cancelled.get());
+        return m;
+    }
+}
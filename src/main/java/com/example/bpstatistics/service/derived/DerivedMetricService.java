@@ -0,0 +1,445 @@
+package com.example.bpstatistics.service.derived;
+
+import com.example.bpstatistics.config.DerivedMetricConfig;
+import com.example.bpstatistics.service.snapshot.GridDefinitionRegistry;
+import com.example.bpstatistics.service.snapshot.GridDelta;
+import com.example.bpstatistics.service.snapshot.GridSnapshot;
+import com.example.bpstatistics.service.snapshot.SnapshotDelta;
+import com.example.bpstatistics.service.snapshot.SnapshotListener;
+import com.example.bpstatistics.service.snapshot.StatsSnapshot;
+import com.example.bpstatistics.web.dto.DerivedMetricDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * grid 별 파생 지표 계산 (SnapshotListener)
+ * - 식은 등록 시 1회 파싱, grid 바인딩 시(최초 / 컬럼 변경 / 정의 변경) 컬럼 참조를 입력 열 번호로 고정해 VectorOp 트리로 컴파일
+ * - 매 스냅샷: 참조 컬럼의 숫자 열(GridSnapshot.numericColumn, 스냅샷당 1회 변환) 위에서 지표마다 열 단위 루프 1회
+ *   평가 중에는 할당이 없고, 조회용으로 게시하는 지표별 결과 열만 스냅샷마다 새로 만듭니다.
+ * - scope=team: 참조 컬럼(행 지표 포함)을 팀별 합계로 모은 열 위에서 같은 방식으로 평가 (비율은 합계 대비 합계)
+ * 필요한 컬럼이 grid 에 없으면 해당 지표(와 그 지표를 참조하는 지표)만 건너뜁니다.
+ */
+@Service
+public class DerivedMetricService implements SnapshotListener {
+    private static final Logger log = LoggerFactory.getLogger(DerivedMetricService.class);
+    private static final String EMPTY_TEAM = "(none)";
+
+    enum Scope { ROW, TEAM }
+
+    private record Metric(DerivedMetricDefinition definition, String name, Scope scope, MetricExpression expression) { }
+
+    /** grid 1개의 최신 결과 (불변 게시) */
+    private record GridResult(StatsSnapshot snapshot, GridSnapshot grid, List<String> rowMetrics, double[][] rowValues,
+                              List<String> teamMetrics, String[] teams, int[] teamSizes, int[] teamOf,
+                              double[][] teamValues, Map<String, String> missing) { }
+
+    private final DerivedMetricConfig.DerivedMetricProps props;
+    private final GridDefinitionRegistry gridDefinitions;
+    private final Map<String, List<Metric>> definitions = new ConcurrentHashMap<>(); // gridId -> 정의 순서 (교체 시 새 리스트)
+    private final Map<String, GridBinding> bindings = new HashMap<>();              // 파이프라인 스레드 전용
+    private final Map<String, GridResult> results = new ConcurrentHashMap<>();
+
+    private volatile long lastEvalMicros;
+    private volatile long lastRowsEvaluated;
+    private volatile long lastMetricsEvaluated;
+
+    public DerivedMetricService(DerivedMetricConfig.DerivedMetricProps props, GridDefinitionRegistry gridDefinitions) {
+        this.props = props;
+        this.gridDefinitions = gridDefinitions;
+        // 설정 정의 오류는 기동 시점에 바로 드러나도록 예외 전파
+        props.getGrids().forEach((gridId, list) -> {
+            for (DerivedMetricConfig.MetricProps m : list) {
+                put(gridId, new DerivedMetricDefinition(m.getName(), m.getExpression(), m.getScope()));
+            }
+        });
+    }
+
+    /**
+     * 지표 등록/교체 (같은 이름이면 같은 위치에서 교체, 아니면 끝에 추가). 정의 오류 시 IllegalArgumentException
+     */
+    public synchronized DerivedMetricDefinition put(String gridId, DerivedMetricDefinition definition) {
+        if (gridId == null || gridId.isBlank()) throw new IllegalArgumentException("gridId 누락");
+        Metric metric = compile(definition);
+        List<Metric> next = new ArrayList<>(definitions.getOrDefault(gridId, List.of()));
+        int idx = indexOf(next, metric.name());
+        if (idx >= 0) next.set(idx, metric);
+        else next.add(metric);
+        if (next.size() > props.getMaxPerGrid()) {
+            throw new IllegalArgumentException("grid 당 파생 지표 한도 초과 (" + props.getMaxPerGrid() + ")");
+        }
+        validateOrder(next);
+        definitions.put(gridId, List.copyOf(next));
+        log.info("파생 지표 {} grid={} name={} scope={} expr={}", idx >= 0 ? "교체" : "등록",
+                gridId, metric.name(), metric.scope(), metric.expression().source);
+        return definition;
+    }
+
+    public synchronized boolean remove(String gridId, String name) {
+        List<Metric> current = definitions.get(gridId);
+        if (current == null) return false;
+        int idx = indexOf(current, name);
+        if (idx < 0) return false;
+        for (Metric m : current) {
+            if (!m.name().equals(name) && m.expression().references().contains(name)) {
+                throw new IllegalArgumentException("다른 파생 지표가 참조 중입니다: " + m.name());
+            }
+        }
+        List<Metric> next = new ArrayList<>(current);
+        next.remove(idx);
+        if (next.isEmpty()) definitions.remove(gridId);
+        else definitions.put(gridId, List.copyOf(next));
+        log.info("파생 지표 삭제 grid={} name={}", gridId, name);
+        return true;
+    }
+
+    /** gridId -> 정의 목록 */
+    public Map<String, List<DerivedMetricDefinition>> definitions() {
+        Map<String, List<DerivedMetricDefinition>> out = new LinkedHashMap<>();
+        definitions.forEach((gridId, list) -> out.put(gridId, list.stream().map(Metric::definition).toList()));
+        return out;
+    }
+
+    /**
+     * 최신 스냅샷 기준 행별 파생 지표 (team 지정 시 해당 팀 행만)
+     */
+    public Map<String, Object> rows(String gridId, String team, int offset, int limit) {
+        GridResult r = results.get(gridId);
+        Map<String, Object> m = header(gridId, r);
+        List<Map<String, Object>> items = new ArrayList<>();
+        int total = 0;
+        if (r != null) {
+            GridSnapshot g = r.grid();
+            int start = Math.max(0, offset);
+            for (int row = 0; row < g.rowCount(); row++) {
+                if (team != null && (r.teamOf() == null || !team.equals(r.teams()[r.teamOf()[row]]))) continue;
+                if (total++ < start || items.size() >= limit) continue;
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("key", g.rowKey(row));
+                if (r.teamOf() != null) item.put("team", r.teams()[r.teamOf()[row]]);
+                item.put("values", values(r.rowMetrics(), r.rowValues(), row));
+                items.add(item);
+            }
+            m.put("metrics", r.rowMetrics());
+        }
+        m.put("total", total);
+        m.put("rows", items);
+        return m;
+    }
+
+    /** 최신 스냅샷 기준 팀별 파생 지표 (scope=team) */
+    public Map<String, Object> teams(String gridId) {
+        GridResult r = results.get(gridId);
+        Map<String, Object> m = header(gridId, r);
+        List<Map<String, Object>> items = new ArrayList<>();
+        if (r != null && r.teams() != null) {
+            for (int t = 0; t < r.teams().length; t++) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("team", r.teams()[t]);
+                item.put("count", r.teamSizes()[t]);
+                item.put("values", values(r.teamMetrics(), r.teamValues(), t));
+                items.add(item);
+            }
+            m.put("metrics", r.teamMetrics());
+        }
+        m.put("teams", items);
+        return m;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", props.isEnabled());
+        m.put("grids", definitions.size());
+        m.put("metrics", definitions.values().stream().mapToInt(List::size).sum());
+        m.put("lastRowsEvaluated", lastRowsEvaluated);
+        m.put("lastMetricsEvaluated", lastMetricsEvaluated);
+        m.put("lastEvalMicros", lastEvalMicros);
+        Map<String, Object> missing = new LinkedHashMap<>();
+        results.forEach((gridId, r) -> { if (!r.missing().isEmpty()) missing.put(gridId, r.missing()); });
+        m.put("missing", missing);
+        return m;
+    }
+
+    @Override
+    public void onSnapshot(StatsSnapshot snapshot, SnapshotDelta delta) {
+        for (String gridId : delta.removedGrids()) {
+            bindings.remove(gridId);
+            results.remove(gridId);
+        }
+        if (!props.isEnabled() || definitions.isEmpty()) return;
+        long t0 = System.nanoTime();
+        long rows = 0, metrics = 0;
+        for (Map.Entry<String, List<Metric>> e : definitions.entrySet()) {
+            GridSnapshot g = snapshot.grid(e.getKey());
+            if (g == null) continue;
+            GridBinding b = bindings.get(e.getKey());
+            GridDelta d = delta.grid(e.getKey());
+            if (b == null || b.metrics != e.getValue() || b.registryVersion != gridDefinitions.version()
+                    || (d != null && d.fullRefresh())) {
+                b = bind(e.getValue(), g);
+                bindings.put(e.getKey(), b);
+            }
+            results.put(e.getKey(), b.evaluate(snapshot, g));
+            rows += g.rowCount();
+            metrics += b.boundCount;
+        }
+        bindings.keySet().retainAll(definitions.keySet());
+        results.keySet().retainAll(definitions.keySet());
+        lastRowsEvaluated = rows;
+        lastMetricsEvaluated = metrics;
+        lastEvalMicros = (System.nanoTime() - t0) / 1000;
+    }
+
+    @Override
+    public void onReset() {
+        bindings.clear();
+        results.clear();
+    }
+
+    private Metric compile(DerivedMetricDefinition d) {
+        String name = d.getName() == null ? null : d.getName().trim();
+        if (name == null || name.isEmpty()) throw new IllegalArgumentException("name 누락");
+        if (name.equals(MetricExpression.COUNT_REF)) throw new IllegalArgumentException("예약된 이름입니다: " + name);
+        Scope scope;
+        try {
+            scope = Scope.valueOf((d.getScope() == null ? "ROW" : d.getScope()).trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("scope 는 row 또는 team 이어야 합니다: " + d.getScope());
+        }
+        MetricExpression expr = MetricExpression.parse(d.getExpression());
+        if (expr.references().contains(name)) throw new IllegalArgumentException("자기 자신을 참조할 수 없습니다: " + name);
+        d.setName(name);
+        d.setScope(scope.name().toLowerCase(Locale.ROOT));
+        return new Metric(d, name, scope, expr);
+    }
+
+    // 앞에서 정의한 지표만 참조 가능, row 지표는 team 지표를 참조할 수 없음
+    private static void validateOrder(List<Metric> list) {
+        Map<String, Scope> defined = new HashMap<>();
+        Map<String, Integer> position = new HashMap<>();
+        for (int i = 0; i < list.size(); i++) position.put(list.get(i).name(), i);
+        for (int i = 0; i < list.size(); i++) {
+            Metric m = list.get(i);
+            for (String ref : m.expression().references()) {
+                Integer at = position.get(ref);
+                if (at == null) continue;
+                if (at > i) throw new IllegalArgumentException(m.name() + " 는 뒤에 정의된 지표를 참조합니다: " + ref);
+                if (m.scope() == Scope.ROW && defined.get(ref) == Scope.TEAM) {
+                    throw new IllegalArgumentException("row 지표에서 team 지표를 참조할 수 없습니다: " + m.name() + " -> " + ref);
+                }
+            }
+            defined.put(m.name(), m.scope());
+        }
+    }
+
+    private static int indexOf(List<Metric> list, String name) {
+        for (int i = 0; i < list.size(); i++) if (list.get(i).name().equals(name)) return i;
+        return -1;
+    }
+
+    private static Map<String, Object> header(String gridId, GridResult r) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("gridId", gridId);
+        m.put("sequence", r == null ? null : r.snapshot().sequence());
+        m.put("capturedAt", r == null ? null : Instant.ofEpochMilli(r.snapshot().capturedAtMillis()));
+        return m;
+    }
+
+    // NaN(값 없음 / 0 나누기) -> null
+    private static Map<String, Object> values(List<String> names, double[][] values, int i) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (int k = 0; k < names.size(); k++) {
+            double[] col = values[k];
+            out.put(names.get(k), col == null || Double.isNaN(col[i]) ? null : col[i]);
+        }
+        return out;
+    }
+
+    /**
+     * 입력 열 번호 배치: [0] = count(), [1..] = 참조 컬럼, 이후 = 지표별 출력
+     * row 평가는 rowIn, team 평가는 같은 번호의 teamIn(팀 합계) 을 사용합니다.
+     */
+    private GridBinding bind(List<Metric> metrics, GridSnapshot g) {
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        slots.put(MetricExpression.COUNT_REF, 0);
+        List<Integer> statCols = new ArrayList<>();
+        statCols.add(-1);
+        Map<String, Integer> metricSlot = new HashMap<>();
+        for (Metric m : metrics) {
+            for (String ref : m.expression().references()) {
+                if (slots.containsKey(ref) || metricSlot.containsKey(ref) || indexOf(metrics, ref) >= 0) continue;
+                slots.put(ref, statCols.size());
+                statCols.add(g.columnIndex(gridDefinitions.resolveColumnId(g.gridId(), ref)));
+            }
+        }
+        int statSlots = statCols.size();
+        for (int i = 0; i < metrics.size(); i++) metricSlot.put(metrics.get(i).name(), statSlots + i);
+
+        GridBinding b = new GridBinding(metrics, gridDefinitions.version(), statSlots, statSlots + metrics.size());
+        b.statCols = statCols.stream().mapToInt(Integer::intValue).toArray();
+        String teamStat = props.getTeamStat();
+        b.teamCol = teamStat == null || teamStat.isBlank() ? -1 : g.columnIndex(gridDefinitions.resolveColumnId(g.gridId(), teamStat));
+
+        boolean[] teamInput = new boolean[b.slotCount];
+        for (int i = 0; i < metrics.size(); i++) {
+            Metric m = metrics.get(i);
+            String missing = null;
+            for (String ref : m.expression().references()) {
+                Integer ms = metricSlot.get(ref);
+                if (ms != null) {
+                    if (b.ops[ms - statSlots] == null) missing = ref;
+                } else if (!ref.equals(MetricExpression.COUNT_REF) && b.statCols[slots.get(ref)] < 0) {
+                    missing = ref;
+                }
+                if (missing != null) break;
+            }
+            if (missing == null && m.scope() == Scope.TEAM && b.teamCol < 0) missing = "teamStat:" + teamStat;
+            if (missing != null) {
+                b.missing.put(m.name(), missing);
+                continue;
+            }
+            b.ops[i] = m.expression().compile(ref -> {
+                Integer ms = metricSlot.get(ref);
+                return ms != null ? ms : slots.get(ref);
+            });
+            b.boundCount++;
+            if (m.scope() == Scope.TEAM) {
+                for (String ref : m.expression().references()) {
+                    Integer ms = metricSlot.get(ref);
+                    int slot = ms != null ? ms : slots.get(ref);
+                    // team 지표 출력은 합계가 아니라 그대로 사용
+                    if (ms == null || metrics.get(ms - statSlots).scope() == Scope.ROW) teamInput[slot] = true;
+                }
+            }
+        }
+        b.teamInputs = indexesOf(teamInput);
+        if (!b.missing.isEmpty()) {
+            log.warn("파생 지표 컬럼 미존재 - 건너뜀 grid={} {}", g.gridId(), b.missing);
+        }
+        return b;
+    }
+
+    private static int[] indexesOf(boolean[] flags) {
+        int n = 0;
+        for (boolean f : flags) if (f) n++;
+        int[] out = new int[n];
+        for (int i = 0, k = 0; i < flags.length; i++) if (flags[i]) out[k++] = i;
+        return out;
+    }
+
+    /** grid 1개의 컴파일 결과 + 재사용 버퍼 (파이프라인 스레드 전용) */
+    private static final class GridBinding {
+        final List<Metric> metrics;
+        final long registryVersion;
+        final int slotCount;
+        final VectorOp[] ops;                          // 지표별, null = 미적용
+        final Map<String, String> missing = new LinkedHashMap<>();
+        final double[][] rowIn;
+        final double[][] teamIn;
+        final int statSlots;
+        int[] statCols;                                // 입력 열 -> grid 컬럼 (0 번은 count)
+        int teamCol = -1;
+        int[] teamInputs = new int[0];                 // 팀 합계가 필요한 입력 열
+        int boundCount;
+        private double[] ones = new double[0];
+
+        GridBinding(List<Metric> metrics, long registryVersion, int statSlots, int slotCount) {
+            this.metrics = metrics;
+            this.registryVersion = registryVersion;
+            this.statSlots = statSlots;
+            this.slotCount = slotCount;
+            this.ops = new VectorOp[metrics.size()];
+            this.rowIn = new double[slotCount][];
+            this.teamIn = new double[slotCount][];
+        }
+
+        GridResult evaluate(StatsSnapshot snapshot, GridSnapshot g) {
+            int n = g.rowCount();
+            if (ones.length < n) {
+                ones = new double[n];
+                Arrays.fill(ones, 1);
+            }
+            rowIn[0] = ones;
+            for (int s = 1; s < statSlots; s++) rowIn[s] = statCols[s] >= 0 ? g.numericColumn(statCols[s]) : null;
+
+            List<String> rowNames = new ArrayList<>();
+            List<double[]> rowOut = new ArrayList<>();
+            boolean hasTeam = false;
+            // row 지표 먼저 (team 지표가 참조하는 행 지표는 정의 위치와 무관하게 합계 전에 계산되어 있어야 함)
+            for (int i = 0; i < ops.length; i++) {
+                if (ops[i] == null) continue;
+                Metric m = metrics.get(i);
+                if (m.scope() != Scope.ROW) {
+                    hasTeam = true;
+                    continue;
+                }
+                double[] out = Arrays.copyOf(ops[i].eval(rowIn, n), n);
+                rowIn[statSlots + i] = out;
+                rowNames.add(m.name());
+                rowOut.add(out);
+            }
+
+            List<String> teamNames = new ArrayList<>();
+            List<double[]> teamOut = new ArrayList<>();
+            String[] teams = null;
+            int[] teamOf = null;
+            int[] sizes = null;
+            if (hasTeam) {
+                // 팀 매핑 + 팀 합계는 스냅샷당 1회
+                Map<String, Integer> index = new LinkedHashMap<>();
+                teamOf = new int[n];
+                for (int r = 0; r < n; r++) {
+                    String v = g.cell(r, teamCol);
+                    String key = v == null || v.isBlank() ? EMPTY_TEAM : v;
+                    Integer t = index.get(key);
+                    if (t == null) index.put(key, t = index.size());
+                    teamOf[r] = t;
+                }
+                teams = index.keySet().toArray(new String[0]);
+                sizes = new int[teams.length];
+                for (int r = 0; r < n; r++) sizes[teamOf[r]]++;
+                sumByTeam(teamOf, sizes, teams.length, n);
+                for (int i = 0; i < ops.length; i++) {
+                    if (ops[i] == null || metrics.get(i).scope() != Scope.TEAM) continue;
+                    double[] out = Arrays.copyOf(ops[i].eval(teamIn, teams.length), teams.length);
+                    teamIn[statSlots + i] = out;
+                    teamNames.add(metrics.get(i).name());
+                    teamOut.add(out);
+                }
+            }
+            return new GridResult(snapshot, g, List.copyOf(rowNames), rowOut.toArray(new double[0][]),
+                    List.copyOf(teamNames), teams, sizes, teamOf, teamOut.toArray(new double[0][]), Map.copyOf(missing));
+        }
+
+        // 팀별 합계 (NaN 제외, 값이 하나도 없으면 NaN). 버퍼는 팀 수가 늘 때만 확장
+        private void sumByTeam(int[] teamOf, int[] sizes, int teamCount, int n) {
+            for (int slot : teamInputs) {
+                double[] sum = teamIn[slot];
+                if (sum == null || sum.length < teamCount) sum = new double[Math.max(teamCount, 16)];
+                if (slot == 0) {
+                    for (int t = 0; t < teamCount; t++) sum[t] = sizes[t];
+                } else {
+                    Arrays.fill(sum, 0, teamCount, Double.NaN);
+                    double[] col = rowIn[slot];
+                    for (int r = 0; r < n; r++) {
+                        double v = col[r];
+                        if (v != v) continue;
+                        int t = teamOf[r];
+                        sum[t] = sum[t] != sum[t] ? v : sum[t] + v;
+                    }
+                }
+                teamIn[slot] = sum;
+            }
+        }
+    }
+}
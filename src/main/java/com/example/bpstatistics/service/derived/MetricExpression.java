@@ -0,0 +1,361 @@
+package com.example.bpstatistics.service.derived;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * 파생 지표 식 (등록 시 1회 파싱 -> grid 바인딩 시 열 단위 연산 트리로 컴파일)
+ * 문법
+ * - 숫자, 컬럼 참조: statName / column id / 같은 grid 에서 앞서 정의한 파생 지표 이름
+ *   (공백·특수문자가 있으면 [talk time] 또는 `talk time`)
+ * - 연산자: + - * / (우선순위 일반 규칙), 단항 -, 괄호, 비교 > >= < <= == != (참 1 / 거짓 0), && || !
+ * - 함수: min(a, b, ..) max(a, b, ..) abs(x) coalesce(x, y, ..) if(조건, 참, 거짓)
+ *         ratio(a, b) = a / b, pct(a, b) = 100 * a / b, count() = 행 수 (row 지표 1, team 지표 팀 인원)
+ * 값이 없거나 숫자가 아니면 NaN, 0 으로 나누면 NaN (Infinity 를 내보내지 않음)
+ */
+final class MetricExpression {
+
+    /** count() 참조용 예약 이름 (컬럼 이름과 겹치지 않음) */
+    static final String COUNT_REF = "count()";
+
+    sealed interface Node permits Num, Ref, Neg, Not, Bin, Call { }
+    record Num(double value) implements Node { }
+    record Ref(String name) implements Node { }
+    record Neg(Node x) implements Node { }
+    record Not(Node x) implements Node { }
+    record Bin(BinOp op, Node left, Node right) implements Node { }
+    record Call(String fn, List<Node> args) implements Node { }
+
+    enum BinOp {
+        ADD, SUB, MUL, DIV, GT, GE, LT, LE, EQ, NE, AND, OR;
+
+        double apply(double a, double b) {
+            return switch (this) {
+                case ADD -> a + b;
+                case SUB -> a - b;
+                case MUL -> a * b;
+                case DIV -> b == 0 ? Double.NaN : a / b;
+                case GT -> a > b ? 1 : 0;
+                case GE -> a >= b ? 1 : 0;
+                case LT -> a < b ? 1 : 0;
+                case LE -> a <= b ? 1 : 0;
+                case EQ -> a == b ? 1 : 0;
+                case NE -> a != b ? 1 : 0;
+                case AND -> truthy(a) && truthy(b) ? 1 : 0;
+                case OR -> truthy(a) || truthy(b) ? 1 : 0;
+            };
+        }
+    }
+
+    final String source;
+    final Node root;
+    private final Set<String> references;
+
+    private MetricExpression(String source, Node root, Set<String> references) {
+        this.source = source;
+        this.root = root;
+        this.references = Collections.unmodifiableSet(references);
+    }
+
+    /** 파싱 + 상수 접기. 문법 오류 시 IllegalArgumentException (위치 포함) */
+    static MetricExpression parse(String source) {
+        if (source == null || source.isBlank()) throw new IllegalArgumentException("expression 누락");
+        Parser p = new Parser(source);
+        Node root = fold(p.parseExpression());
+        p.expectEnd();
+        Set<String> refs = new LinkedHashSet<>();
+        collectRefs(root, refs);
+        return new MetricExpression(source, root, refs);
+    }
+
+    /** 식이 참조하는 이름 (count() 포함, 등장 순서) */
+    Set<String> references() { return references; }
+
+    /**
+     * 열 연산 트리로 컴파일. slotOf: 참조 이름 -> 입력 열 번호 (VectorOp.eval 의 in 인덱스)
+     * 바인딩마다 새로 컴파일하며, 결과 트리는 내부 버퍼를 재사용하므로 한 스레드에서만 평가해야 합니다.
+     */
+    VectorOp compile(ToIntFunction<String> slotOf) {
+        return compile(root, slotOf);
+    }
+
+    static boolean truthy(double v) {
+        return v != 0 && !Double.isNaN(v);
+    }
+
+    private static VectorOp compile(Node n, ToIntFunction<String> slotOf) {
+        if (n instanceof Num num) return new VectorOp.Const(num.value());
+        if (n instanceof Ref ref) return new VectorOp.Load(slotOf.applyAsInt(ref.name()));
+        if (n instanceof Neg neg) return new VectorOp.Unary(VectorOp.UnaryFn.NEG, compile(neg.x(), slotOf));
+        if (n instanceof Not not) return new VectorOp.Unary(VectorOp.UnaryFn.NOT, compile(not.x(), slotOf));
+        if (n instanceof Bin bin) {
+            VectorOp l = compile(bin.left(), slotOf);
+            if (bin.right() instanceof Num c) return new VectorOp.BinaryConst(bin.op(), l, c.value());
+            return new VectorOp.Binary(bin.op(), l, compile(bin.right(), slotOf));
+        }
+        Call call = (Call) n;
+        List<VectorOp> args = new ArrayList<>(call.args().size());
+        for (Node a : call.args()) args.add(compile(a, slotOf));
+        return switch (call.fn()) {
+            case "abs" -> new VectorOp.Unary(VectorOp.UnaryFn.ABS, args.get(0));
+            case "min" -> chain(VectorOp.Fold.MIN, args);
+            case "max" -> chain(VectorOp.Fold.MAX, args);
+            case "coalesce" -> chain(VectorOp.Fold.COALESCE, args);
+            case "if" -> new VectorOp.Select(args.get(0), args.get(1), args.get(2));
+            // ratio/pct 는 파싱 시 DIV / MUL 로 바뀌므로 여기 오지 않음
+            default -> throw new IllegalStateException("컴파일할 수 없는 함수: " + call.fn());
+        };
+    }
+
+    private static VectorOp chain(VectorOp.Fold fold, List<VectorOp> args) {
+        VectorOp acc = args.get(0);
+        for (int i = 1; i < args.size(); i++) acc = new VectorOp.Folded(fold, acc, args.get(i));
+        return acc;
+    }
+
+    // 상수 부분식을 미리 계산 (참조가 없는 하위 트리)
+    private static Node fold(Node n) {
+        if (n instanceof Neg neg) {
+            Node x = fold(neg.x());
+            return x instanceof Num c ? new Num(-c.value()) : new Neg(x);
+        }
+        if (n instanceof Not not) {
+            Node x = fold(not.x());
+            return x instanceof Num c ? new Num(truthy(c.value()) ? 0 : 1) : new Not(x);
+        }
+        if (n instanceof Bin bin) {
+            Node l = fold(bin.left()), r = fold(bin.right());
+            if (l instanceof Num a && r instanceof Num b) return new Num(bin.op().apply(a.value(), b.value()));
+            return new Bin(bin.op(), l, r);
+        }
+        if (n instanceof Call call) {
+            List<Node> args = new ArrayList<>(call.args().size());
+            boolean constant = true;
+            for (Node a : call.args()) {
+                Node f = fold(a);
+                args.add(f);
+                constant &= f instanceof Num;
+            }
+            if (constant && !args.isEmpty()) {
+                double[] v = new double[args.size()];
+                for (int i = 0; i < v.length; i++) v[i] = ((Num) args.get(i)).value();
+                return new Num(VectorOp.evalScalar(call.fn(), v));
+            }
+            return new Call(call.fn(), List.copyOf(args));
+        }
+        return n;
+    }
+
+    private static void collectRefs(Node n, Set<String> out) {
+        if (n instanceof Ref ref) out.add(ref.name());
+        else if (n instanceof Neg neg) collectRefs(neg.x(), out);
+        else if (n instanceof Not not) collectRefs(not.x(), out);
+        else if (n instanceof Bin bin) {
+            collectRefs(bin.left(), out);
+            collectRefs(bin.right(), out);
+        } else if (n instanceof Call call) {
+            for (Node a : call.args()) collectRefs(a, out);
+        }
+    }
+
+    /** 재귀 하강 파서: or > and > 비교 > 덧셈 > 곱셈 > 단항 > 기본식 */
+    private static final class Parser {
+        private final String s;
+        private int pos;
+
+        Parser(String s) { this.s = s; }
+
+        Node parseExpression() { return parseOr(); }
+
+        void expectEnd() {
+            skipSpace();
+            if (pos < s.length()) throw error("해석할 수 없는 문자 '" + s.charAt(pos) + "'");
+        }
+
+        private Node parseOr() {
+            Node n = parseAnd();
+            while (take("||")) n = new Bin(BinOp.OR, n, parseAnd());
+            return n;
+        }
+
+        private Node parseAnd() {
+            Node n = parseComparison();
+            while (take("&&")) n = new Bin(BinOp.AND, n, parseComparison());
+            return n;
+        }
+
+        private Node parseComparison() {
+            Node n = parseAdditive();
+            while (true) {
+                BinOp op;
+                if (take(">=")) op = BinOp.GE;
+                else if (take("<=")) op = BinOp.LE;
+                else if (take("==")) op = BinOp.EQ;
+                else if (take("!=")) op = BinOp.NE;
+                else if (take(">")) op = BinOp.GT;
+                else if (take("<")) op = BinOp.LT;
+                else return n;
+                n = new Bin(op, n, parseAdditive());
+            }
+        }
+
+        private Node parseAdditive() {
+            Node n = parseMultiplicative();
+            while (true) {
+                if (take("+")) n = new Bin(BinOp.ADD, n, parseMultiplicative());
+                else if (take("-")) n = new Bin(BinOp.SUB, n, parseMultiplicative());
+                else return n;
+            }
+        }
+
+        private Node parseMultiplicative() {
+            Node n = parseUnary();
+            while (true) {
+                if (take("*")) n = new Bin(BinOp.MUL, n, parseUnary());
+                else if (take("/")) n = new Bin(BinOp.DIV, n, parseUnary());
+                else return n;
+            }
+        }
+
+        private Node parseUnary() {
+            if (take("-")) return new Neg(parseUnary());
+            if (take("+")) return parseUnary();
+            if (peek() == '!' && !lookingAt("!=")) {
+                pos++;
+                return new Not(parseUnary());
+            }
+            return parsePrimary();
+        }
+
+        private Node parsePrimary() {
+            skipSpace();
+            if (pos >= s.length()) throw error("식이 끝났습니다");
+            char ch = s.charAt(pos);
+            if (ch == '(') {
+                pos++;
+                Node n = parseExpression();
+                expect(')');
+                return n;
+            }
+            if (Character.isDigit(ch) || ch == '.') return parseNumber();
+            if (ch == '[') return new Ref(quoted('[', ']'));
+            if (ch == '`') return new Ref(quoted('`', '`'));
+            if (Character.isLetter(ch) || ch == '_') {
+                String name = identifier();
+                if (take("(")) return call(name.toLowerCase(Locale.ROOT));
+                return new Ref(name);
+            }
+            throw error("예상하지 못한 문자 '" + ch + "'");
+        }
+
+        private Node call(String fn) {
+            List<Node> args = new ArrayList<>();
+            if (!take(")")) {
+                do {
+                    args.add(parseExpression());
+                } while (take(","));
+                expect(')');
+            }
+            return switch (fn) {
+                case "count" -> {
+                    arity(fn, args, 0, 0);
+                    yield new Ref(COUNT_REF);
+                }
+                case "abs" -> {
+                    arity(fn, args, 1, 1);
+                    yield new Call(fn, args);
+                }
+                case "min", "max", "coalesce" -> {
+                    arity(fn, args, 1, Integer.MAX_VALUE);
+                    yield args.size() == 1 ? args.get(0) : new Call(fn, args);
+                }
+                case "if" -> {
+                    arity(fn, args, 3, 3);
+                    yield new Call(fn, args);
+                }
+                case "ratio" -> {
+                    arity(fn, args, 2, 2);
+                    yield new Bin(BinOp.DIV, args.get(0), args.get(1));
+                }
+                case "pct" -> {
+                    arity(fn, args, 2, 2);
+                    yield new Bin(BinOp.MUL, new Bin(BinOp.DIV, args.get(0), args.get(1)), new Num(100));
+                }
+                default -> throw error("지원하지 않는 함수: " + fn);
+            };
+        }
+
+        private void arity(String fn, List<Node> args, int min, int max) {
+            if (args.size() < min || args.size() > max) {
+                throw error(fn + "() 인자 수 오류: " + args.size());
+            }
+        }
+
+        private Node parseNumber() {
+            int start = pos;
+            while (pos < s.length() && (Character.isDigit(s.charAt(pos)) || s.charAt(pos) == '.')) pos++;
+            if (pos < s.length() && (s.charAt(pos) == 'e' || s.charAt(pos) == 'E')) {
+                pos++;
+                if (pos < s.length() && (s.charAt(pos) == '+' || s.charAt(pos) == '-')) pos++;
+                while (pos < s.length() && Character.isDigit(s.charAt(pos))) pos++;
+            }
+            try {
+                return new Num(Double.parseDouble(s.substring(start, pos)));
+            } catch (NumberFormatException e) {
+                pos = start;
+                throw error("숫자 형식 오류");
+            }
+        }
+
+        private String identifier() {
+            int start = pos;
+            while (pos < s.length() && (Character.isLetterOrDigit(s.charAt(pos)) || s.charAt(pos) == '_' || s.charAt(pos) == '.')) pos++;
+            return s.substring(start, pos);
+        }
+
+        private String quoted(char open, char close) {
+            int start = ++pos;
+            int end = s.indexOf(close, start);
+            if (end < 0) throw error("'" + open + "' 이 닫히지 않았습니다");
+            pos = end + 1;
+            String name = s.substring(start, end).trim();
+            if (name.isEmpty()) throw error("빈 컬럼 이름");
+            return name;
+        }
+
+        private boolean take(String token) {
+            skipSpace();
+            if (!lookingAt(token)) return false;
+            pos += token.length();
+            return true;
+        }
+
+        private void expect(char ch) {
+            skipSpace();
+            if (pos >= s.length() || s.charAt(pos) != ch) throw error("'" + ch + "' 가 필요합니다");
+            pos++;
+        }
+
+        private char peek() {
+            skipSpace();
+            return pos < s.length() ? s.charAt(pos) : '\0';
+        }
+
+        private boolean lookingAt(String token) {
+            return s.startsWith(token, pos);
+        }
+
+        private void skipSpace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " (위치 " + pos + "): " + s);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.bpstatistics.service.derived;
+
+import java.util.Arrays;
+
+/**
+ * 컴파일된 파생 지표 식의 노드 (열 단위 평가)
+ * eval 은 입력 열(in[slot][row])에서 n 행을 계산해 결과 배열을 반환합니다.
+ * - Load 는 입력 열을 복사 없이 그대로 반환
+ * - 나머지 노드는 자기 버퍼를 재사용 (행 수가 늘 때만 확장) -> 평가 중 할당 없음
+ * - 연산 종류 분기는 루프 밖에서 한 번만 하고, 루프 본문은 배열 원소 연산만 남겨 JIT 자동 벡터화 대상이 되도록 합니다.
+ * 반환 배열은 다음 eval 전까지만 유효하며 길이가 n 보다 길 수 있습니다.
+ */
+abstract class VectorOp {
+
+    enum UnaryFn { NEG, NOT, ABS }
+
+    enum Fold { MIN, MAX, COALESCE }
+
+    private double[] buf = new double[0];
+
+    abstract double[] eval(double[][] in, int n);
+
+    final double[] buffer(int n) {
+        if (buf.length < n) buf = new double[Math.max(n, buf.length + (buf.length >> 1))];
+        return buf;
+    }
+
+    /** 상수 인자 함수 (파싱 시 상수 접기용) */
+    static double evalScalar(String fn, double[] v) {
+        double acc = v[0];
+        switch (fn) {
+            case "abs" -> acc = Math.abs(acc);
+            case "min" -> { for (int i = 1; i < v.length; i++) acc = Math.min(acc, v[i]); }
+            case "max" -> { for (int i = 1; i < v.length; i++) acc = Math.max(acc, v[i]); }
+            case "coalesce" -> { for (int i = 1; i < v.length && Double.isNaN(acc); i++) acc = v[i]; }
+            case "if" -> acc = MetricExpression.truthy(v[0]) ? v[1] : v[2];
+            default -> throw new IllegalStateException("지원하지 않는 함수: " + fn);
+        }
+        return acc;
+    }
+
+    static final class Const extends VectorOp {
+        private final double value;
+        private int filled;
+
+        Const(double value) { this.value = value; }
+
+        @Override
+        double[] eval(double[][] in, int n) {
+            double[] out = buffer(n);
+            if (filled < n) {
+                Arrays.fill(out, value);
+                filled = out.length;
+            }
+            return out;
+        }
+    }
+
+    static final class Load extends VectorOp {
+        private final int slot;
+
+        Load(int slot) { this.slot = slot; }
+
+        @Override
+        double[] eval(double[][] in, int n) { return in[slot]; }
+    }
+
+    static final class Unary extends VectorOp {
+        private final UnaryFn fn;
+        private final VectorOp x;
+
+        Unary(UnaryFn fn, VectorOp x) {
+            this.fn = fn;
+            this.x = x;
+        }
+
+        @Override
+        double[] eval(double[][] in, int n) {
+            double[] a = x.eval(in, n);
+            double[] out = buffer(n);
+            switch (fn) {
+                case NEG -> { for (int i = 0; i < n; i++) out[i] = -a[i]; }
+                case ABS -> { for (int i = 0; i < n; i++) out[i] = Math.abs(a[i]); }
+                case NOT -> { for (int i = 0; i < n; i++) out[i] = a[i] != 0 && a[i] == a[i] ? 0 : 1; }
+            }
+            return out;
+        }
+    }
+
+    static final class Binary extends VectorOp {
+        private final MetricExpression.BinOp op;
+        private final VectorOp left;
+        private final VectorOp right;
+
+        Binary(MetricExpression.BinOp op, VectorOp left, VectorOp right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double[] eval(double[][] in, int n) {
+            double[] a = left.eval(in, n);
+            double[] b = right.eval(in, n);
+            double[] out = buffer(n);
+            switch (op) {
+                case ADD -> { for (int i = 0; i < n; i++) out[i] = a[i] + b[i]; }
+                case SUB -> { for (int i = 0; i < n; i++) out[i] = a[i] - b[i]; }
+                case MUL -> { for (int i = 0; i < n; i++) out[i] = a[i] * b[i]; }
+                case DIV -> { for (int i = 0; i < n; i++) out[i] = b[i] == 0 ? Double.NaN : a[i] / b[i]; }
+                default -> { for (int i = 0; i < n; i++) out[i] = op.apply(a[i], b[i]); }
+            }
+            return out;
+        }
+    }
+
+    /** 오른쪽이 상수인 이항 연산 (x * 100, x / 60, x > 0 ...) */
+    static final class BinaryConst extends VectorOp {
+        private final MetricExpression.BinOp op;
+        private final VectorOp left;
+        private final double c;
+
+        BinaryConst(MetricExpression.BinOp op, VectorOp left, double c) {
+            this.op = op;
+            this.left = left;
+            this.c = c;
+        }
+
+        @Override
+        double[] eval(double[][] in, int n) {
+            double[] a = left.eval(in, n);
+            double[] out = buffer(n);
+            switch (op) {
+                case ADD -> { for (int i = 0; i < n; i++) out[i] = a[i] + c; }
+                case SUB -> { for (int i = 0; i < n; i++) out[i] = a[i] - c; }
+                case MUL -> { for (int i = 0; i < n; i++) out[i] = a[i] * c; }
+                case DIV -> {
+                    if (c == 0) Arrays.fill(out, 0, n, Double.NaN);
+                    else for (int i = 0; i < n; i++) out[i] = a[i] / c;
+                }
+                default -> { for (int i = 0; i < n; i++) out[i] = op.apply(a[i], c); }
+            }
+            return out;
+        }
+    }
+
+    static final class Folded extends VectorOp {
+        private final Fold fold;
+        private final VectorOp left;
+        private final VectorOp right;
+
+        Folded(Fold fold, VectorOp left, VectorOp right) {
+            this.fold = fold;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double[] eval(double[][] in, int n) {
+            double[] a = left.eval(in, n);
+            double[] b = right.eval(in, n);
+            double[] out = buffer(n);
+            switch (fold) {
+                case MIN -> { for (int i = 0; i < n; i++) out[i] = Math.min(a[i], b[i]); }
+                case MAX -> { for (int i = 0; i < n; i++) out[i] = Math.max(a[i], b[i]); }
+                case COALESCE -> { for (int i = 0; i < n; i++) out[i] = a[i] == a[i] ? a[i] : b[i]; }
+            }
+            return out;
+        }
+    }
+
+    static final class Select extends VectorOp {
+        private final VectorOp cond;
+        private final VectorOp then;
+        private final VectorOp otherwise;
+
+        Select(VectorOp cond, VectorOp then, VectorOp otherwise) {
+            this.cond = cond;
+            this.then = then;
+            this.otherwise = otherwise;
+        }
+
+        @Override
+        double[] eval(double[][] in, int n) {
+            double[] c = cond.eval(in, n);
+            double[] a = then.eval(in, n);
+            double[] b = otherwise.eval(in, n);
+            double[] out = buffer(n);
+            for (int i = 0; i < n; i++) out[i] = c[i] != 0 && c[i] == c[i] ? a[i] : b[i];
+            return out;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.bpstatistics.service.diag;
+
+import com.example.bpstatistics.config.DiagnosticsConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 요청 처리 단계별 지연 측정 (Micrometer Observation -> Brave span + bp.stage Timer)
+ * - 재인증 대기 / OAuth 토큰 / 풀 획득 / 첫 바이트 / 본문 수신 / 파싱·검증 / 응답 쓰기를 같은 관측 이름(bp.stage)의 stage 태그로 구분
+ * - 업스트림 HTTP 호출은 WebClient 필터가 호출별 Exchange 를 Reactor Context 에 넣고,
+ *   HttpClient doOnRequest/doOnResponse 와 응답 본문 완료 시점에 다음 단계로 넘깁니다.
+ * - 진단 조회는 Timer 의 최근 구간 분위수(DiagnosticsConfig 의 MeterFilter)를 단계/호출별로 정리합니다.
+ */
+@Component
+public class StageLatency {
+    public static final String OBSERVATION = "bp.stage";
+    /** WebClient 요청 attribute: 호출 구분 (data/auth/oauth ...), 없으면 other */
+    public static final String CALL_ATTRIBUTE = StageLatency.class.getName() + ".call";
+    public static final String NO_CALL = "-";
+
+    public static final String REAUTH_WAIT = "reauth.wait";
+    public static final String OAUTH_TOKEN = "oauth.token";
+    public static final String POOL_ACQUIRE = "pool.acquire";          // 동시성 허가 대기 + 풀 대기 + (신규 연결이면) connect/TLS
+    public static final String FIRST_BYTE = "upstream.first-byte";     // 요청 전송 ~ 응답 헤더
+    public static final String BODY = "upstream.body";                 // 응답 헤더 ~ 본문 끝
+    public static final String DATA_FETCH = "data.fetch";              // getData() 전체
+    public static final String PARSE = "snapshot.parse";
+    public static final String VALIDATE = "request.validate";
+    public static final String RESPONSE_WRITE = "response.write";
+
+    // 진단 표시 순서 + 지연 귀속 (ours / pool / upstream / total)
+    private static final Map<String, String> OWNERS = new LinkedHashMap<>();
+    static {
+        OWNERS.put(REAUTH_WAIT, "ours");
+        OWNERS.put(OAUTH_TOKEN, "upstream");
+        OWNERS.put(POOL_ACQUIRE, "pool");
+        OWNERS.put(FIRST_BYTE, "upstream");
+        OWNERS.put(BODY, "upstream");
+        OWNERS.put(PARSE, "ours");
+        OWNERS.put(VALIDATE, "ours");
+        OWNERS.put(RESPONSE_WRITE, "ours");
+        OWNERS.put(DATA_FETCH, "total");
+    }
+
+    private final DiagnosticsConfig.DiagnosticsProps props;
+    private final ObservationRegistry observationRegistry;
+    private final MeterRegistry meterRegistry;
+
+    public StageLatency(DiagnosticsConfig.DiagnosticsProps props, ObservationRegistry observationRegistry, MeterRegistry meterRegistry) {
+        this.props = props;
+        this.observationRegistry = props.isEnabled() ? observationRegistry : ObservationRegistry.NOOP;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** 단계 관측 시작 (parent 가 null 이면 현재 스레드의 관측) */
+    public Observation start(String stage, String call, Observation parent) {
+        return Observation.createNotStarted(OBSERVATION, observationRegistry)
+                .contextualName(stage)
+                .lowCardinalityKeyValue("stage", stage)
+                .lowCardinalityKeyValue("call", call)
+                .parentObservation(parent != null ? parent : observationRegistry.getCurrentObservation())
+                .start();
+    }
+
+    /** 동기 구간 측정 (예외는 기록 후 그대로 전파) */
+    public <T> T time(String stage, Supplier<T> body) {
+        Observation obs = start(stage, NO_CALL, null);
+        try (Observation.Scope ignored = obs.openScope()) {
+            return body.get();
+        } catch (RuntimeException e) {
+            obs.error(e);
+            throw e;
+        } finally {
+            obs.stop();
+        }
+    }
+
+    /**
+     * 구독 시점부터 완료/오류/취소까지 측정. 하위 단계(WebClient 호출 등)는 이 관측을 부모로 가집니다.
+     */
+    public <T> Mono<T> observe(String stage, String call, Mono<T> mono) {
+        return Mono.deferContextual(ctx -> {
+            Observation obs = start(stage, call, parentOf(ctx));
+            return mono
+                    .doOnError(obs::error)
+                    .doOnCancel(() -> obs.error(new CancellationException("cancelled")))
+                    .doFinally(s -> obs.stop())
+                    .contextWrite(c -> c.put(ObservationThreadLocalAccessor.KEY, obs));
+        });
+    }
+
+    private Observation parentOf(ContextView ctx) {
+        return ctx.getOrDefault(ObservationThreadLocalAccessor.KEY, observationRegistry.getCurrentObservation());
+    }
+
+    /**
+     * 업스트림 호출 1건의 풀 획득 -> 첫 바이트 -> 본문 단계 전환 (재시도 시 begin 부터 다시)
+     */
+    public final class Exchange {
+        private final String call;
+        private final Observation parent;
+        private Observation current;
+
+        private Exchange(String call, Observation parent) {
+            this.call = call;
+            this.parent = parent;
+        }
+
+        synchronized void begin() { next(POOL_ACQUIRE, null); }
+        synchronized void requestSent() { if (current != null) next(FIRST_BYTE, null); }
+        synchronized void headersReceived() { if (current != null) next(BODY, null); }
+        synchronized void complete() { next(null, null); }
+        synchronized void fail(Throwable e) { next(null, e); }
+
+        private void next(String stage, Throwable error) {
+            if (current != null) {
+                if (error != null) current.error(error);
+                current.stop();
+            }
+            current = stage == null ? null : start(stage, call, parent);
+        }
+    }
+
+    /** WebClient.Builder 에 등록: 호출마다 Exchange 를 만들고 응답 본문 종료까지 추적 */
+    public ExchangeFilterFunction exchangeFilter() {
+        return (request, next) -> {
+            if (!props.isEnabled()) return next.exchange(request);
+            String call = request.attribute(CALL_ATTRIBUTE).map(Object::toString).orElse("other");
+            return Mono.deferContextual(ctx -> {
+                Exchange ex = new Exchange(call, parentOf(ctx));
+                ex.begin();
+                return next.exchange(request)
+                        .map(res -> trackBody(res, ex))
+                        .doOnError(ex::fail)
+                        .doOnCancel(() -> ex.fail(new CancellationException("cancelled")))
+                        .contextWrite(c -> c.put(Exchange.class, ex));
+            });
+        };
+    }
+
+    private static ClientResponse trackBody(ClientResponse res, Exchange ex) {
+        return res.mutate()
+                .body(body -> body
+                        .doOnComplete(ex::complete)
+                        .doOnError(ex::fail)
+                        .doOnCancel(ex::complete))
+                .build();
+    }
+
+    /** HttpClient.doOnRequest: 연결 확보 후 요청 전송 직전 */
+    public static void onRequestSent(ContextView ctx) {
+        ctx.<Exchange>getOrEmpty(Exchange.class).ifPresent(Exchange::requestSent);
+    }
+
+    /** HttpClient.doOnResponse: 응답 헤더 수신 */
+    public static void onResponseHeaders(ContextView ctx) {
+        ctx.<Exchange>getOrEmpty(Exchange.class).ifPresent(Exchange::headersReceived);
+    }
+
+    /**
+     * 단계별 최근 구간 분위수. count 는 누적, 분위수/max 는 windowSeconds 구간 (성공 호출 기준)
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Map<String, Map<String, Object>>> byStage = new TreeMap<>();
+        for (Timer t : meterRegistry.find(OBSERVATION).timers()) {
+            String stage = t.getId().getTag("stage");
+            String call = t.getId().getTag("call");
+            if (stage == null) continue;
+            Map<String, Object> m = byStage.computeIfAbsent(stage, k -> new TreeMap<>())
+                    .computeIfAbsent(call == null ? NO_CALL : call, k -> new LinkedHashMap<>());
+            String error = t.getId().getTag("error");
+            if (error != null && !"none".equals(error)) {
+                m.merge("errors", t.count(), (a, b) -> (Long) a + (Long) b);
+                continue;
+            }
+            HistogramSnapshot h = t.takeSnapshot();
+            m.put("count", h.count());
+            m.put("meanMs", round(h.mean(TimeUnit.MILLISECONDS)));
+            for (ValueAtPercentile p : h.percentileValues()) {
+                m.put("p" + BigDecimal.valueOf(p.percentile() * 100).stripTrailingZeros().toPlainString() + "Ms",
+                        round(p.value(TimeUnit.MILLISECONDS)));
+            }
+            m.put("maxMs", round(h.max(TimeUnit.MILLISECONDS)));
+        }
+
+        List<Map<String, Object>> stages = new ArrayList<>();
+        List<String> order = new ArrayList<>(OWNERS.keySet());
+        byStage.keySet().stream().filter(s -> !OWNERS.containsKey(s)).forEach(order::add);
+        for (String stage : order) {
+            Map<String, Map<String, Object>> calls = byStage.get(stage);
+            if (calls == null) continue;
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("stage", stage);
+            s.put("owner", OWNERS.getOrDefault(stage, "ours"));
+            s.put("calls", calls);
+            stages.add(s);
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("enabled", props.isEnabled());
+        out.put("windowSeconds", props.getWindowSeconds());
+        out.put("stages", stages);
+        return out;
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 100) / 100.0;
+    }
+}
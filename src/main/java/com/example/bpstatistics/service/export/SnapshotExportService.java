@@ -0,0 +1,360 @@
+package com.example.bpstatistics.service.export;
+
+import com.example.bpstatistics.config.ExportConfig;
+import com.example.bpstatistics.service.journal.JournalCursor;
+import com.example.bpstatistics.service.journal.JournalRecord;
+import com.example.bpstatistics.service.journal.StatsJournal;
+import com.example.bpstatistics.service.snapshot.GridDefinitionRegistry;
+import com.example.bpstatistics.service.snapshot.GridSnapshot;
+import com.example.bpstatistics.service.snapshot.SnapshotParser;
+import com.example.bpstatistics.service.snapshot.StatsSnapshot;
+import com.example.bpstatistics.web.exception.TooManyRequestsException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 스냅샷 이력 대량 내보내기 (BI / 대사 용도)
+ * - 저널 커서에서 레코드를 1건씩 읽어 파싱 -> 바로 출력 스트림에 기록 (구간 전체를 메모리에 올리지 않음, 힙 사용량은 스냅샷 1건 크기)
+ * - csv: grid 1개, 행 = (캡처 시각, 상담원), 열 = 첫 스냅샷의 컬럼 순서 (이후 컬럼이 바뀌면 column id 로 맞추고 없는 값은 빈 칸)
+ * - columnar: 스냅샷 x grid 당 1줄 NDJSON, 컬럼별 값 배열 (열 단위 압축/적재에 유리)
+ * - gzip 은 syncFlush 로 감싸 N 건마다 flush 하므로 청크 단위로 바로 전송됩니다.
+ */
+@Service
+public class SnapshotExportService {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotExportService.class);
+
+    public enum Format {
+        CSV("csv", "text/csv;charset=UTF-8"),
+        COLUMNAR("ndjson", "application/x-ndjson");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String extension() { return extension; }
+        public String contentType() { return contentType; }
+
+        static Format parse(String value) {
+            if (value == null || value.isBlank()) return CSV;
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("format 은 csv 또는 columnar 여야 합니다: " + value);
+            }
+        }
+    }
+
+    public record ExportQuery(long fromMillis, long toMillis, String gridId, Format format) {
+        public String fileName() {
+            return "snapshots-" + (gridId == null ? "all" : gridId) + "-" + fromMillis + "-" + toMillis + "." + format.extension();
+        }
+    }
+
+    public record Summary(long snapshots, long rows, long skipped, long elapsedMs) { }
+
+    /** 동시 내보내기 슬롯 (close 시 반환) */
+    public final class Permit implements AutoCloseable {
+        private boolean released;
+
+        private Permit() { }
+
+        @Override
+        public void close() {
+            if (released) return;
+            released = true;
+            slots.release();
+        }
+    }
+
+    private final ExportConfig.ExportProps props;
+    private final StatsJournal journal;
+    private final SnapshotParser parser;
+    private final GridDefinitionRegistry gridDefinitions;
+    private final ObjectMapper objectMapper;
+    private final Semaphore slots;
+    private final AtomicLong exported = new AtomicLong();
+    private final AtomicLong aborted = new AtomicLong();
+
+    public SnapshotExportService(ExportConfig.ExportProps props, StatsJournal journal, SnapshotParser parser,
+                                 GridDefinitionRegistry gridDefinitions, ObjectMapper objectMapper) {
+        this.props = props;
+        this.journal = journal;
+        this.parser = parser;
+        this.gridDefinitions = gridDefinitions;
+        this.objectMapper = objectMapper;
+        this.slots = new Semaphore(Math.max(1, props.getMaxConcurrent()));
+    }
+
+    /**
+     * 요청 검증
+     * @param from   시작 (epoch ms 또는 ISO-8601 오프셋 포함)
+     * @param to     종료 (null 이면 현재)
+     * @param grid   grid id (csv 는 필수, columnar 는 null 이면 전체)
+     * @param format csv / columnar
+     */
+    public ExportQuery query(String from, String to, String grid, String format) {
+        if (!props.isEnabled()) throw new IllegalStateException("내보내기가 비활성화되어 있습니다.");
+        if (!journal.isEnabled()) throw new IllegalStateException("저널이 비활성화되어 내보낼 스냅샷 이력이 없습니다.");
+        Format f = Format.parse(format);
+        long toMs = to == null || to.isBlank() ? System.currentTimeMillis() : parseTime("to", to);
+        long fromMs = parseTime("from", from);
+        if (fromMs > toMs) throw new IllegalArgumentException("from 이 to 보다 늦습니다.");
+        String gridId = grid == null || grid.isBlank() ? null : grid.trim();
+        if (f == Format.CSV && gridId == null) throw new IllegalArgumentException("csv 는 grid 를 지정해야 합니다.");
+        return new ExportQuery(fromMs, toMs, gridId, f);
+    }
+
+    /** 동시 내보내기 슬롯 확보 (없으면 429) */
+    public Permit acquire() {
+        if (!slots.tryAcquire()) {
+            throw new TooManyRequestsException("동시 내보내기 한도 초과 (" + props.getMaxConcurrent() + ")", 5000);
+        }
+        return new Permit();
+    }
+
+    /**
+     * 저널 커서 -> 출력 스트림. out 은 닫지 않습니다(gzip 이면 trailer 까지 기록).
+     * 클라이언트 연결 종료 등 쓰기 오류는 IOException 으로 그대로 전달됩니다.
+     */
+    public Summary write(ExportQuery q, OutputStream out, boolean gzip) throws IOException {
+        long started = System.currentTimeMillis();
+        int bufferBytes = Math.max(4096, props.getBufferBytes());
+        GZIPOutputStream gz = gzip ? new LeveledGzip(out, bufferBytes, props.getGzipLevel()) : null;
+        Writer w = new BufferedWriter(new OutputStreamWriter(gz != null ? gz : out, StandardCharsets.UTF_8), bufferBytes);
+        Sink sink = q.format() == Format.CSV ? new CsvSink(w, q.gridId()) : new ColumnarSink(w, q.gridId());
+        int flushEvery = props.getFlushEverySnapshots();
+        long snapshots = 0, rows = 0, skipped = 0;
+        try (JournalCursor c = journal.openCursor(q.fromMillis())) {
+            JournalRecord r;
+            while ((r = c.next()) != null) {
+                if (r.timestampMillis() > q.toMillis()) break;
+                StatsSnapshot s;
+                try {
+                    s = parser.parse(r.payloadAsString(), r.sequence(), r.timestampMillis(), StatsSnapshot.Origin.REPLAY);
+                } catch (IOException | RuntimeException e) {
+                    // 손상/형식 불일치 레코드는 건너뜀 (내보내기 전체를 중단하지 않음)
+                    skipped++;
+                    log.debug("내보내기 중 레코드 파싱 실패 seq={}: {}", r.sequence(), e.getMessage());
+                    continue;
+                }
+                rows += sink.write(s);
+                snapshots++;
+                if (flushEvery > 0 && snapshots % flushEvery == 0) sink.flush();
+            }
+            sink.finish();
+            w.flush();
+            if (gz != null) gz.finish();
+            out.flush();
+        } catch (IOException e) {
+            aborted.incrementAndGet();
+            throw e;
+        }
+        exported.incrementAndGet();
+        Summary summary = new Summary(snapshots, rows, skipped, System.currentTimeMillis() - started);
+        if (skipped > 0) log.warn("내보내기 중 파싱 실패로 건너뛴 레코드 {}건", skipped);
+        return summary;
+    }
+
+    /** 진단용 */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", props.isEnabled() && journal.isEnabled());
+        m.put("maxConcurrent", props.getMaxConcurrent());
+        m.put("running", Math.max(1, props.getMaxConcurrent()) - slots.availablePermits());
+        m.put("completed", exported.get());
+        m.put("aborted", aborted.get());
+        return m;
+    }
+
+    // 출력 형식별 기록기 (스냅샷 1건 단위)
+    private interface Sink {
+        long write(StatsSnapshot s) throws IOException;
+        void flush() throws IOException;
+        void finish() throws IOException;
+    }
+
+    /**
+     * captured_at,sequence,row_key,<statName(없으면 column id)...>
+     * 헤더는 grid 가 처음 나타난 스냅샷의 컬럼 기준 (이후 추가된 컬럼은 제외)
+     */
+    private final class CsvSink implements Sink {
+        private final Writer w;
+        private final String gridId;
+        private String[] columnIds;
+
+        CsvSink(Writer w, String gridId) {
+            this.w = w;
+            this.gridId = gridId;
+        }
+
+        @Override
+        public long write(StatsSnapshot s) throws IOException {
+            GridSnapshot g = s.grid(gridId);
+            if (g == null) return 0;
+            if (columnIds == null) {
+                columnIds = new String[g.columnCount()];
+                for (int c = 0; c < columnIds.length; c++) columnIds[c] = g.columnId(c);
+                writeHeader();
+            }
+            int[] map = new int[columnIds.length];
+            for (int c = 0; c < map.length; c++) {
+                map[c] = c < g.columnCount() && columnIds[c].equals(g.columnId(c)) ? c : g.columnIndex(columnIds[c]);
+            }
+            String capturedAt = Instant.ofEpochMilli(s.capturedAtMillis()).toString();
+            String sequence = Long.toString(s.sequence());
+            for (int row = 0; row < g.rowCount(); row++) {
+                w.write(capturedAt);
+                w.write(',');
+                w.write(sequence);
+                w.write(',');
+                writeField(g.rowKey(row));
+                for (int idx : map) {
+                    w.write(',');
+                    if (idx >= 0) writeField(g.cell(row, idx));
+                }
+                w.write('\n');
+            }
+            return g.rowCount();
+        }
+
+        private void writeHeader() throws IOException {
+            w.write("captured_at,sequence,row_key");
+            for (String id : columnIds) {
+                String stat = gridDefinitions.statName(gridId, id);
+                w.write(',');
+                writeField(stat != null ? stat : id);
+            }
+            w.write('\n');
+        }
+
+        // RFC 4180: 구분자/따옴표/개행이 있으면 따옴표로 감싸고 내부 따옴표는 두 번
+        private void writeField(String v) throws IOException {
+            if (v == null || v.isEmpty()) return;
+            boolean quote = false;
+            for (int i = 0; i < v.length() && !quote; i++) {
+                char ch = v.charAt(i);
+                quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+            }
+            if (!quote) {
+                w.write(v);
+                return;
+            }
+            w.write('"');
+            w.write(v.replace("\"", "\"\""));
+            w.write('"');
+        }
+
+        @Override
+        public void flush() throws IOException { w.flush(); }
+
+        @Override
+        public void finish() throws IOException {
+            // 구간에 grid 가 한 번도 없으면 고정 컬럼만 헤더로 기록
+            if (columnIds == null) w.write("captured_at,sequence,row_key\n");
+        }
+    }
+
+    /**
+     * {"capturedAt":..,"sequence":..,"grid":..,"rowCount":N,"rowKeys":[..],"columns":[{"id":..,"statName":..,"values":[..]}]}
+     */
+    private final class ColumnarSink implements Sink {
+        private final JsonGenerator g;
+        private final String gridId;
+
+        ColumnarSink(Writer w, String gridId) throws IOException {
+            this.g = objectMapper.getFactory().createGenerator(w);
+            this.g.setRootValueSeparator(new SerializedString("\n"));
+            // 출력 스트림은 호출 측이 관리
+            this.g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.gridId = gridId;
+        }
+
+        @Override
+        public long write(StatsSnapshot s) throws IOException {
+            long rows = 0;
+            for (GridSnapshot grid : s.grids().values()) {
+                if (gridId != null && !gridId.equals(grid.gridId())) continue;
+                writeBlock(s, grid);
+                rows += grid.rowCount();
+            }
+            return rows;
+        }
+
+        private void writeBlock(StatsSnapshot s, GridSnapshot grid) throws IOException {
+            int n = grid.rowCount();
+            g.writeStartObject();
+            g.writeStringField("capturedAt", Instant.ofEpochMilli(s.capturedAtMillis()).toString());
+            g.writeNumberField("sequence", s.sequence());
+            g.writeStringField("grid", grid.gridId());
+            g.writeNumberField("rowCount", n);
+            g.writeArrayFieldStart("rowKeys");
+            for (int row = 0; row < n; row++) g.writeString(grid.rowKey(row));
+            g.writeEndArray();
+            g.writeArrayFieldStart("columns");
+            for (int c = 0; c < grid.columnCount(); c++) {
+                g.writeStartObject();
+                g.writeStringField("id", grid.columnId(c));
+                g.writeStringField("statName", gridDefinitions.statName(grid.gridId(), grid.columnId(c)));
+                g.writeArrayFieldStart("values");
+                for (int row = 0; row < n; row++) g.writeString(grid.cell(row, c));
+                g.writeEndArray();
+                g.writeEndObject();
+            }
+            g.writeEndArray();
+            g.writeEndObject();
+        }
+
+        @Override
+        public void flush() throws IOException { g.flush(); }
+
+        @Override
+        public void finish() throws IOException {
+            g.writeRaw('\n');
+            g.flush();
+        }
+    }
+
+    // 압축 수준 지정 + syncFlush (flush 시 지금까지의 압축 결과를 바로 내보냄)
+    private static final class LeveledGzip extends GZIPOutputStream {
+        LeveledGzip(OutputStream out, int size, int level) throws IOException {
+            super(out, size, true);
+            def.setLevel(Math.max(1, Math.min(9, level)));
+        }
+    }
+
+    private static long parseTime(String name, String value) {
+        if (value == null || value.isBlank()) throw new IllegalArgumentException(name + " 는 필수입니다.");
+        String v = value.trim();
+        try {
+            if (v.chars().allMatch(Character::isDigit)) return Long.parseLong(v);
+            if (v.endsWith("Z")) return Instant.parse(v).toEpochMilli();
+            return OffsetDateTime.parse(v).toInstant().toEpochMilli();
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException(name + " 형식 오류 (epoch ms 또는 ISO-8601 오프셋 포함): " + value);
+        }
+    }
+}
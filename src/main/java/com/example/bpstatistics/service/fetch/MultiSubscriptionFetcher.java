@@ -0,0 +1,227 @@
+package com.example.bpstatistics.service.fetch;
+
+import com.example.bpstatistics.config.MultiFetchConfig;
+import com.example.bpstatistics.service.ActiveSubscriptionStore;
+import com.example.bpstatistics.service.BrightPatternSubscriptionService;
+import com.example.bpstatistics.service.deadline.Deadline;
+import com.example.bpstatistics.service.diag.StageLatency;
+import com.example.bpstatistics.service.snapshot.SnapshotParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 다중 구독 data 병렬 조회 -> 하나의 스냅샷(epoch)으로 병합
+ * - 활성 구독(ActiveSubscriptionStore)마다 data URL 을 concurrency 개씩 동시에 조회, 시작 위치를 주기마다 회전(공정성)
+ * - 구독별 deadline = min(perSubscriptionTimeout, 주기 남은 시간), 실패는 구독 단위로 보고하고 직전 성공 grid 를 maxStale 까지 유지
+ * - 결과는 {"agent_grids": {gridId: rows}} 1건으로 병합해 기존 단일 조회와 같은 경로(저널 + 파이프라인)로 투입
+ * - 여러 구독이 같은 gridId 를 내면 먼저 나온 구독의 grid 만 사용하고, 나머지는 구독별 보고(conflictingGrids)에 기록
+ * - 동시에 들어온 조회는 진행 중인 주기 결과를 공유 (single-flight)
+ * 비활성 또는 기록된 구독이 없으면 기존 getData() 를 그대로 사용합니다.
+ */
+@Service
+public class MultiSubscriptionFetcher {
+    private static final Logger log = LoggerFactory.getLogger(MultiSubscriptionFetcher.class);
+
+    private record Result(String id, Map<String, JsonNode> grids, long latencyMs, String error) {
+        boolean ok() { return error == null; }
+    }
+
+    private record LastGood(long at, Map<String, JsonNode> grids) { }
+
+    private final MultiFetchConfig.MultiFetchProps props;
+    private final BrightPatternSubscriptionService subscriptionService;
+    private final ActiveSubscriptionStore activeSubscriptions;
+    private final StageLatency stages;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicReference<Mono<String>> inflight = new AtomicReference<>();
+    private final Map<String, LastGood> lastGood = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+    private final AtomicLong rotation = new AtomicLong();
+    private volatile Map<String, Object> lastReport = Map.of();
+
+    public MultiSubscriptionFetcher(MultiFetchConfig.MultiFetchProps props, BrightPatternSubscriptionService subscriptionService,
+                                    ActiveSubscriptionStore activeSubscriptions, StageLatency stages, ObjectMapper objectMapper) {
+        this.props = props;
+        this.subscriptionService = subscriptionService;
+        this.activeSubscriptions = activeSubscriptions;
+        this.stages = stages;
+        this.objectMapper = objectMapper;
+    }
+
+    public Mono<String> getData() {
+        if (!props.isEnabled()) return subscriptionService.getData();
+        while (true) {
+            Mono<String> current = inflight.get();
+            if (current != null) return current;
+            List<String> ids = activeSubscriptions.list().stream().map(ActiveSubscriptionStore.Entry::id).toList();
+            if (ids.isEmpty()) return subscriptionService.getData();
+            AtomicReference<Mono<String>> self = new AtomicReference<>();
+            Mono<String> cycle = stages.observe(StageLatency.DATA_FETCH, "multi", Mono.defer(() -> runCycle(ids)))
+                    // 공유 주기는 첫 호출자의 요청 deadline 대신 cycleTimeout 으로만 제한 (각 호출자는 자기 deadline 에서 구독만 취소)
+                    .contextWrite(ctx -> ctx.delete(Deadline.CONTEXT_KEY))
+                    .doFinally(s -> inflight.compareAndSet(self.get(), null))
+                    .cache();
+            self.set(cycle);
+            if (inflight.compareAndSet(null, cycle)) return cycle;
+        }
+    }
+
+    private Mono<String> runCycle(List<String> ids) {
+        long started = System.currentTimeMillis();
+        long deadline = started + props.getCycleTimeoutMs();
+        int concurrency = Math.max(1, props.getConcurrency());
+        // 매 주기 시작 위치를 concurrency 만큼 회전: 주기 deadline 에 걸리는 꼬리 구독이 매번 같지 않도록
+        int offset = (int) Math.floorMod(rotation.getAndAdd(concurrency), (long) ids.size());
+        List<String> order = new ArrayList<>(ids.size());
+        order.addAll(ids.subList(offset, ids.size()));
+        order.addAll(ids.subList(0, offset));
+        return Flux.fromIterable(order)
+                .flatMap(id -> fetchOne(id, deadline), concurrency)
+                .collectList()
+                .flatMap(results -> merge(ids, results, started));
+    }
+
+    private Mono<Result> fetchOne(String id, long deadline) {
+        return Mono.defer(() -> {
+            long t0 = System.currentTimeMillis();
+            long budget = Math.min(props.getPerSubscriptionTimeoutMs(), deadline - t0);
+            if (budget <= 0) return Mono.just(new Result(id, Map.of(), 0, "주기 deadline 초과로 미조회"));
+            return subscriptionService.getDataFor(id, Duration.ofMillis(budget))
+                    .timeout(Duration.ofMillis(budget))
+                    .map(raw -> new Result(id, parse(raw), System.currentTimeMillis() - t0, null))
+                    .switchIfEmpty(Mono.fromSupplier(() -> new Result(id, Map.of(), System.currentTimeMillis() - t0, "빈 응답")))
+                    .onErrorResume(e -> Mono.just(new Result(id, Map.of(), System.currentTimeMillis() - t0,
+                            e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage())));
+        });
+    }
+
+    private Map<String, JsonNode> parse(String raw) {
+        try {
+            return SnapshotParser.gridRows(objectMapper.readTree(raw));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("구독 data 파싱 실패: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private Mono<String> merge(List<String> ids, List<Result> results, long started) {
+        long now = System.currentTimeMillis();
+        Map<String, Result> byId = new HashMap<>();
+        for (Result r : results) byId.put(r.id(), r);
+
+        ObjectNode root = objectMapper.createObjectNode();
+        ObjectNode grids = root.putObject("agent_grids");
+        Map<String, String> gridOwner = new HashMap<>();
+        List<Map<String, Object>> items = new ArrayList<>(ids.size());
+        int ok = 0, stale = 0, failed = 0, conflicts = 0;
+        for (String id : ids) {
+            Result r = byId.get(id);
+            Map<String, JsonNode> g;
+            String status;
+            if (r != null && r.ok()) {
+                lastGood.put(id, new LastGood(now, r.grids()));
+                g = r.grids();
+                status = "ok";
+                ok++;
+            } else {
+                LastGood lg = lastGood.get(id);
+                if (lg != null && now - lg.at() <= props.getMaxStaleMs()) {
+                    g = lg.grids();
+                    status = "stale";
+                    stale++;
+                } else {
+                    g = Map.of();
+                    status = "failed";
+                    failed++;
+                }
+            }
+            List<String> conflicting = new ArrayList<>();
+            for (Map.Entry<String, JsonNode> e : g.entrySet()) {
+                String key = e.getKey();
+                // 변경 전: 뒤 구독 grid 를 "구독id:gridId" 로 바꿔 추가 - GridDefinitionRegistry 에 없는 키라 컬럼 이름 해석 불가
+                // 변경 후: 먼저 나온 구독의 grid 유지, 충돌한 grid 는 건너뛰고 보고
+                String owner = gridOwner.putIfAbsent(key, id);
+                if (owner != null && !owner.equals(id)) {
+                    conflicting.add(key + " (owner=" + owner + ")");
+                    conflicts++;
+                    continue;
+                }
+                grids.set(key, e.getValue());
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", id);
+            item.put("status", status);
+            item.put("grids", g.size() - conflicting.size());
+            if (!conflicting.isEmpty()) item.put("conflictingGrids", conflicting);
+            item.put("latencyMs", r == null ? null : r.latencyMs());
+            item.put("error", r == null ? "결과 없음" : r.error());
+            LastGood lg = lastGood.get(id);
+            item.put("lastSuccessAt", lg == null ? null : Instant.ofEpochMilli(lg.at()));
+            items.add(item);
+        }
+        lastGood.keySet().retainAll(new HashSet<>(ids));
+
+        long cycleEpoch = ok > 0 ? epoch.incrementAndGet() : epoch.get();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("epoch", cycleEpoch);
+        report.put("startedAt", Instant.ofEpochMilli(started));
+        report.put("durationMs", now - started);
+        report.put("subscriptions", ids.size());
+        report.put("ok", ok);
+        report.put("stale", stale);
+        report.put("failed", failed);
+        report.put("gridConflicts", conflicts);
+        report.put("items", items);
+        lastReport = report;
+
+        if (ok == 0) {
+            String error = "모든 구독 data 조회 실패 (" + ids.size() + "건)";
+            subscriptionService.recordDataFailure(error);
+            log.error("다중 구독 조회 실패 epoch={} subscriptions={}", cycleEpoch, ids.size());
+            return Mono.error(new IllegalStateException(error));
+        }
+        if (conflicts > 0) {
+            log.warn("다중 구독 조회 gridId 충돌 epoch={} conflicts={} - 먼저 나온 구독 grid 만 사용", cycleEpoch, conflicts);
+        }
+        if (stale + failed > 0) {
+            log.warn("다중 구독 조회 부분 실패 epoch={} ok={} stale={} failed={} ({}ms)", cycleEpoch, ok, stale, failed, now - started);
+        }
+        final String merged;
+        try {
+            merged = objectMapper.writeValueAsString(root);
+        } catch (JsonProcessingException e) {
+            return Mono.error(new IllegalStateException("병합 스냅샷 직렬화 실패", e));
+        }
+        subscriptionService.publishSnapshot(merged);
+        return Mono.just(merged);
+    }
+
+    /** 마지막 조회 주기 보고 (구독별 ok/stale/failed) */
+    public Map<String, Object> status() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", props.isEnabled());
+        m.put("concurrency", props.getConcurrency());
+        m.put("inFlight", inflight.get() != null);
+        m.put("lastCycle", lastReport);
+        return m;
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.bpstatistics.service.grid;
+
+import com.example.bpstatistics.service.snapshot.GridDefinitionRegistry;
+import com.example.bpstatistics.service.snapshot.GridDelta;
+import com.example.bpstatistics.service.snapshot.GridSnapshot;
+import com.example.bpstatistics.service.snapshot.SnapshotDelta;
+import com.example.bpstatistics.service.snapshot.SnapshotListener;
+import com.example.bpstatistics.service.snapshot.StatsSnapshot;
+import com.example.bpstatistics.web.dto.GridWindow;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 대형 grid 구간 조회 (SnapshotListener)
+ * - 최신 스냅샷의 정렬 순서(컬럼 x 방향)를 스냅샷당 1회 계산해 캐시, 동순위는 행 key 로 고정 (stable)
+ * - 행별 마지막 변경 sequence 를 GridDelta 로 갱신해 두고, since 이후 바뀐 행만 cells 를 채워 응답
+ * - 커서는 마지막 행 key 기준이라 스냅샷이 바뀌어도 같은 위치에서 이어짐 (key 가 사라지면 offset 으로 폴백)
+ * 응답 크기는 전체 상담원 수가 아니라 limit 에 비례합니다.
+ */
+@Service
+public class GridWindowService implements SnapshotListener {
+    public static final int MAX_LIMIT = 500;
+    private static final String CURSOR_VERSION = "c1";
+
+    // 정렬 결과: order[위치] = 행, rank[행] = 위치
+    private record Sorted(int[] order, int[] rank) { }
+
+    // 스냅샷 + 해당 스냅샷의 정렬 캐시 (스냅샷 교체 시 함께 교체)
+    private record View(StatsSnapshot snapshot, Map<String, Sorted> sorts) { }
+
+    // grid 별 변경 기록 (this 모니터로 보호)
+    private static final class Changes {
+        final Map<String, Long> changedAt = new HashMap<>(); // rowKey -> 마지막 변경 sequence
+        long refreshedAt;                                     // 전체 갱신(최초/컬럼 변경) sequence
+    }
+
+    private final GridDefinitionRegistry gridDefinitions;
+    private volatile View view;
+    private final Map<String, Changes> changes = new HashMap<>();
+
+    public GridWindowService(GridDefinitionRegistry gridDefinitions) {
+        this.gridDefinitions = gridDefinitions;
+    }
+
+    @Override
+    public synchronized void onSnapshot(StatsSnapshot snapshot, SnapshotDelta delta) {
+        long seq = snapshot.sequence();
+        for (GridDelta d : delta.grids().values()) {
+            Changes c = changes.computeIfAbsent(d.gridId(), id -> new Changes());
+            if (d.fullRefresh()) {
+                c.changedAt.clear();
+                c.refreshedAt = seq;
+                continue;
+            }
+            GridSnapshot g = snapshot.grid(d.gridId());
+            for (int row : d.changedRows()) c.changedAt.put(g.rowKey(row), seq);
+            for (String key : d.removedKeys()) c.changedAt.remove(key);
+        }
+        for (String gridId : delta.removedGrids()) changes.remove(gridId);
+        view = new View(snapshot, new ConcurrentHashMap<>());
+    }
+
+    @Override
+    public synchronized void onReset() {
+        changes.clear();
+        view = null;
+    }
+
+    /** 현재 스냅샷의 grid 목록 (id, 행/열 수) */
+    public Map<String, Object> grids() {
+        View v = view;
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("sequence", v == null ? null : v.snapshot().sequence());
+        m.put("capturedAt", v == null ? null : Instant.ofEpochMilli(v.snapshot().capturedAtMillis()));
+        List<Map<String, Object>> items = new ArrayList<>();
+        if (v != null) {
+            for (GridSnapshot g : v.snapshot().grids().values()) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("gridId", g.gridId());
+                item.put("rows", g.rowCount());
+                item.put("columns", g.columnCount());
+                items.add(item);
+            }
+        }
+        m.put("grids", items);
+        return m;
+    }
+
+    /**
+     * 행 구간 조회
+     * @param sort   정렬 컬럼 (column id 또는 statName), null 이면 업스트림 순서
+     * @param dir    asc / desc (null 이면 asc)
+     * @param cursor 이전 응답의 nextCursor (있으면 offset 무시)
+     * @param since  이전 응답의 sequence (같은 구간 재조회 시 바뀐 행만 cells 포함)
+     */
+    public GridWindow window(String gridId, String sort, String dir, int offset, int limit, String cursor, Long since) {
+        boolean desc;
+        if (dir == null || dir.isBlank() || "asc".equalsIgnoreCase(dir)) desc = false;
+        else if ("desc".equalsIgnoreCase(dir)) desc = true;
+        else throw new IllegalArgumentException("dir 는 asc 또는 desc 여야 합니다: " + dir);
+        String direction = desc ? "desc" : "asc";
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        View v = view;
+        if (v == null) {
+            return new GridWindow(gridId, 0, null, 0, 0, sort, direction, List.of(), List.of(), null, false);
+        }
+        StatsSnapshot snapshot = v.snapshot();
+        GridSnapshot g = snapshot.grid(gridId);
+        if (g == null) throw new IllegalArgumentException("스냅샷에 grid 가 없습니다: " + gridId);
+
+        String columnId = null;
+        int col = -1;
+        if (sort != null && !sort.isBlank()) {
+            columnId = gridDefinitions.resolveColumnId(gridId, sort);
+            col = g.columnIndex(columnId);
+            if (col < 0) throw new IllegalArgumentException("정렬 컬럼이 grid 에 없습니다: " + sort);
+        }
+        String spec = (columnId == null ? "" : columnId) + ":" + direction;
+        Sorted sorted = v.sorts().computeIfAbsent(spec, k -> sort(g, desc, columnIndexOf(g, k)));
+
+        int total = g.rowCount();
+        int start = cursor != null && !cursor.isBlank()
+                ? resolveCursor(cursor, gridId, spec, g, sorted)
+                : Math.max(0, offset);
+        start = Math.min(start, total);
+        int end = Math.min(total, start + size);
+
+        long seq = snapshot.sequence();
+        // 출처 전환 등으로 sequence 가 되돌아간 경우 since 무시
+        Long base = since != null && since <= seq ? since : null;
+        List<GridWindow.Column> columns = columns(g);
+        if (base != null && base == seq) {
+            return new GridWindow(gridId, seq, Instant.ofEpochMilli(snapshot.capturedAtMillis()), total, start,
+                    columnId, direction, columns, List.of(), null, true);
+        }
+
+        boolean[] changed = changedSince(gridId, g, sorted, start, end, base);
+        List<GridWindow.Row> rows = new ArrayList<>(end - start);
+        for (int pos = start; pos < end; pos++) {
+            int row = sorted.order()[pos];
+            rows.add(new GridWindow.Row(g.rowKey(row), pos, changed[pos - start] ? cells(g, row) : null));
+        }
+        String next = end < total ? encodeCursor(gridId, spec, end, g.rowKey(sorted.order()[end - 1])) : null;
+        return new GridWindow(gridId, seq, Instant.ofEpochMilli(snapshot.capturedAtMillis()), total, start,
+                columnId, direction, columns, rows, next, false);
+    }
+
+    // since 이후 변경 여부 (기준이 없거나 전체 갱신 이후면 모두 변경)
+    private synchronized boolean[] changedSince(String gridId, GridSnapshot g, Sorted sorted, int start, int end, Long base) {
+        boolean[] out = new boolean[end - start];
+        Changes c = changes.get(gridId);
+        if (base == null || c == null || c.refreshedAt > base) {
+            Arrays.fill(out, true);
+            return out;
+        }
+        for (int pos = start; pos < end; pos++) {
+            Long at = c.changedAt.get(g.rowKey(sorted.order()[pos]));
+            out[pos - start] = at != null && at > base;
+        }
+        return out;
+    }
+
+    private List<GridWindow.Column> columns(GridSnapshot g) {
+        List<GridWindow.Column> out = new ArrayList<>(g.columnCount());
+        for (int c = 0; c < g.columnCount(); c++) {
+            out.add(new GridWindow.Column(g.columnId(c), gridDefinitions.statName(g.gridId(), g.columnId(c))));
+        }
+        return out;
+    }
+
+    private static String[] cells(GridSnapshot g, int row) {
+        String[] out = new String[g.columnCount()];
+        for (int c = 0; c < out.length; c++) out[c] = g.cell(row, c);
+        return out;
+    }
+
+    private static int columnIndexOf(GridSnapshot g, String spec) {
+        String columnId = spec.substring(0, spec.lastIndexOf(':'));
+        return columnId.isEmpty() ? -1 : g.columnIndex(columnId);
+    }
+
+    /**
+     * 숫자로 변환되는 값(시간 "hh:mm:ss" 포함)은 숫자 순, 나머지는 문자열 순 (숫자 < 문자열 < 빈 값)
+     * 동순위는 행 key 오름차순으로 고정해 폴링마다 순서가 흔들리지 않도록 합니다.
+     */
+    private static Sorted sort(GridSnapshot g, boolean desc, int col) {
+        int n = g.rowCount();
+        Integer[] idx = new Integer[n];
+        for (int i = 0; i < n; i++) idx[i] = i;
+        Comparator<Integer> primary;
+        if (col < 0) {
+            primary = Comparator.naturalOrder();
+        } else {
+            double[] nums = g.numericColumn(col);
+            primary = (a, b) -> compareCells(nums[a], g.cell(a, col), nums[b], g.cell(b, col));
+        }
+        Comparator<Integer> cmp = desc ? primary.reversed() : primary;
+        if (col >= 0) cmp = cmp.thenComparing(g::rowKey);
+        Arrays.sort(idx, cmp);
+        int[] order = new int[n];
+        int[] rank = new int[n];
+        for (int pos = 0; pos < n; pos++) {
+            order[pos] = idx[pos];
+            rank[idx[pos]] = pos;
+        }
+        return new Sorted(order, rank);
+    }
+
+    private static int compareCells(double na, String sa, double nb, String sb) {
+        int ca = category(na, sa), cb = category(nb, sb);
+        if (ca != cb) return Integer.compare(ca, cb);
+        if (ca == 0) return Double.compare(na, nb);
+        if (ca == 1) return sa.compareTo(sb);
+        return 0;
+    }
+
+    private static int category(double num, String s) {
+        if (!Double.isNaN(num)) return 0;
+        return s == null || s.isEmpty() ? 2 : 1;
+    }
+
+    // 커서: c1|gridId|정렬|다음 offset|마지막 행 key (base64url)
+    private static String encodeCursor(String gridId, String spec, int nextOffset, String lastKey) {
+        String raw = CURSOR_VERSION + "|" + gridId + "|" + spec + "|" + nextOffset + "|" + lastKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int resolveCursor(String cursor, String gridId, String spec, GridSnapshot g, Sorted sorted) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 5);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("cursor 형식 오류");
+        }
+        if (parts.length != 5 || !CURSOR_VERSION.equals(parts[0])) throw new IllegalArgumentException("cursor 형식 오류");
+        if (!parts[1].equals(gridId) || !parts[2].equals(spec)) {
+            throw new IllegalArgumentException("cursor 의 grid/정렬 조건이 요청과 다릅니다.");
+        }
+        int row = g.rowIndex(parts[4]);
+        if (row >= 0) return sorted.rank()[row] + 1;
+        try {
+            return Math.max(0, Integer.parseInt(parts[3]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("cursor 형식 오류");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.bpstatistics.service.history;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * keyset 페이지 커서: 직전 페이지 마지막 (bucket_start, row_key) 를 불투명 문자열로 인코딩
+ */
+public record HistoryCursor(long bucketStart, String rowKey) {
+
+    private static final char SEP = '\n';
+
+    public String encode() {
+        String s = bucketStart + String.valueOf(SEP) + (rowKey == null ? "" : rowKey);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static HistoryCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String s = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int i = s.indexOf(SEP);
+            if (i < 0) throw new IllegalArgumentException("cursor 형식 오류");
+            return new HistoryCursor(Long.parseLong(s.substring(0, i)), s.substring(i + 1));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException 포함
+            throw new IllegalArgumentException("cursor 형식 오류: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.bpstatistics.service.history;
+
+import com.example.bpstatistics.config.HistoryConfig;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 통계 이력 조회
+ * - rows: 버킷 x 상담원 원본 행을 keyset 페이지로 (stats_json 은 파싱 없이 그대로 출력)
+ * - rollup: interval(버킷 크기의 배수) 단위로 재집계, 입력을 내부 keyset 청크로 읽으며 구간이 끝날 때마다 출력
+ * 두 경우 모두 결과를 모아두지 않고 JsonGenerator 로 바로 흘려보냅니다.
+ */
+@Service
+public class HistoryQueryService {
+    private static final int MAX_ROLLUP_BUCKETS = 2000;
+    private static final int DEFAULT_ROLLUP_BUCKETS = 96;
+
+    /** 검증된 조회 조건 */
+    public record HistoryQuery(String gridId, long from, long to, String agent, String team,
+                               HistoryCursor after, int limit, long intervalMs) { }
+
+    private final HistoryConfig.HistoryProps props;
+    private final HistoryStore store;
+    private final JsonFactory jsonFactory;
+
+    public HistoryQueryService(HistoryConfig.HistoryProps props, HistoryStore store, ObjectMapper objectMapper) {
+        this.props = props;
+        this.store = store;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * 요청 파라미터 검증 (스트리밍 시작 전에 400 으로 응답할 수 있도록 분리)
+     * @param interval rollup 구간 초 (rows 조회면 null)
+     */
+    public HistoryQuery query(String gridId, String from, String to, String agent, String team,
+                              String cursor, Integer limit, Integer interval) {
+        if (!props.isEnabled()) throw new IllegalStateException("통계 이력이 비활성 상태입니다 (app.history.enabled)");
+        if (gridId == null || gridId.isBlank()) throw new IllegalArgumentException("grid 는 필수입니다.");
+        if (agent != null && team != null) throw new IllegalArgumentException("agent 와 team 은 동시에 지정할 수 없습니다.");
+        long toMs = to == null ? System.currentTimeMillis() : parseTime("to", to);
+        long fromMs = parseTime("from", from);
+        if (fromMs >= toMs) throw new IllegalArgumentException("from 은 to 보다 앞이어야 합니다.");
+
+        long intervalMs = 0;
+        int pageLimit;
+        if (interval != null) {
+            long bucketSec = Math.max(1, props.getBucketSeconds());
+            if (interval < bucketSec || interval % bucketSec != 0) {
+                throw new IllegalArgumentException("interval 은 적재 버킷(" + bucketSec + "초)의 배수여야 합니다.");
+            }
+            intervalMs = interval * 1000L;
+            pageLimit = limit == null ? DEFAULT_ROLLUP_BUCKETS : limit;
+            if (pageLimit < 1 || pageLimit > MAX_ROLLUP_BUCKETS) {
+                throw new IllegalArgumentException("limit 은 1~" + MAX_ROLLUP_BUCKETS + " 범위여야 합니다.");
+            }
+        } else {
+            pageLimit = limit == null ? props.getDefaultPageSize() : limit;
+            if (pageLimit < 1 || pageLimit > props.getMaxPageSize()) {
+                throw new IllegalArgumentException("limit 은 1~" + props.getMaxPageSize() + " 범위여야 합니다.");
+            }
+        }
+        return new HistoryQuery(gridId, fromMs, toMs, blankToNull(agent), blankToNull(team),
+                HistoryCursor.decode(cursor), pageLimit, intervalMs);
+    }
+
+    /**
+     * 원본 행 1페이지: {"items":[...], "count":n, "nextCursor":"..."|null}
+     * limit+1 행을 조회해 다음 페이지 존재 여부를 판단합니다 (추가 행은 출력하지 않음).
+     */
+    public void writeRows(HistoryQuery q, OutputStream out) throws IOException {
+        writeRows(q, out, jsonFactory);
+    }
+
+    /** 출력 형식 지정 (JSON / CBOR / Smile generator factory) */
+    public void writeRows(HistoryQuery q, OutputStream out, JsonFactory format) throws IOException {
+        // 변경 전: try (JsonGenerator g = jsonFactory.createGenerator(out)) {
+        try (JsonGenerator g = format.createGenerator(out)) {
+            g.writeStartObject();
+            writeHeader(g, q);
+            g.writeArrayFieldStart("items");
+            HistoryRow[] last = new HistoryRow[1];
+            boolean[] more = {false};
+            int[] written = {0};
+            HistoryCursor after = q.after();
+            store.scan(scan(q, after == null ? null : after.bucketStart(), after == null ? null : after.rowKey(), q.limit() + 1),
+                    row -> {
+                        if (written[0] >= q.limit()) {
+                            more[0] = true;
+                            return;
+                        }
+                        writeRow(g, row);
+                        last[0] = row;
+                        written[0]++;
+                    });
+            g.writeEndArray();
+            g.writeNumberField("count", written[0]);
+            g.writeStringField("nextCursor", more[0] ? new HistoryCursor(last[0].bucketStart(), last[0].rowKey()).encode() : null);
+            g.writeEndObject();
+        }
+    }
+
+    /**
+     * interval 단위 재집계 1페이지 (최대 limit 구간): {"buckets":[{bucketStart, agents, samples, stats}], "nextCursor"}
+     * stats: 숫자 stat 은 {avg, min, max}, 문자 stat 은 값별 (상담원 x 적재버킷) 건수
+     */
+    public void writeRollup(HistoryQuery q, OutputStream out) throws IOException {
+        writeRollup(q, out, jsonFactory);
+    }
+
+    public void writeRollup(HistoryQuery q, OutputStream out, JsonFactory format) throws IOException {
+        long interval = q.intervalMs();
+        long start = q.after() != null ? q.after().bucketStart() : Math.floorDiv(q.from(), interval) * interval;
+        long end = Math.min(q.to(), start + interval * q.limit());
+        // 변경 전: try (JsonGenerator g = jsonFactory.createGenerator(out)) {
+        try (JsonGenerator g = format.createGenerator(out)) {
+            g.writeStartObject();
+            writeHeader(g, q);
+            g.writeNumberField("intervalSeconds", interval / 1000);
+            g.writeArrayFieldStart("buckets");
+            Rollup acc = new Rollup();
+            int chunk = props.getMaxPageSize();
+            Long afterBucket = null;
+            String afterRow = null;
+            HistoryQuery window = new HistoryQuery(q.gridId(), Math.max(start, q.from()), end, q.agent(), q.team(), null, chunk, interval);
+            while (true) {
+                HistoryRow[] last = new HistoryRow[1];
+                int n = store.scan(scan(window, afterBucket, afterRow, chunk), row -> {
+                    long b = Math.floorDiv(row.bucketStart(), interval) * interval;
+                    if (acc.bucketStart != b) {
+                        if (acc.bucketStart != Long.MIN_VALUE) acc.write(g);
+                        acc.reset(b);
+                    }
+                    acc.add(row);
+                    last[0] = row;
+                });
+                if (n < chunk) break;
+                afterBucket = last[0].bucketStart();
+                afterRow = last[0].rowKey();
+            }
+            if (acc.bucketStart != Long.MIN_VALUE) acc.write(g);
+            g.writeEndArray();
+            g.writeStringField("nextCursor", end < q.to() ? new HistoryCursor(end, "").encode() : null);
+            g.writeEndObject();
+        }
+    }
+
+    private HistoryStore.Scan scan(HistoryQuery q, Long afterBucket, String afterRow, int limit) {
+        return new HistoryStore.Scan(props.getTenant(), q.gridId(), q.from(), q.to(), q.agent(), q.team(),
+                afterBucket, afterRow, limit, Math.min(limit, props.getFetchSize()));
+    }
+
+    private static void writeHeader(JsonGenerator g, HistoryQuery q) throws IOException {
+        g.writeStringField("grid", q.gridId());
+        g.writeStringField("from", Instant.ofEpochMilli(q.from()).toString());
+        g.writeStringField("to", Instant.ofEpochMilli(q.to()).toString());
+        if (q.agent() != null) g.writeStringField("agent", q.agent());
+        if (q.team() != null) g.writeStringField("team", q.team());
+    }
+
+    private static void writeRow(JsonGenerator g, HistoryRow r) {
+        try {
+            g.writeStartObject();
+            g.writeStringField("bucketStart", Instant.ofEpochMilli(r.bucketStart()).toString());
+            g.writeStringField("agent", r.rowKey());
+            g.writeStringField("team", r.team());
+            g.writeNumberField("samples", r.samples());
+            g.writeNumberField("firstAt", r.firstAt());
+            g.writeNumberField("lastAt", r.lastAt());
+            g.writeFieldName("stats");
+            if (r.statsJson() == null) g.writeNull(); else g.writeRawValue(r.statsJson());
+            g.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** 한 출력 구간 누적 (stats_json 은 스트리밍 파서로 읽음) */
+    private final class Rollup {
+        long bucketStart = Long.MIN_VALUE;
+        final Set<String> agents = new HashSet<>();
+        long samples;
+        final Map<String, double[]> numeric = new TreeMap<>();          // {n, sum, min, max}
+        final Map<String, Map<String, Integer>> text = new TreeMap<>();
+
+        void reset(long b) {
+            bucketStart = b;
+            agents.clear();
+            samples = 0;
+            numeric.clear();
+            text.clear();
+        }
+
+        void add(HistoryRow r) {
+            agents.add(r.rowKey());
+            samples += r.samples();
+            if (r.statsJson() == null) return;
+            try (JsonParser p = jsonFactory.createParser(r.statsJson())) {
+                if (p.nextToken() != JsonToken.START_OBJECT) return;
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String stat = p.currentName();
+                    JsonToken t = p.nextToken();
+                    if (t == JsonToken.START_OBJECT) {
+                        double n = 0, sum = 0, min = Double.NaN, max = Double.NaN;
+                        while (p.nextToken() == JsonToken.FIELD_NAME) {
+                            String f = p.currentName();
+                            p.nextToken();
+                            switch (f) {
+                                case "n" -> n = p.getDoubleValue();
+                                case "sum" -> sum = p.getDoubleValue();
+                                case "min" -> min = p.getDoubleValue();
+                                case "max" -> max = p.getDoubleValue();
+                                default -> p.skipChildren();
+                            }
+                        }
+                        double[] a = numeric.computeIfAbsent(stat, k -> new double[]{0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY});
+                        a[0] += n;
+                        a[1] += sum;
+                        if (min < a[2]) a[2] = min;
+                        if (max > a[3]) a[3] = max;
+                    } else if (t == JsonToken.VALUE_STRING) {
+                        text.computeIfAbsent(stat, k -> new LinkedHashMap<>()).merge(p.getText(), 1, Integer::sum);
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void write(JsonGenerator g) {
+            try {
+                g.writeStartObject();
+                g.writeStringField("bucketStart", Instant.ofEpochMilli(bucketStart).toString());
+                g.writeNumberField("agents", agents.size());
+                g.writeNumberField("samples", samples);
+                g.writeObjectFieldStart("stats");
+                for (Map.Entry<String, double[]> e : numeric.entrySet()) {
+                    double[] a = e.getValue();
+                    g.writeObjectFieldStart(e.getKey());
+                    g.writeNumberField("avg", a[0] == 0 ? 0 : a[1] / a[0]);
+                    g.writeNumberField("min", a[2]);
+                    g.writeNumberField("max", a[3]);
+                    g.writeEndObject();
+                }
+                for (Map.Entry<String, Map<String, Integer>> e : text.entrySet()) {
+                    g.writeObjectFieldStart(e.getKey());
+                    for (Map.Entry<String, Integer> v : e.getValue().entrySet()) g.writeNumberField(v.getKey(), v.getValue());
+                    g.writeEndObject();
+                }
+                g.writeEndObject();
+                g.writeEndObject();
+                // 구간 단위로 내보냄
+                g.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static long parseTime(String name, String value) {
+        if (value == null || value.isBlank()) throw new IllegalArgumentException(name + " 는 필수입니다.");
+        String v = value.trim();
+        try {
+            if (v.chars().allMatch(Character::isDigit)) return Long.parseLong(v);
+            if (v.endsWith("Z")) return Instant.parse(v).toEpochMilli();
+            return OffsetDateTime.parse(v).toInstant().toEpochMilli();
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException(name + " 형식 오류 (epoch ms 또는 ISO-8601 오프셋 포함): " + value);
+        }
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s;
+    }
+}
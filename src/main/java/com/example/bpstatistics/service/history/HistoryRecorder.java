@@ -0,0 +1,254 @@
+package com.example.bpstatistics.service.history;
+
+import com.example.bpstatistics.config.HistoryConfig;
+import com.example.bpstatistics.service.cluster.ClusterLeaseService;
+import com.example.bpstatistics.service.snapshot.GridDefinitionRegistry;
+import com.example.bpstatistics.service.snapshot.GridSnapshot;
+import com.example.bpstatistics.service.snapshot.SnapshotDelta;
+import com.example.bpstatistics.service.snapshot.SnapshotListener;
+import com.example.bpstatistics.service.snapshot.StatsSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 실시간 스냅샷을 grid 별 시간 버킷으로 누적하고, 버킷이 넘어가면 상담원(row)당 1행으로 bp_stat_history 에 적재
+ * - 누적은 파이프라인 스레드(동기화 없음), JDBC 적재/보존기간 삭제는 history-writer 스레드
+ * - 클러스터 모드에서는 리더만 적재 (팔로워도 누적은 해 두어 리더 인계 직후 버킷이 비지 않음)
+ * - 리플레이 입력은 이력으로 다시 적재하지 않습니다.
+ */
+@Service
+public class HistoryRecorder implements SnapshotListener {
+    private static final Logger log = LoggerFactory.getLogger(HistoryRecorder.class);
+    private static final long RETENTION_STEP_MS = Duration.ofHours(1).toMillis();
+
+    private final HistoryConfig.HistoryProps props;
+    private final HistoryStore store;
+    private final GridDefinitionRegistry gridDefinitions;
+    private final ClusterLeaseService lease;
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "history-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // 파이프라인 스레드 전용
+    private final Map<String, GridBucket> open = new HashMap<>();
+
+    private final AtomicLong bucketsClosed = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong writeFailures = new AtomicLong();
+    private final AtomicLong retentionDeleted = new AtomicLong();
+    private volatile long lastFlushAt;
+
+    /** 숫자 통계 누적 (값이 숫자였던 샘플만) */
+    private static final class NumAcc {
+        int n;
+        double last, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY, sum;
+
+        void add(double v) {
+            n++;
+            last = v;
+            if (v < min) min = v;
+            if (v > max) max = v;
+            sum += v;
+        }
+    }
+
+    private static final class RowAcc {
+        String team;
+        int samples;
+        long firstAt, lastAt;
+        final Map<String, NumAcc> numeric = new LinkedHashMap<>();
+        final Map<String, String> text = new LinkedHashMap<>();
+    }
+
+    private static final class GridBucket {
+        final String gridId;
+        final long bucketStart;
+        final Map<String, RowAcc> rows = new HashMap<>();
+
+        GridBucket(String gridId, long bucketStart) {
+            this.gridId = gridId;
+            this.bucketStart = bucketStart;
+        }
+    }
+
+    public HistoryRecorder(HistoryConfig.HistoryProps props, HistoryStore store, GridDefinitionRegistry gridDefinitions,
+                           ClusterLeaseService lease, ObjectMapper objectMapper) {
+        this.props = props;
+        this.store = store;
+        this.gridDefinitions = gridDefinitions;
+        this.lease = lease;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!props.isEnabled() || props.getRetentionDays() <= 0) return;
+        writer.scheduleWithFixedDelay(this::purgeExpired, 5, 60, TimeUnit.MINUTES);
+    }
+
+    public long bucketMillis() {
+        return Math.max(1, props.getBucketSeconds()) * 1000L;
+    }
+
+    @Override
+    public void onSnapshot(StatsSnapshot snapshot, SnapshotDelta delta) {
+        if (!props.isEnabled() || snapshot.origin() != StatsSnapshot.Origin.LIVE) return;
+        long at = snapshot.capturedAtMillis();
+        long bucket = Math.floorDiv(at, bucketMillis()) * bucketMillis();
+
+        // 버킷이 넘어간 grid (스냅샷에서 사라진 grid 포함) 마감
+        Iterator<GridBucket> it = open.values().iterator();
+        while (it.hasNext()) {
+            GridBucket b = it.next();
+            if (b.bucketStart != bucket) {
+                it.remove();
+                close(b);
+            }
+        }
+        for (GridSnapshot g : snapshot.grids().values()) {
+            accumulate(open.computeIfAbsent(g.gridId(), id -> new GridBucket(id, bucket)), g, at);
+        }
+    }
+
+    @Override
+    public void onReset() {
+        // 출처 전환 시 진행 중 버킷은 버림 (리플레이 구간이 섞이지 않도록)
+        open.clear();
+    }
+
+    private void accumulate(GridBucket b, GridSnapshot g, long at) {
+        int cols = g.columnCount();
+        String[] names = new String[cols];
+        for (int c = 0; c < cols; c++) {
+            String stat = gridDefinitions.statName(g.gridId(), g.columnId(c));
+            names[c] = stat != null ? stat : g.columnId(c);
+        }
+        int teamCol = g.columnIndex(gridDefinitions.resolveColumnId(g.gridId(), props.getTeamStat()));
+        double[][] numeric = new double[cols][];
+        for (int c = 0; c < cols; c++) numeric[c] = g.numericColumn(c);
+
+        for (int r = 0; r < g.rowCount(); r++) {
+            RowAcc acc = b.rows.get(g.rowKey(r));
+            if (acc == null) {
+                acc = new RowAcc();
+                acc.firstAt = at;
+                b.rows.put(g.rowKey(r), acc);
+            }
+            acc.samples++;
+            acc.lastAt = at;
+            if (teamCol >= 0) acc.team = g.cell(r, teamCol);
+            for (int c = 0; c < cols; c++) {
+                double v = numeric[c][r];
+                if (Double.isNaN(v)) {
+                    String cell = g.cell(r, c);
+                    if (cell != null) acc.text.put(names[c], cell);
+                } else {
+                    acc.numeric.computeIfAbsent(names[c], k -> new NumAcc()).add(v);
+                }
+            }
+        }
+    }
+
+    // 마감 버킷 소유권을 writer 스레드로 넘김 (이후 파이프라인 스레드는 접근하지 않음)
+    private void close(GridBucket b) {
+        bucketsClosed.incrementAndGet();
+        if (b.rows.isEmpty()) return;
+        writer.execute(() -> write(b));
+    }
+
+    private void write(GridBucket b) {
+        if (!lease.isLeader()) return;
+        List<HistoryRow> batch = new ArrayList<>(Math.min(b.rows.size(), props.getWriteBatchSize()));
+        try {
+            for (Map.Entry<String, RowAcc> e : b.rows.entrySet()) {
+                RowAcc a = e.getValue();
+                batch.add(new HistoryRow(b.gridId, b.bucketStart, e.getKey(), a.team, a.samples, a.firstAt, a.lastAt, toJson(a)));
+                if (batch.size() >= props.getWriteBatchSize()) {
+                    rowsWritten.addAndGet(store.insert(props.getTenant(), batch));
+                    batch.clear();
+                }
+            }
+            rowsWritten.addAndGet(store.insert(props.getTenant(), batch));
+            lastFlushAt = System.currentTimeMillis();
+        } catch (RuntimeException ex) {
+            writeFailures.incrementAndGet();
+            log.warn("이력 적재 실패 grid={} bucket={} : {}", b.gridId, Instant.ofEpochMilli(b.bucketStart), ex.getMessage());
+        }
+    }
+
+    private String toJson(RowAcc a) {
+        Map<String, Object> m = new LinkedHashMap<>(a.text);
+        a.numeric.forEach((k, n) -> {
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("n", n.n);
+            s.put("last", n.last);
+            s.put("min", n.min);
+            s.put("max", n.max);
+            s.put("sum", n.sum);
+            m.put(k, s);
+        });
+        try {
+            return objectMapper.writeValueAsString(m);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("이력 직렬화 실패", e);
+        }
+    }
+
+    private void purgeExpired() {
+        if (!lease.isLeader()) return;
+        long cutoff = System.currentTimeMillis() - Duration.ofDays(props.getRetentionDays()).toMillis();
+        try {
+            int n = store.deleteBefore(props.getTenant(), cutoff, RETENTION_STEP_MS);
+            retentionDeleted.addAndGet(n);
+            if (n > 0) log.info("이력 보존기간 경과분 삭제 rows={} before={}", n, Instant.ofEpochMilli(cutoff));
+        } catch (RuntimeException e) {
+            log.warn("이력 보존기간 삭제 실패 : {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", props.isEnabled());
+        m.put("tenant", props.getTenant());
+        m.put("bucketSeconds", props.getBucketSeconds());
+        m.put("bucketsClosed", bucketsClosed.get());
+        m.put("rowsWritten", rowsWritten.get());
+        m.put("writeFailures", writeFailures.get());
+        m.put("retentionDeleted", retentionDeleted.get());
+        m.put("lastFlushAt", lastFlushAt > 0 ? Instant.ofEpochMilli(lastFlushAt) : null);
+        return m;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 이미 넘겨받은 마감 버킷 적재는 잠시 기다림 (진행 중 버킷은 버림)
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) writer.shutdownNow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.shutdownNow();
+        }
+    }
+}
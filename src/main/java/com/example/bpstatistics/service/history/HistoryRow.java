@@ -0,0 +1,8 @@
+package com.example.bpstatistics.service.history;
+
+/**
+ * bp_stat_history 1행 (grid x 버킷 x 상담원 요약)
+ */
+public record HistoryRow(String gridId, long bucketStart, String rowKey, String team,
+                         int samples, long firstAt, long lastAt, String statsJson) {
+}
@@ -0,0 +1,134 @@
+package com.example.bpstatistics.service.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * bp_stat_history JDBC 접근 (H2 / MariaDB 공용 SQL)
+ * 조회는 OFFSET 없이 keyset(seek) 조건 + 인덱스 순서 ORDER BY + LIMIT 로, 결과는 ResultSet 에서 한 행씩 콜백으로 흘려보냅니다.
+ */
+@Repository
+public class HistoryStore {
+    private static final Logger log = LoggerFactory.getLogger(HistoryStore.class);
+
+    private static final String INSERT = "INSERT INTO bp_stat_history "
+            + "(tenant, grid_id, bucket_start, row_key, team, samples, first_at, last_at, stats_json) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String COLUMNS = "SELECT grid_id, bucket_start, row_key, team, samples, first_at, last_at, stats_json "
+            + "FROM bp_stat_history ";
+
+    /** 조회 조건: rowKey / team 중 최대 1개, after* 는 직전 페이지 마지막 키 (없으면 null) */
+    public record Scan(String tenant, String gridId, long from, long to, String rowKey, String team,
+                       Long afterBucket, String afterRowKey, int limit, int fetchSize) { }
+
+    private final JdbcTemplate jdbc;
+
+    public HistoryStore(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * 버킷 마감분 일괄 적재. 재기동/리더 교체로 이미 있는 키는 건너뜁니다(1건씩 재시도).
+     */
+    public int insert(String tenant, List<HistoryRow> rows) {
+        if (rows.isEmpty()) return 0;
+        try {
+            jdbc.batchUpdate(INSERT, rows, rows.size(), (ps, r) -> bind(ps, tenant, r));
+            return rows.size();
+        } catch (DuplicateKeyException dup) {
+            int n = 0;
+            for (HistoryRow r : rows) {
+                try {
+                    n += jdbc.update(INSERT, ps -> bind(ps, tenant, r));
+                } catch (DuplicateKeyException ignore) {
+                    // 이미 적재된 버킷
+                }
+            }
+            log.debug("이력 적재 중복 키 건너뜀 inserted={}/{}", n, rows.size());
+            return n;
+        }
+    }
+
+    private static void bind(PreparedStatement ps, String tenant, HistoryRow r) throws java.sql.SQLException {
+        ps.setString(1, tenant);
+        ps.setString(2, r.gridId());
+        ps.setLong(3, r.bucketStart());
+        ps.setString(4, r.rowKey());
+        ps.setString(5, r.team());
+        ps.setInt(6, r.samples());
+        ps.setLong(7, r.firstAt());
+        ps.setLong(8, r.lastAt());
+        ps.setString(9, r.statsJson());
+    }
+
+    /**
+     * keyset 조회. 정렬은 사용하는 인덱스 순서와 동일 (bucket_start, row_key) 이라 filesort 없이 LIMIT 에서 멈춥니다.
+     * @return 전달한 행 수
+     */
+    public int scan(Scan q, Consumer<HistoryRow> sink) {
+        StringBuilder sql = new StringBuilder(COLUMNS).append("WHERE tenant = ? AND grid_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(q.tenant());
+        args.add(q.gridId());
+        if (q.rowKey() != null) {
+            sql.append(" AND row_key = ?");
+            args.add(q.rowKey());
+        } else if (q.team() != null) {
+            sql.append(" AND team = ?");
+            args.add(q.team());
+        }
+        if (q.afterBucket() != null) {
+            // (bucket_start, row_key) > (afterBucket, afterRowKey) 를 인덱스 범위로 풀어 쓴 형태
+            sql.append(" AND bucket_start >= ? AND (bucket_start > ? OR row_key > ?)");
+            args.add(Math.max(q.from(), q.afterBucket()));
+            args.add(q.afterBucket());
+            args.add(q.afterRowKey() == null ? "" : q.afterRowKey());
+        } else {
+            sql.append(" AND bucket_start >= ?");
+            args.add(q.from());
+        }
+        sql.append(" AND bucket_start < ? ORDER BY bucket_start, row_key LIMIT ?");
+        args.add(q.to());
+        args.add(q.limit());
+
+        int[] count = {0};
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(q.fetchSize());
+            for (int i = 0; i < args.size(); i++) ps.setObject(i + 1, args.get(i));
+            return ps;
+        }, (ResultSet rs) -> {
+            sink.accept(new HistoryRow(rs.getString(1), rs.getLong(2), rs.getString(3), rs.getString(4),
+                    rs.getInt(5), rs.getLong(6), rs.getLong(7), rs.getString(8)));
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    /**
+     * 보존 기간 경과분 삭제 (한 번에 큰 DELETE 대신 stepMs 구간씩 - 잠금/undo 크기 제한)
+     */
+    public int deleteBefore(String tenant, long cutoff, long stepMs) {
+        int total = 0;
+        // grid 별로 PK 선두 (tenant, grid_id, bucket_start) 범위 삭제
+        for (String gridId : jdbc.queryForList("SELECT DISTINCT grid_id FROM bp_stat_history WHERE tenant = ?", String.class, tenant)) {
+            Long oldest = jdbc.queryForObject("SELECT MIN(bucket_start) FROM bp_stat_history WHERE tenant = ? AND grid_id = ?",
+                    Long.class, tenant, gridId);
+            if (oldest == null) continue;
+            for (long start = oldest; start < cutoff; start += stepMs) {
+                total += jdbc.update("DELETE FROM bp_stat_history WHERE tenant = ? AND grid_id = ? AND bucket_start >= ? AND bucket_start < ?",
+                        tenant, gridId, start, Math.min(cutoff, start + stepMs));
+            }
+        }
+        return total;
+    }
+}
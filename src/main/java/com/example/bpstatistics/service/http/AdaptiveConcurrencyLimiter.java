@@ -0,0 +1,302 @@
+package com.example.bpstatistics.service.http;
+
+import com.example.bpstatistics.config.ReactiveHttpClientConfig;
+import com.example.bpstatistics.service.tuning.RuntimeTuning;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 업스트림 HTTP 호출 적응형 동시성 한도 (WebClient 필터)
+ * - reactor-netty ConnectionProvider 는 실행 중 크기 변경이 안 되므로 풀은 maxConnections(상한)로 두고,
+ *   그 앞에서 동시 호출 수를 limit 으로 제한 -> 사용되는 연결 수 = limit (LIFO 풀이라 나머지는 열리지 않거나 idle 제거)
+ * - 조절 주기마다 gradient 계산: limit * min(1, tolerance * 장기RTT / 단기RTT) + (대기 발생 시 sqrt(limit))
+ *   RTT = 허가 획득 ~ 응답 헤더. 시간 초과/5xx/429 가 있던 구간은 limit * backoffRatio 이하로 제한
+ * - 대기 없이 한도의 절반도 안 쓰는 구간은 1씩 축소 (야간 유휴 연결 감소)
+ * - 대기(pending acquire)는 pendingAcquireTimeoutMs 로 제한, 모든 조절 결정은 Micrometer 지표로 노출
+ * - 상한(maxConnections)과 대기 시간은 RuntimeTuning 현재 값 (실행 중 하향 시 다음 조절 주기에 limit 도 상한으로 내려감)
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+    private static final String METRIC = "bp.http.adaptive";
+
+    private final ReactiveHttpClientConfig.Adaptive props;
+    // 변경 전: private final int maxLimit; private final long acquireTimeoutMs;
+    private final RuntimeTuning tuning;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "http-adaptive-limit");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // 이하 this 모니터로 보호
+    private double limit;
+    private int inflight;
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    private double longRttNanos;
+    // 현재 조절 구간 표본
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowDrops;
+    private int windowMaxInflight;
+    private int windowMaxPending;
+    private String lastDecision = "init";
+    private double lastGradient = 1.0;
+
+    private final Timer acquireWait;
+    private final Counter rejected;
+    private final Counter timedOut;
+
+    public AdaptiveConcurrencyLimiter(ReactiveHttpClientConfig.HttpProps httpProps, RuntimeTuning tuning, MeterRegistry meterRegistry) {
+        this.props = httpProps.getAdaptive();
+        this.tuning = tuning;
+        this.meterRegistry = meterRegistry;
+        this.limit = clamp(props.getInitialLimit());
+        this.acquireWait = Timer.builder(METRIC + ".acquire.wait").description("동시성 허가 대기 시간").register(meterRegistry);
+        this.rejected = Counter.builder(METRIC + ".rejected").description("대기열 초과로 즉시 실패").register(meterRegistry);
+        this.timedOut = Counter.builder(METRIC + ".acquire.timeout").description("허가 대기 시간 초과").register(meterRegistry);
+        Gauge.builder(METRIC + ".limit", this, l -> l.currentLimit()).register(meterRegistry);
+        Gauge.builder(METRIC + ".inflight", this, l -> l.currentInflight()).register(meterRegistry);
+        Gauge.builder(METRIC + ".pending", this, l -> l.currentPending()).register(meterRegistry);
+        Gauge.builder(METRIC + ".gradient", this, l -> l.currentGradient()).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!props.isEnabled()) return;
+        scheduler.scheduleWithFixedDelay(this::adjust, props.getAdjustIntervalMs(), props.getAdjustIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /** WebClient.Builder 에 등록: 허가 획득 후 호출, 응답 본문 종료(또는 오류/취소) 시 반환 */
+    public ExchangeFilterFunction exchangeFilter() {
+        return (request, next) -> {
+            if (!props.isEnabled()) return next.exchange(request);
+            return acquire().flatMap(permit -> next.exchange(request)
+                    .map(res -> {
+                        permit.headers(res.statusCode().is5xxServerError() || res.statusCode().value() == 429);
+                        return res.mutate().body(body -> body.doFinally(s -> permit.release())).build();
+                    })
+                    .doOnError(e -> permit.fail())
+                    .doOnCancel(permit::release));
+        };
+    }
+
+    private final class Permit {
+        final long grantedAt = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final AtomicBoolean sampled = new AtomicBoolean();
+
+        void headers(boolean drop) {
+            if (sampled.compareAndSet(false, true)) sample(System.nanoTime() - grantedAt, drop);
+        }
+
+        void fail() {
+            if (sampled.compareAndSet(false, true)) sample(-1, true);
+            release();
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) AdaptiveConcurrencyLimiter.this.release();
+        }
+    }
+
+    private static final class Waiter {
+        final MonoSink<Permit> sink;
+        final long since = System.nanoTime();
+        final AtomicBoolean claimed = new AtomicBoolean();
+        volatile Permit permit;
+
+        Waiter(MonoSink<Permit> sink) { this.sink = sink; }
+    }
+
+    private Mono<Permit> acquire() {
+        long acquireTimeoutMs = tuning.settings().http().pendingAcquireTimeoutMs();
+        return Mono.<Permit>create(sink -> {
+            Permit granted = null;
+            Waiter w = null;
+            boolean reject = false;
+            synchronized (this) {
+                if (inflight < Math.min((int) limit, maxLimit()) && waiters.isEmpty()) {
+                    granted = grant();
+                } else if (waiters.size() >= props.getMaxPending()) {
+                    reject = true;
+                } else {
+                    w = new Waiter(sink);
+                    waiters.addLast(w);
+                    windowMaxPending = Math.max(windowMaxPending, waiters.size());
+                }
+            }
+            if (granted != null) {
+                acquireWait.record(0, TimeUnit.NANOSECONDS);
+                sink.success(granted);
+            } else if (reject) {
+                rejected.increment();
+                sink.error(new IllegalStateException("업스트림 동시성 대기열 초과 (limit=" + (int) limit + ")"));
+            } else {
+                Waiter waiter = w;
+                sink.onCancel(() -> cancel(waiter));
+            }
+        }).timeout(Duration.ofMillis(acquireTimeoutMs), Mono.defer(() -> {
+            timedOut.increment();
+            return Mono.error(new TimeoutException("업스트림 동시성 허가 대기 시간 초과 " + acquireTimeoutMs + "ms"));
+        }));
+    }
+
+    // 잠금 안에서 호출
+    private Permit grant() {
+        inflight++;
+        windowMaxInflight = Math.max(windowMaxInflight, inflight);
+        return new Permit();
+    }
+
+    private void cancel(Waiter w) {
+        if (w.claimed.compareAndSet(false, true)) {
+            synchronized (this) {
+                waiters.remove(w);
+            }
+            return;
+        }
+        // 허가가 이미 배정됨 -> 전달 여부와 무관하게 반환 (Permit.release 는 1회만 유효)
+        Permit p = w.permit;
+        if (p != null) p.release();
+    }
+
+    private void release() {
+        synchronized (this) {
+            inflight--;
+        }
+        drain();
+    }
+
+    private void drain() {
+        while (true) {
+            Waiter w;
+            Permit p;
+            synchronized (this) {
+                if (inflight >= Math.min((int) limit, maxLimit())) return;
+                w = waiters.pollFirst();
+                if (w == null) return;
+                p = new Permit();
+                w.permit = p;
+                if (!w.claimed.compareAndSet(false, true)) continue;   // 취소된 대기
+                inflight++;
+                windowMaxInflight = Math.max(windowMaxInflight, inflight);
+            }
+            acquireWait.record(System.nanoTime() - w.since, TimeUnit.NANOSECONDS);
+            w.sink.success(p);
+        }
+    }
+
+    private synchronized void sample(long rttNanos, boolean drop) {
+        if (drop) windowDrops++;
+        if (rttNanos >= 0) {
+            windowRttSum += rttNanos;
+            windowSamples++;
+        }
+    }
+
+    void adjust() {
+        try {
+            adjustOnce();
+            drain();
+        } catch (RuntimeException e) {
+            log.warn("동시성 한도 조절 실패: {}", e.getMessage());
+        }
+    }
+
+    private void adjustOnce() {
+        String decision;
+        double before;
+        double after;
+        synchronized (this) {
+            before = limit;
+            boolean queued = windowMaxPending > 0 || !waiters.isEmpty();
+            lastGradient = 1.0;
+            if (windowSamples >= props.getMinSamples()) {
+                double shortRtt = (double) windowRttSum / windowSamples;
+                longRttNanos = longRttNanos == 0 ? shortRtt : longRttNanos * 0.95 + shortRtt * 0.05;
+                // 장기 RTT 가 과부하 구간에 끌려 올라가면 감소 신호가 사라지므로 단기의 2배 이내로 유지
+                if (longRttNanos > shortRtt * 2) longRttNanos = shortRtt * 2;
+                lastGradient = Math.max(0.5, Math.min(1.0, props.getRttTolerance() * longRttNanos / shortRtt));
+            }
+            double target = limit * lastGradient + (queued ? Math.sqrt(limit) : 0);
+            if (windowDrops > 0) target = Math.min(target, limit * props.getBackoffRatio());
+            if (!queued && windowMaxInflight < limit / 2) target = Math.min(target, limit - 1);
+            double smoothing = Math.max(0.01, Math.min(1.0, props.getSmoothing()));
+            after = clamp(limit * (1 - smoothing) + target * smoothing);
+            // 대기가 있는데 gradient 가 1 이면 최소 1 은 증가 (smoothing 으로 정체되지 않도록)
+            if (queued && lastGradient >= 1.0 && windowDrops == 0 && (int) after == (int) before) after = clamp(before + 1);
+            limit = after;
+            decision = (int) after > (int) before ? "increase"
+                    : (int) after < (int) before ? (windowDrops > 0 ? "backoff" : queued ? "decrease" : "shrink-idle")
+                    : "hold";
+            lastDecision = decision;
+            windowRttSum = 0;
+            windowSamples = 0;
+            windowDrops = 0;
+            windowMaxInflight = inflight;
+            windowMaxPending = waiters.size();
+        }
+        meterRegistry.counter(METRIC + ".decisions", "decision", decision).increment();
+        if (!"hold".equals(decision)) {
+            log.debug("업스트림 동시성 한도 {} {} -> {} (gradient={})", decision, (int) before, (int) after, lastGradient);
+        }
+    }
+
+    private int maxLimit() {
+        return Math.max(1, tuning.settings().http().maxConnections());
+    }
+
+    private double clamp(double v) {
+        int maxLimit = maxLimit();
+        return Math.max(Math.min(props.getMinLimit(), maxLimit), Math.min(maxLimit, v));
+    }
+
+    private synchronized double currentLimit() { return (int) limit; }
+    private synchronized double currentInflight() { return inflight; }
+    private synchronized double currentPending() { return waiters.size(); }
+    private synchronized double currentGradient() { return lastGradient; }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", props.isEnabled());
+        m.put("limit", (int) limit);
+        m.put("minLimit", props.getMinLimit());
+        m.put("maxLimit", maxLimit());
+        m.put("inflight", inflight);
+        m.put("pending", waiters.size());
+        m.put("longRttMs", Math.round(longRttNanos / 1e4) / 100.0);
+        m.put("gradient", lastGradient);
+        m.put("lastDecision", lastDecision);
+        m.put("acquireWaitMeanMs", Math.round(acquireWait.mean(TimeUnit.MILLISECONDS) * 100) / 100.0);
+        m.put("acquireTimeouts", (long) timedOut.count());
+        m.put("rejected", (long) rejected.count());
+        return m;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.bpstatistics.service.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+/**
+ * 저널 순차 읽기 커서 (pull 방식)
+ * next() 가 null 을 반환해도 활성 세그먼트에 이후 기록이 생기면 다시 호출해 이어 읽을 수 있습니다(tailing).
+ * 단일 스레드 사용 전제입니다.
+ */
+public class JournalCursor implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(JournalCursor.class);
+
+    private final Supplier<List<JournalSegment>> segmentSource;
+    private final boolean verifyChecksum;
+    private final CRC32C crc = new CRC32C();
+
+    private List<JournalSegment> segments;
+    private int segIdx;
+    private JournalSegment current;
+    private ByteBuffer buf;
+    private int pos;
+    private long skipBefore = Long.MIN_VALUE;
+    private boolean closed;
+
+    JournalCursor(Supplier<List<JournalSegment>> segmentSource, boolean verifyChecksum) {
+        this.segmentSource = segmentSource;
+        this.verifyChecksum = verifyChecksum;
+        this.segments = segmentSource.get();
+    }
+
+    /**
+     * timestampMillis 이상인 첫 레코드로 이동 (희소 인덱스로 위치를 잡고 나머지는 순차 스킵)
+     */
+    public void seek(long timestampMillis) {
+        segments = segmentSource.get();
+        int target = segments.size();
+        for (int i = 0; i < segments.size(); i++) {
+            if (segments.get(i).lastTimestamp() >= timestampMillis) { target = i; break; }
+        }
+        segIdx = target;
+        current = null;
+        buf = null;
+        pos = target < segments.size() ? segments.get(target).floorPosition(timestampMillis) : 0;
+        skipBefore = timestampMillis;
+    }
+
+    /**
+     * 다음 레코드. 현재 기록된 끝에 도달하면 null
+     */
+    public JournalRecord next() {
+        if (closed) return null;
+        while (true) {
+            if (buf == null && !openSegment()) return null;
+            int limit = current.size();
+            if (pos + JournalSegment.HEADER_BYTES > limit) {
+                if (current.isWritable()) return null; // 활성 세그먼트 끝 (이후 기록 대기)
+                advance();
+                continue;
+            }
+            int len = buf.getInt(pos);
+            int dataStart = pos + JournalSegment.HEADER_BYTES;
+            if (len <= 0 || (long) dataStart + len > limit || (verifyChecksum && !checksumOk(len))) {
+                log.warn("저널 레코드 손상 - 세그먼트 나머지 건너뜀 file={} pos={}", current.file.getFileName(), pos);
+                advance();
+                continue;
+            }
+            long ts = buf.getLong(pos + 8);
+            long seq = buf.getLong(pos + 16);
+            pos = dataStart + len;
+            if (ts < skipBefore) continue;
+            ByteBuffer payload = buf.duplicate();
+            payload.limit(dataStart + len).position(dataStart);
+            return new JournalRecord(seq, ts, payload.slice());
+        }
+    }
+
+    private boolean checksumOk(int len) {
+        ByteBuffer v = buf.duplicate();
+        v.limit(pos + JournalSegment.HEADER_BYTES + len).position(pos + 8);
+        crc.reset();
+        crc.update(v);
+        return (int) crc.getValue() == buf.getInt(pos + 4);
+    }
+
+    private boolean openSegment() {
+        if (segIdx >= segments.size()) {
+            // 스냅샷 이후 롤링된 세그먼트 반영
+            List<JournalSegment> fresh = segmentSource.get();
+            long lastBase = segments.isEmpty() ? Long.MIN_VALUE : segments.get(segments.size() - 1).baseTimestamp;
+            int idx = 0;
+            while (idx < fresh.size() && fresh.get(idx).baseTimestamp <= lastBase) idx++;
+            if (idx >= fresh.size()) return false;
+            segments = fresh;
+            segIdx = idx;
+        }
+        current = segments.get(segIdx);
+        try {
+            buf = current.mapForRead();
+        } catch (IOException e) {
+            log.warn("저널 세그먼트 읽기 실패 file={} : {}", current.file.getFileName(), e.getMessage());
+            current = null;
+            segIdx++;
+            pos = 0;
+            return openSegment();
+        }
+        return true;
+    }
+
+    private void advance() {
+        segIdx++;
+        current = null;
+        buf = null;
+        pos = 0;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        buf = null;
+        current = null;
+    }
+}
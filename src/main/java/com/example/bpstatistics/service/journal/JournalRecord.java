@@ -0,0 +1,23 @@
+package com.example.bpstatistics.service.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 저널 레코드 1건
+ * payload 는 매핑 버퍼의 읽기 전용 slice(복사 없음)이므로 보관이 필요하면 payloadBytes() 로 복사해야 합니다.
+ */
+public record JournalRecord(long sequence, long timestampMillis, ByteBuffer payload) {
+
+    public int length() { return payload.remaining(); }
+
+    public String payloadAsString() {
+        return StandardCharsets.UTF_8.decode(payload.duplicate()).toString();
+    }
+
+    public byte[] payloadBytes() {
+        byte[] b = new byte[payload.remaining()];
+        payload.duplicate().get(b);
+        return b;
+    }
+}
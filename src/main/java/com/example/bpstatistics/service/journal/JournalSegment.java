@@ -0,0 +1,338 @@
+package com.example.bpstatistics.service.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * 저널 세그먼트 1개 (데이터 파일 .jnl + 희소 시간 인덱스 .idx)
+ *
+ * 레코드 포맷 (big-endian): [int length][int crc32c][long timestampMillis][long sequence][payload(length)]
+ * crc 는 timestamp~payload 구간 대상. length 를 마지막에 기록하므로 length==0 이면 기록 끝을 의미합니다.
+ * 데이터 파일은 capacity 크기로 미리 잡아 mmap 하며(희소 파일), 잘라내지 않습니다.
+ *
+ * 인덱스 엔트리: [long timestampMillis][int position], indexIntervalBytes 마다 1개.
+ * 세그먼트 봉인 시 position 을 -(size+1) 로 기록한 trailer 엔트리와, 이어서 [firstSequence][SEQUENCE_MARKER],
+ * [lastSequence][SEQUENCE_MARKER] 2개를 추가해 재기동 시 스캔 없이 크기 / sequence 범위를 복원합니다.
+ * sequence 엔트리가 없는 이전 형식 trailer 는 헤더 스캔으로 복원합니다.
+ */
+final class JournalSegment {
+    private static final Logger log = LoggerFactory.getLogger(JournalSegment.class);
+
+    static final int HEADER_BYTES = 24;
+    static final String DATA_SUFFIX = ".jnl";
+    static final String INDEX_SUFFIX = ".idx";
+    private static final int INDEX_ENTRY_BYTES = 12;
+    private static final int SEQUENCE_MARKER = Integer.MIN_VALUE; // trailer 뒤 sequence 엔트리 표시 (-(size+1) 와 겹치지 않음)
+
+    final Path file;
+    final Path indexFile;
+    final long baseTimestamp;
+    final int capacity;
+    private final int indexIntervalBytes;
+
+    private volatile int size;              // reader 에게 공개된 논리 크기
+    private volatile long firstTimestamp = -1;
+    private volatile long lastTimestamp = -1;
+    private volatile long firstSequence = -1;
+    private volatile long lastSequence = -1;
+
+    // 희소 인덱스 (동기화: this)
+    private long[] idxTs = new long[32];
+    private int[] idxPos = new int[32];
+    private int idxCount;
+    private int lastIndexedPos = -1;
+
+    // 활성(쓰기) 세그먼트 전용
+    private FileChannel channel;
+    private FileChannel indexChannel;
+    private MappedByteBuffer map;
+    private ByteBuffer writeView;
+    private ByteBuffer crcView;
+    private final ByteBuffer indexEntry = ByteBuffer.allocate(INDEX_ENTRY_BYTES);
+
+    private JournalSegment(Path dir, long baseTimestamp, int capacity, int indexIntervalBytes) {
+        String name = String.format("%019d", baseTimestamp);
+        this.file = dir.resolve(name + DATA_SUFFIX);
+        this.indexFile = dir.resolve(name + INDEX_SUFFIX);
+        this.baseTimestamp = baseTimestamp;
+        this.capacity = capacity;
+        this.indexIntervalBytes = indexIntervalBytes;
+    }
+
+    static long parseBaseTimestamp(Path file) {
+        String n = file.getFileName().toString();
+        return Long.parseLong(n.substring(0, n.length() - DATA_SUFFIX.length()));
+    }
+
+    /** 새 활성 세그먼트 생성 */
+    static JournalSegment create(Path dir, long baseTimestamp, int capacity, int indexIntervalBytes) throws IOException {
+        JournalSegment s = new JournalSegment(dir, baseTimestamp, capacity, indexIntervalBytes);
+        s.openForWrite(true);
+        return s;
+    }
+
+    /** 봉인된 세그먼트 메타데이터 로드 (인덱스 trailer 가 없으면 헤더만 건너뛰며 크기 복원) */
+    static JournalSegment openSealed(Path file, int capacity, int indexIntervalBytes) throws IOException {
+        JournalSegment s = new JournalSegment(file.getParent(), parseBaseTimestamp(file), capacity, indexIntervalBytes);
+        if (!s.loadIndex()) {
+            log.info("저널 인덱스 trailer 없음 - 헤더 스캔으로 복원 file={}", file.getFileName());
+            s.scanAndRecover(false);
+        }
+        return s;
+    }
+
+    /** 마지막 세그먼트 재오픈: 전체 CRC 검증 후 찢어진 꼬리 레코드 절단 */
+    static JournalSegment reopenActive(Path file, int capacity, int indexIntervalBytes) throws IOException {
+        JournalSegment s = new JournalSegment(file.getParent(), parseBaseTimestamp(file), capacity, indexIntervalBytes);
+        s.openForWrite(false);
+        s.scanAndRecover(true);
+        s.rewriteIndex();
+        return s;
+    }
+
+    private void openForWrite(boolean fresh) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        writeView = map.duplicate();
+        crcView = map.duplicate();
+        indexChannel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                fresh ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND);
+    }
+
+    boolean isWritable() { return map != null; }
+
+    int size() { return size; }
+    long firstTimestamp() { return firstTimestamp; }
+    long lastTimestamp() { return lastTimestamp; }
+    long firstSequence() { return firstSequence; }
+    long lastSequence() { return lastSequence; }
+    boolean isEmpty() { return size == 0; }
+
+    /**
+     * 문자열 payload 를 UTF-8 로 매핑 버퍼에 직접 인코딩 (중간 byte[] 없음)
+     * @return 공간 부족 시 false (호출 측에서 세그먼트 롤링)
+     */
+    boolean append(long ts, long seq, CharSequence payload, CharsetEncoder encoder, CRC32C crc) throws IOException {
+        int pos = size;
+        int dataStart = pos + HEADER_BYTES;
+        if (dataStart >= capacity) return false;
+        writeView.limit(capacity).position(dataStart);
+        encoder.reset();
+        CharBuffer in = CharBuffer.wrap(payload);
+        CoderResult r = encoder.encode(in, writeView, true);
+        if (!r.isOverflow()) r = encoder.flush(writeView);
+        if (r.isOverflow()) {
+            zero(dataStart, writeView.position());
+            return false;
+        }
+        if (r.isError()) r.throwException();
+        return commit(pos, writeView.position() - dataStart, ts, seq, crc);
+    }
+
+    /** 바이너리 payload 기록 */
+    boolean append(long ts, long seq, ByteBuffer payload, CRC32C crc) throws IOException {
+        int pos = size;
+        int len = payload.remaining();
+        if ((long) pos + HEADER_BYTES + len > capacity) return false;
+        writeView.limit(capacity).position(pos + HEADER_BYTES);
+        writeView.put(payload.duplicate());
+        return commit(pos, len, ts, seq, crc);
+    }
+
+    private boolean commit(int pos, int len, long ts, long seq, CRC32C crc) throws IOException {
+        map.putLong(pos + 8, ts);
+        map.putLong(pos + 16, seq);
+        map.putInt(pos + 4, checksum(crc, pos, len));
+        map.putInt(pos, len); // 커밋 마커
+        if (firstSequence < 0) { firstSequence = seq; firstTimestamp = ts; }
+        lastSequence = seq;
+        lastTimestamp = ts;
+        maybeIndex(ts, pos, true);
+        size = pos + HEADER_BYTES + len;
+        return true;
+    }
+
+    private int checksum(CRC32C crc, int pos, int len) {
+        crc.reset();
+        crcView.limit(pos + HEADER_BYTES + len).position(pos + 8);
+        crc.update(crcView);
+        return (int) crc.getValue();
+    }
+
+    private void maybeIndex(long ts, int pos, boolean persist) throws IOException {
+        if (lastIndexedPos >= 0 && pos - lastIndexedPos < indexIntervalBytes) return;
+        lastIndexedPos = pos;
+        synchronized (this) {
+            if (idxCount == idxTs.length) {
+                idxTs = Arrays.copyOf(idxTs, idxCount * 2);
+                idxPos = Arrays.copyOf(idxPos, idxCount * 2);
+            }
+            idxTs[idxCount] = ts;
+            idxPos[idxCount] = pos;
+            idxCount++;
+        }
+        if (persist) writeIndexEntry(ts, pos);
+    }
+
+    private void writeIndexEntry(long ts, int pos) throws IOException {
+        indexEntry.clear();
+        indexEntry.putLong(ts).putInt(pos).flip();
+        while (indexEntry.hasRemaining()) indexChannel.write(indexEntry);
+    }
+
+    /** ts 이하의 가장 가까운 인덱스 위치 (없으면 0) */
+    synchronized int floorPosition(long ts) {
+        int lo = 0, hi = idxCount - 1, found = 0;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (idxTs[mid] <= ts) { found = idxPos[mid]; lo = mid + 1; } else { hi = mid - 1; }
+        }
+        return found;
+    }
+
+    // 레코드 헤더를 따라가며 메타데이터/인덱스 복원. verify=true 면 CRC 검증 후 찢어진 꼬리를 0 으로 절단
+    private void scanAndRecover(boolean verify) throws IOException {
+        ByteBuffer buf;
+        FileChannel ch = channel;
+        boolean ownChannel = ch == null;
+        if (ownChannel) ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            buf = map != null ? map : ch.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(capacity, ch.size()));
+            int limit = buf.capacity();
+            CRC32C crc = new CRC32C();
+            ByteBuffer view = buf.duplicate();
+            int pos = 0;
+            synchronized (this) { idxCount = 0; }
+            lastIndexedPos = -1;
+            while (pos + HEADER_BYTES <= limit) {
+                int len = buf.getInt(pos);
+                if (len == 0) break;
+                boolean bad = len < 0 || (long) pos + HEADER_BYTES + len > limit;
+                if (!bad && verify) {
+                    crc.reset();
+                    view.limit(pos + HEADER_BYTES + len).position(pos + 8);
+                    crc.update(view);
+                    bad = (int) crc.getValue() != buf.getInt(pos + 4);
+                }
+                if (bad) {
+                    if (verify && map != null) {
+                        int end = len < 0 ? limit : (int) Math.min(limit, (long) pos + HEADER_BYTES + len);
+                        zero(pos, end);
+                        map.force();
+                        log.warn("저널 꼬리 레코드 손상 - 절단 file={} pos={}", file.getFileName(), pos);
+                    }
+                    break;
+                }
+                long ts = buf.getLong(pos + 8);
+                long seq = buf.getLong(pos + 16);
+                if (firstSequence < 0) { firstSequence = seq; firstTimestamp = ts; }
+                lastSequence = seq;
+                lastTimestamp = ts;
+                maybeIndex(ts, pos, false);
+                pos += HEADER_BYTES + len;
+            }
+            size = pos;
+        } finally {
+            if (ownChannel) ch.close();
+        }
+    }
+
+    // .idx 로드. 봉인 trailer(-(size+1)) 와 sequence 엔트리가 모두 있으면 true
+    private boolean loadIndex() throws IOException {
+        if (!Files.exists(indexFile)) return false;
+        byte[] raw = Files.readAllBytes(indexFile);
+        ByteBuffer b = ByteBuffer.wrap(raw);
+        int n = raw.length / INDEX_ENTRY_BYTES;
+        long[] ts = new long[Math.max(n, 1)];
+        int[] pos = new int[Math.max(n, 1)];
+        int count = 0;
+        boolean sealed = false;
+        for (int i = 0; i < n; i++) {
+            long t = b.getLong();
+            int p = b.getInt();
+            if (p < 0) {
+                // 변경 전: trailer 의 ts / 크기만 복원 -> first/lastSequence 가 -1 로 남아 재기동 후 sequence 재사용 가능
+                // 변경 후: 이어지는 sequence 엔트리 2개까지 있어야 봉인 메타데이터로 인정 (없으면 헤더 스캔)
+                if (p == SEQUENCE_MARKER || i + 2 >= n) break;
+                long first = b.getLong();
+                int firstMarker = b.getInt();
+                long last = b.getLong();
+                int lastMarker = b.getInt();
+                if (firstMarker != SEQUENCE_MARKER || lastMarker != SEQUENCE_MARKER) break;
+                // trailer: 마지막 ts / 논리 크기 / sequence 범위
+                lastTimestamp = t;
+                size = -p - 1;
+                firstSequence = first;
+                lastSequence = last;
+                sealed = true;
+                break;
+            }
+            ts[count] = t;
+            pos[count] = p;
+            count++;
+        }
+        if (!sealed) return false;
+        synchronized (this) {
+            idxTs = ts; idxPos = pos; idxCount = count;
+        }
+        firstTimestamp = count > 0 ? ts[0] : lastTimestamp;
+        return true;
+    }
+
+    private void rewriteIndex() throws IOException {
+        indexChannel.truncate(0);
+        int n;
+        long[] ts; int[] pos;
+        synchronized (this) { n = idxCount; ts = idxTs; pos = idxPos; }
+        for (int i = 0; i < n; i++) writeIndexEntry(ts[i], pos[i]);
+    }
+
+    private void zero(int from, int to) {
+        for (int i = from; i < to; i++) map.put(i, (byte) 0);
+    }
+
+    void force() {
+        if (map != null) map.force();
+    }
+
+    /** 쓰기 종료: 디스크 반영 + 인덱스 trailer 기록 후 매핑 해제(참조 제거) */
+    void seal() throws IOException {
+        if (map == null) return;
+        map.force();
+        writeIndexEntry(lastTimestamp < 0 ? baseTimestamp : lastTimestamp, -size - 1);
+        writeIndexEntry(firstSequence, SEQUENCE_MARKER);
+        writeIndexEntry(lastSequence, SEQUENCE_MARKER);
+        indexChannel.force(true);
+        indexChannel.close();
+        channel.close();
+        map = null;
+        writeView = null;
+        crcView = null;
+    }
+
+    /** 읽기 전용 매핑 (활성 세그먼트는 현재 공개된 size 까지만 유효) */
+    ByteBuffer mapForRead() throws IOException {
+        if (map != null) return map.asReadOnlyBuffer();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            return ch.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(capacity, ch.size()));
+        }
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(indexFile);
+    }
+}
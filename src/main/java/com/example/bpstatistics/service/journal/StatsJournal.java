@@ -0,0 +1,321 @@
+package com.example.bpstatistics.service.journal;
+
+import com.example.bpstatistics.config.JournalConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * getData() 원본 스냅샷 append-only 저널 (DB 불필요)
+ * - 세그먼트 단위 mmap 파일, 길이 prefix + CRC32C 레코드
+ * - 시간 기준 세그먼트 롤링 + 보관 기간/용량 기준 삭제
+ * - 세그먼트별 희소 시간 인덱스로 시점 탐색
+ * - 재기동 시 마지막 세그먼트를 CRC 검증하여 찢어진 꼬리 레코드 절단
+ * - submit(): 호출 스레드(reactor-netty 이벤트 루프 등)는 대기열에 넣기만 하고, mmap 쓰기 / force / 롤링 / 보관 삭제는
+ *   전용 journal-writer 스레드에서 수행. 대기열(write-queue-capacity)이 가득 차면 새 레코드를 drop
+ * 기록 실패는 요청 경로에 영향을 주지 않도록 로그 후 drop 합니다.
+ */
+public class StatsJournal implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(StatsJournal.class);
+    private static final long RETENTION_CHECK_INTERVAL_MS = 60_000;
+
+    private final JournalConfig.JournalProps props;
+    private final Path dir;
+    private final CopyOnWriteArrayList<JournalSegment> segments = new CopyOnWriteArrayList<>();
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CRC32C crc = new CRC32C();
+
+    private final AtomicLong appendedRecords = new AtomicLong();
+    private final AtomicLong appendedBytes = new AtomicLong();
+    private final AtomicLong droppedRecords = new AtomicLong();
+    private final AtomicLong droppedQueueFull = new AtomicLong();
+    private final ThreadPoolExecutor writer;
+
+    private JournalSegment active;
+    private long nextSequence;
+    private long lastTimestamp = Long.MIN_VALUE;
+    private long lastFlush;
+    private long lastRetentionCheck;
+    private FileChannel lockChannel;
+    private FileLock dirLock;
+    private volatile boolean open;
+
+    public StatsJournal(JournalConfig.JournalProps props) {
+        this.props = props;
+        this.dir = Paths.get(props.getDir()).toAbsolutePath();
+        this.writer = !props.isEnabled() ? null : new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, props.getWriteQueueCapacity())), r -> {
+                    Thread t = new Thread(r, "journal-writer");
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        if (props.isEnabled()) {
+            try {
+                openJournal();
+            } catch (IOException e) {
+                // 저널은 부가 기능: 열기 실패 시 비활성으로 기동
+                log.error("저널 열기 실패 - 비활성화 dir={} : {}", dir, e.getMessage());
+                releaseLock();
+            }
+        }
+    }
+
+    public boolean isEnabled() { return open; }
+
+    private synchronized void openJournal() throws IOException {
+        Files.createDirectories(dir);
+        lockChannel = FileChannel.open(dir.resolve(".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        dirLock = lockChannel.tryLock();
+        if (dirLock == null) throw new IOException("다른 프로세스가 저널 디렉터리를 사용 중입니다.");
+
+        List<Path> files;
+        try (Stream<Path> s = Files.list(dir)) {
+            files = s.filter(p -> p.getFileName().toString().endsWith(JournalSegment.DATA_SUFFIX)).sorted().toList();
+        }
+        List<JournalSegment> loaded = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            Path f = files.get(i);
+            if (i < files.size() - 1) {
+                loaded.add(JournalSegment.openSealed(f, props.getSegmentBytes(), props.getIndexIntervalBytes()));
+            } else {
+                active = JournalSegment.reopenActive(f, props.getSegmentBytes(), props.getIndexIntervalBytes());
+                loaded.add(active);
+            }
+        }
+        segments.addAll(loaded);
+        for (JournalSegment seg : loaded) {
+            if (seg.lastSequence() >= nextSequence) nextSequence = seg.lastSequence() + 1;
+            if (seg.lastTimestamp() > lastTimestamp) lastTimestamp = seg.lastTimestamp();
+        }
+        open = true;
+        log.info("저널 오픈 dir={} segments={} nextSeq={}", dir, segments.size(), nextSequence);
+        enforceRetention(System.currentTimeMillis());
+    }
+
+    /**
+     * 비동기 기록 (디스크 IO 없이 즉시 반환). 이벤트 루프 / 요청 스레드에서는 이 메서드를 사용합니다.
+     * 반환: 대기열 투입 여부 (비활성 / 가득 참이면 false)
+     */
+    public boolean submit(long timestampMillis, String payload) {
+        if (!open || writer == null || payload == null || payload.isEmpty()) return false;
+        try {
+            writer.execute(() -> append(timestampMillis, payload));
+            return true;
+        } catch (RejectedExecutionException e) {
+            droppedRecords.incrementAndGet();
+            long n = droppedQueueFull.incrementAndGet();
+            if (n == 1 || n % 100 == 0) log.warn("저널 기록 대기열 가득 참(디스크 지연) - drop (누적 {})", n);
+            return false;
+        }
+    }
+
+    /** 현재 시각으로 문자열 스냅샷 기록 (동기, 호출 스레드에서 디스크 IO). 반환: sequence (미기록 시 -1) */
+    public long append(String payload) {
+        return append(System.currentTimeMillis(), payload);
+    }
+
+    public synchronized long append(long timestampMillis, String payload) {
+        if (!open || payload == null || payload.isEmpty()) return -1;
+        return doAppend(timestampMillis, payload, null);
+    }
+
+    public synchronized long append(long timestampMillis, ByteBuffer payload) {
+        if (!open || payload == null || !payload.hasRemaining()) return -1;
+        return doAppend(timestampMillis, null, payload);
+    }
+
+    private long doAppend(long timestampMillis, String text, ByteBuffer bin) {
+        // 시계 역행 시에도 시간 인덱스가 단조 증가하도록 보정
+        long ts = Math.max(timestampMillis, lastTimestamp);
+        long seq = nextSequence;
+        try {
+            if (active == null || shouldRoll(ts)) roll(ts);
+            boolean ok = write(ts, seq, text, bin);
+            if (!ok && !active.isEmpty()) {
+                roll(ts);
+                ok = write(ts, seq, text, bin);
+            }
+            if (!ok) {
+                droppedRecords.incrementAndGet();
+                log.warn("저널 레코드가 세그먼트 크기({})보다 큼 - drop", props.getSegmentBytes());
+                return -1;
+            }
+            nextSequence++;
+            lastTimestamp = ts;
+            appendedRecords.incrementAndGet();
+            maybeFlush(ts);
+            if (ts - lastRetentionCheck >= RETENTION_CHECK_INTERVAL_MS) enforceRetention(ts);
+            return seq;
+        } catch (IOException | RuntimeException e) {
+            droppedRecords.incrementAndGet();
+            log.warn("저널 기록 실패 - drop seq={} : {}", seq, e.getMessage());
+            return -1;
+        }
+    }
+
+    private boolean write(long ts, long seq, String text, ByteBuffer bin) throws IOException {
+        int before = active.size();
+        boolean ok = text != null ? active.append(ts, seq, text, encoder, crc) : active.append(ts, seq, bin, crc);
+        if (ok) appendedBytes.addAndGet(active.size() - before);
+        return ok;
+    }
+
+    private boolean shouldRoll(long ts) {
+        return !active.isEmpty() && ts - active.baseTimestamp >= props.getSegmentMinutes() * 60_000L;
+    }
+
+    private void roll(long ts) throws IOException {
+        long base = ts;
+        if (active != null) {
+            active.seal();
+            base = Math.max(ts, active.baseTimestamp + 1); // 파일명 충돌 방지
+        }
+        active = JournalSegment.create(dir, base, props.getSegmentBytes(), props.getIndexIntervalBytes());
+        segments.add(active);
+        log.debug("저널 세그먼트 롤링 file={}", active.file.getFileName());
+        enforceRetention(ts);
+    }
+
+    private void maybeFlush(long now) {
+        if (props.getFlushIntervalMs() <= 0 || now - lastFlush < props.getFlushIntervalMs()) return;
+        lastFlush = now;
+        active.force();
+    }
+
+    // 가장 오래된 봉인 세그먼트부터 보관 기간/용량 초과분 삭제 (활성 세그먼트는 유지)
+    private void enforceRetention(long now) {
+        lastRetentionCheck = now;
+        long maxAgeMs = props.getRetentionHours() * 3_600_000L;
+        long total = totalBytes();
+        while (segments.size() > 1) {
+            JournalSegment oldest = segments.get(0);
+            if (oldest == active) break;
+            boolean expired = props.getRetentionHours() > 0 && oldest.lastTimestamp() < now - maxAgeMs;
+            boolean oversize = props.getRetentionMaxBytes() > 0 && total > props.getRetentionMaxBytes();
+            if (!expired && !oversize) break;
+            segments.remove(0);
+            total -= oldest.size();
+            try {
+                oldest.delete();
+                log.info("저널 세그먼트 삭제(보관 정책) file={} expired={} oversize={}", oldest.file.getFileName(), expired, oversize);
+            } catch (IOException e) {
+                // 읽기 매핑이 남아있는 OS(Windows) 등: 다음 기동 시 재시도
+                log.warn("저널 세그먼트 삭제 실패 file={} : {}", oldest.file.getFileName(), e.getMessage());
+            }
+        }
+    }
+
+    private long totalBytes() {
+        long total = 0;
+        for (JournalSegment s : segments) total += s.size();
+        return total;
+    }
+
+    /**
+     * fromMillis 이상 레코드를 읽는 커서 (fromMillis <= 0 이면 처음부터)
+     */
+    public JournalCursor openCursor(long fromMillis) {
+        JournalCursor c = new JournalCursor(() -> List.copyOf(segments), props.isVerifyChecksumOnRead());
+        if (fromMillis > 0) c.seek(fromMillis);
+        return c;
+    }
+
+    /**
+     * [fromMillis, toMillis] 구간 레코드 순회. 반환: 전달 건수
+     */
+    public long read(long fromMillis, long toMillis, Consumer<JournalRecord> consumer) {
+        long n = 0;
+        try (JournalCursor c = openCursor(fromMillis)) {
+            JournalRecord r;
+            while ((r = c.next()) != null) {
+                if (r.timestampMillis() > toMillis) break;
+                consumer.accept(r);
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /** 저널 상태 (진단용) */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", open);
+        m.put("dir", dir.toString());
+        List<JournalSegment> segs = List.copyOf(segments);
+        m.put("segments", segs.size());
+        m.put("totalBytes", segs.stream().mapToLong(JournalSegment::size).sum());
+        m.put("firstTimestamp", segs.isEmpty() ? null : segs.get(0).firstTimestamp());
+        m.put("lastTimestamp", segs.isEmpty() ? null : segs.get(segs.size() - 1).lastTimestamp());
+        m.put("appendedRecords", appendedRecords.get());
+        m.put("appendedBytes", appendedBytes.get());
+        m.put("droppedRecords", droppedRecords.get());
+        m.put("droppedQueueFull", droppedQueueFull.get());
+        m.put("writeQueue", writer == null ? 0 : writer.getQueue().size());
+        return m;
+    }
+
+    // 변경 전: public synchronized void close() - 기록 스레드 없이 바로 봉인
+    // 변경 후: 대기열에 남은 레코드를 먼저 기록한 뒤 봉인 (기록 스레드가 append 잠금을 쓰므로 잠금 밖에서 대기)
+    @Override
+    public void close() {
+        if (writer != null) {
+            writer.shutdown();
+            try {
+                if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                    log.warn("저널 기록 대기열 종료 지연 - 남은 레코드 {}건 drop", writer.shutdownNow().size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                writer.shutdownNow();
+            }
+        }
+        seal();
+    }
+
+    private synchronized void seal() {
+        if (!open) return;
+        open = false;
+        try {
+            if (active != null) active.seal();
+        } catch (IOException e) {
+            log.warn("저널 종료 중 봉인 실패: {}", e.getMessage());
+        }
+        releaseLock();
+        log.info("저널 종료 dir={}", dir);
+    }
+
+    private void releaseLock() {
+        try {
+            if (dirLock != null) dirLock.release();
+            if (lockChannel != null) lockChannel.close();
+        } catch (IOException ignore) {
+            // 종료 경로
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.bpstatistics.service.percentile;
+
+import com.example.bpstatistics.config.PercentileConfig;
+import com.example.bpstatistics.service.snapshot.GridDefinitionRegistry;
+import com.example.bpstatistics.service.snapshot.GridDelta;
+import com.example.bpstatistics.service.snapshot.GridSnapshot;
+import com.example.bpstatistics.service.snapshot.SnapshotDelta;
+import com.example.bpstatistics.service.snapshot.SnapshotListener;
+import com.example.bpstatistics.service.snapshot.StatsSnapshot;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * 팀/서비스 x 시간 버킷별 분위수 스케치 (SnapshotListener)
+ * - 행 단위 diff(GridDelta)는 다른 컬럼 변경에도 행을 포함하므로, (grid, metric, rowKey) 별 마지막 관측값과 비교해
+ *   해당 metric 값이 새 값(> 0)으로 바뀐 경우만 관측값으로 추가 -> 폴링 횟수만큼 중복 집계되지 않음
+ * - 처음 보는 행(최초 / 초기화 / 컬럼 구성 변경 후 fullRefresh 포함)은 기준값만 기록하고 관측하지 않음
+ * - 저장은 말단 (metric, 팀|서비스, 버킷) 만, 전체/일 단위 등 상위 집계는 조회 시 병합
+ * - 스케치 1개 메모리는 maxBins 로 고정, 버킷은 retentionHours 이후 제거
+ */
+@Service
+public class PercentileService implements SnapshotListener {
+    public static final String DIM_TEAM = "team";
+    public static final String DIM_SERVICE = "service";
+    private static final String NONE = "(none)";
+
+    private record SeriesKey(String metric, String dimension, String value) { }
+
+    private record BaselineKey(String gridId, String metric) { }
+
+    private final PercentileConfig.PercentileProps props;
+    private final GridDefinitionRegistry gridDefinitions;
+    private final Map<SeriesKey, TreeMap<Long, QuantileSketch>> series = new HashMap<>();
+    private final Map<BaselineKey, Map<String, Double>> lastValues = new HashMap<>(); // rowKey -> 마지막 관측 값
+    private long lastEvictBucket = Long.MIN_VALUE;
+    private long observations;
+
+    public PercentileService(PercentileConfig.PercentileProps props, GridDefinitionRegistry gridDefinitions) {
+        this.props = props;
+        this.gridDefinitions = gridDefinitions;
+    }
+
+    private long bucketMillis() {
+        return Duration.ofMinutes(Math.max(1, props.getBucketMinutes())).toMillis();
+    }
+
+    @Override
+    public synchronized void onSnapshot(StatsSnapshot snapshot, SnapshotDelta delta) {
+        if (!props.isEnabled()) return;
+        long bucket = Math.floorDiv(snapshot.capturedAtMillis(), bucketMillis()) * bucketMillis();
+        if (bucket != lastEvictBucket) {
+            evictBefore(bucket - Duration.ofHours(props.getRetentionHours()).toMillis());
+            lastEvictBucket = bucket;
+        }
+        if (delta != null) {
+            for (String gridId : delta.removedGrids()) lastValues.keySet().removeIf(k -> k.gridId().equals(gridId));
+        }
+        for (GridSnapshot g : snapshot.grids().values()) {
+            int teamCol = column(g, props.getTeamStat());
+            int serviceCol = column(g, props.getServiceStat());
+            GridDelta d = delta == null ? null : delta.grid(g.gridId());
+            for (String metric : props.getMetrics()) {
+                int col = column(g, metric);
+                if (col < 0) continue;
+                double[] values = g.numericColumn(col);
+                Map<String, Double> last = lastValues.computeIfAbsent(new BaselineKey(g.gridId(), metric), k -> new HashMap<>());
+                if (d == null || d.fullRefresh()) {
+                    // 변경 전: for (int r = 0; r < g.rowCount(); r++) observe(metric, g, r, values[r], teamCol, serviceCol, bucket);
+                    for (int r = 0; r < g.rowCount(); r++) update(last, metric, g, r, values[r], teamCol, serviceCol, bucket);
+                } else {
+                    // 변경 전: for (int r : d.changedRows()) observe(metric, g, r, values[r], teamCol, serviceCol, bucket);
+                    for (int r : d.changedRows()) update(last, metric, g, r, values[r], teamCol, serviceCol, bucket);
+                    for (String key : d.removedKeys()) last.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * 행의 metric 값을 마지막 관측값과 비교해 새 완료값일 때만 관측
+     * - 기준값 없음(처음 보는 행): 기록만 함. 리셋/리플레이/warm 시드 직후 전체 행이 다시 집계되지 않음
+     * - 0 / 숫자 아님: 진행 중 초기화 값으로 보고 기준만 갱신
+     */
+    private void update(Map<String, Double> last, String metric, GridSnapshot g, int row, double v,
+                        int teamCol, int serviceCol, long bucket) {
+        Double prev = last.put(g.rowKey(row), v);
+        if (prev == null || Double.compare(prev, v) == 0 || !(v > 0)) return;
+        observe(metric, g, row, v, teamCol, serviceCol, bucket);
+    }
+
+    @Override
+    public synchronized void onReset() {
+        series.clear();
+        lastValues.clear();
+        lastEvictBucket = Long.MIN_VALUE;
+    }
+
+    private int column(GridSnapshot g, String stat) {
+        return stat == null ? -1 : g.columnIndex(gridDefinitions.resolveColumnId(g.gridId(), stat));
+    }
+
+    private void observe(String metric, GridSnapshot g, int row, double v, int teamCol, int serviceCol, long bucket) {
+        observations++;
+        sketch(new SeriesKey(metric, DIM_TEAM, dimensionValue(g, row, teamCol)), bucket).add(v);
+        if (serviceCol >= 0) sketch(new SeriesKey(metric, DIM_SERVICE, dimensionValue(g, row, serviceCol)), bucket).add(v);
+    }
+
+    private static String dimensionValue(GridSnapshot g, int row, int col) {
+        String s = col < 0 ? null : g.cell(row, col);
+        return s == null || s.isEmpty() ? NONE : s;
+    }
+
+    private QuantileSketch sketch(SeriesKey key, long bucket) {
+        return series.computeIfAbsent(key, k -> new TreeMap<>())
+                .computeIfAbsent(bucket, b -> new QuantileSketch(props.getRelativeAccuracy(), props.getMaxBins()));
+    }
+
+    private void evictBefore(long cutoff) {
+        series.values().removeIf(buckets -> {
+            buckets.headMap(cutoff, false).clear();
+            return buckets.isEmpty();
+        });
+    }
+
+    /**
+     * 분위수 조회
+     * @param team    팀 지정 (service 와 동시 지정 불가)
+     * @param service 서비스 지정
+     * @param groupBy none | bucket | team | service
+     */
+    public synchronized Map<String, Object> query(String metric, String team, String service, long from, long to,
+                                                  String groupBy, List<Double> quantiles) {
+        if (metric == null || !props.getMetrics().contains(metric)) {
+            throw new IllegalArgumentException("metric 은 " + props.getMetrics() + " 중 하나여야 합니다.");
+        }
+        if (team != null && service != null) throw new IllegalArgumentException("team 과 service 는 동시에 지정할 수 없습니다.");
+        for (double q : quantiles) {
+            if (!(q >= 0 && q <= 1)) throw new IllegalArgumentException("q 는 0~1 범위여야 합니다: " + q);
+        }
+        String group = groupBy == null ? "none" : groupBy;
+        // 팀/서비스 미지정이면 팀 차원 전체 병합 = 전체 (관측값마다 팀 series 에 정확히 1번 기록됨)
+        String dimension = service != null || DIM_SERVICE.equals(group) ? DIM_SERVICE : DIM_TEAM;
+        String value = service != null ? service : team;
+        if (!List.of("none", "bucket", DIM_TEAM, DIM_SERVICE).contains(group)) {
+            throw new IllegalArgumentException("groupBy 는 none, bucket, team, service 중 하나여야 합니다.");
+        }
+        if (DIM_TEAM.equals(group) && service != null) {
+            throw new IllegalArgumentException("service 지정 시 groupBy=team 은 지원하지 않습니다.");
+        }
+
+        Map<String, QuantileSketch> merged = new TreeMap<>();
+        series.forEach((key, buckets) -> {
+            if (!key.metric().equals(metric) || !key.dimension().equals(dimension)) return;
+            if (value != null && !value.equals(key.value())) return;
+            NavigableMap<Long, QuantileSketch> range = buckets.subMap(Math.floorDiv(from, bucketMillis()) * bucketMillis(), true, to, false);
+            range.forEach((bucket, sketch) -> {
+                String k = switch (group) {
+                    case "bucket" -> Instant.ofEpochMilli(bucket).toString();
+                    case DIM_TEAM, DIM_SERVICE -> key.value();
+                    default -> "all";
+                };
+                merged.computeIfAbsent(k, x -> new QuantileSketch(props.getRelativeAccuracy(), props.getMaxBins())).merge(sketch);
+            });
+        });
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        merged.forEach((k, s) -> {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("key", k);
+            m.put("count", s.count());
+            m.put("min", s.min());
+            m.put("mean", s.mean());
+            m.put("max", s.max());
+            for (double q : quantiles) m.put(label(q), s.quantile(q));
+            results.add(m);
+        });
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("metric", metric);
+        out.put(dimension, value);
+        out.put("from", Instant.ofEpochMilli(from));
+        out.put("to", Instant.ofEpochMilli(to));
+        out.put("groupBy", group);
+        out.put("relativeAccuracy", props.getRelativeAccuracy());
+        out.put("results", results);
+        return out;
+    }
+
+    // 0.99 -> p99, 0.999 -> p99.9
+    private static String label(double q) {
+        return "p" + BigDecimal.valueOf(q * 100).stripTrailingZeros().toPlainString();
+    }
+
+    public synchronized Map<String, Object> stats() {
+        int sketches = 0;
+        long bins = 0;
+        for (TreeMap<Long, QuantileSketch> buckets : series.values()) {
+            sketches += buckets.size();
+            for (QuantileSketch s : buckets.values()) bins += s.binCapacity();
+        }
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", props.isEnabled());
+        m.put("metrics", props.getMetrics());
+        m.put("series", series.size());
+        m.put("sketches", sketches);
+        m.put("approxBytes", bins * Integer.BYTES);
+        m.put("observations", observations);
+        m.put("trackedRows", lastValues.values().stream().mapToInt(Map::size).sum());
+        return m;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.bpstatistics.service.percentile;
+
+import java.util.Arrays;
+
+/**
+ * 병합 가능한 분위수 스케치 (DDSketch 방식 로그 구간 히스토그램)
+ * - 값 v 를 bucket ceil(log_gamma(v)) 에 카운트, gamma = (1+a)/(1-a) 이므로 모든 분위수가 상대오차 a 이내
+ * - 구간 배열은 최대 maxBins 로 고정, 넘치면 가장 작은 구간들을 합침 (꼬리 분위수 정확도 유지)
+ * - 같은 (a, maxBins) 스케치끼리 구간별 합으로 병합 (팀 -> 전체, 시간 -> 일 롤업)
+ * 스레드 안전하지 않음 (호출 측 동기화)
+ */
+public final class QuantileSketch {
+
+    private static final double MIN_INDEXABLE = 1e-9;
+
+    private final double relativeAccuracy;
+    private final double logGamma;
+    private final int maxBins;
+
+    private int[] counts = new int[0];
+    private int offset;          // counts[0] 의 bucket index
+    private long zeroCount;      // MIN_INDEXABLE 이하 (0 포함)
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public QuantileSketch(double relativeAccuracy, int maxBins) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("relativeAccuracy 는 0~1 사이여야 합니다.");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.logGamma = Math.log((1 + relativeAccuracy) / (1 - relativeAccuracy));
+        this.maxBins = Math.max(16, maxBins);
+    }
+
+    /** 음수/NaN 은 무시 (시간 통계 전용) */
+    public void add(double v) {
+        if (!(v >= 0)) return;
+        count++;
+        sum += v;
+        if (v < min) min = v;
+        if (v > max) max = v;
+        if (v <= MIN_INDEXABLE) {
+            zeroCount++;
+            return;
+        }
+        increment((int) Math.ceil(Math.log(v) / logGamma), 1);
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) return;
+        if (other.logGamma != logGamma) throw new IllegalArgumentException("정확도가 다른 스케치는 병합할 수 없습니다.");
+        for (int i = 0; i < other.counts.length; i++) {
+            if (other.counts[i] != 0) increment(other.offset + i, other.counts[i]);
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * q 분위수 (0~1). 비어 있으면 NaN. 결과는 [min, max] 로 제한
+     */
+    public double quantile(double q) {
+        if (count == 0) return Double.NaN;
+        if (q <= 0) return min;
+        if (q >= 1) return max;
+        long rank = (long) Math.ceil(q * count);
+        if (rank <= zeroCount) return Math.max(0, min);
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // bucket (gamma^(k-1), gamma^k] 의 상대오차 최소 대표값
+                double v = 2 * Math.exp((offset + i) * logGamma) / (1 + Math.exp(logGamma));
+                return Math.min(max, Math.max(min, v));
+            }
+        }
+        return max;
+    }
+
+    private void increment(int index, int n) {
+        if (counts.length == 0) {
+            counts = new int[16];
+            offset = index - 8;
+        }
+        if (index < offset || index >= offset + counts.length) {
+            resize(index);
+            // 축소(합침) 후 하한보다 작은 값은 첫 구간으로
+            if (index < offset) index = offset;
+        }
+        counts[index - offset] += n;
+    }
+
+    private void resize(int index) {
+        int lo = Math.min(offset, index);
+        int hi = Math.max(offset + counts.length - 1, index);
+        int span = hi - lo + 1;
+        if (span <= maxBins) {
+            // 필요한 범위 + 여유분(절반)을 새 값이 들어온 방향으로 확보
+            int[] grown = new int[Math.min(maxBins, span + Math.max(8, span / 2))];
+            int slack = grown.length - span;
+            int newOffset = index < offset ? lo - slack : lo;
+            System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+            counts = grown;
+            offset = newOffset;
+            return;
+        }
+        // 범위 초과: 상한 기준 maxBins 만 유지하고 그 아래 구간은 최하위 구간으로 합침
+        int newOffset = hi - maxBins + 1;
+        int[] collapsed = new int[maxBins];
+        for (int i = 0; i < counts.length; i++) {
+            int k = offset + i;
+            if (counts[i] == 0) continue;
+            collapsed[Math.max(k, newOffset) - newOffset] += counts[i];
+        }
+        counts = collapsed;
+        offset = newOffset;
+    }
+
+    public long count() { return count; }
+    public double sum() { return sum; }
+    public double min() { return count == 0 ? Double.NaN : min; }
+    public double max() { return count == 0 ? Double.NaN : max; }
+    public double mean() { return count == 0 ? Double.NaN : sum / count; }
+
+    /** 메모리 사용 추정 (구간 배열) */
+    public int binCapacity() { return counts.length; }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch{count=" + count + ", bins=" + counts.length + ", range=" + Arrays.toString(new int[]{offset, offset + counts.length - 1}) + "}";
+    }
+}
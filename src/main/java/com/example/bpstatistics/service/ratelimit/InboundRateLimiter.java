@@ -0,0 +1,85 @@
+package com.example.bpstatistics.service.ratelimit;
+
+import com.example.bpstatistics.config.RateLimitConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 클라이언트(등록된 API key 또는 IP) x 요청 분류별 토큰 버킷
+ * 버킷 조회는 ConcurrentHashMap, 판정은 TokenBucket CAS 로 lock 없이 처리합니다.
+ * 분류별 버킷 수는 maxClients 로 제한: 유휴 버킷 정리 후에도 가득 차면 새 클라이언트는 공용 overflow 버킷 1개를
+ * 함께 사용합니다 (메모리 상한 유지, 기존 클라이언트 버킷은 밀려나지 않음).
+ */
+@Component
+public class InboundRateLimiter {
+    static final String OVERFLOW_CLIENT = "(overflow)";
+
+    private final RateLimitConfig.Inbound props;
+    private final Map<String, ConcurrentHashMap<String, TokenBucket>> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final AtomicLong allowed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+
+    public InboundRateLimiter(RateLimitConfig.RateLimitProps props) {
+        this.props = props.getInbound();
+    }
+
+    public boolean isEnabled() { return props.isEnabled(); }
+
+    /**
+     * 허용이면 0, 한도 초과면 재시도까지 남은 ms (> 0). 한도 미정의 분류는 항상 허용
+     */
+    public long check(String category, String clientKey) {
+        RateLimitConfig.Limit limit = props.getLimits().get(category);
+        if (!props.isEnabled() || limit == null || limit.getRatePerSecond() <= 0) return 0;
+        ConcurrentHashMap<String, TokenBucket> perClient = buckets.computeIfAbsent(category, k -> new ConcurrentHashMap<>());
+        long now = System.nanoTime();
+        TokenBucket b = perClient.get(clientKey);
+        if (b == null) {
+            if (perClient.size() >= props.getMaxClients()) sweep(perClient, now);
+            // 변경 전: 정리 후에도 가득 차 있으면 그대로 추가 -> 키가 계속 바뀌면 무한히 증가
+            String key = clientKey;
+            if (perClient.size() >= props.getMaxClients()) {
+                key = OVERFLOW_CLIENT;
+                overflowed.incrementAndGet();
+            }
+            b = perClient.computeIfAbsent(key, k -> new TokenBucket(limit.getRatePerSecond(), limit.getBurst()));
+        }
+        long waitNanos = b.tryAcquire(now);
+        if (waitNanos == 0) {
+            allowed.incrementAndGet();
+            return 0;
+        }
+        rejected.incrementAndGet();
+        return Math.max(1, waitNanos / 1_000_000);
+    }
+
+    // 가득 찬(유휴) 버킷 제거: 한 스레드만 수행, 나머지는 그대로 진행
+    private void sweep(ConcurrentHashMap<String, TokenBucket> perClient, long now) {
+        if (!sweeping.compareAndSet(false, true)) return;
+        try {
+            perClient.entrySet().removeIf(e -> e.getValue().isIdle(now));
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", props.isEnabled());
+        m.put("allowed", allowed.get());
+        m.put("rejected", rejected.get());
+        m.put("overflowed", overflowed.get());
+        m.put("maxClients", props.getMaxClients());
+        Map<String, Integer> clients = new LinkedHashMap<>();
+        buckets.forEach((k, v) -> clients.put(k, v.size()));
+        m.put("clients", clients);
+        return m;
+    }
+}
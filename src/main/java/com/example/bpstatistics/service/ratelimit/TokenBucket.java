@@ -0,0 +1,53 @@
+package com.example.bpstatistics.service.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * lock-free 토큰 버킷 (GCRA: Generic Cell Rate Algorithm)
+ * 상태는 "다음 토큰이 이론상 도착하는 시각(tat)" 하나뿐이라 AtomicLong CAS 1회로 판정/소비합니다.
+ * - interval = 1 / rate, tolerance = interval * (burst - 1)
+ * - tat - now <= tolerance 이면 허용, 소비 시 tat = max(tat, now) + interval
+ */
+public final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong tat;
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0) throw new IllegalArgumentException("ratePerSecond 는 0 보다 커야 합니다.");
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.toleranceNanos = intervalNanos * (Math.max(1, burst) - 1);
+        this.tat = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 즉시 허용이면 토큰 소비 후 0, 아니면 소비 없이 허용 가능까지 남은 nanos
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long t = tat.get();
+            long wait = t - nowNanos - toleranceNanos;
+            if (wait > 0) return wait;
+            if (tat.compareAndSet(t, Math.max(t, nowNanos) + intervalNanos)) return 0;
+        }
+    }
+
+    /**
+     * 대기 예약: maxWaitNanos 이내면 슬롯을 선점하고 대기해야 할 nanos(>= 0) 반환 (예약 순서 = 선착순),
+     * 초과하면 소비 없이 -(필요 대기 nanos) 반환
+     */
+    public long reserve(long nowNanos, long maxWaitNanos) {
+        while (true) {
+            long t = tat.get();
+            long wait = Math.max(0, t - nowNanos - toleranceNanos);
+            if (wait > maxWaitNanos) return -wait;
+            if (tat.compareAndSet(t, Math.max(t, nowNanos) + intervalNanos)) return wait;
+        }
+    }
+
+    /** 버킷이 가득 찬 상태(= 제거해도 동작 동일) */
+    public boolean isIdle(long nowNanos) {
+        return tat.get() <= nowNanos;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.bpstatistics.service.ratelimit;
+
+import com.example.bpstatistics.config.RateLimitConfig;
+import com.example.bpstatistics.web.exception.TooManyRequestsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 업스트림(BrightPattern) endpoint 별 전체 호출 예산 (테넌트 quota 보호)
+ * 예산 초과 호출은 maxQueueMs 이내면 슬롯을 예약하고 그만큼 지연(예약 순서 = 선착순), 그 이상이면 TooManyRequestsException.
+ * 재시도(retryWhen)도 acquire 부터 다시 구독되므로 예산에 포함됩니다.
+ */
+@Component
+public class UpstreamGovernor {
+    private static final Logger log = LoggerFactory.getLogger(UpstreamGovernor.class);
+
+    public static final String OAUTH_TOKEN = "oauth-token";
+    public static final String AUTH = "auth";
+    public static final String SUBSCRIPTION_CREATE = "subscription-create";
+    public static final String SUBSCRIPTION_DELETE = "subscription-delete";
+    public static final String SUBSCRIPTION_GET = "subscription-get";
+    public static final String SUBSCRIPTION_DATA = "subscription-data";
+
+    private final RateLimitConfig.Outbound props;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong[]> counters = new ConcurrentHashMap<>(); // [즉시, 지연, 거부]
+
+    public UpstreamGovernor(RateLimitConfig.RateLimitProps props) {
+        this.props = props.getOutbound();
+    }
+
+    /**
+     * 업스트림 호출 직전 예산 획득 (Mono.defer 안에서 구독 시점에 판정)
+     */
+    public Mono<Void> acquire(String endpoint) {
+        return Mono.defer(() -> {
+            TokenBucket b = bucket(endpoint);
+            if (b == null) return Mono.empty();
+            long wait = b.reserve(System.nanoTime(), props.getMaxQueueMs() * 1_000_000L);
+            AtomicLong[] c = counters.computeIfAbsent(endpoint, k -> new AtomicLong[]{new AtomicLong(), new AtomicLong(), new AtomicLong()});
+            if (wait == 0) {
+                c[0].incrementAndGet();
+                return Mono.empty();
+            }
+            if (wait > 0) {
+                c[1].incrementAndGet();
+                return Mono.delay(Duration.ofNanos(wait)).then();
+            }
+            c[2].incrementAndGet();
+            long retryAfterMs = Math.max(1, -wait / 1_000_000);
+            log.warn("업스트림 호출 예산 초과 endpoint={} retryAfter={}ms", endpoint, retryAfterMs);
+            return Mono.error(new TooManyRequestsException("업스트림 호출 예산 초과: " + endpoint, retryAfterMs));
+        });
+    }
+
+    private TokenBucket bucket(String endpoint) {
+        if (!props.isEnabled()) return null;
+        TokenBucket b = buckets.get(endpoint);
+        if (b != null) return b;
+        RateLimitConfig.Limit limit = props.getLimits().get(endpoint);
+        if (limit == null || limit.getRatePerSecond() <= 0) return null;
+        return buckets.computeIfAbsent(endpoint, k -> new TokenBucket(limit.getRatePerSecond(), limit.getBurst()));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", props.isEnabled());
+        m.put("maxQueueMs", props.getMaxQueueMs());
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        counters.forEach((k, c) -> endpoints.put(k, Map.of("immediate", c[0].get(), "delayed", c[1].get(), "rejected", c[2].get())));
+        m.put("endpoints", endpoints);
+        return m;
+    }
+}
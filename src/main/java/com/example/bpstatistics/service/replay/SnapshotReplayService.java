@@ -0,0 +1,249 @@
+package com.example.bpstatistics.service.replay;
+
+import com.example.bpstatistics.service.journal.JournalCursor;
+import com.example.bpstatistics.service.journal.JournalRecord;
+import com.example.bpstatistics.service.journal.StatsJournal;
+import com.example.bpstatistics.service.snapshot.SnapshotPipeline;
+import com.example.bpstatistics.service.snapshot.StatsSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 저널에 기록된 스냅샷을 실시간 경로(SnapshotPipeline)와 동일하게 재생
+ * - 배속: 1x, 10x ... / 0 이하면 최대 속도(대기 없음)
+ * - 일시정지 / 재개 / 시점 이동(seek) / 배속 변경
+ * - 처리량(건/s, MB/s), 스냅샷당 지연(p50/p99/max), 스케줄 대비 지연(lag) 리포트
+ * 재생 중에는 파이프라인 입력 출처를 REPLAY 로 전환하여 실시간 폴링 결과가 섞이지 않도록 합니다.
+ */
+@Service
+public class SnapshotReplayService {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotReplayService.class);
+    private static final long MAX_PARK_NANOS = 100_000_000L; // 제어 명령 반응성 (100ms)
+
+    private final StatsJournal journal;
+    private final SnapshotPipeline pipeline;
+    private final AtomicReference<ReplaySession> current = new AtomicReference<>();
+
+    public SnapshotReplayService(StatsJournal journal, SnapshotPipeline pipeline) {
+        this.journal = journal;
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * 재생 시작
+     * @param fromMillis 시작 시각(epoch ms, null 이면 처음부터)
+     * @param toMillis   종료 시각(epoch ms, null 이면 끝까지)
+     * @param speed      배속 (0 이하 = 최대 속도)
+     */
+    public synchronized Map<String, Object> start(Long fromMillis, Long toMillis, double speed) {
+        if (!journal.isEnabled()) throw new IllegalStateException("저널이 비활성화되어 재생할 수 없습니다.");
+        ReplaySession running = current.get();
+        if (running != null && running.isActive()) throw new IllegalStateException("이미 재생 중입니다.");
+        // 변경 전: current.set(s); pipeline.switchOrigin(REPLAY); - 이전 세션의 finally 가 새 세션을 LIVE 로 되돌릴 수 있었음
+        long token = pipeline.beginReplay();
+        ReplaySession s = new ReplaySession(fromMillis == null ? 0 : fromMillis,
+                toMillis == null ? Long.MAX_VALUE : toMillis, speed, token);
+        current.set(s);
+        s.thread.start();
+        log.info("리플레이 시작 from={} to={} speed={}", fromMillis, toMillis, speed);
+        return s.report();
+    }
+
+    public Map<String, Object> pause() { return active().control(s -> s.paused = true); }
+
+    public Map<String, Object> resume() { return active().control(s -> s.paused = false); }
+
+    public Map<String, Object> seek(long timestampMillis) { return active().control(s -> s.seekTo = timestampMillis); }
+
+    public Map<String, Object> speed(double speed) { return active().control(s -> s.speed = speed); }
+
+    public Map<String, Object> stop() {
+        ReplaySession s = active();
+        s.stopped = true;
+        LockSupport.unpark(s.thread);
+        return s.report();
+    }
+
+    /** 현재(또는 마지막) 세션 리포트 */
+    public Map<String, Object> status() {
+        ReplaySession s = current.get();
+        Map<String, Object> m = s == null ? new LinkedHashMap<>(Map.of("state", "IDLE")) : s.report();
+        m.put("pipeline", pipeline.stats());
+        return m;
+    }
+
+    private ReplaySession active() {
+        ReplaySession s = current.get();
+        if (s == null || !s.isActive()) throw new IllegalStateException("진행 중인 재생이 없습니다.");
+        return s;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ReplaySession s = current.get();
+        if (s != null && s.isActive()) {
+            s.stopped = true;
+            LockSupport.unpark(s.thread);
+        }
+    }
+
+    private final class ReplaySession implements Runnable {
+        private static final int LATENCY_SAMPLES = 8192;
+
+        final long fromMillis;
+        final long toMillis;
+        final long token;       // 파이프라인 REPLAY 소유 토큰 (종료 시 이 세션 것만 LIVE 로 복귀)
+        final Thread thread;
+        volatile double speed;
+        volatile boolean paused;
+        volatile boolean stopped;
+        volatile long seekTo = -1;
+        volatile String state = "RUNNING";
+        volatile String error;
+
+        // 통계 (재생 스레드에서만 갱신, 조회는 근사치 허용)
+        volatile long records;
+        volatile long bytes;
+        volatile long failures;
+        volatile long lastRecordTs = -1;
+        volatile long maxLagMillis;
+        volatile long processNanosTotal;
+        volatile long processNanosMax;
+        final long[] latencies = new long[LATENCY_SAMPLES];
+        final long startedAt = System.currentTimeMillis();
+        volatile long finishedAt;
+        volatile long pausedNanosTotal;
+
+        ReplaySession(long fromMillis, long toMillis, double speed, long token) {
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+            this.token = token;
+            this.speed = speed;
+            this.thread = new Thread(this, "snapshot-replay");
+            this.thread.setDaemon(true);
+        }
+
+        boolean isActive() { return "RUNNING".equals(state) || "PAUSED".equals(state); }
+
+        Map<String, Object> control(Consumer<ReplaySession> action) {
+            action.accept(this);
+            LockSupport.unpark(thread);
+            return report();
+        }
+
+        @Override
+        public void run() {
+            boolean anchored = false;
+            long anchorWall = 0;    // 기준 벽시계(nano)
+            long anchorTs = 0;      // 기준 레코드 시각(ms)
+            double anchorSpeed = speed;
+            JournalRecord pending = null; // 대기 중 제어 명령으로 보류된 레코드
+            try (JournalCursor cursor = journal.openCursor(fromMillis)) {
+                while (!stopped) {
+                    if (paused) {
+                        state = "PAUSED";
+                        long p0 = System.nanoTime();
+                        while (paused && !stopped) LockSupport.parkNanos(MAX_PARK_NANOS);
+                        pausedNanosTotal += System.nanoTime() - p0;
+                        state = "RUNNING";
+                        anchored = false; // 재개 후 재기준
+                        continue;
+                    }
+                    long seek = seekTo;
+                    if (seek >= 0) {
+                        seekTo = -1;
+                        cursor.seek(seek);
+                        pending = null;
+                        anchored = false;
+                    }
+                    JournalRecord r = pending != null ? pending : cursor.next();
+                    pending = null;
+                    if (r == null || r.timestampMillis() > toMillis) break;
+
+                    double sp = speed;
+                    if (sp != anchorSpeed) { anchored = false; anchorSpeed = sp; }
+                    if (sp > 0) {
+                        if (!anchored) { anchorWall = System.nanoTime(); anchorTs = r.timestampMillis(); anchored = true; }
+                        long due = anchorWall + (long) ((r.timestampMillis() - anchorTs) * 1_000_000L / sp);
+                        if (!waitUntil(due)) { pending = r; anchored = false; continue; }
+                        long lagMs = (System.nanoTime() - due) / 1_000_000L;
+                        if (lagMs > maxLagMillis) maxLagMillis = lagMs;
+                    }
+
+                    long t0 = System.nanoTime();
+                    var result = pipeline.process(r.payloadAsString(), r.timestampMillis(), StatsSnapshot.Origin.REPLAY);
+                    long took = System.nanoTime() - t0;
+                    if (result == null) failures++;
+                    latencies[(int) (records % LATENCY_SAMPLES)] = took;
+                    processNanosTotal += took;
+                    if (took > processNanosMax) processNanosMax = took;
+                    bytes += r.length();
+                    lastRecordTs = r.timestampMillis();
+                    records++;
+                }
+                state = stopped ? "STOPPED" : "FINISHED";
+            } catch (RuntimeException e) {
+                error = e.getMessage();
+                state = "FAILED";
+                log.error("리플레이 실패", e);
+            } finally {
+                finishedAt = System.currentTimeMillis();
+                // 변경 전: pipeline.switchOrigin(StatsSnapshot.Origin.LIVE);
+                pipeline.endReplay(token);
+                log.info("리플레이 종료 state={} records={} bytes={}", state, records, bytes);
+            }
+        }
+
+        // 대기 중 일시정지/seek/중지/배속 변경이 들어오면 false
+        private boolean waitUntil(long dueNanos) {
+            double sp = speed;
+            while (true) {
+                if (stopped || paused || seekTo >= 0 || speed != sp) return false;
+                long remain = dueNanos - System.nanoTime();
+                if (remain <= 0) return true;
+                LockSupport.parkNanos(Math.min(remain, MAX_PARK_NANOS));
+            }
+        }
+
+        Map<String, Object> report() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("state", state);
+            m.put("speed", speed <= 0 ? "max" : speed);
+            m.put("from", fromMillis > 0 ? Instant.ofEpochMilli(fromMillis) : null);
+            m.put("to", toMillis == Long.MAX_VALUE ? null : Instant.ofEpochMilli(toMillis));
+            m.put("position", lastRecordTs < 0 ? null : Instant.ofEpochMilli(lastRecordTs));
+            long n = records;
+            long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+            double activeSec = Math.max(1, end - startedAt - pausedNanosTotal / 1_000_000L) / 1000.0;
+            m.put("records", n);
+            m.put("bytes", bytes);
+            m.put("failures", failures);
+            m.put("throughputPerSec", Math.round(n / activeSec * 10) / 10.0);
+            m.put("throughputMBPerSec", Math.round(bytes / activeSec / (1024 * 1024) * 100) / 100.0);
+            m.put("latencyAvgMicros", n == 0 ? 0 : processNanosTotal / n / 1000);
+            long[] sample = Arrays.copyOf(latencies, (int) Math.min(n, LATENCY_SAMPLES));
+            Arrays.sort(sample);
+            m.put("latencyP50Micros", percentile(sample, 0.50) / 1000);
+            m.put("latencyP99Micros", percentile(sample, 0.99) / 1000);
+            m.put("latencyMaxMicros", processNanosMax / 1000);
+            m.put("maxLagMillis", maxLagMillis);
+            if (error != null) m.put("error", error);
+            return m;
+        }
+
+        private long percentile(long[] sorted, double q) {
+            if (sorted.length == 0) return 0;
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(q * sorted.length) - 1)];
+        }
+    }
+}
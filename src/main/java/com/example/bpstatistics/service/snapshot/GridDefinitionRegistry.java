@@ -0,0 +1,58 @@
+package com.example.bpstatistics.service.snapshot;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 구독 시 정의한 grid 컬럼 구성 (grid id -> column id -> statName)
+ * getData() 응답 행은 column id("1".."n") 로만 오므로, statName 으로 컬럼을 지정하는 기능(알림 규칙 등)이 이 매핑을 사용합니다.
+ * 같은 grid id 로 재구독하면 마지막 정의로 교체되며 version 이 증가합니다.
+ */
+@Component
+public class GridDefinitionRegistry {
+
+    private record Definition(Map<String, String> statByColumn, Map<String, String> columnByStat) { }
+
+    private final Map<String, Definition> grids = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    /** grid id -> (column id -> statName) 등록/교체 */
+    public void register(Map<String, Map<String, String>> gridColumns) {
+        if (gridColumns == null || gridColumns.isEmpty()) return;
+        gridColumns.forEach((gridId, columns) -> {
+            Map<String, String> byStat = new HashMap<>();
+            columns.forEach((colId, stat) -> byStat.putIfAbsent(stat, colId));
+            grids.put(gridId, new Definition(Map.copyOf(columns), Map.copyOf(byStat)));
+        });
+        version.incrementAndGet();
+    }
+
+    /**
+     * 컬럼 참조 해석: column id 그대로이거나 statName. 정의에 없으면 입력값을 column id 로 간주 (null 입력만 null)
+     */
+    public String resolveColumnId(String gridId, String columnOrStat) {
+        if (columnOrStat == null) return null;
+        Definition d = grids.get(gridId);
+        if (d == null) return columnOrStat;
+        if (d.statByColumn().containsKey(columnOrStat)) return columnOrStat;
+        return d.columnByStat().getOrDefault(columnOrStat, columnOrStat);
+    }
+
+    public String statName(String gridId, String columnId) {
+        Definition d = grids.get(gridId);
+        return d == null ? null : d.statByColumn().get(columnId);
+    }
+
+    public Map<String, String> columns(String gridId) {
+        Definition d = grids.get(gridId);
+        return d == null ? Collections.emptyMap() : d.statByColumn();
+    }
+
+    /** 등록 변경 감지용 (바인딩 캐시 무효화) */
+    public long version() { return version.get(); }
+}
@@ -0,0 +1,13 @@
+package com.example.bpstatistics.service.snapshot;
+
+/**
+ * 직전 스냅샷 대비 grid 변경분
+ * changedRows: 현재 스냅샷 기준 신규/변경 행 인덱스, removedKeys: 사라진 행 key.
+ * fullRefresh 이면 이전 상태와 비교 불가(최초 / 컬럼 구성 변경) -> 모든 행이 changedRows 에 포함됩니다.
+ */
+public record GridDelta(String gridId, int[] changedRows, String[] removedKeys, boolean fullRefresh) {
+
+    public boolean isEmpty() {
+        return changedRows.length == 0 && removedKeys.length == 0 && !fullRefresh;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.bpstatistics.service.snapshot;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * agent grid 1개의 스냅샷 (불변)
+ * 행 = 상담원, 열 = 구독 시 정의한 column id ("1".."n"). 셀 값은 업스트림 원문 텍스트 그대로 보관합니다.
+ */
+public final class GridSnapshot {
+
+    private final String gridId;
+    private final String[] columnIds;
+    private final String[] rowKeys;
+    private final String[][] cells; // [row][col]
+
+    private volatile Map<String, Integer> keyIndex;   // rowKey -> row (지연 생성)
+    // 변경 전: private final double[][] numericColumns; - 요청 스레드 간 비-volatile 공유, 부분 초기화된 배열이 보일 수 있음
+    // 변경 후: 원소 단위 volatile 게시 (동시 계산 시 같은 값을 한 번 더 계산할 뿐)
+    private final AtomicReferenceArray<double[]> numericColumns;   // [col] -> 행별 숫자값 (지연 생성)
+
+    public GridSnapshot(String gridId, String[] columnIds, String[] rowKeys, String[][] cells) {
+        this.gridId = gridId;
+        this.columnIds = columnIds;
+        this.rowKeys = rowKeys;
+        this.cells = cells;
+        this.numericColumns = new AtomicReferenceArray<>(columnIds.length);
+    }
+
+    public String gridId() { return gridId; }
+    public int rowCount() { return rowKeys.length; }
+    public int columnCount() { return columnIds.length; }
+    public String columnId(int col) { return columnIds[col]; }
+    public String rowKey(int row) { return rowKeys[row]; }
+    public String cell(int row, int col) { return cells[row][col]; }
+
+    /** column id -> 인덱스 (없으면 -1) */
+    public int columnIndex(String columnId) {
+        for (int i = 0; i < columnIds.length; i++) {
+            if (columnIds[i].equals(columnId)) return i;
+        }
+        return -1;
+    }
+
+    /** rowKey -> 행 인덱스 (없으면 -1) */
+    public int rowIndex(String rowKey) {
+        Map<String, Integer> idx = keyIndex;
+        if (idx == null) {
+            idx = new HashMap<>(rowKeys.length * 2);
+            for (int i = 0; i < rowKeys.length; i++) idx.put(rowKeys[i], i);
+            keyIndex = idx;
+        }
+        Integer r = idx.get(rowKey);
+        return r == null ? -1 : r;
+    }
+
+    /**
+     * 열 전체를 숫자로 변환한 배열 (숫자가 아니면 NaN). 스냅샷당 1회 계산 후 캐시.
+     * "hh:mm:ss" / "mm:ss" 형식은 초 단위로 변환합니다.
+     */
+    public double[] numericColumn(int col) {
+        double[] v = numericColumns.get(col);
+        if (v == null) {
+            v = new double[rowKeys.length];
+            for (int r = 0; r < v.length; r++) v[r] = parseNumeric(cells[r][col]);
+            if (!numericColumns.compareAndSet(col, null, v)) v = numericColumns.get(col);
+        }
+        return v;
+    }
+
+    public double numeric(int row, int col) {
+        return numericColumn(col)[row];
+    }
+
+    boolean sameColumns(GridSnapshot other) {
+        return Arrays.equals(columnIds, other.columnIds);
+    }
+
+    boolean sameRow(int row, GridSnapshot other, int otherRow) {
+        return Arrays.equals(cells[row], other.cells[otherRow]);
+    }
+
+    String[] columnIds() { return columnIds; }
+
+    public static double parseNumeric(String s) {
+        if (s == null || s.isEmpty()) return Double.NaN;
+        int colon = s.indexOf(':');
+        try {
+            if (colon < 0) return Double.parseDouble(s);
+            double total = 0;
+            int start = 0;
+            while (true) {
+                int next = s.indexOf(':', start);
+                String part = next < 0 ? s.substring(start) : s.substring(start, next);
+                total = total * 60 + Double.parseDouble(part);
+                if (next < 0) return total;
+                start = next + 1;
+            }
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.bpstatistics.service.snapshot;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 스냅샷 단위 변경분 (grid id -> GridDelta). 이전 스냅샷에만 있던 grid 는 removedGrids 에 포함됩니다.
+ */
+public record SnapshotDelta(Map<String, GridDelta> grids, Set<String> removedGrids) {
+
+    public SnapshotDelta {
+        grids = Collections.unmodifiableMap(grids);
+        removedGrids = Collections.unmodifiableSet(removedGrids);
+    }
+
+    public GridDelta grid(String gridId) { return grids.get(gridId); }
+
+    public int changedRowCount() {
+        int n = 0;
+        for (GridDelta d : grids.values()) n += d.changedRows().length;
+        return n;
+    }
+}
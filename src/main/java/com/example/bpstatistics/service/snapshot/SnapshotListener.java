@@ -0,0 +1,13 @@
+package com.example.bpstatistics.service.snapshot;
+
+/**
+ * 스냅샷 fan-out 확장 지점. Spring bean 으로 등록하면 SnapshotPipeline 이 자동 수집합니다.
+ * 파이프라인 단일 스레드에서 순서대로 호출되므로 구현체는 내부 동기화 없이 상태를 갱신할 수 있습니다(조회 측 가시성은 구현체 책임).
+ */
+public interface SnapshotListener {
+
+    void onSnapshot(StatsSnapshot snapshot, SnapshotDelta delta);
+
+    /** 입력 출처 전환(실시간 <-> 리플레이) 시 누적 상태 초기화 */
+    default void onReset() { }
+}
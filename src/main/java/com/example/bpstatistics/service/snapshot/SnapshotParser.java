@@ -0,0 +1,145 @@
+package com.example.bpstatistics.service.snapshot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * getData() 원문 -> StatsSnapshot 변환
+ * 업스트림 응답 형태 변화에 대비해 관대하게 해석합니다.
+ * - agent_grids 위치: 루트 또는 루트 하위 객체("1" 등)
+ * - agent_grids 형태: [{id, rows|data|values|agents:[...]}] 또는 {gridId: {...}} / {gridId: [...]}
+ * - 행 형태: {columnId: value} 객체 또는 [value...] 배열(column id = 1..n)
+ * - 행 key: agent_id / login_id / id 필드 → 없으면 column "1" 값 → 없으면 행 순번
+ */
+@Component
+public class SnapshotParser {
+
+    private static final List<String> ROW_ARRAY_FIELDS = List.of("rows", "data", "values", "agents");
+    private static final List<String> ROW_KEY_FIELDS = List.of("agent_id", "agentId", "login_id", "loginId", "id");
+
+    private final ObjectMapper objectMapper;
+
+    public SnapshotParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public StatsSnapshot parse(String raw, long sequence, long capturedAtMillis, StatsSnapshot.Origin origin) throws IOException {
+        JsonNode root = objectMapper.readTree(raw);
+        Map<String, GridSnapshot> grids = new LinkedHashMap<>();
+        // 변경 전: agent_grids 위치/형태 판별을 이 메서드 안에서 직접 수행
+        gridRows(root).forEach((id, rows) -> grids.put(id, parseGrid(id, rows)));
+        return new StatsSnapshot(sequence, capturedAtMillis, origin, raw.length(), grids);
+    }
+
+    /**
+     * 응답 1건의 gridId -> 행 배열 (형태 판별만, 행 해석 없음). 다중 구독 병합(MultiSubscriptionFetcher)에서도 사용
+     */
+    public static Map<String, JsonNode> gridRows(JsonNode root) {
+        Map<String, JsonNode> out = new LinkedHashMap<>();
+        JsonNode agentGrids = locateAgentGrids(root);
+        if (agentGrids == null) {
+            JsonNode rows = locateRows(root);
+            if (rows != null) out.put("1", rows);
+        } else if (agentGrids.isArray()) {
+            int i = 0;
+            for (JsonNode g : agentGrids) {
+                i++;
+                String id = g.path("id").asText(String.valueOf(i));
+                JsonNode rows = locateRows(g);
+                if (rows != null) out.put(id, rows);
+            }
+        } else if (agentGrids.isObject()) {
+            for (Map.Entry<String, JsonNode> e : agentGrids.properties()) {
+                JsonNode rows = locateRows(e.getValue());
+                if (rows != null) out.put(e.getKey(), rows);
+            }
+        }
+        return out;
+    }
+
+    private static JsonNode locateAgentGrids(JsonNode root) {
+        if (root == null || !root.isObject()) return null;
+        JsonNode direct = root.get("agent_grids");
+        if (direct != null) return direct;
+        for (Map.Entry<String, JsonNode> e : root.properties()) {
+            JsonNode v = e.getValue();
+            if (v.isObject() && v.has("agent_grids")) return v.get("agent_grids");
+        }
+        return null;
+    }
+
+    private static JsonNode locateRows(JsonNode grid) {
+        if (grid == null) return null;
+        if (grid.isArray()) return grid;
+        for (String f : ROW_ARRAY_FIELDS) {
+            JsonNode r = grid.get(f);
+            if (r != null && r.isArray()) return r;
+        }
+        return null;
+    }
+
+    private static GridSnapshot parseGrid(String gridId, JsonNode rows) {
+        int n = rows.size();
+        // 컬럼 구성: 객체 행은 등장 순서대로 합집합, 배열 행은 최대 길이 기준 1..n
+        Set<String> columnSet = new LinkedHashSet<>();
+        int maxArray = 0;
+        for (JsonNode row : rows) {
+            if (row.isObject()) {
+                row.fieldNames().forEachRemaining(columnSet::add);
+            } else if (row.isArray()) {
+                maxArray = Math.max(maxArray, row.size());
+            }
+        }
+        for (int i = 1; i <= maxArray; i++) columnSet.add(String.valueOf(i));
+        String[] columnIds = columnSet.toArray(new String[0]);
+        Map<String, Integer> colIndex = new LinkedHashMap<>();
+        for (int i = 0; i < columnIds.length; i++) colIndex.put(columnIds[i], i);
+
+        String[] keys = new String[n];
+        String[][] cells = new String[n][];
+        Set<String> seen = new HashSet<>(n * 2);
+        List<String> keyFallbackCols = new ArrayList<>(ROW_KEY_FIELDS);
+        keyFallbackCols.add("1");
+        for (int r = 0; r < n; r++) {
+            JsonNode row = rows.get(r);
+            String[] values = new String[columnIds.length];
+            if (row.isObject()) {
+                for (Map.Entry<String, JsonNode> f : row.properties()) {
+                    values[colIndex.get(f.getKey())] = text(f.getValue());
+                }
+            } else if (row.isArray()) {
+                for (int c = 0; c < row.size(); c++) values[colIndex.get(String.valueOf(c + 1))] = text(row.get(c));
+            }
+            String key = null;
+            for (String kf : keyFallbackCols) {
+                Integer ci = colIndex.get(kf);
+                if (ci != null && values[ci] != null && !values[ci].isBlank()) { key = values[ci]; break; }
+            }
+            if (key == null) key = "#" + r;
+            // 동명이인 등 key 중복 시 순번 부여
+            if (!seen.add(key)) {
+                int dup = 2;
+                while (!seen.add(key + "#" + dup)) dup++;
+                key = key + "#" + dup;
+            }
+            keys[r] = key;
+            cells[r] = values;
+        }
+        return new GridSnapshot(gridId, columnIds, keys, cells);
+    }
+
+    private static String text(JsonNode v) {
+        if (v == null || v.isNull()) return null;
+        return v.isValueNode() ? v.asText() : v.toString();
+    }
+}
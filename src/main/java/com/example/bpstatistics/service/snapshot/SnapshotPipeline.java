@@ -0,0 +1,280 @@
+package com.example.bpstatistics.service.snapshot;
+
+import com.example.bpstatistics.service.diag.StageLatency;
+import io.micrometer.observation.Observation;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 스냅샷 처리 경로: 파싱 -> 직전 스냅샷 대비 diff -> SnapshotListener fan-out (집계 등은 리스너에서 수행)
+ * 실시간 getData() 결과와 저널 리플레이가 동일한 process() 를 사용합니다.
+ * 한 번에 하나의 출처(acceptedOrigin)만 받아들이며, 출처 전환 시 diff 기준과 리스너 상태를 초기화합니다.
+ * REPLAY 전환은 beginReplay() 가 발급한 토큰 소유 세션만 endReplay() 로 되돌릴 수 있습니다.
+ */
+@Service
+public class SnapshotPipeline {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotPipeline.class);
+
+    /** 단계별 처리 결과 (리플레이 리포트/진단용) */
+    public record ProcessResult(StatsSnapshot snapshot, SnapshotDelta delta, long parseNanos, long diffNanos, long fanoutNanos) {
+        public long totalNanos() { return parseNanos + diffNanos + fanoutNanos; }
+    }
+
+    /** 마지막으로 처리된 실시간 입력 원문 (warm restart 저장용) */
+    public record LiveInput(String raw, long capturedAtMillis) { }
+
+    private final SnapshotParser parser;
+    private final ObjectProvider<SnapshotListener> listenerProvider;
+    private final StageLatency stages;
+    private volatile List<SnapshotListener> listeners;
+
+    private final AtomicLong droppedLive = new AtomicLong();
+
+    // 실시간 입력은 WebClient(Reactor) 응답 스레드를 막지 않도록 단일 스레드로 순서 보장 처리, 밀리면 오래된 것부터 버림
+    // 변경 전: new ThreadPoolExecutor.DiscardOldestPolicy() - 버린 건수 집계/로그 없음
+    private final ThreadPoolExecutor liveExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(16), r -> {
+                Thread t = new Thread(r, "snapshot-pipeline");
+                t.setDaemon(true);
+                return t;
+            }, this::discardOldest);
+
+    private final AtomicReference<StatsSnapshot> latest = new AtomicReference<>();
+    private volatile StatsSnapshot.Origin acceptedOrigin = StatsSnapshot.Origin.LIVE;
+    private StatsSnapshot previous; // diff 기준 (process 동기화 하에서만 접근)
+    private long sequence;
+    private long replayToken;    // 현재 REPLAY 소유 세션 토큰 (0 = 없음, 동기화 하에서만 접근)
+    private long replaySessions; // 토큰 발급 순번
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong ignored = new AtomicLong();
+    private volatile ProcessResult lastResult;
+    private volatile LiveInput lastLiveInput;
+
+    // 변경 전: public SnapshotPipeline(SnapshotParser parser, ObjectProvider<SnapshotListener> listenerProvider)
+    public SnapshotPipeline(SnapshotParser parser, ObjectProvider<SnapshotListener> listenerProvider, StageLatency stages) {
+        this.parser = parser;
+        this.listenerProvider = listenerProvider;
+        this.stages = stages;
+    }
+
+    /**
+     * 실시간 폴링 결과 비동기 투입 (리플레이 중에는 무시)
+     */
+    public void submitLive(String raw, long capturedAtMillis) {
+        if (raw == null || acceptedOrigin != StatsSnapshot.Origin.LIVE) {
+            ignored.incrementAndGet();
+            return;
+        }
+        liveExecutor.execute(() -> process(raw, capturedAtMillis, StatsSnapshot.Origin.LIVE));
+    }
+
+    // DiscardOldestPolicy 와 같되 버린 실시간 스냅샷을 droppedLive 로 집계
+    private void discardOldest(Runnable r, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) return;
+        if (executor.getQueue().poll() != null) {
+            long n = droppedLive.incrementAndGet();
+            if (n == 1 || n % 100 == 0) log.warn("스냅샷 처리 지연 - 오래된 실시간 스냅샷 drop (누적 {})", n);
+        }
+        executor.execute(r);
+    }
+
+    /**
+     * 동기 처리. 현재 허용 출처가 아니면 null
+     */
+    public synchronized ProcessResult process(String raw, long capturedAtMillis, StatsSnapshot.Origin origin) {
+        // 변경 전: if (origin != acceptedOrigin) {
+        if (!accepts(origin)) {
+            ignored.incrementAndGet();
+            return null;
+        }
+        try {
+            long t0 = System.nanoTime();
+            // 변경 전: StatsSnapshot snap = parser.parse(raw, ++sequence, capturedAtMillis, origin);
+            StatsSnapshot snap = parse(raw, capturedAtMillis, origin);
+            long t1 = System.nanoTime();
+            SnapshotDelta delta = diff(previous, snap);
+            long t2 = System.nanoTime();
+            previous = snap;
+            latest.set(snap);
+            for (SnapshotListener l : listeners()) {
+                try {
+                    l.onSnapshot(snap, delta);
+                } catch (RuntimeException e) {
+                    log.warn("스냅샷 리스너 오류 listener={} : {}", l.getClass().getSimpleName(), e.getMessage());
+                }
+            }
+            long t3 = System.nanoTime();
+            processed.incrementAndGet();
+            ProcessResult result = new ProcessResult(snap, delta, t1 - t0, t2 - t1, t3 - t2);
+            lastResult = result;
+            // RESTORED 도 첫 실시간 입력 전까지는 마지막으로 아는 실시간 원문 (checkpoint 가 빈 값으로 덮어쓰지 않도록)
+            if (origin != StatsSnapshot.Origin.REPLAY) lastLiveInput = new LiveInput(raw, capturedAtMillis);
+            return result;
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.warn("스냅샷 처리 실패 origin={} : {}", origin, e.getMessage());
+            return null;
+        }
+    }
+
+    // RESTORED(warm restart 복원)는 LIVE 수신 중에만 허용
+    private boolean accepts(StatsSnapshot.Origin origin) {
+        if (origin == StatsSnapshot.Origin.RESTORED) return acceptedOrigin == StatsSnapshot.Origin.LIVE;
+        return origin == acceptedOrigin;
+    }
+
+    // 실시간 입력만 snapshot.parse 단계로 측정 (리플레이는 ProcessResult 로 별도 보고)
+    private StatsSnapshot parse(String raw, long capturedAtMillis, StatsSnapshot.Origin origin) throws IOException {
+        if (origin != StatsSnapshot.Origin.LIVE) return parser.parse(raw, ++sequence, capturedAtMillis, origin);
+        Observation obs = stages.start(StageLatency.PARSE, StageLatency.NO_CALL, null);
+        try {
+            return parser.parse(raw, ++sequence, capturedAtMillis, origin);
+        } catch (IOException | RuntimeException e) {
+            obs.error(e);
+            throw e;
+        } finally {
+            obs.stop();
+        }
+    }
+
+    /**
+     * 리플레이 시작: 출처를 REPLAY 로 전환하고 소유 토큰 발급. 이미 다른 세션이 REPLAY 를 잡고 있으면 IllegalStateException
+     */
+    public synchronized long beginReplay() {
+        if (acceptedOrigin == StatsSnapshot.Origin.REPLAY) {
+            throw new IllegalStateException("이전 재생 세션이 아직 종료되지 않았습니다.");
+        }
+        switchOrigin(StatsSnapshot.Origin.REPLAY);
+        replayToken = ++replaySessions;
+        return replayToken;
+    }
+
+    /**
+     * 리플레이 종료: 토큰이 현재 소유 세션과 같을 때만 LIVE 로 복귀 (이전 세션의 늦은 종료가 새 세션을 끊지 않도록)
+     * @return 복귀했으면 true
+     */
+    public synchronized boolean endReplay(long token) {
+        if (token == 0 || token != replayToken || acceptedOrigin != StatsSnapshot.Origin.REPLAY) {
+            log.warn("리플레이 종료 무시 - 소유 세션 아님 token={} current={}", token, replayToken);
+            return false;
+        }
+        replayToken = 0;
+        switchOrigin(StatsSnapshot.Origin.LIVE);
+        return true;
+    }
+
+    /**
+     * 입력 출처 전환. diff 기준과 리스너 누적 상태를 초기화합니다.
+     */
+    // 변경 전: public synchronized void switchOrigin(...) - 아무 호출자나 전환 가능 (이전 리플레이 세션의 finally 가 새 세션을 LIVE 로 되돌림)
+    private void switchOrigin(StatsSnapshot.Origin origin) {
+        if (acceptedOrigin == origin) return;
+        log.info("스냅샷 입력 출처 전환 {} -> {}", acceptedOrigin, origin);
+        acceptedOrigin = origin;
+        previous = null;
+        latest.set(null);
+        for (SnapshotListener l : listeners()) {
+            try {
+                l.onReset();
+            } catch (RuntimeException e) {
+                log.warn("스냅샷 리스너 초기화 오류 listener={} : {}", l.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    public StatsSnapshot.Origin acceptedOrigin() { return acceptedOrigin; }
+
+    /** 마지막으로 처리된 스냅샷 (없으면 null) */
+    public StatsSnapshot latest() { return latest.get(); }
+
+    public LiveInput lastLiveInput() { return lastLiveInput; }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("origin", acceptedOrigin);
+        m.put("processed", processed.get());
+        m.put("failed", failed.get());
+        m.put("ignored", ignored.get());
+        m.put("liveQueue", liveExecutor.getQueue().size());
+        m.put("droppedLive", droppedLive.get());
+        ProcessResult r = lastResult;
+        if (r != null) {
+            m.put("lastSequence", r.snapshot().sequence());
+            m.put("lastRows", r.snapshot().totalRows());
+            m.put("lastChangedRows", r.delta().changedRowCount());
+            m.put("lastParseMicros", r.parseNanos() / 1000);
+            m.put("lastDiffMicros", r.diffNanos() / 1000);
+            m.put("lastFanoutMicros", r.fanoutNanos() / 1000);
+        }
+        return m;
+    }
+
+    private List<SnapshotListener> listeners() {
+        List<SnapshotListener> l = listeners;
+        if (l == null) {
+            l = listenerProvider.orderedStream().toList();
+            listeners = l;
+            log.info("스냅샷 리스너 {}개 등록", l.size());
+        }
+        return l;
+    }
+
+    static SnapshotDelta diff(StatsSnapshot prev, StatsSnapshot cur) {
+        Map<String, GridDelta> grids = new LinkedHashMap<>();
+        for (GridSnapshot g : cur.grids().values()) {
+            grids.put(g.gridId(), diffGrid(prev == null ? null : prev.grid(g.gridId()), g));
+        }
+        Set<String> removed = new HashSet<>();
+        if (prev != null) {
+            for (String id : prev.grids().keySet()) {
+                if (!cur.grids().containsKey(id)) removed.add(id);
+            }
+        }
+        return new SnapshotDelta(grids, removed);
+    }
+
+    static GridDelta diffGrid(GridSnapshot prev, GridSnapshot cur) {
+        int n = cur.rowCount();
+        boolean full = prev == null || !prev.sameColumns(cur);
+        int[] changed = new int[n];
+        int c = 0;
+        for (int r = 0; r < n; r++) {
+            if (full) { changed[c++] = r; continue; }
+            int pr = prev.rowIndex(cur.rowKey(r));
+            if (pr < 0 || !cur.sameRow(r, prev, pr)) changed[c++] = r;
+        }
+        String[] removed = new String[0];
+        if (prev != null) {
+            String[] tmp = new String[prev.rowCount()];
+            int k = 0;
+            for (int r = 0; r < prev.rowCount(); r++) {
+                if (cur.rowIndex(prev.rowKey(r)) < 0) tmp[k++] = prev.rowKey(r);
+            }
+            removed = Arrays.copyOf(tmp, k);
+        }
+        return new GridDelta(cur.gridId(), Arrays.copyOf(changed, c), removed, full);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        liveExecutor.shutdownNow();
+    }
+}
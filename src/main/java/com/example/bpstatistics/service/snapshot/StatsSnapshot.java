@@ -0,0 +1,44 @@
+package com.example.bpstatistics.service.snapshot;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 폴링 1회분 스냅샷 (grid id -> GridSnapshot)
+ */
+public final class StatsSnapshot {
+
+    /**
+     * 스냅샷 출처: 실시간 업스트림 폴링 / 저널 리플레이 / warm restart 파일에서 복원한 직전 값
+     * RESTORED 는 LIVE 수신 중에만 받아들이며, LIVE 전용 리스너(이력 적재, 구독 감시)는 무시합니다.
+     */
+    // 변경 전: public enum Origin { LIVE, REPLAY }
+    public enum Origin { LIVE, REPLAY, RESTORED }
+
+    private final long sequence;
+    private final long capturedAtMillis;
+    private final Origin origin;
+    private final int rawLength;
+    private final Map<String, GridSnapshot> grids;
+
+    public StatsSnapshot(long sequence, long capturedAtMillis, Origin origin, int rawLength, Map<String, GridSnapshot> grids) {
+        this.sequence = sequence;
+        this.capturedAtMillis = capturedAtMillis;
+        this.origin = origin;
+        this.rawLength = rawLength;
+        this.grids = Collections.unmodifiableMap(grids);
+    }
+
+    public long sequence() { return sequence; }
+    public long capturedAtMillis() { return capturedAtMillis; }
+    public Origin origin() { return origin; }
+    public int rawLength() { return rawLength; }
+    public Map<String, GridSnapshot> grids() { return grids; }
+    public GridSnapshot grid(String gridId) { return grids.get(gridId); }
+
+    public int totalRows() {
+        int n = 0;
+        for (GridSnapshot g : grids.values()) n += g.rowCount();
+        return n;
+    }
+}
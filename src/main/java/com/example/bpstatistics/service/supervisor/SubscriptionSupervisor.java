@@ -0,0 +1,435 @@
+package com.example.bpstatistics.service.supervisor;
+
+import com.example.bpstatistics.config.SubscriptionSupervisorConfig;
+import com.example.bpstatistics.service.ActiveSubscriptionStore;
+import com.example.bpstatistics.service.BrightPatternAuthService;
+import com.example.bpstatistics.service.BrightPatternSubscriptionService;
+import com.example.bpstatistics.service.SubscriptionBodyValidator;
+import com.example.bpstatistics.service.cluster.ClusterLeaseService;
+import com.example.bpstatistics.service.ratelimit.TokenBucket;
+import com.example.bpstatistics.service.snapshot.SnapshotDelta;
+import com.example.bpstatistics.service.snapshot.SnapshotListener;
+import com.example.bpstatistics.service.snapshot.StatsSnapshot;
+import com.example.bpstatistics.service.tuning.RuntimeTuning;
+import com.example.bpstatistics.web.dto.BrightPatternSubscriptionResponse;
+import com.example.bpstatistics.web.exception.UpstreamStatusException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 활성 구독 감독: 만료 전 자동 갱신 + 유실 감지 시 같은 요청으로 재구독
+ * - 대상: ActiveSubscriptionStore 에 기록된 구독 (생성 성공 시 기록, 삭제 시 제거)
+ * - 갱신: 만료(expiresAt) - renewAhead - jitter 시각에 새 구독 생성 후 기존 구독 삭제 (make-before-break)
+ * - 유실 감지: (1) 주기적 GET 확인에서 4xx / 종료 status, (2) 구독 grid 가 연속 N 회 스냅샷에서 빠짐,
+ *   (3) getData() 연속 실패 -> (2)(3)은 GET 확인을 앞당기고, 확인 결과 유실이면 재구독
+ * - 401 / 403 은 유실이 아니라 세션 만료로 보고 먼저 재인증한 뒤 같은 작업을 다시 시도
+ * - 모든 업스트림 작업은 단일 스레드에서 토큰 버킷 속도(actionsPerSecond)로만 실행, 실패 시 지수 backoff + jitter
+ * 클러스터 모드에서는 리더만 동작합니다.
+ */
+@Service
+public class SubscriptionSupervisor implements SnapshotListener {
+    private static final Logger log = LoggerFactory.getLogger(SubscriptionSupervisor.class);
+
+    public enum State { ACTIVE, SUSPECT, LOST, FAILED }
+
+    /** 감독 대상 1건 (this 모니터로 보호) */
+    private static final class Tracked {
+        final String id;
+        final byte[] body;
+        final List<String> gridIds;
+        final long createdAt;
+        long expiresAt;
+        long renewAt;
+        long verifyAt;
+        long retryAt;
+        int missing;
+        int failures;
+        boolean reauthenticated;   // 직전 인증 오류에서 재인증함 (연속 인증 오류면 backoff)
+        State state = State.ACTIVE;
+        String lastError;
+        String lastAction;
+        long lastActionAt;
+
+        Tracked(String id, byte[] body, List<String> gridIds, long createdAt) {
+            this.id = id;
+            this.body = body;
+            this.gridIds = gridIds;
+            this.createdAt = createdAt;
+        }
+
+        long dueAt() {
+            long due = state == State.LOST ? 0 : Math.min(renewAt, verifyAt);
+            return Math.max(due, retryAt);
+        }
+    }
+
+    private final SubscriptionSupervisorConfig.SupervisorProps props;
+    private final ActiveSubscriptionStore store;
+    private final BrightPatternSubscriptionService subscriptionService;
+    private final BrightPatternAuthService authService;
+    private final SubscriptionBodyValidator bodyValidator;
+    private final ClusterLeaseService lease;
+    private final RuntimeTuning tuning;
+    private final TokenBucket actionBudget;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "subscription-supervisor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<String, Tracked> tracked = new LinkedHashMap<>();
+    private final Set<String> untrackable = new HashSet<>();   // 본문 검증 실패 (로그 1회)
+    private int lastDataFailures;
+    private long renewals;
+    private long recreations;
+    private long verifications;
+    private long failedActions;
+    private long reauthentications;
+
+    // 변경 전: (..., BrightPatternSubscriptionService subscriptionService, SubscriptionBodyValidator bodyValidator, ...)
+    public SubscriptionSupervisor(SubscriptionSupervisorConfig.SupervisorProps props, ActiveSubscriptionStore store,
+                                  BrightPatternSubscriptionService subscriptionService, BrightPatternAuthService authService,
+                                  SubscriptionBodyValidator bodyValidator, ClusterLeaseService lease, RuntimeTuning tuning) {
+        this.props = props;
+        this.store = store;
+        this.subscriptionService = subscriptionService;
+        this.authService = authService;
+        this.bodyValidator = bodyValidator;
+        this.lease = lease;
+        this.tuning = tuning;
+        this.actionBudget = new TokenBucket(Math.max(0.01, props.getActionsPerSecond()), props.getActionBurst());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!props.isEnabled()) return;
+        scheduler.scheduleWithFixedDelay(this::tick, props.getTickMs(), props.getTickMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void onSnapshot(StatsSnapshot snapshot, SnapshotDelta delta) {
+        if (!props.isEnabled() || snapshot.origin() != StatsSnapshot.Origin.LIVE) return;
+        long now = System.currentTimeMillis();
+        for (Tracked t : tracked.values()) {
+            boolean present = false;
+            for (String g : t.gridIds) {
+                if (snapshot.grid(g) != null) {
+                    present = true;
+                    break;
+                }
+            }
+            t.missing = present ? 0 : t.missing + 1;
+            if (t.missing == props.getMissingSnapshotThreshold() && t.state == State.ACTIVE) {
+                suspect(t, now, "grid 가 스냅샷에서 " + t.missing + "회 연속 누락");
+            }
+        }
+    }
+
+    void tick() {
+        try {
+            if (!lease.isLeader()) return;
+            long now = System.currentTimeMillis();
+            List<Tracked> due = prepare(now);
+            for (Tracked t : due) {
+                if (actionBudget.tryAcquire(System.nanoTime()) != 0) break; // 남은 작업은 다음 tick
+                act(t);
+            }
+        } catch (RuntimeException e) {
+            log.warn("구독 감독 tick 실패 : {}", e.getMessage());
+        }
+    }
+
+    // 기록과 동기화 + getData 실패 반영 + 만기 작업 목록 (잠금 안에서 상태만 계산, 업스트림 호출은 잠금 밖)
+    private synchronized List<Tracked> prepare(long now) {
+        Set<String> live = new HashSet<>();
+        for (ActiveSubscriptionStore.Entry e : store.list()) {
+            live.add(e.id());
+            if (!tracked.containsKey(e.id()) && !untrackable.contains(e.id())) track(e.id(), e.body(), e.createdAt(), e.expiresAt(), now);
+        }
+        tracked.keySet().removeIf(id -> !live.contains(id));
+        untrackable.retainAll(live);
+
+        int failures = subscriptionService.dataHealth().consecutiveFailures();
+        if (failures >= props.getDataFailureThreshold() && lastDataFailures < props.getDataFailureThreshold()) {
+            for (Tracked t : tracked.values()) {
+                if (t.state == State.ACTIVE) suspect(t, now, "getData() 연속 " + failures + "회 실패");
+            }
+        }
+        lastDataFailures = failures;
+
+        List<Tracked> due = new ArrayList<>();
+        for (Tracked t : tracked.values()) {
+            if (t.state != State.FAILED && t.dueAt() <= now) due.add(t);
+        }
+        due.sort(Comparator.comparingLong(Tracked::dueAt));
+        return due;
+    }
+
+    private void track(String id, byte[] body, long createdAt, Long rawExpiresAt, long now) {
+        List<String> grids;
+        try {
+            grids = bodyValidator.validate(body).gridIds();
+        } catch (RuntimeException e) {
+            log.warn("구독 감독 대상 제외 (요청 본문 검증 실패) id={} : {}", id, e.getMessage());
+            untrackable.add(id);
+            return;
+        }
+        Tracked t = new Tracked(id, body, grids, createdAt);
+        t.expiresAt = normalizeExpiry(rawExpiresAt, createdAt);
+        t.renewAt = renewAt(t.expiresAt);
+        t.verifyAt = now + jittered(verifyIntervalMs());
+        tracked.put(id, t);
+        log.info("구독 감독 시작 id={} grids={} expiresAt={} renewAt={}", id, grids,
+                Instant.ofEpochMilli(t.expiresAt), Instant.ofEpochMilli(t.renewAt));
+    }
+
+    private void suspect(Tracked t, long now, String reason) {
+        t.state = State.SUSPECT;
+        t.lastError = reason;
+        // 여러 구독이 동시에 의심되면 확인 시각을 몇 초에 걸쳐 분산
+        t.verifyAt = Math.min(t.verifyAt, now + ThreadLocalRandom.current().nextLong(5_000));
+        log.warn("구독 유실 의심 id={} : {}", t.id, reason);
+    }
+
+    private void act(Tracked t) {
+        long now = System.currentTimeMillis();
+        State state;
+        synchronized (this) {
+            if (tracked.get(t.id) != t) return;
+            state = t.state;
+        }
+        if (state == State.LOST) {
+            replace(t, "recreate");
+        } else if (now >= t.renewAt) {
+            replace(t, "renew");
+        } else {
+            verify(t);
+        }
+    }
+
+    private void verify(Tracked t) {
+        Duration timeout = Duration.ofMillis(props.getActionTimeoutMs());
+        String lostReason = null;
+        try {
+            BrightPatternSubscriptionResponse r = subscriptionService.get(t.id).block(timeout);
+            String status = r == null ? null : r.getStatus();
+            if (r == null) {
+                lostReason = "구독 조회 응답 없음";
+            } else if (status != null && props.getLostStatuses().contains(status.toLowerCase(Locale.ROOT))) {
+                lostReason = "status=" + status;
+            } else if (r.getExpiresAt() != null) {
+                synchronized (this) {
+                    t.expiresAt = normalizeExpiry(r.getExpiresAt(), System.currentTimeMillis());
+                    t.renewAt = renewAt(t.expiresAt);
+                }
+            }
+        } catch (RuntimeException e) {
+            // 변경 전: if (!isClientError(e)) { failed(t, "verify", e); return; }
+            //         isClientError(Throwable) - handleError 메시지 "BrightPattern API error: 4xx" 정규식 매칭
+            // 변경 후: UpstreamStatusException 상태 코드로 판단 (404/410 등 = 구독 없음, 401/403 = 재인증, 408/429 = 일시 오류)
+            UpstreamStatusException upstream = UpstreamStatusException.find(e);
+            if (upstream != null && upstream.isAuthError()) {
+                reauthenticate(t, "verify", upstream);
+                return;
+            }
+            if (upstream == null || !upstream.isClientError()) {
+                failed(t, "verify", e);
+                return;
+            }
+            lostReason = e.getMessage();
+        }
+        synchronized (this) {
+            verifications++;
+            t.lastAction = "verify";
+            t.lastActionAt = System.currentTimeMillis();
+            t.failures = 0;
+            t.retryAt = 0;
+            t.reauthenticated = false;
+            if (lostReason != null) {
+                t.state = State.LOST;
+                t.lastError = lostReason;
+                log.warn("구독 유실 확인 id={} : {} -> 재구독 예정", t.id, lostReason);
+            } else {
+                t.state = State.ACTIVE;
+                t.missing = 0;
+                t.verifyAt = t.lastActionAt + jittered(verifyIntervalMs());
+            }
+        }
+    }
+
+    // 같은 요청 본문으로 새 구독 생성 -> 기존 구독 정리 (createValidated 가 새 id 를 기록)
+    private void replace(Tracked t, String action) {
+        Duration timeout = Duration.ofMillis(props.getActionTimeoutMs());
+        BrightPatternSubscriptionResponse created;
+        try {
+            created = subscriptionService.createValidated(bodyValidator.validate(t.body)).block(timeout);
+            if (created == null || created.getSubscriptionId() == null) throw new IllegalStateException("구독 생성 응답에 id 없음");
+        } catch (RuntimeException e) {
+            UpstreamStatusException upstream = UpstreamStatusException.find(e);
+            if (upstream != null && upstream.isAuthError()) {
+                reauthenticate(t, action, upstream);
+                return;
+            }
+            failed(t, action, e);
+            return;
+        }
+        String newId = created.getSubscriptionId();
+        // 변경 전: if (!store.contains(t.id)) { ... } store.forget(t.id); - 두 호출 사이 사용자 삭제를 놓침
+        // 변경 후: 기존 구독 확인 + 교체를 저장소 잠금 안에서 한 번에
+        if (!store.replace(t.id, newId, t.body, created.getExpiresAt())) {
+            // 갱신 도중 사용자가 기존 구독을 삭제함 -> 새 구독도 정리
+            log.info("갱신 중 기존 구독 삭제됨 - 새 구독 정리 old={} new={}", t.id, newId);
+            store.forget(newId);
+            deleteQuietly(newId);
+            return;
+        }
+        synchronized (this) {
+            if ("renew".equals(action)) renewals++; else recreations++;
+            tracked.remove(t.id);
+            long now = System.currentTimeMillis();
+            track(newId, t.body, now, created.getExpiresAt(), now);
+            Tracked n = tracked.get(newId);
+            if (n != null) {
+                n.lastAction = action + " from " + t.id;
+                n.lastActionAt = now;
+            }
+        }
+        log.info("구독 {} 완료 old={} new={}", "renew".equals(action) ? "갱신" : "재생성", t.id, newId);
+        // 갱신은 기존 구독이 아직 살아 있으므로 삭제, 유실된 구독도 서버 측 잔여분 정리 시도
+        deleteQuietly(t.id);
+    }
+
+    /**
+     * 401 / 403: 로컬 세션이 아직 유효해 보여도 업스트림에서 만료된 경우이므로 강제로 재인증 후
+     * 상태(LOST 여부)는 그대로 두고 다음 tick 에 같은 작업을 다시 시도. 재인증 실패는 일반 실패와 같이 backoff
+     */
+    private void reauthenticate(Tracked t, String action, UpstreamStatusException cause) {
+        synchronized (this) {
+            if (t.reauthenticated) {
+                // 재인증 직후에도 인증 오류 -> 권한 문제 등으로 보고 backoff (다음 시도에서 다시 재인증)
+                t.reauthenticated = false;
+                failed(t, action, cause);
+                return;
+            }
+        }
+        log.warn("구독 감독 작업 중 인증 오류 id={} action={} status={} - 재인증 후 재시도", t.id, action, cause.getStatusCode());
+        try {
+            authService.authenticate().block(Duration.ofMillis(props.getActionTimeoutMs()));
+        } catch (RuntimeException e) {
+            failed(t, action + " reauth", e);
+            return;
+        }
+        synchronized (this) {
+            reauthentications++;
+            t.reauthenticated = true;
+            t.lastAction = action + " (reauthenticated)";
+            t.lastActionAt = System.currentTimeMillis();
+            t.lastError = cause.getMessage();
+            t.retryAt = 0;
+            if (t.state != State.LOST) t.verifyAt = t.lastActionAt;
+        }
+    }
+
+    private void deleteQuietly(String id) {
+        try {
+            subscriptionService.delete(id).block(Duration.ofMillis(props.getActionTimeoutMs()));
+        } catch (RuntimeException e) {
+            log.debug("구독 정리 실패(무시) id={} : {}", id, e.getMessage());
+        }
+    }
+
+    private synchronized void failed(Tracked t, String action, RuntimeException e) {
+        failedActions++;
+        t.failures++;
+        t.lastError = e.getMessage();
+        t.lastAction = action + " (failed)";
+        t.lastActionAt = System.currentTimeMillis();
+        long backoff = Math.min(Duration.ofSeconds(props.getMaxBackoffSeconds()).toMillis(),
+                5_000L << Math.min(16, t.failures - 1));
+        t.retryAt = t.lastActionAt + jittered(backoff);
+        log.warn("구독 감독 작업 실패 id={} action={} failures={} 재시도={}ms : {}", t.id, action, t.failures,
+                t.retryAt - t.lastActionAt, e.getMessage());
+        // 만료 후에도 갱신 실패가 계속되면 유실로 전환 (재생성 경로)
+        if (t.state != State.LOST && t.lastActionAt > t.expiresAt) t.state = State.LOST;
+    }
+
+    private long renewAt(long expiresAt) {
+        long ahead = Duration.ofSeconds(props.getRenewAheadSeconds()).toMillis();
+        long jitter = props.getRenewJitterSeconds() <= 0 ? 0
+                : ThreadLocalRandom.current().nextLong(Duration.ofSeconds(props.getRenewJitterSeconds()).toMillis());
+        return expiresAt - ahead - jitter;
+    }
+
+    // +-20% 분산
+    // 변경 전: Duration.ofSeconds(props.getVerifyIntervalSeconds()).toMillis() - 실행 중 변경은 다음 예약부터 반영
+    private long verifyIntervalMs() {
+        return Duration.ofSeconds(tuning.settings().poll().supervisorVerifyIntervalSeconds()).toMillis();
+    }
+
+    private static long jittered(long base) {
+        if (base <= 0) return 0;
+        return base - base / 5 + ThreadLocalRandom.current().nextLong(Math.max(1, base * 2 / 5));
+    }
+
+    /**
+     * expiresAt 단위 해석: 없음 -> 기본 수명, 1e8 미만 -> 상대 초, 1e11 미만 -> epoch 초, 그 외 epoch ms
+     */
+    private long normalizeExpiry(Long raw, long base) {
+        if (raw == null || raw <= 0) return base + Duration.ofSeconds(props.getDefaultTtlSeconds()).toMillis();
+        if (raw < 100_000_000L) return base + raw * 1000;
+        if (raw < 100_000_000_000L) return raw * 1000;
+        return raw;
+    }
+
+    public synchronized Map<String, Object> status() {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (Tracked t : tracked.values()) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("id", t.id);
+            m.put("state", t.state);
+            m.put("grids", t.gridIds);
+            m.put("expiresAt", Instant.ofEpochMilli(t.expiresAt));
+            m.put("renewAt", Instant.ofEpochMilli(t.renewAt));
+            m.put("verifyAt", Instant.ofEpochMilli(t.verifyAt));
+            m.put("missingSnapshots", t.missing);
+            m.put("failures", t.failures);
+            m.put("lastAction", t.lastAction);
+            m.put("lastActionAt", t.lastActionAt > 0 ? Instant.ofEpochMilli(t.lastActionAt) : null);
+            m.put("lastError", t.lastError);
+            items.add(m);
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("enabled", props.isEnabled());
+        out.put("leader", lease.isLeader());
+        out.put("renewals", renewals);
+        out.put("recreations", recreations);
+        out.put("verifications", verifications);
+        out.put("failedActions", failedActions);
+        out.put("reauthentications", reauthentications);
+        out.put("subscriptions", items);
+        return out;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.bpstatistics.service.team;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 팀 계층 (불변, 노드 = 정수 인덱스)
+ * - 0 번: 전체 루트 "*" (파일의 최상위 노드들이 자식), 1 번: 매칭되지 않는 팀 값을 모으는 "(unassigned)"
+ * - parent[] 로 조상 경로를 따라 올라가며 집계하고, 진입/이탈 순번(tin/tout)으로 조상 여부를 O(1) 판정
+ * 부모가 없는 id 를 가리키면 최상위로 붙이고, 순환이 있으면 IllegalArgumentException 으로 전체 로드를 거부합니다.
+ */
+public final class TeamHierarchy {
+    public static final int ROOT = 0;
+    public static final int UNASSIGNED = 1;
+    public static final String ROOT_ID = "*";
+    public static final String UNASSIGNED_ID = "(unassigned)";
+
+    /** 파일 항목 1건 */
+    public record TeamNode(String id, String name, String parentId) { }
+
+    private final long version;
+    private final long loadedAt;
+    private final String[] ids;
+    private final String[] names;
+    private final int[] parent;
+    private final int[] depth;
+    private final int[][] children;
+    private final int[] tin;
+    private final int[] tout;
+    private final Map<String, Integer> byId;
+    private final Map<String, Integer> byName;   // 이름 중복 시 먼저 나온 노드
+    private final int maxDepth;
+    private final List<String> warnings;
+
+    private TeamHierarchy(long version, long loadedAt, String[] ids, String[] names, int[] parent,
+                          Map<String, Integer> byId, Map<String, Integer> byName, List<String> warnings) {
+        this.version = version;
+        this.loadedAt = loadedAt;
+        this.ids = ids;
+        this.names = names;
+        this.parent = parent;
+        this.byId = byId;
+        this.byName = byName;
+        this.warnings = List.copyOf(warnings);
+        int n = ids.length;
+
+        int[] childCount = new int[n];
+        for (int i = 1; i < n; i++) childCount[parent[i]]++;
+        this.children = new int[n][];
+        for (int i = 0; i < n; i++) children[i] = new int[childCount[i]];
+        int[] fill = new int[n];
+        for (int i = 1; i < n; i++) children[parent[i]][fill[parent[i]]++] = i;
+
+        // 반복 DFS (깊은 조직도에서도 스택 오버플로 없음)
+        this.depth = new int[n];
+        this.tin = new int[n];
+        this.tout = new int[n];
+        int timer = 0, deepest = 0, visited = 0;
+        ArrayDeque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[]{ROOT, 0});
+        tin[ROOT] = timer++;
+        while (!stack.isEmpty()) {
+            int[] top = stack.peek();
+            int node = top[0];
+            if (top[1] < children[node].length) {
+                int child = children[node][top[1]++];
+                depth[child] = depth[node] + 1;
+                deepest = Math.max(deepest, depth[child]);
+                tin[child] = timer++;
+                stack.push(new int[]{child, 0});
+            } else {
+                tout[node] = timer++;
+                visited++;
+                stack.pop();
+            }
+        }
+        if (visited != n) throw new IllegalArgumentException("팀 계층에 순환이 있습니다 (도달 불가 노드 " + (n - visited) + "개)");
+        this.maxDepth = deepest;
+    }
+
+    /**
+     * 파일 항목으로 계층 구성
+     * @param version 로드 순번 (집계 측에서 계층 교체 감지용)
+     */
+    public static TeamHierarchy build(List<TeamNode> nodes, long version) {
+        int n = nodes.size() + 2;
+        String[] ids = new String[n];
+        String[] names = new String[n];
+        int[] parent = new int[n];
+        Map<String, Integer> byId = new HashMap<>(n * 2);
+        Map<String, Integer> byName = new HashMap<>(n * 2);
+        List<String> warnings = new ArrayList<>();
+        ids[ROOT] = ROOT_ID;
+        names[ROOT] = ROOT_ID;
+        parent[ROOT] = -1;
+        ids[UNASSIGNED] = UNASSIGNED_ID;
+        names[UNASSIGNED] = UNASSIGNED_ID;
+        parent[UNASSIGNED] = ROOT;
+        byId.put(ROOT_ID, ROOT);
+        byId.put(UNASSIGNED_ID, UNASSIGNED);
+
+        int i = 2;
+        for (TeamNode t : nodes) {
+            if (t == null || t.id() == null || t.id().isBlank()) throw new IllegalArgumentException("팀 id 누락 (항목 " + (i - 2) + ")");
+            if (byId.putIfAbsent(t.id(), i) != null) throw new IllegalArgumentException("팀 id 중복: " + t.id());
+            ids[i] = t.id();
+            names[i] = t.name() == null || t.name().isBlank() ? t.id() : t.name();
+            byName.putIfAbsent(names[i], i);
+            i++;
+        }
+        for (int k = 2; k < n; k++) {
+            String pid = nodes.get(k - 2).parentId();
+            if (pid == null || pid.isBlank()) {
+                parent[k] = ROOT;
+                continue;
+            }
+            Integer p = byId.get(pid);
+            if (p == null || p == UNASSIGNED) {
+                warnings.add("부모 팀 없음 -> 최상위로 배치: " + ids[k] + " (parentId=" + pid + ")");
+                parent[k] = ROOT;
+            } else {
+                parent[k] = p;
+            }
+        }
+        return new TeamHierarchy(version, System.currentTimeMillis(), ids, names, parent, byId, byName, warnings);
+    }
+
+    /** 빈 계층 (파일 없음): 루트와 unassigned 만 존재 */
+    public static TeamHierarchy empty() {
+        return build(List.of(), 0);
+    }
+
+    public long version() { return version; }
+    public long loadedAt() { return loadedAt; }
+    public int size() { return ids.length; }
+    public int maxDepth() { return maxDepth; }
+    public List<String> warnings() { return warnings; }
+    public String id(int node) { return ids[node]; }
+    public String name(int node) { return names[node]; }
+    public int parent(int node) { return parent[node]; }
+    public int depth(int node) { return depth[node]; }
+    public int[] children(int node) { return children[node]; }
+
+    /** 노드 참조 해석: id 우선, 없으면 이름 (없으면 -1) */
+    public int find(String idOrName) {
+        if (idOrName == null) return -1;
+        Integer i = byId.get(idOrName);
+        if (i == null) i = byName.get(idOrName);
+        return i == null ? -1 : i;
+    }
+
+    /** 행의 팀 값 -> 노드 (매칭 실패 시 UNASSIGNED) */
+    public int resolveRowTeam(String value) {
+        if (value == null || value.isBlank()) return UNASSIGNED;
+        int i = find(value);
+        return i <= UNASSIGNED ? UNASSIGNED : i;
+    }
+
+    /** ancestor 가 node 자신이거나 조상인지 (O(1)) */
+    public boolean isWithin(int node, int ancestor) {
+        return tin[ancestor] <= tin[node] && tout[node] <= tout[ancestor];
+    }
+
+    @Override
+    public String toString() {
+        return "TeamHierarchy{version=" + version + ", nodes=" + ids.length + ", maxDepth=" + maxDepth + "}";
+    }
+}
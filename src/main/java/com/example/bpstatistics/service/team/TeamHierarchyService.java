@@ -0,0 +1,155 @@
+package com.example.bpstatistics.service.team;
+
+import com.example.bpstatistics.config.TeamHierarchyConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 팀 계층 로드 / 주기 갱신
+ * - 기동 시 1회 로드, 이후 refresh-seconds 마다 파일 수정 시각이 바뀐 경우에만 다시 읽음
+ * - 로드 실패(형식 오류 / 순환)는 기존 계층을 유지하고 오류만 기록
+ * 파일 형식: [ { "id": "site-seoul", "name": "Seoul" }, { "id": "t-100", "name": "teamA", "parentId": "site-seoul" } ]
+ *           또는 { "teams": [ ... ] }
+ */
+@Service
+public class TeamHierarchyService {
+    private static final Logger log = LoggerFactory.getLogger(TeamHierarchyService.class);
+
+    private final TeamHierarchyConfig.TeamHierarchyProps props;
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final AtomicLong versions = new AtomicLong();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "team-hierarchy-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile TeamHierarchy current = TeamHierarchy.empty();
+    private volatile long fileModifiedAt = -1;
+    private volatile String lastError;
+
+    public TeamHierarchyService(TeamHierarchyConfig.TeamHierarchyProps props, ObjectMapper objectMapper) {
+        this.props = props;
+        this.objectMapper = objectMapper;
+        this.file = Paths.get(props.getFile()).toAbsolutePath();
+        if (props.isEnabled()) refreshIfChanged();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!props.isEnabled() || props.getRefreshSeconds() <= 0) return;
+        long interval = props.getRefreshSeconds();
+        scheduler.scheduleWithFixedDelay(this::refreshIfChanged, interval, interval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public TeamHierarchy current() { return current; }
+
+    /** 수정 시각과 무관하게 다시 읽기 (관리 API). 실패 시 IllegalStateException, 기존 계층 유지 */
+    public synchronized TeamHierarchy reload() {
+        if (!Files.isRegularFile(file)) throw new IllegalStateException("팀 계층 파일이 없습니다: " + file);
+        try {
+            return load();
+        } catch (IOException | IllegalArgumentException e) {
+            lastError = e.getMessage();
+            throw new IllegalStateException("팀 계층 로드 실패: " + e.getMessage(), e);
+        }
+    }
+
+    public Map<String, Object> status() {
+        TeamHierarchy h = current;
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", props.isEnabled());
+        m.put("file", file.toString());
+        m.put("version", h.version());
+        m.put("loadedAt", h.version() == 0 ? null : Instant.ofEpochMilli(h.loadedAt()));
+        m.put("nodes", h.size() - 2);
+        m.put("maxDepth", h.maxDepth());
+        m.put("warnings", h.warnings());
+        m.put("lastError", lastError);
+        return m;
+    }
+
+    /** 노드 목록 (id, name, parentId, depth) - 클라이언트 트리 구성용 */
+    public List<Map<String, Object>> nodes() {
+        TeamHierarchy h = current;
+        List<Map<String, Object>> out = new ArrayList<>(h.size());
+        for (int i = 0; i < h.size(); i++) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("id", h.id(i));
+            m.put("name", h.name(i));
+            m.put("parentId", h.parent(i) < 0 ? null : h.id(h.parent(i)));
+            m.put("depth", h.depth(i));
+            out.add(m);
+        }
+        return out;
+    }
+
+    private synchronized void refreshIfChanged() {
+        try {
+            if (!Files.isRegularFile(file)) {
+                // 파일이 사라져도 마지막으로 읽은 계층 유지
+                log.debug("팀 계층 파일 없음: {}", file);
+                return;
+            }
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            if (modified == fileModifiedAt) return;
+            load();
+        } catch (IOException | IllegalArgumentException e) {
+            lastError = e.getMessage();
+            log.error("팀 계층 로드 실패 - 기존 계층 유지 file={}: {}", file, e.getMessage());
+        } catch (RuntimeException e) {
+            // 스케줄러 스레드가 종료되지 않도록 방어
+            lastError = e.getMessage();
+            log.error("팀 계층 갱신 중 오류", e);
+        }
+    }
+
+    private TeamHierarchy load() throws IOException {
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        JsonNode root = objectMapper.readTree(file.toFile());
+        JsonNode teams = root.isArray() ? root : root.path("teams");
+        if (!teams.isArray()) throw new IllegalArgumentException("팀 계층 JSON 은 배열 또는 { \"teams\": [...] } 이어야 합니다.");
+        List<TeamHierarchy.TeamNode> nodes = new ArrayList<>(teams.size());
+        for (JsonNode t : teams) {
+            nodes.add(new TeamHierarchy.TeamNode(text(t, "id"), text(t, "name"), text(t, "parentId")));
+        }
+        TeamHierarchy h = TeamHierarchy.build(nodes, versions.incrementAndGet());
+        current = h;
+        fileModifiedAt = modified;
+        lastError = null;
+        for (String w : h.warnings()) log.warn("팀 계층: {}", w);
+        log.info("팀 계층 로드 완료 version={} nodes={} maxDepth={}", h.version(), h.size() - 2, h.maxDepth());
+        return h;
+    }
+
+    private static String text(JsonNode n, String field) {
+        JsonNode v = n.get(field);
+        return v == null || v.isNull() ? null : v.asText();
+    }
+}
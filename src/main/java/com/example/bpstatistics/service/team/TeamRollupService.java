@@ -0,0 +1,344 @@
+package com.example.bpstatistics.service.team;
+
+import com.example.bpstatistics.config.TeamHierarchyConfig;
+import com.example.bpstatistics.service.ActiveSubscriptionStore;
+import com.example.bpstatistics.service.snapshot.GridDefinitionRegistry;
+import com.example.bpstatistics.service.snapshot.GridDelta;
+import com.example.bpstatistics.service.snapshot.GridSnapshot;
+import com.example.bpstatistics.service.snapshot.SnapshotDelta;
+import com.example.bpstatistics.service.snapshot.SnapshotListener;
+import com.example.bpstatistics.service.snapshot.StatsSnapshot;
+import com.example.bpstatistics.web.dto.TeamRollup;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 팀 계층 노드별 하위 트리 집계 증분 유지 (SnapshotListener)
+ * - 노드마다 (인원, metric 합계, 값 있는 인원, 상태별 인원) 을 보관하고, 행이 바뀌면 해당 행의 팀 노드부터 루트까지
+ *   경로만 이전 기여분 차감 / 새 기여분 가산 -> 갱신 비용 O(변경 행 x 깊이), 조회는 노드 값 그대로 O(1)
+ * - 전체 재계산: 최초 / 계층 교체 / 구독 범위 변경 / 컬럼 구성 변경 / rebuild-every-snapshots 주기 (부동소수 오차 누적 방지)
+ * - 범위: grid 구독의 team_ids 가 비어 있으면 전체, my_subteam_only=false 면 지정 팀과 그 하위 팀,
+ *   my_subteam_only=true 면 지정 팀 소속만 (하위 팀 소속은 제외). 범위 밖 행은 집계하지 않고 outOfScope 로만 셉니다.
+ */
+@Service
+public class TeamRollupService implements SnapshotListener {
+    private static final Logger log = LoggerFactory.getLogger(TeamRollupService.class);
+
+    private record Scope(List<String> teamIds, boolean mySubteamOnly) {
+        static final Scope ALL = new Scope(List.of(), false);
+    }
+
+    // 행 1개의 현재 기여분 (node < 0 이면 범위 밖)
+    private record Contribution(int node, double[] values, String state) {
+        boolean sameAs(int otherNode, double[] otherValues, String otherState) {
+            return node == otherNode && Arrays.equals(values, otherValues) && Objects.equals(state, otherState);
+        }
+    }
+
+    private final TeamHierarchyConfig.TeamHierarchyProps props;
+    private final TeamHierarchyService hierarchyService;
+    private final GridDefinitionRegistry gridDefinitions;
+    private final ActiveSubscriptionStore activeSubscriptions;
+    private final ObjectMapper objectMapper;
+    private final Map<String, GridRollup> grids = new ConcurrentHashMap<>();
+
+    // 파이프라인 스레드 전용
+    private String scopeFingerprint;
+    private Map<String, Scope> scopes = Map.of();
+
+    private volatile long lastRowsApplied;
+    private volatile long lastApplyMicros;
+    private volatile long fullRebuilds;
+
+    public TeamRollupService(TeamHierarchyConfig.TeamHierarchyProps props, TeamHierarchyService hierarchyService,
+                             GridDefinitionRegistry gridDefinitions, ActiveSubscriptionStore activeSubscriptions,
+                             ObjectMapper objectMapper) {
+        this.props = props;
+        this.hierarchyService = hierarchyService;
+        this.gridDefinitions = gridDefinitions;
+        this.activeSubscriptions = activeSubscriptions;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void onSnapshot(StatsSnapshot snapshot, SnapshotDelta delta) {
+        for (String gridId : delta.removedGrids()) grids.remove(gridId);
+        if (!props.isEnabled()) return;
+        long t0 = System.nanoTime();
+        refreshScopes();
+        TeamHierarchy h = hierarchyService.current();
+        long rows = 0;
+        for (GridSnapshot g : snapshot.grids().values()) {
+            GridRollup r = grids.computeIfAbsent(g.gridId(), GridRollup::new);
+            rows += r.apply(snapshot, g, delta.grid(g.gridId()), h, scopes.getOrDefault(g.gridId(), Scope.ALL));
+        }
+        lastRowsApplied = rows;
+        lastApplyMicros = (System.nanoTime() - t0) / 1000;
+    }
+
+    @Override
+    public void onReset() {
+        grids.clear();
+    }
+
+    /**
+     * 노드 하위 트리 집계
+     * @param node     팀 id 또는 이름 (null 이면 전체 루트)
+     * @param children 직계 하위 노드 집계 포함 여부
+     */
+    public TeamRollup rollup(String gridId, String node, boolean children) {
+        GridRollup r = grids.get(gridId);
+        if (r == null) throw new IllegalArgumentException("집계 중인 grid 가 없습니다: " + gridId);
+        return r.query(node, children);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", props.isEnabled());
+        m.put("grids", grids.size());
+        m.put("lastRowsApplied", lastRowsApplied);
+        m.put("lastApplyMicros", lastApplyMicros);
+        m.put("fullRebuilds", fullRebuilds);
+        Map<String, Object> scopeView = new LinkedHashMap<>();
+        grids.forEach((id, r) -> scopeView.put(id, r.scopeSummary()));
+        m.put("scopes", scopeView);
+        return m;
+    }
+
+    // 활성 구독 본문에서 grid 별 team_ids / my_subteam_only 추출 (구독 목록이 바뀐 경우에만 다시 파싱)
+    private void refreshScopes() {
+        List<ActiveSubscriptionStore.Entry> entries = activeSubscriptions.list();
+        StringBuilder fp = new StringBuilder();
+        for (ActiveSubscriptionStore.Entry e : entries) fp.append(e.id()).append('|').append(e.createdAt()).append(';');
+        String fingerprint = fp.toString();
+        if (fingerprint.equals(scopeFingerprint)) return;
+        Map<String, Scope> next = new HashMap<>();
+        for (ActiveSubscriptionStore.Entry e : entries) {
+            try {
+                collectScopes(objectMapper.readTree(e.body()), next);
+            } catch (IOException ex) {
+                log.debug("구독 본문 파싱 실패 - 범위 미적용 id={}: {}", e.id(), ex.getMessage());
+            }
+        }
+        scopes = Map.copyOf(next);
+        scopeFingerprint = fingerprint;
+    }
+
+    // 루트 agent_grids(DTO 형태) 또는 "1".agent_grids(업스트림 형태)
+    private static void collectScopes(JsonNode root, Map<String, Scope> out) {
+        List<JsonNode> gridArrays = new ArrayList<>();
+        if (root.path("agent_grids").isArray()) gridArrays.add(root.get("agent_grids"));
+        root.fields().forEachRemaining(f -> {
+            if (f.getValue().path("agent_grids").isArray()) gridArrays.add(f.getValue().get("agent_grids"));
+        });
+        for (JsonNode arr : gridArrays) {
+            for (JsonNode g : arr) {
+                String id = g.path("id").asText(null);
+                if (id == null) continue;
+                List<String> teamIds = new ArrayList<>();
+                for (JsonNode t : g.path("team_ids")) {
+                    if (t.isTextual() && !t.asText().isBlank()) teamIds.add(t.asText());
+                }
+                out.put(id, new Scope(List.copyOf(teamIds), g.path("my_subteam_only").asBoolean(false)));
+            }
+        }
+    }
+
+    /** grid 1개의 노드별 집계 (쓰기: 파이프라인 스레드, 읽기: API 스레드 -> this 모니터) */
+    private final class GridRollup {
+        final String gridId;
+        TeamHierarchy hierarchy;
+        Scope scope;
+        long registryVersion = -1;
+        long sinceRebuild;
+        long sequence;
+        long capturedAt;
+
+        boolean[] inScope;            // 노드 -> 범위 포함 여부 (행의 팀 노드 기준)
+        int teamCol = -1;
+        int stateCol = -1;
+        String[] metricNames = new String[0];
+        int[] metricCols = new int[0];
+        double[] scratch = new double[0];
+
+        int[] agents;                 // [node] 하위 트리 인원
+        double[][] sums;              // [metric][node]
+        int[][] valued;               // [metric][node] 숫자 값이 있는 인원 (평균 분모)
+        Map<String, Integer>[] states; // [node] 상태 -> 인원 (지연 생성)
+        final Map<String, Contribution> rows = new HashMap<>();
+        int outOfScope;
+
+        GridRollup(String gridId) { this.gridId = gridId; }
+
+        synchronized int apply(StatsSnapshot snapshot, GridSnapshot g, GridDelta d, TeamHierarchy h, Scope s) {
+            sequence = snapshot.sequence();
+            capturedAt = snapshot.capturedAtMillis();
+            boolean rebuildDue = props.getRebuildEverySnapshots() > 0 && ++sinceRebuild >= props.getRebuildEverySnapshots();
+            boolean full = d == null || d.fullRefresh() || hierarchy != h || !s.equals(scope)
+                    || registryVersion != gridDefinitions.version() || rebuildDue;
+            if (full) {
+                rebuild(g, h, s);
+                return g.rowCount();
+            }
+            for (String key : d.removedKeys()) {
+                Contribution prev = rows.remove(key);
+                if (prev != null) retract(prev);
+            }
+            int[] changed = d.changedRows();
+            for (int r : changed) update(g, r);
+            return changed.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void rebuild(GridSnapshot g, TeamHierarchy h, Scope s) {
+            hierarchy = h;
+            scope = s;
+            registryVersion = gridDefinitions.version();
+            sinceRebuild = 0;
+            fullRebuilds++;
+
+            teamCol = columnOf(g, props.getTeamStat());
+            stateCol = columnOf(g, props.getStateStat());
+            List<String> names = new ArrayList<>();
+            List<Integer> cols = new ArrayList<>();
+            for (String metric : props.getMetrics()) {
+                int c = columnOf(g, metric);
+                if (c < 0) continue;
+                names.add(metric);
+                cols.add(c);
+            }
+            metricNames = names.toArray(new String[0]);
+            metricCols = cols.stream().mapToInt(Integer::intValue).toArray();
+            scratch = new double[metricCols.length];
+            if (teamCol < 0) log.warn("팀 계층 집계: 팀 컬럼 없음 - 전체를 unassigned 로 집계 grid={} teamStat={}", gridId, props.getTeamStat());
+
+            int n = h.size();
+            inScope = scopeOf(h, s);
+            agents = new int[n];
+            sums = new double[metricCols.length][n];
+            valued = new int[metricCols.length][n];
+            states = new Map[n];
+            rows.clear();
+            outOfScope = 0;
+            for (int r = 0; r < g.rowCount(); r++) update(g, r);
+        }
+
+        // 행 노드 기준 범위 (team_ids 미지정 = 전체, 지정 팀을 못 찾으면 그 팀은 무시)
+        private boolean[] scopeOf(TeamHierarchy h, Scope s) {
+            boolean[] in = new boolean[h.size()];
+            if (s.teamIds().isEmpty()) {
+                Arrays.fill(in, true);
+                return in;
+            }
+            List<Integer> roots = new ArrayList<>();
+            for (String id : s.teamIds()) {
+                int node = h.find(id);
+                if (node > TeamHierarchy.UNASSIGNED) roots.add(node);
+            }
+            for (int node = 0; node < in.length; node++) {
+                for (int root : roots) {
+                    if (s.mySubteamOnly() ? node == root : h.isWithin(node, root)) {
+                        in[node] = true;
+                        break;
+                    }
+                }
+            }
+            return in;
+        }
+
+        private int columnOf(GridSnapshot g, String stat) {
+            if (stat == null || stat.isBlank()) return -1;
+            return g.columnIndex(gridDefinitions.resolveColumnId(g.gridId(), stat));
+        }
+
+        private void update(GridSnapshot g, int row) {
+            String key = g.rowKey(row);
+            int node = hierarchy.resolveRowTeam(teamCol < 0 ? null : g.cell(row, teamCol));
+            if (!inScope[node]) node = -1;
+            for (int m = 0; m < metricCols.length; m++) scratch[m] = g.numeric(row, metricCols[m]);
+            String state = node < 0 || stateCol < 0 ? null : g.cell(row, stateCol);
+            Contribution prev = rows.get(key);
+            if (prev != null && prev.sameAs(node, scratch, state)) return;
+            if (prev != null) retract(prev);
+            Contribution next = new Contribution(node, scratch.clone(), state);
+            rows.put(key, next);
+            add(next, 1);
+        }
+
+        private void retract(Contribution c) {
+            add(c, -1);
+        }
+
+        // 행의 팀 노드 ~ 루트 경로 전체에 반영
+        private void add(Contribution c, int sign) {
+            if (c.node() < 0) {
+                outOfScope += sign;
+                return;
+            }
+            for (int n = c.node(); n >= 0; n = hierarchy.parent(n)) {
+                agents[n] += sign;
+                for (int m = 0; m < metricCols.length; m++) {
+                    double v = c.values()[m];
+                    if (Double.isNaN(v)) continue;
+                    sums[m][n] += sign * v;
+                    valued[m][n] += sign;
+                }
+                if (c.state() != null) {
+                    if (states[n] == null) states[n] = new HashMap<>();
+                    states[n].merge(c.state(), sign, (a, b) -> a + b == 0 ? null : a + b);
+                }
+            }
+        }
+
+        synchronized TeamRollup query(String nodeRef, boolean withChildren) {
+            if (hierarchy == null) throw new IllegalArgumentException("아직 집계되지 않은 grid 입니다: " + gridId);
+            int node = nodeRef == null || nodeRef.isBlank() ? TeamHierarchy.ROOT : hierarchy.find(nodeRef);
+            if (node < 0) throw new IllegalArgumentException("팀 계층에 없는 노드입니다: " + nodeRef);
+            List<TeamRollup.Node> children = null;
+            if (withChildren) {
+                int[] kids = hierarchy.children(node);
+                children = new ArrayList<>(kids.length);
+                for (int k : kids) children.add(view(k));
+            }
+            return new TeamRollup(gridId, sequence, Instant.ofEpochMilli(capturedAt), hierarchy.version(),
+                    new TeamRollup.Scope(scope.teamIds(), scope.mySubteamOnly()), outOfScope, view(node), children);
+        }
+
+        synchronized Map<String, Object> scopeSummary() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("teamIds", scope == null ? List.of() : scope.teamIds());
+            m.put("mySubteamOnly", scope != null && scope.mySubteamOnly());
+            m.put("metrics", List.of(metricNames));
+            m.put("trackedRows", rows.size());
+            m.put("outOfScope", outOfScope);
+            return m;
+        }
+
+        private TeamRollup.Node view(int n) {
+            Map<String, Double> s = new LinkedHashMap<>();
+            Map<String, Double> avg = new LinkedHashMap<>();
+            for (int m = 0; m < metricNames.length; m++) {
+                boolean any = valued[m][n] > 0;
+                s.put(metricNames[m], any ? sums[m][n] : null);
+                avg.put(metricNames[m], any ? sums[m][n] / valued[m][n] : null);
+            }
+            int p = hierarchy.parent(n);
+            return new TeamRollup.Node(hierarchy.id(n), hierarchy.name(n), p < 0 ? null : hierarchy.id(p),
+                    hierarchy.depth(n), agents[n], s, avg, states[n] == null ? Map.of() : Map.copyOf(states[n]));
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.bpstatistics.service.tuning;
+
+import com.example.bpstatistics.config.ClusterConfig;
+import com.example.bpstatistics.config.ReactiveHttpClientConfig;
+import com.example.bpstatistics.config.SubscriptionSupervisorConfig;
+import com.example.bpstatistics.config.TuningConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 실행 중 변경 가능한 HTTP 클라이언트 / 재시도 / 폴링 설정 (버전 단위 원자적 교체)
+ * - 현재 설정은 불변 Revision 1개를 AtomicReference 로 교체. 호출은 시작 시점의 Revision 을 끝까지 사용하므로
+ *   진행 중인 요청(재시도 포함)은 이전 설정, 새 요청부터 새 설정이 적용됩니다. WebClient 재생성 없음.
+ * - 적용 지점: 동시 호출 상한/허가 대기(AdaptiveConcurrencyLimiter), 요청별 responseTimeout(WebClient 필터),
+ *   read/write timeout(새 연결부터), 호출 종류별 timeout·재시도, 클러스터 폴링 주기, 구독 상태 확인 주기
+ * - 변경은 검증 -> expectedVersion 비교(낙관적 잠금) -> 교체 -> 감사 로그(변경자/사유/차이) 순서
+ * - admin-token 이 설정되지 않으면 변경 API 는 모두 거부 (fail closed), 토큰 비교는 상수 시간
+ * 커넥션 풀 자체는 실행 중 크기 변경이 안 되므로 maxConnections 는 maxConnectionsCeiling 이하에서만 조정합니다.
+ */
+@Service
+public class RuntimeTuning {
+    private static final Logger log = LoggerFactory.getLogger(RuntimeTuning.class);
+
+    public record Http(int maxConnections, long pendingAcquireTimeoutMs, long responseTimeoutMs,
+                       int readTimeoutSeconds, int writeTimeoutSeconds) { }
+
+    public record CallPolicy(long timeoutMs, int maxRetries, long backoffMs) {
+        public Duration timeout() { return Duration.ofMillis(timeoutMs); }
+        public Duration backoff() { return Duration.ofMillis(backoffMs); }
+    }
+
+    public record Poll(long clusterPollIntervalMs, int supervisorVerifyIntervalSeconds) { }
+
+    public record Settings(Http http, Map<String, CallPolicy> calls, Poll poll) {
+        public Settings {
+            calls = calls == null ? null : Collections.unmodifiableMap(new LinkedHashMap<>(calls));
+        }
+    }
+
+    /**
+     * 적용된 설정 1건 (version 은 1부터 증가, 1 = 기동 시 설정)
+     * actor = 요청 원격 주소, claimedActor = X-Admin-User 헤더 값 (검증되지 않음)
+     */
+    public record Revision(long version, Instant appliedAt, String actor, String claimedActor, String reason,
+                           Settings settings, Map<String, Object> changes) { }
+
+    /** expectedVersion 불일치 (다른 변경이 먼저 적용됨) */
+    public static class VersionConflictException extends IllegalStateException {
+        public VersionConflictException(String message) { super(message); }
+    }
+
+    private final TuningConfig.TuningProps props;
+    private final int connectionCeiling;
+    private final ObjectMapper objectMapper;
+    private final AtomicReference<Revision> current = new AtomicReference<>();
+    private final ArrayDeque<Revision> history = new ArrayDeque<>();   // this 모니터로 보호, 최신이 앞
+
+    public RuntimeTuning(TuningConfig.TuningProps props, ReactiveHttpClientConfig.HttpProps httpProps,
+                         ClusterConfig.ClusterProps clusterProps, SubscriptionSupervisorConfig.SupervisorProps supervisorProps,
+                         ObjectMapper objectMapper) {
+        this.props = props;
+        this.connectionCeiling = httpProps.getPoolSize();
+        this.objectMapper = objectMapper;
+        Map<String, CallPolicy> calls = new LinkedHashMap<>();
+        props.getCalls().forEach((k, c) -> calls.put(k, new CallPolicy(c.getTimeoutMs(), c.getMaxRetries(), c.getBackoffMs())));
+        Settings initial = new Settings(
+                new Http(httpProps.getMaxConnections(), httpProps.getPendingAcquireTimeoutMs(),
+                        httpProps.getResponseTimeoutSeconds() * 1000L,
+                        httpProps.getReadTimeoutSeconds(), httpProps.getWriteTimeoutSeconds()),
+                calls,
+                new Poll(clusterProps.getPollIntervalMs(), supervisorProps.getVerifyIntervalSeconds()));
+        List<String> errors = validate(initial);
+        if (!errors.isEmpty()) throw new IllegalStateException("app.http / app.tuning 기본값 오류: " + String.join(", ", errors));
+        current.set(new Revision(1, Instant.now(), "startup", null, "기동 설정", initial, Map.of()));
+        if (!writesEnabled()) log.warn("app.tuning.admin-token 미설정 - 실행 중 설정 변경 API 비활성 (조회만 가능)");
+    }
+
+    public Revision current() { return current.get(); }
+
+    public Settings settings() { return current.get().settings(); }
+
+    /** 호출 종류별 정책 (등록되지 않은 종류는 data 조회 정책) */
+    public CallPolicy call(String endpoint) {
+        Map<String, CallPolicy> calls = settings().calls();
+        CallPolicy p = calls.get(endpoint);
+        return p != null ? p : calls.get("subscription-data");
+    }
+
+    /** admin-token 이 설정된 경우에만 변경 허용 */
+    public boolean writesEnabled() {
+        String expected = props.getAdminToken();
+        return expected != null && !expected.isBlank();
+    }
+
+    // 변경 전: return expected == null || expected.isBlank() || expected.equals(token);
+    // 변경 후: 토큰 미설정이면 거부, 비교는 MessageDigest.isEqual (길이 외 정보 노출 없음)
+    public boolean checkAdminToken(String token) {
+        if (!writesEnabled() || token == null) return false;
+        return MessageDigest.isEqual(props.getAdminToken().getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 부분 변경 적용: 현재 설정 JSON 에 patch 를 깊게 병합 -> 검증 -> expectedVersion 이 현재와 같을 때만 교체
+     */
+    public Revision apply(JsonNode patch, Long expectedVersion, String actor, String claimedActor, String reason) {
+        if (patch == null || !patch.isObject() || patch.isEmpty()) throw new IllegalArgumentException("변경 내용(JSON 객체)이 비어 있습니다.");
+        Revision base = current.get();
+        ObjectNode merged = objectMapper.valueToTree(base.settings());
+        merge(merged, patch);
+        Settings next;
+        try {
+            next = objectMapper.readerFor(Settings.class)
+                    .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)
+                    .readValue(merged);
+        } catch (IOException e) {
+            String msg = e instanceof JsonProcessingException jpe ? jpe.getOriginalMessage() : e.getMessage();
+            throw new IllegalArgumentException("설정 형식 오류: " + msg);
+        }
+        return swap(base, next, expectedVersion, actor, claimedActor, reason);
+    }
+
+    /** 이전 버전 설정으로 되돌리기 (새 버전으로 기록) */
+    public Revision rollback(long version, Long expectedVersion, String actor, String claimedActor, String reason) {
+        Revision target = find(version);
+        if (target == null) throw new IllegalArgumentException("보관 중인 버전이 아닙니다: " + version);
+        return swap(current.get(), target.settings(), expectedVersion,
+                actor, claimedActor, reason == null || reason.isBlank() ? "rollback to v" + version : reason);
+    }
+
+    private synchronized Revision swap(Revision base, Settings next, Long expectedVersion, String actor, String claimedActor,
+                                       String reason) {
+        if (expectedVersion != null && expectedVersion != base.version()) {
+            throw new VersionConflictException("현재 버전 " + base.version() + " (요청 기준 " + expectedVersion + ")");
+        }
+        List<String> errors = validate(next);
+        if (!errors.isEmpty()) throw new IllegalArgumentException("설정 검증 실패: " + String.join(", ", errors));
+        Map<String, Object> changes = diff(objectMapper.valueToTree(base.settings()), objectMapper.valueToTree(next), "", new LinkedHashMap<>());
+        if (changes.isEmpty()) throw new IllegalArgumentException("변경된 값이 없습니다.");
+        Revision applied = new Revision(base.version() + 1, Instant.now(), actor, claimedActor, reason, next, changes);
+        if (!current.compareAndSet(base, applied)) {
+            throw new VersionConflictException("동시에 다른 변경이 적용되었습니다 (현재 버전 " + current.get().version() + ")");
+        }
+        history.addFirst(base);
+        while (history.size() > Math.max(1, props.getHistorySize())) history.removeLast();
+        log.warn("[AUDIT] 실행 중 설정 변경 v{} -> v{} actor={} claimed={} reason={} changes={}",
+                base.version(), applied.version(), actor, claimedActor, reason, changes);
+        return applied;
+    }
+
+    private synchronized Revision find(long version) {
+        Revision cur = current.get();
+        if (cur.version() == version) return cur;
+        for (Revision r : history) if (r.version() == version) return r;
+        return null;
+    }
+
+    /** 현재 + 이전 버전 (최신 순) */
+    public synchronized List<Revision> history() {
+        List<Revision> out = new ArrayList<>(history.size() + 1);
+        out.add(current.get());
+        out.addAll(history);
+        return out;
+    }
+
+    private List<String> validate(Settings s) {
+        List<String> errors = new ArrayList<>();
+        if (s.http() == null || s.calls() == null || s.poll() == null) {
+            errors.add("http / calls / poll 은 필수입니다");
+            return errors;
+        }
+        Http h = s.http();
+        range(errors, "http.maxConnections", h.maxConnections(), 1, connectionCeiling);
+        range(errors, "http.pendingAcquireTimeoutMs", h.pendingAcquireTimeoutMs(), 1, 60_000);
+        range(errors, "http.responseTimeoutMs", h.responseTimeoutMs(), 100, 120_000);
+        range(errors, "http.readTimeoutSeconds", h.readTimeoutSeconds(), 1, 300);
+        range(errors, "http.writeTimeoutSeconds", h.writeTimeoutSeconds(), 1, 300);
+        for (String key : props.getCalls().keySet()) {
+            if (!s.calls().containsKey(key)) errors.add("calls." + key + " 누락");
+        }
+        s.calls().forEach((k, c) -> {
+            if (!props.getCalls().containsKey(k)) {
+                errors.add("calls." + k + " 알 수 없는 호출 종류");
+                return;
+            }
+            if (c == null) {
+                errors.add("calls." + k + " 값 없음");
+                return;
+            }
+            range(errors, "calls." + k + ".timeoutMs", c.timeoutMs(), 100, 120_000);
+            range(errors, "calls." + k + ".maxRetries", c.maxRetries(), 0, 5);
+            range(errors, "calls." + k + ".backoffMs", c.backoffMs(), 10, 10_000);
+        });
+        range(errors, "poll.clusterPollIntervalMs", s.poll().clusterPollIntervalMs(), 200, 60_000);
+        range(errors, "poll.supervisorVerifyIntervalSeconds", s.poll().supervisorVerifyIntervalSeconds(), 10, 86_400);
+        return errors;
+    }
+
+    private static void range(List<String> errors, String name, long v, long min, long max) {
+        if (v < min || v > max) errors.add(name + "=" + v + " (허용 " + min + "~" + max + ")");
+    }
+
+    // 객체는 필드 단위로 재귀 병합, 그 외(숫자/문자/배열)는 교체. 알 수 없는 최상위/중첩 필드는 역직렬화에서 거부
+    private static void merge(ObjectNode target, JsonNode patch) {
+        Iterator<Map.Entry<String, JsonNode>> it = patch.fields();
+        while (it.hasNext()) {
+            Map.Entry<String, JsonNode> e = it.next();
+            JsonNode existing = target.get(e.getKey());
+            if (existing instanceof ObjectNode obj && e.getValue().isObject()) {
+                merge(obj, e.getValue());
+            } else {
+                target.set(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    private static Map<String, Object> diff(JsonNode before, JsonNode after, String path, Map<String, Object> out) {
+        if (before != null && after != null && before.isObject() && after.isObject()) {
+            Set<String> names = new LinkedHashSet<>();
+            before.fieldNames().forEachRemaining(names::add);
+            after.fieldNames().forEachRemaining(names::add);
+            for (String n : names) diff(before.get(n), after.get(n), path + n + ".", out);
+            return out;
+        }
+        if (before == null ? after != null : !before.equals(after)) {
+            String key = path.endsWith(".") ? path.substring(0, path.length() - 1) : path;
+            out.put(key, Map.of("from", String.valueOf(before), "to", String.valueOf(after)));
+        }
+        return out;
+    }
+
+    /** WebClient.Builder 에 등록: 요청 시작 시점 설정의 responseTimeout 을 요청 단위로 적용 */
+    public ExchangeFilterFunction responseTimeoutFilter() {
+        return (request, next) -> {
+            Duration timeout = Duration.ofMillis(settings().http().responseTimeoutMs());
+            return next.exchange(ClientRequest.from(request)
+                    .httpRequest(req -> {
+                        Object nativeRequest = req.getNativeRequest();
+                        if (nativeRequest instanceof HttpClientRequest r) r.responseTimeout(timeout);
+                    })
+                    .build());
+        };
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.bpstatistics.service.warmup;
+
+import com.example.bpstatistics.config.WarmupConfig;
+import com.example.bpstatistics.service.ActiveSubscriptionStore;
+import com.example.bpstatistics.service.BrightPatternAuthService;
+import com.example.bpstatistics.service.BrightPatternSubscriptionService;
+import com.example.bpstatistics.service.OAuthTokenService;
+import com.example.bpstatistics.service.SubscriptionBodyValidator;
+import com.example.bpstatistics.service.cluster.ClusterLeaseService;
+import com.example.bpstatistics.service.journal.JournalCursor;
+import com.example.bpstatistics.service.journal.JournalRecord;
+import com.example.bpstatistics.service.journal.StatsJournal;
+import com.example.bpstatistics.service.snapshot.GridSnapshot;
+import com.example.bpstatistics.service.snapshot.SnapshotParser;
+import com.example.bpstatistics.service.snapshot.StatsSnapshot;
+import com.example.bpstatistics.web.dto.BrightPatternSubscriptionResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * 기동 warm-up (readiness 전환 전 순차 실행)
+ * 0) warm restart 상태 파일 적용 (직전 스냅샷 즉시 제공, 유효한 세션/구독 이어서 사용)
+ * 1) OAuth 토큰 + BrightPattern 세션 확보
+ * 2) bp-fixed 풀에 N개 연결 선점 (TLS 핸드셰이크 선지불)
+ * 3) 저널의 실제 getData() 원문(없으면 예시)으로 파싱/숫자 변환/구독 검증 경로 JIT 예열
+ * 4) 직전 실행의 활성 구독 복원
+ * ApplicationRunner 는 ApplicationReadyEvent(= ReadinessState.ACCEPTING_TRAFFIC) 이전에 실행되므로,
+ * 이 단계가 끝나야 /actuator/health/readiness 가 UP 이 됩니다. 각 단계 실패는 기록만 하고 기동은 계속합니다.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class StartupWarmup implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+    private static final int SAMPLE_PAYLOADS = 5;
+
+    /** 단계별 결과 (진단용) */
+    public record StepResult(String step, String status, long millis, String detail) { }
+
+    private final WarmupConfig.WarmupProps props;
+    private final ApplicationEventPublisher publisher;
+    private final OAuthTokenService oAuthTokenService;
+    private final BrightPatternAuthService authService;
+    private final BrightPatternSubscriptionService subscriptionService;
+    private final SubscriptionBodyValidator bodyValidator;
+    private final SnapshotParser snapshotParser;
+    private final StatsJournal journal;
+    private final ActiveSubscriptionStore activeSubscriptions;
+    private final ClusterLeaseService lease;
+    private final WebClient webClient;
+    private final WarmStateStore warmState;
+    private final List<StepResult> results = new CopyOnWriteArrayList<>();
+    private volatile String state = "PENDING";
+
+    @Value("${brightpattern.auth.url}")
+    private String authUrl;
+
+    public StartupWarmup(WarmupConfig.WarmupProps props, ApplicationEventPublisher publisher,
+                         OAuthTokenService oAuthTokenService, BrightPatternAuthService authService,
+                         BrightPatternSubscriptionService subscriptionService, SubscriptionBodyValidator bodyValidator,
+                         SnapshotParser snapshotParser, StatsJournal journal, ActiveSubscriptionStore activeSubscriptions,
+                         ClusterLeaseService lease, WebClient.Builder webClientBuilder, WarmStateStore warmState) {
+        this.props = props;
+        this.publisher = publisher;
+        this.oAuthTokenService = oAuthTokenService;
+        this.authService = authService;
+        this.subscriptionService = subscriptionService;
+        this.bodyValidator = bodyValidator;
+        this.snapshotParser = snapshotParser;
+        this.journal = journal;
+        this.activeSubscriptions = activeSubscriptions;
+        this.lease = lease;
+        this.webClient = webClientBuilder.build();
+        this.warmState = warmState;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!props.isEnabled()) {
+            state = "DISABLED";
+            return;
+        }
+        state = "RUNNING";
+        AvailabilityChangeEvent.publish(publisher, this, ReadinessState.REFUSING_TRAFFIC);
+        long started = System.nanoTime();
+        long deadline = started + Duration.ofSeconds(props.getTimeoutSeconds()).toNanos();
+        // 변경 전: boolean upstream = lease.isLeader(); - 첫 heartbeat 전이라 리더 노드도 팔로워로 판단
+        // 변경 후: 첫 heartbeat 완료까지(warm-up 예산 내) 기다린 뒤 판단, 시간 초과면 팔로워로 진행
+        step("lease", deadline, lease.isEnabled(), () -> {
+            if (!lease.awaitFirstHeartbeat(remaining(deadline))) throw new IllegalStateException("첫 lease heartbeat 대기 시간 초과");
+            return "leader=" + lease.isLeader();
+        });
+        // 팔로워(클러스터 모드)는 업스트림을 호출하지 않으므로 인증/연결/복원 생략
+        boolean upstream = lease.isLeader();
+
+        step("warm-state", deadline, warmState.isEnabled(), () -> warmState.restore(upstream));
+        // 변경 전: 항상 토큰 발급 + authenticate() 호출
+        // 변경 후: 복원된 토큰/세션이 유효하면 그대로 사용 (재기동 직후 업스트림 인증 호출 몰림 방지)
+        step("token-session", deadline, upstream, () -> {
+            // 변경 전: oAuthTokenService.getValidToken(); (대기 상한 없음)
+            oAuthTokenService.getValidToken(remaining(deadline));
+            if (warmState.isSessionResumed() && authService.isAuthenticated()) return "session=resumed";
+            authService.authenticate().block(remaining(deadline));
+            return "session=" + (authService.isAuthenticated() ? "ok" : "missing");
+        });
+        step("pre-connect", deadline, upstream, () -> preConnect(deadline));
+        step("jit-warm", deadline, true, this::jitWarm);
+        step("restore-subscriptions", deadline, upstream && props.isRestoreSubscriptions(), () -> restoreSubscriptions(deadline));
+
+        state = "DONE";
+        log.info("warm-up 완료 {}ms steps={}", (System.nanoTime() - started) / 1_000_000, results);
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("state", state);
+        m.put("steps", List.copyOf(results));
+        m.put("warmState", warmState.stats());
+        return m;
+    }
+
+    private void step(String name, long deadline, boolean enabled, Supplier<String> action) {
+        if (!enabled) {
+            results.add(new StepResult(name, "SKIPPED", 0, null));
+            return;
+        }
+        if (System.nanoTime() >= deadline) {
+            results.add(new StepResult(name, "TIMEOUT", 0, "warm-up 예산 초과"));
+            log.warn("warm-up 예산 초과 - 단계 생략 step={}", name);
+            return;
+        }
+        long t0 = System.nanoTime();
+        try {
+            String detail = action.get();
+            results.add(new StepResult(name, "OK", (System.nanoTime() - t0) / 1_000_000, detail));
+        } catch (RuntimeException e) {
+            results.add(new StepResult(name, "FAILED", (System.nanoTime() - t0) / 1_000_000, e.getMessage()));
+            log.warn("warm-up 단계 실패 step={} : {}", name, e.getMessage());
+        }
+    }
+
+    // 동시 요청 N개로 풀에 N개 연결을 만들고 반납 (LIFO 풀이라 이후 요청이 재사용)
+    private String preConnect(long deadline) {
+        URI u = URI.create(authUrl);
+        String origin = u.getScheme() + "://" + u.getAuthority() + "/";
+        int n = Math.max(1, props.getConnections());
+        List<Integer> statuses = Flux.range(0, n)
+                .flatMap(i -> webClient.head().uri(origin)
+                        .exchangeToMono(res -> res.releaseBody().thenReturn(res.statusCode().value()))
+                        .onErrorResume(e -> Mono.empty()), n)
+                .collectList()
+                .block(remaining(deadline));
+        int ok = statuses == null ? 0 : statuses.size();
+        if (ok == 0) throw new IllegalStateException("연결 선점 실패 origin=" + origin);
+        return "connected=" + ok + "/" + n;
+    }
+
+    private String jitWarm() {
+        List<String> payloads = recentPayloads();
+        List<byte[]> bodies = new ArrayList<>();
+        for (ActiveSubscriptionStore.Entry e : activeSubscriptions.list()) bodies.add(e.body());
+        if (bodies.isEmpty()) bodies.add(SAMPLE_SUBSCRIPTION.getBytes(StandardCharsets.UTF_8));
+        int iterations = Math.max(1, props.getParseIterations());
+        long firstNanos = 0, lastNanos = 0;
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            long t0 = System.nanoTime();
+            String raw = payloads.get(i % payloads.size());
+            try {
+                StatsSnapshot s = snapshotParser.parse(raw, i, System.currentTimeMillis(), StatsSnapshot.Origin.REPLAY);
+                for (GridSnapshot g : s.grids().values()) {
+                    for (int c = 0; c < g.columnCount(); c++) sink += g.numericColumn(c).length;
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException("예열 payload 파싱 실패: " + e.getMessage(), e);
+            }
+            sink += bodyValidator.validate(bodies.get(i % bodies.size())).gridCount();
+            long took = System.nanoTime() - t0;
+            if (i == 0) firstNanos = took;
+            lastNanos = took;
+        }
+        return "iterations=" + iterations + " payloads=" + payloads.size() + " bodies=" + bodies.size()
+                + " firstMicros=" + firstNanos / 1000 + " lastMicros=" + lastNanos / 1000 + " cells=" + sink;
+    }
+
+    // 저널 최근 1시간 구간 앞쪽 원문 몇 건 (없으면 예시 payload)
+    private List<String> recentPayloads() {
+        List<String> out = new ArrayList<>();
+        if (journal.isEnabled()) {
+            try (JournalCursor c = journal.openCursor(System.currentTimeMillis() - 3_600_000L)) {
+                JournalRecord r;
+                while (out.size() < SAMPLE_PAYLOADS && (r = c.next()) != null) out.add(r.payloadAsString());
+            } catch (RuntimeException e) {
+                log.debug("warm-up 저널 샘플 조회 실패 : {}", e.getMessage());
+            }
+        }
+        if (out.isEmpty()) out.add(samplePayload(200));
+        return out;
+    }
+
+    // 직전 실행의 구독 요청을 그대로 재전송, 새 id 로 교체
+    // 세션을 이어서 쓰는 warm restart 면 재생성하지 않고 SubscriptionSupervisor 의 검증/갱신에 맡김
+    private String restoreSubscriptions(long deadline) {
+        List<ActiveSubscriptionStore.Entry> entries = activeSubscriptions.list();
+        if (warmState.isSubscriptionsResumable()) return "resumed=" + entries.size() + " (supervisor verifies)";
+        int restored = 0, failed = 0;
+        for (ActiveSubscriptionStore.Entry e : entries) {
+            try {
+                BrightPatternSubscriptionResponse r = subscriptionService
+                        .createValidated(bodyValidator.validate(e.body()))
+                        .block(remaining(deadline));
+                if (r != null && !Objects.equals(r.getSubscriptionId(), e.id())) activeSubscriptions.forget(e.id());
+                restored++;
+            } catch (RuntimeException ex) {
+                failed++;
+                log.warn("구독 복원 실패 id={} : {}", e.id(), ex.getMessage());
+            }
+        }
+        return "restored=" + restored + " failed=" + failed;
+    }
+
+    private static Duration remaining(long deadlineNanos) {
+        return Duration.ofNanos(Math.max(1_000_000L, deadlineNanos - System.nanoTime()));
+    }
+
+    private static final String SAMPLE_SUBSCRIPTION = "{\"1\":{\"agent_grids\":[{\"id\":\"1\",\"limit\":1000,"
+            + "\"columns\":[{\"id\":\"1\",\"statName\":\"login_id\"},{\"id\":\"2\",\"statName\":\"agent_state\"},"
+            + "{\"id\":\"3\",\"statName\":\"team_name\"},{\"id\":\"4\",\"statName\":\"time_in_state\"}],"
+            + "\"order\":[{\"by\":\"1\",\"dir\":\"ASC\"}],\"team_ids\":[],\"service_ids\":[]}]}}";
+
+    private static String samplePayload(int rows) {
+        String[] states = {"Ready", "Not Ready", "Busy", "After Call Work"};
+        StringBuilder sb = new StringBuilder("{\"1\":{\"agent_grids\":[{\"id\":\"1\",\"rows\":[");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"1\":\"agent").append(i).append("\",\"2\":\"").append(states[i % states.length])
+              .append("\",\"3\":\"team").append(i % 5).append("\",\"4\":\"00:0").append(i % 10).append(':')
+              .append(10 + i % 50).append("\"}");
+        }
+        return sb.append("]}]}}").toString();
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.bpstatistics.service.warmup;
+
+import com.example.bpstatistics.config.WarmStateConfig;
+import com.example.bpstatistics.service.ActiveSubscriptionStore;
+import com.example.bpstatistics.service.BrightPatternAuthService;
+import com.example.bpstatistics.service.OAuthTokenService;
+import com.example.bpstatistics.service.snapshot.SnapshotPipeline;
+import com.example.bpstatistics.service.snapshot.StatsSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.jasypt.encryption.StringEncryptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * warm restart 상태 파일: 세션/OAuth 토큰, 활성 구독, 마지막 getData() 원문
+ * - 파일 형식: JSON -> gzip -> base64 -> Jasypt(jasyptStringEncryptor) 암호문 한 줄
+ * - 기동 완료 후 checkpoint-interval-seconds 주기 + 종료 시 기록 (내용이 바뀌었을 때만, 임시 파일 후 원자적 교체)
+ * - 기동 시 생성자에서 읽어 두고 StartupWarmup 이 restore() 로 적용
+ * 파일을 읽지 못하면(비밀번호 변경, 손상 등) 로그만 남기고 기존처럼 새로 기동합니다.
+ * 암호화 키(jasypt.encryptor.password = JASYPT_ENCRYPTOR_PASSWORD)가 없으면 파일 기능 전체를 끄고,
+ * 저장소에 커밋된 기본값이면 토큰/세션은 기록·복원하지 않습니다 (구독 / 스냅샷만).
+ */
+@Component
+public class WarmStateStore {
+    private static final Logger log = LoggerFactory.getLogger(WarmStateStore.class);
+    private static final int FORMAT_VERSION = 1;
+    private static final String DEFAULT_KEY = "password"; // 예전 application.yml 에 커밋돼 있던 값
+
+    /** 파일 내용. 시각은 epoch ms, 없으면 null */
+    public record State(int version, long savedAt,
+                        String oauthToken, Long oauthExpiresAt,
+                        String sessionToken, Long sessionExpiresAt,
+                        List<ActiveSubscriptionStore.Entry> subscriptions,
+                        String snapshot, Long snapshotCapturedAt) { }
+
+    private final WarmStateConfig.WarmStateProps props;
+    private final StringEncryptor encryptor;
+    private final ObjectMapper objectMapper;
+    private final OAuthTokenService oAuthTokenService;
+    private final BrightPatternAuthService authService;
+    private final ActiveSubscriptionStore activeSubscriptions;
+    private final SnapshotPipeline pipeline;
+    private final Path file;
+    private final boolean keyConfigured;   // 암호화 키 설정됨 (없으면 파일 기능 비활성)
+    private final boolean tokensAllowed;   // 기본값이 아닌 키 (토큰/세션 기록·복원 허용)
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "warm-state-checkpoint");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final State loaded;
+    private volatile boolean sessionResumed;
+    private volatile boolean subscriptionsResumable;
+    private String lastFingerprint;               // checkpoint() 동기화 하에서만 접근
+    private final AtomicLong checkpoints = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile long lastCheckpointAt;
+    private volatile int lastFileBytes;
+    private volatile boolean started;
+
+    public WarmStateStore(WarmStateConfig.WarmStateProps props,
+                          @Qualifier("jasyptStringEncryptor") StringEncryptor encryptor, ObjectMapper objectMapper,
+                          OAuthTokenService oAuthTokenService, BrightPatternAuthService authService,
+                          ActiveSubscriptionStore activeSubscriptions, SnapshotPipeline pipeline,
+                          @Value("${jasypt.encryptor.password:}") String encryptorPassword) {
+        this.props = props;
+        this.encryptor = encryptor;
+        this.objectMapper = objectMapper;
+        this.oAuthTokenService = oAuthTokenService;
+        this.authService = authService;
+        this.activeSubscriptions = activeSubscriptions;
+        this.pipeline = pipeline;
+        this.file = Paths.get(props.getFile()).toAbsolutePath();
+        // 변경 전: 키와 무관하게 토큰 포함 기록 (커밋된 기본 키로 누구나 복호화 가능)
+        // 변경 후: 키 미설정 -> 파일 기능 비활성, 기본 키 -> 토큰/세션 제외
+        this.keyConfigured = encryptorPassword != null && !encryptorPassword.isBlank();
+        this.tokensAllowed = keyConfigured && !DEFAULT_KEY.equals(encryptorPassword);
+        if (props.isEnabled() && !keyConfigured) {
+            log.warn("JASYPT_ENCRYPTOR_PASSWORD 미설정 - warm restart 상태 파일 비활성");
+        } else if (props.isEnabled() && !tokensAllowed) {
+            log.warn("jasypt 암호화 키가 기본값 - warm restart 상태 파일에 토큰/세션을 기록·복원하지 않음");
+        }
+        this.loaded = isEnabled() ? load() : null;
+    }
+
+    // warm-up(restore) 이 끝난 뒤부터 기록 (기동 중 빈 상태로 이전 파일을 덮어쓰지 않도록)
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!isEnabled()) return;
+        started = true;
+        long interval = Math.max(1, props.getCheckpointIntervalSeconds());
+        scheduler.scheduleWithFixedDelay(this::checkpoint, interval, interval, TimeUnit.SECONDS);
+    }
+
+    public boolean isEnabled() { return props.isEnabled() && keyConfigured; }
+
+    /** restore() 에서 저장된 세션을 그대로 쓰게 됐는지 (token-session 단계 생략 판단) */
+    public boolean isSessionResumed() { return sessionResumed; }
+
+    /** 저장된 구독을 재생성 없이 이어서 쓸 수 있는지 (세션 복원 + 파일이 충분히 최근) */
+    public boolean isSubscriptionsResumable() { return subscriptionsResumable; }
+
+    /**
+     * 기동 시 1회 적용
+     * - 마지막 스냅샷: 파일 나이와 무관하게 RESTORED 출처로 투입 (조회용 집계에만 첫 폴링 전까지 직전 값 제공,
+     *   이력 적재 / 구독 감시 등 LIVE 전용 리스너는 무시)
+     * - 토큰/세션/구독: 파일이 max-resume-age-seconds 이내이고 업스트림 호출 인스턴스(upstream)일 때만
+     */
+    public String restore(boolean upstream) {
+        if (loaded == null) return "state=none";
+        long age = System.currentTimeMillis() - loaded.savedAt();
+        StringBuilder detail = new StringBuilder("ageMs=").append(age);
+
+        if (loaded.snapshot() != null && loaded.snapshotCapturedAt() != null) {
+            // 변경 전: pipeline.process(..., StatsSnapshot.Origin.LIVE) - 저장된(오래된) 값이 이력 적재 / 구독 감시에 실시간 값으로 들어감
+            SnapshotPipeline.ProcessResult r = pipeline.process(loaded.snapshot(), loaded.snapshotCapturedAt(),
+                    StatsSnapshot.Origin.RESTORED);
+            detail.append(" snapshot=").append(r != null ? "seeded" : "failed");
+        }
+        if (!upstream || age > props.getMaxResumeAgeSeconds() * 1000L) {
+            return detail.append(" session=skipped").toString();
+        }
+        if (!tokensAllowed) {
+            // 기본 키로 만든 파일의 토큰은 신뢰하지 않음 (구독만 복원, 재생성 없이 이어쓰기는 세션 복원 시에만)
+            int added = loaded.subscriptions() == null ? 0 : activeSubscriptions.restore(loaded.subscriptions());
+            return detail.append(" session=skipped(default-key) subscriptionsAdded=").append(added).toString();
+        }
+        boolean token = oAuthTokenService.restoreToken(loaded.oauthToken(), instant(loaded.oauthExpiresAt()));
+        sessionResumed = authService.restoreSession(loaded.sessionToken(), instant(loaded.sessionExpiresAt()));
+        int added = loaded.subscriptions() == null ? 0 : activeSubscriptions.restore(loaded.subscriptions());
+        subscriptionsResumable = sessionResumed;
+        return detail.append(" oauth=").append(token ? "resumed" : "expired")
+                .append(" session=").append(sessionResumed ? "resumed" : "expired")
+                .append(" subscriptionsAdded=").append(added).toString();
+    }
+
+    /**
+     * 현재 상태 기록 (바뀐 내용이 없으면 생략)
+     */
+    public synchronized void checkpoint() {
+        if (!isEnabled()) return;
+        try {
+            State state = capture();
+            String fingerprint = fingerprint(state);
+            if (fingerprint.equals(lastFingerprint)) {
+                skipped.incrementAndGet();
+                return;
+            }
+            String cipher = encryptor.encrypt(Base64.getEncoder().encodeToString(gzip(objectMapper.writeValueAsBytes(state))));
+            byte[] bytes = cipher.getBytes(StandardCharsets.US_ASCII);
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tmp, bytes);
+            ownerOnly(tmp);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lastFingerprint = fingerprint;
+            lastCheckpointAt = state.savedAt();
+            lastFileBytes = bytes.length;
+            checkpoints.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            failures.incrementAndGet();
+            log.warn("warm restart 상태 저장 실패 file={} : {}", file, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", isEnabled());
+        m.put("tokensPersisted", tokensAllowed);
+        m.put("file", file.toString());
+        m.put("loadedSavedAt", loaded == null ? null : Instant.ofEpochMilli(loaded.savedAt()));
+        m.put("sessionResumed", sessionResumed);
+        m.put("subscriptionsResumable", subscriptionsResumable);
+        m.put("checkpoints", checkpoints.get());
+        m.put("skipped", skipped.get());
+        m.put("failures", failures.get());
+        m.put("lastCheckpointAt", lastCheckpointAt == 0 ? null : Instant.ofEpochMilli(lastCheckpointAt));
+        m.put("lastFileBytes", lastFileBytes);
+        return m;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        if (started) checkpoint(); // 기동 도중 종료면 이전 파일 유지
+    }
+
+    private State capture() {
+        SnapshotPipeline.LiveInput live = props.isIncludeSnapshot() ? pipeline.lastLiveInput() : null;
+        // 변경 전: 항상 OAuth 토큰 / 세션 토큰 기록
+        return new State(FORMAT_VERSION, System.currentTimeMillis(),
+                tokensAllowed ? oAuthTokenService.getAccessToken() : null,
+                tokensAllowed ? epochMillis(oAuthTokenService.getTokenExpiry()) : null,
+                tokensAllowed ? authService.getSessionToken() : null,
+                tokensAllowed ? epochMillis(authService.getSessionExpiry()) : null,
+                activeSubscriptions.list(),
+                live == null ? null : live.raw(), live == null ? null : live.capturedAtMillis());
+    }
+
+    // 저장 시각을 뺀 내용 비교용 (스냅샷은 원문 대신 수집 시각으로 구분)
+    private static String fingerprint(State s) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(s.oauthToken()).append('|').append(s.oauthExpiresAt()).append('|')
+          .append(s.sessionToken()).append('|').append(s.sessionExpiresAt()).append('|')
+          .append(s.snapshotCapturedAt());
+        for (ActiveSubscriptionStore.Entry e : s.subscriptions()) {
+            sb.append('|').append(e.id()).append(':').append(e.createdAt()).append(':').append(e.expiresAt());
+        }
+        return sb.toString();
+    }
+
+    private State load() {
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            String cipher = Files.readString(file, StandardCharsets.US_ASCII).trim();
+            byte[] json = gunzip(Base64.getDecoder().decode(encryptor.decrypt(cipher)));
+            State state = objectMapper.readValue(json, State.class);
+            if (state.version() != FORMAT_VERSION) {
+                log.warn("warm restart 상태 파일 형식 불일치 version={} file={}", state.version(), file);
+                return null;
+            }
+            log.info("warm restart 상태 로드 savedAt={} subscriptions={} snapshot={}",
+                    Instant.ofEpochMilli(state.savedAt()),
+                    state.subscriptions() == null ? 0 : state.subscriptions().size(), state.snapshot() != null);
+            return state;
+        } catch (IOException | RuntimeException e) {
+            // 복호화 실패(EncryptionOperationNotPossibleException 포함)도 새로 기동
+            log.warn("warm restart 상태 로드 실패 file={} : {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (OutputStream out = new GZIPOutputStream(bos)) {
+            out.write(data);
+        }
+        return bos.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+
+    // 토큰이 들어 있으므로 가능하면 소유자만 읽기/쓰기 (POSIX 미지원 파일시스템은 생략)
+    private static void ownerOnly(Path path) {
+        try {
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException | IOException e) {
+            log.debug("상태 파일 권한 설정 생략 : {}", e.getMessage());
+        }
+    }
+
+    private static Instant instant(Long epochMillis) {
+        return epochMillis == null ? null : Instant.ofEpochMilli(epochMillis);
+    }
+
+    private static Long epochMillis(Instant instant) {
+        return instant == null ? null : instant.toEpochMilli();
+    }
+}
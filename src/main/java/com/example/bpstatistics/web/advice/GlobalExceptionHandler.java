@@ -14,7 +14,11 @@ import java.util.HashMap;
 import java.util.Map;
 import org.springframework.http.HttpMethod;
 import java.util.stream.Collectors;
+import com.example.bpstatistics.web.exception.DeadlineExceededException;
 import com.example.bpstatistics.web.exception.NotAuthenticatedException;
+import com.example.bpstatistics.web.exception.TooManyRequestsException;
+import com.example.bpstatistics.web.exception.UpstreamStatusException;
+import org.springframework.http.HttpHeaders;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -50,6 +54,41 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(body);
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<?> handleTooManyRequests(TooManyRequestsException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", Instant.now());
+        body.put("error", "TooManyRequests");
+        body.put("message", ex.getMessage());
+        body.put("retryAfterSeconds", ex.getRetryAfterSeconds());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(body);
+    }
+
+    // 요청 deadline 소진 -> 504 (호출자는 이미 포기했을 가능성이 높으므로 warn 한 줄만)
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<?> handleDeadlineExceeded(DeadlineExceededException ex) {
+        log.warn("요청 deadline 초과: {}", ex.getMessage());
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", Instant.now());
+        body.put("error", "DeadlineExceeded");
+        body.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(body);
+    }
+
+    // 업스트림(BrightPattern) 오류 응답 -> 502 (상태 코드는 본문에 포함)
+    @ExceptionHandler(UpstreamStatusException.class)
+    public ResponseEntity<?> handleUpstreamStatus(UpstreamStatusException ex) {
+        log.warn("업스트림 오류 응답: {}", ex.getMessage());
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", Instant.now());
+        body.put("error", "UpstreamError");
+        body.put("message", ex.getMessage());
+        body.put("upstreamStatus", ex.getStatusCode());
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(body);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> handleGeneric(Exception ex) {
         // noisy 한 4xx 는 이미 개별 handler 에서 처리
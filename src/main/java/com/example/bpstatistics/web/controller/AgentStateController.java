@@ -0,0 +1,48 @@
+package com.example.bpstatistics.web.controller;
+
+import com.example.bpstatistics.service.agentstate.AgentStateTracker;
+import com.example.bpstatistics.service.codec.BinaryFormats;
+import com.example.bpstatistics.web.dto.AgentStateView;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 상담원 상태 체류시간 조회 API (추적기 메모리 값 그대로, 이력 재계산 없음)
+ */
+@RestController
+// 변경 전: @RequestMapping(path = "/api/brightpattern/agents", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(path = "/api/brightpattern/agents",
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, BinaryFormats.SMILE_VALUE})
+public class AgentStateController {
+    private final AgentStateTracker agentStateTracker;
+
+    public AgentStateController(AgentStateTracker agentStateTracker) {
+        this.agentStateTracker = agentStateTracker;
+    }
+
+    @GetMapping("/states")
+    public List<AgentStateView> states(@RequestParam(required = false) String state,
+                                       @RequestParam(defaultValue = "0") int offset,
+                                       @RequestParam(defaultValue = "500") int limit) {
+        return agentStateTracker.agents(state, Math.max(0, offset), Math.max(1, Math.min(limit, 5000)));
+    }
+
+    @GetMapping("/states/{agent}")
+    public ResponseEntity<AgentStateView> state(@PathVariable String agent) {
+        AgentStateView v = agentStateTracker.agent(agent);
+        return v == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(v);
+    }
+
+    @GetMapping("/summary")
+    public Map<String, Object> summary() {
+        return agentStateTracker.summary();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.bpstatistics.web.controller;
+
+import com.example.bpstatistics.service.alert.AlertRuleEngine;
+import com.example.bpstatistics.web.dto.AlertEvent;
+import com.example.bpstatistics.web.dto.AlertRuleDefinition;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 알림 규칙 관리 / 알림 이벤트 조회 API
+ */
+@RestController
+@RequestMapping("/api/brightpattern/alerts")
+public class AlertController {
+    private static final Logger log = LoggerFactory.getLogger(AlertController.class);
+    private final AlertRuleEngine alertRuleEngine;
+
+    public AlertController(AlertRuleEngine alertRuleEngine) {
+        this.alertRuleEngine = alertRuleEngine;
+    }
+
+    @GetMapping(path = "/rules", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<AlertRuleDefinition> rules() {
+        return alertRuleEngine.rules();
+    }
+
+    /**
+     * 규칙 등록/교체 (id 지정 시 교체, 미지정 시 생성)
+     */
+    @PostMapping(path = "/rules", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> putRule(@Valid @RequestBody AlertRuleDefinition definition) {
+        try {
+            return ResponseEntity.ok(alertRuleEngine.put(definition));
+        } catch (IllegalArgumentException e) {
+            log.warn("알림 규칙 등록 실패: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "InvalidRule",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    @DeleteMapping(path = "/rules/{id}")
+    public ResponseEntity<Void> deleteRule(@PathVariable String id) {
+        return alertRuleEngine.remove(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping(path = "/active", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<AlertEvent> active() {
+        return alertRuleEngine.activeAlerts();
+    }
+
+    @GetMapping(path = "/recent", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<AlertEvent> recent(@RequestParam(defaultValue = "100") int limit) {
+        return alertRuleEngine.recentEvents(Math.max(1, Math.min(limit, 500)));
+    }
+
+    @GetMapping(path = "/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Map<String, Object> stats() {
+        return alertRuleEngine.stats();
+    }
+
+    /**
+     * 알림 이벤트 SSE 스트림 (프록시 유휴 종료 방지용 30초 keep-alive 주석 포함)
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<AlertEvent>> stream() {
+        Flux<ServerSentEvent<AlertEvent>> events = alertRuleEngine.events()
+                .map(ev -> ServerSentEvent.builder(ev).event(ev.type()).build());
+        Flux<ServerSentEvent<AlertEvent>> keepAlive = Flux.interval(Duration.ofSeconds(30))
+                .map(i -> ServerSentEvent.<AlertEvent>builder().comment("keep-alive").build());
+        return Flux.merge(events, keepAlive);
+    }
+}
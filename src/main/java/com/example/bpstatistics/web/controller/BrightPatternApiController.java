@@ -2,11 +2,25 @@ package com.example.bpstatistics.web.controller;
 
 import com.example.bpstatistics.service.BrightPatternAuthService;
 import com.example.bpstatistics.service.BrightPatternSubscriptionService;
-import com.example.bpstatistics.web.dto.BrightPatternSubscriptionRequest;
+import com.example.bpstatistics.service.SubscriptionBodyValidator;
+import com.example.bpstatistics.service.audit.AuditLog;
+import com.example.bpstatistics.service.cluster.ClusterSnapshotService;
+import com.example.bpstatistics.service.codec.BinaryFormats;
+import com.example.bpstatistics.service.deadline.InboundDeadline;
+import com.example.bpstatistics.service.diag.StageLatency;
+import com.example.bpstatistics.service.fetch.MultiSubscriptionFetcher;
+import com.example.bpstatistics.service.http.AdaptiveConcurrencyLimiter;
+import com.example.bpstatistics.service.ratelimit.InboundRateLimiter;
+import com.example.bpstatistics.service.ratelimit.UpstreamGovernor;
+import com.example.bpstatistics.service.supervisor.SubscriptionSupervisor;
+import com.example.bpstatistics.service.warmup.StartupWarmup;
 import com.example.bpstatistics.web.dto.BrightPatternSubscriptionResponse;
+import com.example.bpstatistics.web.exception.UpstreamStatusException;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
@@ -17,38 +31,77 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 
 import reactor.core.publisher.Mono;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.type.TypeReference;
-
 @RestController
-@RequestMapping(path = "/api/brightpattern", produces = MediaType.APPLICATION_JSON_VALUE)
+// 변경 전: @RequestMapping(path = "/api/brightpattern", produces = MediaType.APPLICATION_JSON_VALUE)
+// 변경 후: 내부 소비자용 CBOR / Smile 응답 협상 (Accept 미지정 또는 */* 는 JSON)
+@RequestMapping(path = "/api/brightpattern",
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, BinaryFormats.SMILE_VALUE})
 
 public class BrightPatternApiController {
     private static final Logger log = LoggerFactory.getLogger(BrightPatternApiController.class);
     private final BrightPatternAuthService authService;
     private final BrightPatternSubscriptionService subscriptionService;
-    private final ObjectMapper objectMapper;
+    private final SubscriptionBodyValidator bodyValidator;
+    private final ClusterSnapshotService clusterSnapshotService;
+    private final StartupWarmup startupWarmup;
+    private final InboundRateLimiter inboundRateLimiter;
+    private final UpstreamGovernor upstreamGovernor;
+    private final SubscriptionSupervisor subscriptionSupervisor;
+    private final StageLatency stageLatency;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final MultiSubscriptionFetcher dataFetcher;
+    private final BinaryFormats binaryFormats;
+    private final InboundDeadline deadlines;
+    private final AuditLog auditLog;
 
     public BrightPatternApiController(BrightPatternAuthService authService,
                                       BrightPatternSubscriptionService subscriptionService,
-                                      ObjectMapper objectMapper) {
+                                      SubscriptionBodyValidator bodyValidator,
+                                      ClusterSnapshotService clusterSnapshotService,
+                                      StartupWarmup startupWarmup,
+                                      InboundRateLimiter inboundRateLimiter,
+                                      UpstreamGovernor upstreamGovernor,
+                                      SubscriptionSupervisor subscriptionSupervisor,
+                                      StageLatency stageLatency,
+                                      AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                      MultiSubscriptionFetcher dataFetcher,
+                                      BinaryFormats binaryFormats,
+                                      InboundDeadline deadlines,
+                                      AuditLog auditLog) {
         this.authService = authService;
         this.subscriptionService = subscriptionService;
-        this.objectMapper = objectMapper;
+        this.bodyValidator = bodyValidator;
+        this.clusterSnapshotService = clusterSnapshotService;
+        this.startupWarmup = startupWarmup;
+        this.inboundRateLimiter = inboundRateLimiter;
+        this.upstreamGovernor = upstreamGovernor;
+        this.subscriptionSupervisor = subscriptionSupervisor;
+        this.stageLatency = stageLatency;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.dataFetcher = dataFetcher;
+        this.binaryFormats = binaryFormats;
+        this.deadlines = deadlines;
+        this.auditLog = auditLog;
     }
 
-    @PostMapping("/auth")
-    public Mono<String> authenticate() { 
+    // 업스트림 JSON 원문(String)을 그대로 반환하므로 JSON 만 제공
+    @PostMapping(path = "/auth", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<String> authenticate(HttpServletRequest request) {
         log.info("API 인증 요청");
-        return authService.authenticate(); }
+        // 변경 전: return authService.authenticate(); }
+        // 변경 후: 업스트림 호출은 요청 deadline(헤더 또는 경로별 기본값)의 남은 예산 안에서만
+        // 변경 후(audit): 요청자 기준 인증 요청 기록 (업스트림 인증 결과는 서비스에서 별도 기록)
+        return auditLog.around(deadlines.bind(authService.authenticate()), AuditLog.SOURCE_API, "auth.session",
+                auditLog.actorOf(request), null, null); }
 
-    @GetMapping("/auth/status")
+    @GetMapping(path = "/auth/status", produces = MediaType.APPLICATION_JSON_VALUE)
     public Mono<String> status() { return authService.checkAuthStatus(); }
 
     @GetMapping("/auth/info")
@@ -56,45 +109,12 @@ public class BrightPatternApiController {
         log.info("API 인증 정보요청");
         return authService.getTokenInfo(); }
 
+    // 변경 전: @RequestBody JsonNode body -> objectMapper.convertValue(Map / DTO) -> validateRawStructure -> WebClient 재직렬화
+    // 변경 후: 요청 바이트를 SubscriptionBodyValidator 로 1회 스트리밍 검증 후 그대로 업스트림 전달
     @PostMapping(value = "/subscriptions", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<ResponseEntity<Object>> create(@RequestBody JsonNode body) {
-        log.info("API 구독 생성 요청(통합) - shape keys: {}", body != null && body.isObject() ? body.fieldNames().hasNext() ? body.fieldNames().next() : "(empty)" : "(non-object)");
-
-        if (body != null && body.isObject() && body.has("1")) {
-            Map<String, Object> raw = objectMapper.convertValue(body, new TypeReference<Map<String, Object>>(){});
-            return subscriptionService.createRaw(raw)
-                    .map(r -> ResponseEntity.ok().body((Object) r))
-                    .onErrorResume(e -> Mono.just(
-                            ResponseEntity.badRequest().body(Map.of(
-                                    "error", "ValidationError",
-                                    "message", e.getMessage() == null ? "구독 JSON 검증 실패" : e.getMessage()
-                            ))
-                    ));
-        }
-
-        if (body != null && body.isObject() && body.has("agent_grids")) {
-            try {
-                BrightPatternSubscriptionRequest req = objectMapper.convertValue(body, BrightPatternSubscriptionRequest.class);
-                return subscriptionService.create(req)
-                        .map(r -> ResponseEntity.ok().body((Object) r))
-                        .onErrorResume(e -> Mono.just(
-                                ResponseEntity.badRequest().body(Map.of(
-                                        "error", "ValidationError",
-                                        "message", e.getMessage() == null ? "구독 DTO 검증 실패" : e.getMessage()
-                                ))
-                        ));
-            } catch (IllegalArgumentException iae) {
-                return Mono.just(ResponseEntity.badRequest().body(Map.of(
-                        "error", "ValidationError",
-                        "message", "요청 본문을 DTO로 변환할 수 없습니다: " + iae.getMessage()
-                )));
-            }
-        }
-
-        return Mono.just(ResponseEntity.badRequest().body(Map.of(
-                "error", "InvalidRequest",
-                "message", "지원하지 않는 요청 형식입니다. {'1':{...}} 또는 {'agent_grids':[...]} 형태만 허용됩니다."
-        )));
+    public Mono<ResponseEntity<Object>> create(@RequestBody byte[] body, HttpServletRequest request) {
+        log.info("API 구독 생성 요청(통합) - bytes: {}", body == null ? 0 : body.length);
+        return createFromBytes(body, auditLog.actorOf(request));
     }
 
     // 변경 전: 통합으로 인해 제거되었던 RAW 엔드포인트
@@ -102,18 +122,40 @@ public class BrightPatternApiController {
     // public Mono<ResponseEntity<Object>> createRaw(@RequestBody Map<String,Object> raw) { /* 기존 구현 */ }
     // 변경 후: 호환성 유지를 위한 RAW 엔드포인트 복원 (통합 로직과 동일한 처리 경로 사용)
     @PostMapping(value = "/subscriptions/raw", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<ResponseEntity<Object>> createRawCompat(@RequestBody JsonNode body) {
+    public Mono<ResponseEntity<Object>> createRawCompat(@RequestBody byte[] body, HttpServletRequest request) {
         log.warn("호환 엔드포인트 호출: POST /subscriptions/raw (향후 제거 예정)");
-        if (body == null || !body.isObject()) {
+        return createFromBytes(body, auditLog.actorOf(request));
+    }
+
+    // 변경 전: private Mono<ResponseEntity<Object>> createFromBytes(byte[] body)
+    private Mono<ResponseEntity<Object>> createFromBytes(byte[] body, AuditLog.Actor actor) {
+        final SubscriptionBodyValidator.Validated validated;
+        try {
+            // 변경 전: validated = bodyValidator.validate(body);
+            validated = stageLatency.time(StageLatency.VALIDATE, () -> bodyValidator.validate(body));
+        } catch (SubscriptionBodyValidator.InvalidShapeException ise) {
+            auditLog.record(AuditLog.SOURCE_API, "subscription.create", actor, null, "rejected", ise.getMessage(), 0);
             return Mono.just(ResponseEntity.badRequest().body(Map.of(
                     "error", "InvalidRequest",
-                    "message", "JSON 객체 본문이 필요합니다."
+                    "message", ise.getMessage()
+            )));
+        } catch (IllegalArgumentException iae) {
+            auditLog.record(AuditLog.SOURCE_API, "subscription.create", actor, null, "rejected", iae.getMessage(), 0);
+            return Mono.just(ResponseEntity.badRequest().body(Map.of(
+                    "error", "ValidationError",
+                    "message", iae.getMessage() == null ? "구독 JSON 검증 실패" : iae.getMessage()
             )));
         }
-        Map<String, Object> raw = objectMapper.convertValue(body, new TypeReference<Map<String, Object>>(){});
-        return subscriptionService.createRaw(raw)
+        // 변경 전: return subscriptionService.createValidated(validated)
+        // 변경 전: return deadlines.bind(subscriptionService.createValidated(validated))
+        return auditLog.around(deadlines.bind(subscriptionService.createValidated(validated)), AuditLog.SOURCE_API,
+                        "subscription.create", actor, null, BrightPatternSubscriptionResponse::getSubscriptionId)
                 .map(r -> ResponseEntity.ok().body((Object) r))
-                .onErrorResume(e -> Mono.just(
+                // 변경 전: .onErrorResume(e -> Mono.just(
+                // 변경 전: .onErrorResume(e -> !(e instanceof TooManyRequestsException), e -> Mono.just(
+                // 변경 후: 검증 실패(본문 오류, 업스트림이 요청을 거부한 4xx)만 400. deadline 초과(504), 예산 초과(429),
+                //         인증 실패, 업스트림 5xx / timeout 등은 GlobalExceptionHandler 로 전달
+                .onErrorResume(BrightPatternApiController::isValidationFailure, e -> Mono.just(
                         ResponseEntity.badRequest().body(Map.of(
                                 "error", "ValidationError",
                                 "message", e.getMessage() == null ? "구독 JSON 검증 실패" : e.getMessage()
@@ -121,21 +163,85 @@ public class BrightPatternApiController {
                 ));
     }
 
+    private static boolean isValidationFailure(Throwable e) {
+        if (e instanceof IllegalArgumentException) return true;
+        UpstreamStatusException upstream = UpstreamStatusException.find(e);
+        return upstream != null && upstream.isClientError();
+    }
+
     @GetMapping("/subscriptions/{id}")
     public Mono<BrightPatternSubscriptionResponse> get(@PathVariable String id) {
         log.info("API 구독 조회 요청 - ID: {}", id);
-        return subscriptionService.get(id);
+        // 변경 전: return subscriptionService.get(id);
+        return deadlines.bind(subscriptionService.get(id));
     }
 
+    // 변경 전: public Mono<String> getSubscriptionData() {
+    // 변경 후: JSON 은 원문 그대로, CBOR / Smile 은 스냅샷 원문별 캐시된 바이너리 변환 결과
     @GetMapping("/subscriptions/data")
-    public Mono<String> getSubscriptionData() {
+    public Mono<ResponseEntity<?>> getSubscriptionData(@RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
         log.info("API 구독 데이터 조회 요청");
-        return subscriptionService.getData();
+        MediaType format = binaryFormats.negotiate(accept);
+        // 변경 전: return subscriptionService.getData();
+        // 변경 후: 클러스터 모드면 리더만 업스트림 조회, 팔로워는 공유 테이블 조회 (비활성 시 동일 동작)
+        return deadlines.bind(clusterSnapshotService.getData())
+                .map(raw -> binaryFormats.isBinary(format)
+                        ? ResponseEntity.ok().contentType(format).body(binaryFormats.render(raw, format))
+                        : ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(raw));
+    }
+
+    // 다중 구독 조회 마지막 주기의 구독별 결과 (ok / stale / failed)
+    @GetMapping("/subscriptions/data/status")
+    public Map<String, Object> subscriptionDataStatus() {
+        return dataFetcher.status();
+    }
+
+    // 감사 로그 ring / DB 적재 / spill / 유실 집계
+    @GetMapping("/audit/status")
+    public Map<String, Object> auditStatus() {
+        return auditLog.stats();
+    }
+
+    @GetMapping("/warmup/status")
+    public Map<String, Object> warmupStatus() {
+        return startupWarmup.status();
+    }
+
+    @GetMapping("/cluster/status")
+    public Map<String, Object> clusterStatus() {
+        return clusterSnapshotService.status();
+    }
+
+    @GetMapping("/ratelimit/status")
+    public Map<String, Object> rateLimitStatus() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("inbound", inboundRateLimiter.stats());
+        m.put("upstream", upstreamGovernor.stats());
+        return m;
+    }
+
+    // 구독 자동 갱신/재구독 감독 상태
+    @GetMapping("/supervisor/status")
+    public Map<String, Object> supervisorStatus() {
+        return subscriptionSupervisor.status();
+    }
+
+    // 단계별 지연 (재인증 대기 / 풀 / 첫 바이트 / 본문 / 파싱·검증 / 응답 쓰기) 최근 구간 p50/p99
+    @GetMapping("/diagnostics/latency")
+    public Map<String, Object> latencyDiagnostics() {
+        // 변경 전: return stageLatency.snapshot();
+        Map<String, Object> m = stageLatency.snapshot();
+        m.put("concurrency", concurrencyLimiter.stats());
+        m.put("deadline", deadlines.stats());
+        return m;
     }
 
     @DeleteMapping("/subscriptions/{id}")
-    public Mono<Void> delete(@PathVariable String id) {
+    public Mono<Void> delete(@PathVariable String id, HttpServletRequest request) {
         log.info("API 구독 삭제 요청 - ID: {}", id);
-        return subscriptionService.delete(id);
+        // 변경 전: return subscriptionService.delete(id);
+        // 변경 전: return deadlines.bind(subscriptionService.delete(id));
+        return auditLog.around(deadlines.bind(subscriptionService.delete(id)), AuditLog.SOURCE_API,
+                "subscription.delete", auditLog.actorOf(request), id, null);
     }
 }
@@ -0,0 +1,91 @@
+package com.example.bpstatistics.web.controller;
+
+import com.example.bpstatistics.service.derived.DerivedMetricService;
+import com.example.bpstatistics.web.dto.DerivedMetricDefinition;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 파생 지표 정의 관리 / 결과 조회 API
+ * 예) POST /api/brightpattern/derived/1  { "name": "handle_total", "expression": "talk_time + hold_time + after_call_work_time" }
+ *     GET  /api/brightpattern/derived/1/rows?team=teamA&limit=100
+ *     GET  /api/brightpattern/derived/1/teams
+ * 정의 변경은 다음 스냅샷부터 반영됩니다.
+ */
+@RestController
+@RequestMapping(path = "/api/brightpattern/derived", produces = MediaType.APPLICATION_JSON_VALUE)
+public class DerivedMetricController {
+    private static final Logger log = LoggerFactory.getLogger(DerivedMetricController.class);
+    private static final int MAX_LIMIT = 1000;
+    private final DerivedMetricService derivedMetricService;
+
+    public DerivedMetricController(DerivedMetricService derivedMetricService) {
+        this.derivedMetricService = derivedMetricService;
+    }
+
+    @GetMapping
+    public Map<String, List<DerivedMetricDefinition>> definitions() {
+        return derivedMetricService.definitions();
+    }
+
+    /**
+     * 지표 등록/교체 (같은 이름이면 교체)
+     */
+    @PostMapping(path = "/{gridId}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> put(@PathVariable String gridId, @Valid @RequestBody DerivedMetricDefinition definition) {
+        try {
+            return ResponseEntity.ok(derivedMetricService.put(gridId, definition));
+        } catch (IllegalArgumentException e) {
+            return invalid(e);
+        }
+    }
+
+    @DeleteMapping(path = "/{gridId}/{name}")
+    public ResponseEntity<?> delete(@PathVariable String gridId, @PathVariable String name) {
+        try {
+            return derivedMetricService.remove(gridId, name) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return invalid(e);
+        }
+    }
+
+    @GetMapping("/{gridId}/rows")
+    public Map<String, Object> rows(@PathVariable String gridId,
+                                    @RequestParam(required = false) String team,
+                                    @RequestParam(defaultValue = "0") int offset,
+                                    @RequestParam(defaultValue = "100") int limit) {
+        return derivedMetricService.rows(gridId, team, offset, Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+
+    @GetMapping("/{gridId}/teams")
+    public Map<String, Object> teams(@PathVariable String gridId) {
+        return derivedMetricService.teams(gridId);
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return derivedMetricService.stats();
+    }
+
+    private static ResponseEntity<?> invalid(RuntimeException e) {
+        log.warn("파생 지표 요청 오류: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(Map.of(
+                "error", "InvalidDerivedMetric",
+                "message", e.getMessage()
+        ));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.bpstatistics.web.controller;
+
+import com.example.bpstatistics.service.export.SnapshotExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 스냅샷 이력 대량 내보내기 API (저널 보존 구간)
+ * 예) GET /api/brightpattern/export/snapshots?grid=1&from=2026-10-19T00:00:00%2B09:00&to=2026-10-20T00:00:00%2B09:00
+ *     GET /api/brightpattern/export/snapshots?format=columnar&from=...        (모든 grid, NDJSON)
+ * gzip=true(기본) 이고 Accept-Encoding 에 gzip 이 있으면 Content-Encoding: gzip, 없으면 .gz 파일로 내려보냅니다.
+ * MVC 비동기 타임아웃이 걸리지 않도록 요청 스레드에서 응답 스트림에 직접 기록합니다 (수 GB 구간도 중간에 끊기지 않음).
+ */
+@RestController
+@RequestMapping("/api/brightpattern/export")
+public class ExportController {
+    private static final Logger log = LoggerFactory.getLogger(ExportController.class);
+    private final SnapshotExportService exportService;
+
+    public ExportController(SnapshotExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/snapshots")
+    public ResponseEntity<?> snapshots(@RequestParam String from,
+                                       @RequestParam(required = false) String to,
+                                       @RequestParam(required = false) String grid,
+                                       @RequestParam(defaultValue = "csv") String format,
+                                       @RequestParam(defaultValue = "true") boolean gzip,
+                                       @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                       HttpServletResponse response) {
+        final SnapshotExportService.ExportQuery q;
+        try {
+            q = exportService.query(from, to, grid, format);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return invalid(e);
+        }
+        try (SnapshotExportService.Permit ignored = exportService.acquire()) {
+            boolean transferGzip = gzip && acceptsGzip(acceptEncoding);
+            String fileName = q.fileName() + (gzip && !transferGzip ? ".gz" : "");
+            response.setContentType(gzip && !transferGzip ? "application/gzip" : q.format().contentType());
+            if (transferGzip) response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename(fileName).build().toString());
+            log.info("스냅샷 내보내기 시작 grid={} format={} from={} to={} gzip={}",
+                    q.gridId(), q.format(), q.fromMillis(), q.toMillis(), gzip);
+            SnapshotExportService.Summary s = exportService.write(q, response.getOutputStream(), gzip);
+            log.info("스냅샷 내보내기 완료 snapshots={} rows={} skipped={} {}ms",
+                    s.snapshots(), s.rows(), s.skipped(), s.elapsedMs());
+        } catch (IOException e) {
+            // 응답이 이미 시작된 상태라 오류 본문을 보낼 수 없음 (대부분 클라이언트 연결 종료)
+            log.info("스냅샷 내보내기 중단: {}", e.getMessage());
+        }
+        // 응답을 직접 기록했으므로 null 반환 (MVC 가 추가로 쓰지 않음)
+        return null;
+    }
+
+    @GetMapping(path = "/status", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Map<String, Object> status() {
+        return exportService.stats();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+
+    private static ResponseEntity<?> invalid(RuntimeException e) {
+        log.warn("스냅샷 내보내기 요청 오류: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(Map.of(
+                "error", "InvalidExport",
+                "message", e.getMessage()
+        ));
+    }
+}
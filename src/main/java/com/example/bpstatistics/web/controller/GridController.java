@@ -0,0 +1,76 @@
+package com.example.bpstatistics.web.controller;
+
+import com.example.bpstatistics.service.cluster.ClusterSnapshotService;
+import com.example.bpstatistics.service.codec.BinaryFormats;
+import com.example.bpstatistics.service.deadline.InboundDeadline;
+import com.example.bpstatistics.service.grid.GridWindowService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * 대형 grid 구간 조회 API (서버 스냅샷 기준, getData() 원문 전체를 내려보내지 않음)
+ * 예) GET /api/brightpattern/grids/1/window?sort=login_id&dir=asc&offset=0&limit=100
+ *     GET /api/brightpattern/grids/1/window?cursor=...            (다음 구간)
+ *     GET /api/brightpattern/grids/1/window?offset=200&limit=60&since=42   (바뀐 행만 cells 포함)
+ * refresh=true 면 먼저 getData() 를 한 번 수행(클러스터 모드 규칙 동일)하고 현재 스냅샷으로 응답합니다.
+ * 파이프라인이 비동기라 방금 조회한 결과는 다음 요청부터 반영될 수 있습니다.
+ */
+@RestController
+@RequestMapping(path = "/api/brightpattern/grids",
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, BinaryFormats.SMILE_VALUE})
+public class GridController {
+    private static final Logger log = LoggerFactory.getLogger(GridController.class);
+    private final GridWindowService gridWindowService;
+    private final ClusterSnapshotService clusterSnapshotService;
+    private final InboundDeadline deadlines;
+
+    public GridController(GridWindowService gridWindowService, ClusterSnapshotService clusterSnapshotService,
+                          InboundDeadline deadlines) {
+        this.gridWindowService = gridWindowService;
+        this.clusterSnapshotService = clusterSnapshotService;
+        this.deadlines = deadlines;
+    }
+
+    @GetMapping
+    public Map<String, Object> grids() {
+        return gridWindowService.grids();
+    }
+
+    @GetMapping("/{gridId}/window")
+    public Mono<ResponseEntity<?>> window(@PathVariable String gridId,
+                                          @RequestParam(required = false) String sort,
+                                          @RequestParam(required = false) String dir,
+                                          @RequestParam(defaultValue = "0") int offset,
+                                          @RequestParam(defaultValue = "100") int limit,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Long since,
+                                          @RequestParam(defaultValue = "false") boolean refresh) {
+        Mono<Void> fetch = refresh ? clusterSnapshotService.getData().then() : Mono.empty();
+        Mono<ResponseEntity<?>> result = fetch.then(Mono.<ResponseEntity<?>>fromCallable(() -> {
+            try {
+                return ResponseEntity.ok(gridWindowService.window(gridId, sort, dir, offset, limit, cursor, since));
+            } catch (IllegalArgumentException e) {
+                return invalid(e);
+            }
+        }));
+        return deadlines.bind(result);
+    }
+
+    private static ResponseEntity<?> invalid(RuntimeException e) {
+        log.warn("grid 구간 조회 요청 오류: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(Map.of(
+                "error", "InvalidGridWindow",
+                "message", e.getMessage()
+        ));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.bpstatistics.web.controller;
+
+import com.example.bpstatistics.service.codec.BinaryFormats;
+import com.example.bpstatistics.service.history.HistoryQueryService;
+import com.example.bpstatistics.service.history.HistoryRecorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Map;
+
+/**
+ * 통계 이력 조회 API (keyset 페이지, 응답 스트리밍)
+ * 예) GET /api/brightpattern/history?grid=1&agent=agent7&from=2026-10-19T09:00:00%2B09:00&to=2026-10-19T12:00:00%2B09:00
+ *     GET /api/brightpattern/history/rollup?grid=1&team=teamA&interval=900&from=...
+ * 다음 페이지는 응답의 nextCursor 를 cursor 파라미터로 전달합니다.
+ * Accept: application/cbor 또는 application/x-jackson-smile 이면 같은 구조를 바이너리로 스트리밍합니다.
+ */
+@RestController
+@RequestMapping("/api/brightpattern/history")
+public class HistoryController {
+    private static final Logger log = LoggerFactory.getLogger(HistoryController.class);
+    private final HistoryQueryService historyQueryService;
+    private final HistoryRecorder historyRecorder;
+    private final BinaryFormats binaryFormats;
+
+    public HistoryController(HistoryQueryService historyQueryService, HistoryRecorder historyRecorder, BinaryFormats binaryFormats) {
+        this.historyQueryService = historyQueryService;
+        this.historyRecorder = historyRecorder;
+        this.binaryFormats = binaryFormats;
+    }
+
+    // 변경 전: @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, BinaryFormats.SMILE_VALUE})
+    public ResponseEntity<?> rows(@RequestParam String grid,
+                                  @RequestParam String from,
+                                  @RequestParam(required = false) String to,
+                                  @RequestParam(required = false) String agent,
+                                  @RequestParam(required = false) String team,
+                                  @RequestParam(required = false) String cursor,
+                                  @RequestParam(required = false) Integer limit,
+                                  @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        final HistoryQueryService.HistoryQuery q;
+        try {
+            q = historyQueryService.query(grid, from, to, agent, team, cursor, limit, null);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return invalid(e);
+        }
+        MediaType format = binaryFormats.negotiate(accept);
+        StreamingResponseBody body = out -> historyQueryService.writeRows(q, out, binaryFormats.factoryFor(format));
+        return ResponseEntity.ok().contentType(format).body(body);
+    }
+
+    // 변경 전: @GetMapping(path = "/rollup", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(path = "/rollup", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, BinaryFormats.SMILE_VALUE})
+    public ResponseEntity<?> rollup(@RequestParam String grid,
+                                    @RequestParam String from,
+                                    @RequestParam(required = false) String to,
+                                    @RequestParam(required = false) String agent,
+                                    @RequestParam(required = false) String team,
+                                    @RequestParam(defaultValue = "900") int interval,
+                                    @RequestParam(required = false) String cursor,
+                                    @RequestParam(required = false) Integer limit,
+                                    @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        final HistoryQueryService.HistoryQuery q;
+        try {
+            q = historyQueryService.query(grid, from, to, agent, team, cursor, limit, interval);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return invalid(e);
+        }
+        MediaType format = binaryFormats.negotiate(accept);
+        StreamingResponseBody body = out -> historyQueryService.writeRollup(q, out, binaryFormats.factoryFor(format));
+        return ResponseEntity.ok().contentType(format).body(body);
+    }
+
+    @GetMapping(path = "/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Map<String, Object> stats() {
+        return historyRecorder.stats();
+    }
+
+    private static ResponseEntity<?> invalid(RuntimeException e) {
+        log.warn("이력 조회 요청 오류: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(Map.of(
+                "error", "InvalidHistoryQuery",
+                "message", e.getMessage()
+        ));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.bpstatistics.web.controller;
+
+import com.example.bpstatistics.service.codec.BinaryFormats;
+import com.example.bpstatistics.service.percentile.PercentileService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 분위수(p50/p90/p99 등) 조회 API
+ * 예) GET /api/brightpattern/percentiles?metric=handle_time&team=teamA&groupBy=bucket&q=0.5,0.9,0.99
+ */
+@RestController
+// 변경 전: @RequestMapping(path = "/api/brightpattern/percentiles", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(path = "/api/brightpattern/percentiles",
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, BinaryFormats.SMILE_VALUE})
+public class PercentileController {
+    private static final Logger log = LoggerFactory.getLogger(PercentileController.class);
+    private final PercentileService percentileService;
+
+    public PercentileController(PercentileService percentileService) {
+        this.percentileService = percentileService;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> query(@RequestParam String metric,
+                                   @RequestParam(required = false) String team,
+                                   @RequestParam(required = false) String service,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+                                   @RequestParam(defaultValue = "none") String groupBy,
+                                   @RequestParam(defaultValue = "0.5,0.9,0.99") List<Double> q) {
+        long toMs = to == null ? System.currentTimeMillis() : to.toInstant().toEpochMilli();
+        long fromMs = from == null ? toMs - Duration.ofHours(24).toMillis() : from.toInstant().toEpochMilli();
+        try {
+            return ResponseEntity.ok(percentileService.query(metric, team, service, fromMs, toMs, groupBy, q));
+        } catch (IllegalArgumentException e) {
+            log.warn("분위수 조회 요청 오류: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "InvalidPercentileQuery",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return percentileService.stats();
+    }
+}
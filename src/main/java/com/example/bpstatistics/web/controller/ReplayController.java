@@ -0,0 +1,70 @@
+package com.example.bpstatistics.web.controller;
+
+import com.example.bpstatistics.service.replay.SnapshotReplayService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 스냅샷 리플레이 제어 API (벤치마크 / 장애 재현용)
+ */
+@RestController
+@RequestMapping(path = "/api/brightpattern/replay", produces = MediaType.APPLICATION_JSON_VALUE)
+public class ReplayController {
+    private static final Logger log = LoggerFactory.getLogger(ReplayController.class);
+    private final SnapshotReplayService replayService;
+
+    public ReplayController(SnapshotReplayService replayService) {
+        this.replayService = replayService;
+    }
+
+    /**
+     * 재생 시작. from/to 는 epoch ms, speed 0 이하는 최대 속도
+     */
+    @PostMapping("/start")
+    public ResponseEntity<Map<String, Object>> start(@RequestParam(required = false) Long from,
+                                                     @RequestParam(required = false) Long to,
+                                                     @RequestParam(defaultValue = "1") double speed) {
+        log.info("API 리플레이 시작 요청 from={} to={} speed={}", from, to, speed);
+        return control(() -> replayService.start(from, to, speed));
+    }
+
+    @PostMapping("/pause")
+    public ResponseEntity<Map<String, Object>> pause() { return control(replayService::pause); }
+
+    @PostMapping("/resume")
+    public ResponseEntity<Map<String, Object>> resume() { return control(replayService::resume); }
+
+    @PostMapping("/seek")
+    public ResponseEntity<Map<String, Object>> seek(@RequestParam long ts) { return control(() -> replayService.seek(ts)); }
+
+    @PostMapping("/speed")
+    public ResponseEntity<Map<String, Object>> speed(@RequestParam double value) { return control(() -> replayService.speed(value)); }
+
+    @PostMapping("/stop")
+    public ResponseEntity<Map<String, Object>> stop() { return control(replayService::stop); }
+
+    @GetMapping("/status")
+    public Map<String, Object> status() { return replayService.status(); }
+
+    private ResponseEntity<Map<String, Object>> control(Supplier<Map<String, Object>> action) {
+        try {
+            return ResponseEntity.ok(action.get());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "error", "ReplayState",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.bpstatistics.web.controller;
+
+import com.example.bpstatistics.service.team.TeamHierarchyService;
+import com.example.bpstatistics.service.team.TeamRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 팀 계층 / 계층별 집계 API
+ * 예) GET  /api/brightpattern/teams/hierarchy                       (노드 목록: id, name, parentId, depth)
+ *     GET  /api/brightpattern/teams/1/rollup?node=site-seoul&children=true
+ *     POST /api/brightpattern/teams/hierarchy/reload
+ * 집계 값은 스냅샷마다 서버에서 증분 유지하므로 클라이언트가 상담원 행으로 다시 합산할 필요가 없습니다.
+ */
+@RestController
+@RequestMapping(path = "/api/brightpattern/teams", produces = MediaType.APPLICATION_JSON_VALUE)
+public class TeamRollupController {
+    private static final Logger log = LoggerFactory.getLogger(TeamRollupController.class);
+    private final TeamHierarchyService hierarchyService;
+    private final TeamRollupService rollupService;
+
+    public TeamRollupController(TeamHierarchyService hierarchyService, TeamRollupService rollupService) {
+        this.hierarchyService = hierarchyService;
+        this.rollupService = rollupService;
+    }
+
+    @GetMapping("/hierarchy")
+    public List<Map<String, Object>> hierarchy() {
+        return hierarchyService.nodes();
+    }
+
+    @GetMapping("/hierarchy/status")
+    public Map<String, Object> hierarchyStatus() {
+        return hierarchyService.status();
+    }
+
+    /**
+     * 파일 다시 읽기 (실패 시 기존 계층 유지). 집계는 다음 스냅샷에서 새 계층으로 전체 재계산됩니다.
+     */
+    @PostMapping("/hierarchy/reload")
+    public ResponseEntity<?> reload() {
+        try {
+            hierarchyService.reload();
+            return ResponseEntity.ok(hierarchyService.status());
+        } catch (IllegalStateException e) {
+            return invalid(e);
+        }
+    }
+
+    @GetMapping("/{gridId}/rollup")
+    public ResponseEntity<?> rollup(@PathVariable String gridId,
+                                    @RequestParam(required = false) String node,
+                                    @RequestParam(defaultValue = "false") boolean children) {
+        try {
+            return ResponseEntity.ok(rollupService.rollup(gridId, node, children));
+        } catch (IllegalArgumentException e) {
+            return invalid(e);
+        }
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return rollupService.stats();
+    }
+
+    private static ResponseEntity<?> invalid(RuntimeException e) {
+        log.warn("팀 계층 요청 오류: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(Map.of(
+                "error", "InvalidTeamRollup",
+                "message", e.getMessage()
+        ));
+    }
+}
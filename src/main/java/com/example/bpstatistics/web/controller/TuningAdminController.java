@@ -0,0 +1,134 @@
+package com.example.bpstatistics.web.controller;
+
+import com.example.bpstatistics.service.audit.AuditLog;
+import com.example.bpstatistics.service.tuning.RuntimeTuning;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 실행 중 HTTP 클라이언트 / 재시도 / 폴링 설정 변경 API (재기동 없이 적용, 버전 + 감사 로그)
+ * 예) PATCH /api/brightpattern/admin/tuning?expectedVersion=3&reason=upstream-slow
+ *     {"http":{"maxConnections":20},"calls":{"subscription-data":{"timeoutMs":5000,"maxRetries":0}}}
+ *     POST /api/brightpattern/admin/tuning/rollback?version=2
+ * 변경은 app.tuning.admin-token 이 설정되고 X-Admin-Token 이 일치할 때만 허용 (미설정 시 항상 403).
+ * 변경자는 원격 IP 로 기록하고 X-Admin-User 헤더는 검증되지 않은 claimed 값으로 함께 남기며,
+ * 허용/거부 모두 감사 로그(AuditLog)에 기록합니다.
+ */
+@RestController
+@RequestMapping(path = "/api/brightpattern/admin/tuning", produces = MediaType.APPLICATION_JSON_VALUE)
+public class TuningAdminController {
+    private static final Logger log = LoggerFactory.getLogger(TuningAdminController.class);
+    private static final String ACTION_APPLY = "tuning.apply";
+    private static final String ACTION_ROLLBACK = "tuning.rollback";
+    private final RuntimeTuning tuning;
+    private final AuditLog auditLog;
+
+    // 변경 전: public TuningAdminController(RuntimeTuning tuning)
+    public TuningAdminController(RuntimeTuning tuning, AuditLog auditLog) {
+        this.tuning = tuning;
+        this.auditLog = auditLog;
+    }
+
+    @GetMapping
+    public RuntimeTuning.Revision current() {
+        return tuning.current();
+    }
+
+    @GetMapping("/history")
+    public List<RuntimeTuning.Revision> history() {
+        return tuning.history();
+    }
+
+    @PatchMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> patch(@RequestBody JsonNode patch,
+                                   @RequestParam(required = false) Long expectedVersion,
+                                   @RequestParam(required = false) String reason,
+                                   @RequestHeader(name = "X-Admin-Token", required = false) String token,
+                                   HttpServletRequest request) {
+        AuditLog.Actor actor = actor(request);
+        if (!tuning.checkAdminToken(token)) return forbidden(ACTION_APPLY, actor);
+        try {
+            RuntimeTuning.Revision r = tuning.apply(patch, expectedVersion, actor.address(), actor.claimed(), reason);
+            audited(ACTION_APPLY, actor, r);
+            return ResponseEntity.ok(r);
+        } catch (RuntimeTuning.VersionConflictException e) {
+            return conflict(ACTION_APPLY, actor, e);
+        } catch (IllegalArgumentException e) {
+            return invalid(ACTION_APPLY, actor, e);
+        }
+    }
+
+    @PostMapping("/rollback")
+    public ResponseEntity<?> rollback(@RequestParam long version,
+                                      @RequestParam(required = false) Long expectedVersion,
+                                      @RequestParam(required = false) String reason,
+                                      @RequestHeader(name = "X-Admin-Token", required = false) String token,
+                                      HttpServletRequest request) {
+        AuditLog.Actor actor = actor(request);
+        if (!tuning.checkAdminToken(token)) return forbidden(ACTION_ROLLBACK, actor);
+        try {
+            RuntimeTuning.Revision r = tuning.rollback(version, expectedVersion, actor.address(), actor.claimed(), reason);
+            audited(ACTION_ROLLBACK, actor, r);
+            return ResponseEntity.ok(r);
+        } catch (RuntimeTuning.VersionConflictException e) {
+            return conflict(ACTION_ROLLBACK, actor, e);
+        } catch (IllegalArgumentException e) {
+            return invalid(ACTION_ROLLBACK, actor, e);
+        }
+    }
+
+    // 변경 전: X-Admin-User 헤더가 있으면 원격 IP 대신 그 값을 변경자로 기록
+    private static AuditLog.Actor actor(HttpServletRequest request) {
+        String user = request.getHeader("X-Admin-User");
+        return new AuditLog.Actor(request.getRemoteAddr(), user == null || user.isBlank() ? null : user.trim());
+    }
+
+    private void audited(String action, AuditLog.Actor actor, RuntimeTuning.Revision r) {
+        auditLog.record(AuditLog.SOURCE_API, action, actor, "v" + r.version(), "ok",
+                "reason=" + r.reason() + " changes=" + r.changes(), 0);
+    }
+
+    private ResponseEntity<?> forbidden(String action, AuditLog.Actor actor) {
+        String message = tuning.writesEnabled() ? "X-Admin-Token 이 일치하지 않습니다."
+                : "app.tuning.admin-token 이 설정되지 않아 설정 변경이 비활성화되어 있습니다.";
+        log.warn("설정 변경 거부(403) action={} remote={} claimed={}", action, actor.address(), actor.claimed());
+        auditLog.record(AuditLog.SOURCE_API, action, actor, null, "forbidden", message, 0);
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
+                "error", "Forbidden",
+                "message", message
+        ));
+    }
+
+    private ResponseEntity<?> conflict(String action, AuditLog.Actor actor, RuntimeException e) {
+        auditLog.record(AuditLog.SOURCE_API, action, actor, null, "conflict", e.getMessage(), 0);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "error", "VersionConflict",
+                "message", e.getMessage()
+        ));
+    }
+
+    private ResponseEntity<?> invalid(String action, AuditLog.Actor actor, RuntimeException e) {
+        log.warn("설정 변경 거부: {}", e.getMessage());
+        auditLog.record(AuditLog.SOURCE_API, action, actor, null, "rejected", e.getMessage(), 0);
+        return ResponseEntity.badRequest().body(Map.of(
+                "error", "InvalidTuning",
+                "message", e.getMessage()
+        ));
+    }
+}
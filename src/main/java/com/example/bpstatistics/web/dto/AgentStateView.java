@@ -0,0 +1,13 @@
+package com.example.bpstatistics.web.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * 상담원 1명의 현재 상태 + 당일 누적 체류시간(초)
+ * state 가 null 이면 그리드에서 빠진(로그아웃) 상태, adherence 는 로그인 시간이 0 이면 null
+ */
+public record AgentStateView(String agent, String state, Instant since, long inStateSeconds, int transitions,
+                             Map<String, Long> durationsSeconds, long loggedInSeconds, long productiveSeconds,
+                             Double adherence) {
+}
@@ -0,0 +1,12 @@
+package com.example.bpstatistics.web.dto;
+
+/**
+ * 알림 발생/해제 이벤트 (SSE 스트림, 최근 이벤트 조회)
+ * groupKey: groupBy 컬럼 값 (groupBy 미지정 시 "*"), at: 판정 기준 스냅샷 시각(epoch ms)
+ */
+public record AlertEvent(String type, String ruleId, String ruleName, String severity, String gridId,
+                         String groupKey, double value, double threshold, long at, long since) {
+
+    public static final String FIRED = "FIRED";
+    public static final String RESOLVED = "RESOLVED";
+}
@@ -0,0 +1,81 @@
+package com.example.bpstatistics.web.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * 알림 규칙 정의
+ * 컬럼 참조(where.column / groupBy / metric)는 column id("3") 또는 구독 시 statName("agent_state") 모두 허용
+ * 예) "팀 X 에서 Not Ready 상담원 10명 초과가 2분 지속"
+ * {
+ *   "name": "not-ready-team-x", "where": [ { "column": "agent_state", "op": "EQ", "value": "Not Ready" } ],
+ *   "groupBy": "team_name", "groupValue": "X", "aggregate": "COUNT", "op": "GT", "threshold": 10, "forSeconds": 120
+ * }
+ * 예) "최장 대기 60초 초과" -> aggregate MAX, metric "longest_wait", op GT, threshold 60, clearThreshold 50(히스테리시스)
+ */
+public class AlertRuleDefinition {
+
+    @Size(max = 100)
+    private String id;               // 미지정 시 서버에서 생성
+    @Size(max = 200)
+    private String name;
+    private String gridId;           // null 이면 모든 grid
+    private List<Condition> where;   // AND 결합, 비어있으면 전체 행
+    private String groupBy;          // 팀/서비스 컬럼 등, null 이면 grid 전체 1그룹
+    private String groupValue;       // 특정 그룹만 감시 (선택)
+    private String aggregate = "COUNT"; // COUNT / SUM / AVG / MIN / MAX
+    private String metric;           // COUNT 외 집계 대상 컬럼
+    @NotNull
+    private String op;               // GT / GE / LT / LE / EQ / NE (또는 > >= < <= == !=)
+    @NotNull
+    private Double threshold;
+    private Double clearThreshold;   // 해제 기준 (히스테리시스), null 이면 threshold 미충족 시 해제
+    @PositiveOrZero
+    private int forSeconds;          // 조건 지속 시간 (발생)
+    @PositiveOrZero
+    private int clearForSeconds;     // 해제 조건 지속 시간
+    private String severity = "WARN";
+
+    public static class Condition {
+        private String column;
+        private String op;    // EQ / NE / GT / GE / LT / LE / CONTAINS / IN(쉼표 구분)
+        private String value;
+        public String getColumn() { return column; }
+        public void setColumn(String column) { this.column = column; }
+        public String getOp() { return op; }
+        public void setOp(String op) { this.op = op; }
+        public String getValue() { return value; }
+        public void setValue(String value) { this.value = value; }
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getGridId() { return gridId; }
+    public void setGridId(String gridId) { this.gridId = gridId; }
+    public List<Condition> getWhere() { return where; }
+    public void setWhere(List<Condition> where) { this.where = where; }
+    public String getGroupBy() { return groupBy; }
+    public void setGroupBy(String groupBy) { this.groupBy = groupBy; }
+    public String getGroupValue() { return groupValue; }
+    public void setGroupValue(String groupValue) { this.groupValue = groupValue; }
+    public String getAggregate() { return aggregate; }
+    public void setAggregate(String aggregate) { this.aggregate = aggregate; }
+    public String getMetric() { return metric; }
+    public void setMetric(String metric) { this.metric = metric; }
+    public String getOp() { return op; }
+    public void setOp(String op) { this.op = op; }
+    public Double getThreshold() { return threshold; }
+    public void setThreshold(Double threshold) { this.threshold = threshold; }
+    public Double getClearThreshold() { return clearThreshold; }
+    public void setClearThreshold(Double clearThreshold) { this.clearThreshold = clearThreshold; }
+    public int getForSeconds() { return forSeconds; }
+    public void setForSeconds(int forSeconds) { this.forSeconds = forSeconds; }
+    public int getClearForSeconds() { return clearForSeconds; }
+    public void setClearForSeconds(int clearForSeconds) { this.clearForSeconds = clearForSeconds; }
+    public String getSeverity() { return severity; }
+    public void setSeverity(String severity) { this.severity = severity; }
+}
@@ -0,0 +1,37 @@
+package com.example.bpstatistics.web.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * 파생 지표 정의 (grid 단위)
+ * 예) { "name": "handle_total", "expression": "talk_time + hold_time + after_call_work_time" }
+ *     { "name": "occupancy_pct", "expression": "pct(busy_time, logged_in_time)" }
+ *     { "name": "sla_pct", "scope": "team", "expression": "pct(answered_in_sla, answered)" }
+ * scope=team 이면 식의 컬럼 참조가 팀별 합계(count() 는 팀 인원)로 평가되어 비율의 합계 기준 값이 됩니다.
+ */
+public class DerivedMetricDefinition {
+
+    @NotBlank
+    @Size(max = 100)
+    private String name;
+    @NotBlank
+    @Size(max = 2000)
+    private String expression;
+    private String scope = "row";    // row / team
+
+    public DerivedMetricDefinition() { }
+
+    public DerivedMetricDefinition(String name, String expression, String scope) {
+        this.name = name;
+        this.expression = expression;
+        this.scope = scope;
+    }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getExpression() { return expression; }
+    public void setExpression(String expression) { this.expression = expression; }
+    public String getScope() { return scope; }
+    public void setScope(String scope) { this.scope = scope; }
+}
@@ -0,0 +1,20 @@
+package com.example.bpstatistics.web.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * grid 1개의 행 구간 (서버 스냅샷 기준, 정렬 순서 고정)
+ * - sequence: 기준 스냅샷 번호. 다음 요청의 since 로 그대로 보내면 바뀐 행만 cells 를 채워 응답
+ * - unchanged: since 이후 새 스냅샷이 없음 (rows 비어 있음)
+ * - nextCursor: 다음 구간 (마지막 행 key 기준이라 스냅샷이 바뀌어도 이어짐), 끝이면 null
+ */
+public record GridWindow(String gridId, long sequence, Instant capturedAt, int total, int offset,
+                         String sort, String dir, List<Column> columns, List<Row> rows,
+                         String nextCursor, boolean unchanged) {
+
+    public record Column(String id, String statName) { }
+
+    /** cells 가 null 이면 since 이후 변경 없음 (클라이언트 캐시 사용) */
+    public record Row(String key, int position, String[] cells) { }
+}
@@ -0,0 +1,20 @@
+package com.example.bpstatistics.web.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 팀 계층 노드 1개의 하위 트리 집계 (서버에서 증분 유지한 값을 그대로 응답, 상담원 행 순회 없음)
+ * - scope: grid 구독의 team_ids / my_subteam_only 로 정한 집계 범위 (teamIds 비어 있으면 전체)
+ * - children: 요청 시 직계 하위 노드의 집계
+ */
+public record TeamRollup(String gridId, long sequence, Instant capturedAt, long hierarchyVersion,
+                         Scope scope, int outOfScope, Node node, List<Node> children) {
+
+    public record Scope(List<String> teamIds, boolean mySubteamOnly) { }
+
+    /** sums / averages 의 값이 null 이면 하위 트리에 숫자 값이 없음 */
+    public record Node(String id, String name, String parentId, int depth, int agents,
+                       Map<String, Double> sums, Map<String, Double> averages, Map<String, Integer> states) { }
+}
@@ -0,0 +1,9 @@
+package com.example.bpstatistics.web.exception;
+
+/**
+ * 요청 deadline(남은 처리 예산) 소진 -> 504
+ * TimeoutException 과 구분해 재시도 대상에서 제외됩니다.
+ */
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(String message) { super(message); }
+}
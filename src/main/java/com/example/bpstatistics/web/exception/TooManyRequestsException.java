@@ -0,0 +1,18 @@
+package com.example.bpstatistics.web.exception;
+
+/**
+ * 요청 한도 초과 (인바운드 클라이언트 한도 / 업스트림 호출 예산) -> 429 + Retry-After
+ */
+public class TooManyRequestsException extends RuntimeException {
+    private final long retryAfterMillis;
+
+    public TooManyRequestsException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() { return retryAfterMillis; }
+
+    /** Retry-After 헤더 값 (초, 올림, 최소 1) */
+    public long getRetryAfterSeconds() { return Math.max(1, (retryAfterMillis + 999) / 1000); }
+}
@@ -0,0 +1,37 @@
+package com.example.bpstatistics.web.exception;
+
+/**
+ * BrightPattern 업스트림 오류 응답 (HTTP 상태 코드 보관)
+ * 메시지 문자열이 아닌 statusCode 로 판단하도록 handleError 에서 던집니다.
+ * IllegalStateException 을 상속해 기존 catch 경로와 호환됩니다.
+ */
+public class UpstreamStatusException extends IllegalStateException {
+    private final int statusCode;
+
+    public UpstreamStatusException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() { return statusCode; }
+
+    /** 401 / 403: 세션 만료 또는 인증 거부 -> 재인증 대상 */
+    public boolean isAuthError() { return statusCode == 401 || statusCode == 403; }
+
+    /** 408 / 429: 일시 오류 */
+    public boolean isTransient() { return statusCode == 408 || statusCode == 429; }
+
+    /** 인증 / 일시 오류를 제외한 4xx (요청 자체 또는 대상 리소스 문제) */
+    public boolean isClientError() {
+        return statusCode >= 400 && statusCode < 500 && !isAuthError() && !isTransient();
+    }
+
+    /** 원인 체인에서 UpstreamStatusException 찾기 (없으면 null) */
+    public static UpstreamStatusException find(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof UpstreamStatusException u) return u;
+            if (t.getCause() == t) break;
+        }
+        return null;
+    }
+}
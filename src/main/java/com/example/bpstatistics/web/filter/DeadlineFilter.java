@@ -0,0 +1,38 @@
+package com.example.bpstatistics.web.filter;
+
+import com.example.bpstatistics.service.deadline.InboundDeadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * /api/brightpattern/** 요청 진입 시 deadline 결정 (헤더 또는 경로별 기본값)
+ * 요청 대기/한도 검사 시간도 예산에 포함되도록 가능한 앞에서 기록합니다.
+ */
+@Component
+public class DeadlineFilter extends OncePerRequestFilter {
+    private static final String API_PREFIX = "/api/brightpattern";
+
+    private final InboundDeadline inboundDeadline;
+
+    public DeadlineFilter(InboundDeadline inboundDeadline) {
+        this.inboundDeadline = inboundDeadline;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !inboundDeadline.isEnabled() || !request.getRequestURI().startsWith(API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        request.setAttribute(InboundDeadline.REQUEST_ATTRIBUTE, inboundDeadline.resolve(request));
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.bpstatistics.web.filter;
+
+import com.example.bpstatistics.config.RateLimitConfig;
+import com.example.bpstatistics.service.ratelimit.InboundRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /api/brightpattern/** 클라이언트별 요청 한도 (초과 시 429 + Retry-After)
+ * 분류: auth(POST /auth) / write(구독 생성·삭제) / read(그 외)
+ */
+@Component
+public class InboundRateLimitFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(InboundRateLimitFilter.class);
+    private static final String API_PREFIX = "/api/brightpattern";
+
+    private final InboundRateLimiter limiter;
+    private final RateLimitConfig.Inbound props;
+    private final ObjectMapper objectMapper;
+
+    public InboundRateLimitFilter(InboundRateLimiter limiter, RateLimitConfig.RateLimitProps props, ObjectMapper objectMapper) {
+        this.limiter = limiter;
+        this.props = props.getInbound();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !limiter.isEnabled() || !request.getRequestURI().startsWith(API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String category = category(request);
+        String client = clientKey(request);
+        long retryAfterMs = limiter.check(category, client);
+        if (retryAfterMs == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long retryAfterSec = Math.max(1, (retryAfterMs + 999) / 1000);
+        log.warn("요청 한도 초과 category={} client={} retryAfter={}s", category, client, retryAfterSec);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", Instant.now().toString());
+        body.put("error", "TooManyRequests");
+        body.put("message", "요청 한도 초과 (" + category + ")");
+        body.put("retryAfterSeconds", retryAfterSec);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSec));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private static String category(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(API_PREFIX.length());
+        String method = request.getMethod();
+        if ("POST".equals(method) && path.equals("/auth")) return "auth";
+        if (path.startsWith("/subscriptions") && ("POST".equals(method) || "DELETE".equals(method))) return "write";
+        return "read";
+    }
+
+    // 변경 전: if (key != null && !key.isBlank()) return "key:" + key; - 임의 키를 매번 바꿔 보내면 새 burst 를 받음
+    // 변경 후: 등록된 키(app.ratelimit.inbound.api-keys)만 키 기준, 그 외는 IP 기준
+    private String clientKey(HttpServletRequest request) {
+        String key = props.getClientHeader() == null ? null : request.getHeader(props.getClientHeader());
+        if (key != null && !key.isBlank()) {
+            String client = props.getApiKeys().get(key.trim());
+            if (client != null) return "key:" + client;
+        }
+        if (props.isTrustForwardedFor()) {
+            String xff = request.getHeader("X-Forwarded-For");
+            if (xff != null && !xff.isBlank()) {
+                int comma = xff.indexOf(',');
+                return "ip:" + (comma < 0 ? xff : xff.substring(0, comma)).trim();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
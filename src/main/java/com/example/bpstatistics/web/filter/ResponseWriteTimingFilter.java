@@ -0,0 +1,57 @@
+package com.example.bpstatistics.web.filter;
+
+import com.example.bpstatistics.config.DiagnosticsConfig;
+import com.example.bpstatistics.service.diag.StageLatency;
+import io.micrometer.observation.Observation;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Mono 반환 엔드포인트의 응답 쓰기(직렬화 + 클라이언트 전송) 시간을 response.write 단계로 측정
+ * 비동기 처리 결과는 async dispatch 에서 기록되므로 그 dispatch 만 측정합니다.
+ */
+@Component
+public class ResponseWriteTimingFilter extends OncePerRequestFilter {
+    private final DiagnosticsConfig.DiagnosticsProps props;
+    private final StageLatency stages;
+
+    public ResponseWriteTimingFilter(DiagnosticsConfig.DiagnosticsProps props, StageLatency stages) {
+        this.props = props;
+        this.stages = stages;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !props.isEnabled() || !props.getWriteTimedPaths().contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!isAsyncDispatch(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Observation obs = stages.start(StageLatency.RESPONSE_WRITE, StageLatency.NO_CALL, null);
+        try (Observation.Scope ignored = obs.openScope()) {
+            chain.doFilter(request, response);
+            response.flushBuffer();
+        } catch (IOException | ServletException | RuntimeException e) {
+            obs.error(e);
+            throw e;
+        } finally {
+            obs.stop();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+-- 클러스터 모드 (app.cluster) : 리더 lease / 리더가 게시한 최신 스냅샷
+-- H2(개발) / MariaDB(운영) 공용 DDL
+CREATE TABLE IF NOT EXISTS bp_lease (
+    lease_name    VARCHAR(100) NOT NULL PRIMARY KEY,
+    holder        VARCHAR(200),
+    fencing_token BIGINT       NOT NULL DEFAULT 0,
+    expires_at    BIGINT       NOT NULL DEFAULT 0,
+    updated_at    BIGINT       NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS bp_shared_snapshot (
+    lease_name    VARCHAR(100) NOT NULL PRIMARY KEY,
+    fencing_token BIGINT       NOT NULL DEFAULT 0,
+    sequence_no   BIGINT       NOT NULL DEFAULT 0,
+    captured_at   BIGINT       NOT NULL DEFAULT 0,
+    payload       LONGTEXT,
+    publisher     VARCHAR(200),
+    requested_at  BIGINT       NOT NULL DEFAULT 0,
+    updated_at    BIGINT       NOT NULL DEFAULT 0
+);
+
+-- 통계 이력 (app.history) : 시간 버킷 x 상담원 요약, stats_json = {statName: {last,min,max,sum} | "문자열"}
+-- PK 가 (tenant, grid_id, bucket_start, row_key) 순서라 InnoDB clustered index 에서 기간 조회가 연속 구간 스캔이 됩니다.
+-- 운영(MariaDB)에서 월/일 단위 파티션이 필요하면 PK 에 bucket_start 가 포함되어 있으므로 아래처럼 전환 가능:
+--   ALTER TABLE bp_stat_history PARTITION BY RANGE (bucket_start) (PARTITION p202611 VALUES LESS THAN (1764547200000), ...);
+CREATE TABLE IF NOT EXISTS bp_stat_history (
+    tenant        VARCHAR(100) NOT NULL,
+    grid_id       VARCHAR(64)  NOT NULL,
+    bucket_start  BIGINT       NOT NULL,
+    row_key       VARCHAR(190) NOT NULL,
+    team          VARCHAR(190),
+    samples       INT          NOT NULL DEFAULT 0,
+    first_at      BIGINT       NOT NULL DEFAULT 0,
+    last_at       BIGINT       NOT NULL DEFAULT 0,
+    stats_json    LONGTEXT,
+    PRIMARY KEY (tenant, grid_id, bucket_start, row_key)
+);
+
+CREATE INDEX IF NOT EXISTS ix_bp_hist_agent ON bp_stat_history (tenant, grid_id, row_key, bucket_start);
+CREATE INDEX IF NOT EXISTS ix_bp_hist_team ON bp_stat_history (tenant, grid_id, team, bucket_start, row_key);
+
+-- 감사 로그 (app.audit) : 구독 생성/삭제, 인증 이벤트 (source = api | upstream)
+-- event_id 는 노드에서 생성 (노드 기동시각-노드해시-순번), spill 재적재 중복은 PK 로 걸러집니다.
+CREATE TABLE IF NOT EXISTS bp_audit_event (
+    event_id      VARCHAR(80)   NOT NULL PRIMARY KEY,
+    occurred_at   BIGINT        NOT NULL,
+    source        VARCHAR(16)   NOT NULL,
+    action        VARCHAR(64)   NOT NULL,
+    actor         VARCHAR(200),
+    claimed_actor VARCHAR(200),
+    target        VARCHAR(200),
+    outcome       VARCHAR(16)   NOT NULL,
+    detail        VARCHAR(1000),
+    duration_ms   BIGINT        NOT NULL DEFAULT 0,
+    node          VARCHAR(200)
+);
+
+-- actor = 원격 주소, claimed_actor = 클라이언트가 X-Audit-User 등으로 보낸 사용자 (검증되지 않은 참고값)
+ALTER TABLE bp_audit_event ADD COLUMN IF NOT EXISTS claimed_actor VARCHAR(200);
+
+CREATE INDEX IF NOT EXISTS ix_bp_audit_time ON bp_audit_event (occurred_at);
+CREATE INDEX IF NOT EXISTS ix_bp_audit_actor ON bp_audit_event (actor, occurred_at);